@@ -0,0 +1,60 @@
+package mono.debugger;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of a recorded breakpoint event: the {@link JDWP.Event.Composite} alone, and the whole
+ * {@link EventSetImpl#decode()} the reader thread does for every event packet.
+ *
+ * @since 2026-10-19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventDecodeBenchmark
+{
+	private RecordedSession mySession;
+	private Packet myEvent;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		mySession = new RecordedSession();
+		myEvent = RecordedSession.replyPacket(mySession.compositeEvent());
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		mySession.close();
+	}
+
+	@Benchmark
+	public JDWP.Event.Composite composite()
+	{
+		return new JDWP.Event.Composite(mySession.vm(), new PacketStream(mySession.vm(), myEvent));
+	}
+
+	@Benchmark
+	public EventSetImpl eventSet()
+	{
+		EventSetImpl eventSet = new EventSetImpl(mySession.vm(), myEvent);
+		eventSet.decode();
+		return eventSet;
+	}
+}
@@ -0,0 +1,151 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import consulo.internal.dotnet.asm.signature.SignatureConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Write side of the codec: packet framing, and the primitives and values commands are written with.
+ * Each write benchmark fills one command the way a command with {@link #COUNT} arguments would.
+ *
+ * @since 2026-10-19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketBenchmark
+{
+	private static final int COUNT = 64;
+
+	@State(Scope.Thread)
+	public static class Framing
+	{
+		@Param({"16", "1024", "65536"})
+		public int dataSize;
+
+		private Packet myPacket;
+		private byte[] myBytes;
+
+		@Setup
+		public void setUp()
+		{
+			myPacket = new Packet();
+			myPacket.cmdSet = 23;
+			myPacket.cmd = 1;
+			myPacket.data = new byte[dataSize];
+			myBytes = myPacket.toByteArray();
+		}
+	}
+
+	private RecordedSession mySession;
+	private String[] myStrings;
+	private Value<?>[] myValues;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		mySession = new RecordedSession();
+		VirtualMachineImpl vm = mySession.vm();
+
+		myStrings = new String[COUNT];
+		for(int i = 0; i < COUNT; i++)
+		{
+			myStrings[i] = "System.Collections.Generic.List`1" + i;
+		}
+
+		ObjectValueMirror object = new ObjectValueMirror(vm, 42);
+		Value<?>[] kinds = {
+				new NumberValueMirror(vm, SignatureConstants.ELEMENT_TYPE_I4, 42),
+				new NumberValueMirror(vm, SignatureConstants.ELEMENT_TYPE_I8, 42L),
+				new NumberValueMirror(vm, SignatureConstants.ELEMENT_TYPE_R8, 4.2),
+				new BooleanValueMirror(vm, true),
+				new CharValueMirror(vm, 'c'),
+				new StringValueMirror(vm, object),
+				object,
+				new NoObjectValueMirror(vm)
+		};
+		myValues = new Value<?>[COUNT];
+		for(int i = 0; i < COUNT; i++)
+		{
+			myValues[i] = kinds[i % kinds.length];
+		}
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		mySession.close();
+	}
+
+	@Benchmark
+	public byte[] toByteArray(Framing framing)
+	{
+		return framing.myPacket.toByteArray();
+	}
+
+	@Benchmark
+	public Packet fromByteArray(Framing framing) throws IOException
+	{
+		return Packet.fromByteArray(framing.myBytes);
+	}
+
+	@Benchmark
+	public PacketStream writeInt()
+	{
+		PacketStream ps = new PacketStream(mySession.vm(), 23, 4);
+		for(int i = 0; i < COUNT; i++)
+		{
+			ps.writeInt(i);
+		}
+		return ps;
+	}
+
+	@Benchmark
+	public PacketStream writeLong()
+	{
+		PacketStream ps = new PacketStream(mySession.vm(), 23, 4);
+		for(int i = 0; i < COUNT; i++)
+		{
+			ps.writeLong(i);
+		}
+		return ps;
+	}
+
+	@Benchmark
+	public PacketStream writeString()
+	{
+		PacketStream ps = new PacketStream(mySession.vm(), 1, 12);
+		for(String string : myStrings)
+		{
+			ps.writeString(string);
+		}
+		return ps;
+	}
+
+	@Benchmark
+	public PacketStream writeValue()
+	{
+		PacketStream ps = new PacketStream(mySession.vm(), 1, 7);
+		for(Value<?> value : myValues)
+		{
+			ps.writeValue(value);
+		}
+		return ps;
+	}
+}
@@ -0,0 +1,198 @@
+package mono.debugger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.connect.spi.Connection;
+import mono.debugger.event.BreakpointEvent;
+import mono.debugger.event.EventSet;
+import mono.debugger.protocol.ArrayReference_GetValues;
+import mono.debugger.protocol.Method_GetDebugInfo;
+import mono.debugger.protocol.Type_GetInfo;
+import mono.debugger.request.BreakpointRequest;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+import mono.debugger.simulator.SimulatedValue;
+
+/**
+ * A virtual machine connected to the agent simulator, with replies and an event recorded off the wire, for the
+ * codec benchmarks to decode again and again without a round trip.
+ *
+ * @since 2026-10-19
+ */
+public class RecordedSession implements Closeable
+{
+	public static final int LINE_COUNT = 200;
+	public static final int ARRAY_LENGTH = 1024;
+
+	/*
+	 * Keeps the last reply and the last event the debugger read
+	 */
+	private static class RecordingConnection extends Connection
+	{
+		private final Connection myDelegate;
+		private volatile byte[] myLastReply;
+		private volatile byte[] myLastEvent;
+
+		RecordingConnection(Connection delegate)
+		{
+			myDelegate = delegate;
+		}
+
+		@Override
+		public byte[] readPacket() throws IOException
+		{
+			byte[] packet = myDelegate.readPacket();
+			if(packet.length > 8)
+			{
+				if((packet[8] & Packet.Reply) != 0)
+				{
+					myLastReply = packet;
+				}
+				else
+				{
+					myLastEvent = packet;
+				}
+			}
+			return packet;
+		}
+
+		@Override
+		public void writePacket(byte[] packet) throws IOException
+		{
+			myDelegate.writePacket(packet);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			myDelegate.close();
+		}
+
+		@Override
+		public boolean isOpen()
+		{
+			return myDelegate.isOpen();
+		}
+	}
+
+	private final AgentSimulator mySimulator;
+	private final VirtualMachineImpl myVm;
+	private final TypeMirror myType;
+	private final byte[] myTypeInfoReply;
+	private final byte[] myDebugInfoReply;
+	private final byte[] myArrayValuesReply;
+	private final byte[] myCompositeEvent;
+
+	public RecordedSession() throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		SimulatedProgram.Type type = program.addAssembly("Benchmark", "/benchmark/Benchmark.exe").addType("Benchmark", "Program");
+		int[] offsetsAndLines = new int[LINE_COUNT * 2];
+		for(int i = 0; i < LINE_COUNT; i++)
+		{
+			offsetsAndLines[i * 2] = i * 7;
+			offsetsAndLines[i * 2 + 1] = 10 + i;
+		}
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).setLines("/benchmark/Program.cs", offsetsAndLines);
+
+		SimulatedValue[] elements = new SimulatedValue[ARRAY_LENGTH];
+		for(int i = 0; i < ARRAY_LENGTH; i++)
+		{
+			elements[i] = SimulatedValue.ofInt(i);
+		}
+		SimulatedProgram.ArrayInstance array = program.newArray(elements);
+
+		SimulatedProgram.Thread thread = program.addThread("Main Thread");
+		thread.pushFrame(main, 0);
+
+		mySimulator = new AgentSimulator(program);
+		RecordingConnection connection = new RecordingConnection(mySimulator.startInMemory());
+		myVm = (VirtualMachineImpl) Bootstrap.virtualMachineManager().createVirtualMachine(connection);
+
+		myType = myVm.findTypesByQualifiedName("Benchmark.Program", false)[0];
+		Type_GetInfo.process(myVm, myType);
+		myTypeInfoReply = connection.myLastReply;
+
+		MethodMirror method = myType.methods()[0];
+		Method_GetDebugInfo.process(myVm, method);
+		myDebugInfoReply = connection.myLastReply;
+
+		ArrayReference_GetValues.process(myVm, new ObjectValueMirror(myVm, array.id()), 0, ARRAY_LENGTH);
+		myArrayValuesReply = connection.myLastReply;
+
+		BreakpointRequest request = myVm.eventRequestManager().createBreakpointRequest(new LocationImpl(myVm, method, 7));
+		request.enable();
+		myVm.resume();
+		mySimulator.awaitResume(10, TimeUnit.SECONDS);
+		mySimulator.hitBreakpoint(thread, 7);
+		EventSet eventSet;
+		do
+		{
+			// the VM start comes first
+			eventSet = myVm.eventQueue().remove(10_000);
+			if(eventSet == null)
+			{
+				throw new IllegalStateException("no breakpoint event");
+			}
+		}
+		while(!(eventSet.iterator().next() instanceof BreakpointEvent));
+		myCompositeEvent = connection.myLastEvent;
+	}
+
+	@Nonnull
+	public VirtualMachineImpl vm()
+	{
+		return myVm;
+	}
+
+	@Nonnull
+	public TypeMirror type()
+	{
+		return myType;
+	}
+
+	@Nonnull
+	public byte[] typeInfoReply()
+	{
+		return myTypeInfoReply;
+	}
+
+	@Nonnull
+	public byte[] debugInfoReply()
+	{
+		return myDebugInfoReply;
+	}
+
+	@Nonnull
+	public byte[] arrayValuesReply()
+	{
+		return myArrayValuesReply;
+	}
+
+	@Nonnull
+	public byte[] compositeEvent()
+	{
+		return myCompositeEvent;
+	}
+
+	/**
+	 * @return the recorded packet marked as replied, as the reader thread hands it to the decoder. A new
+	 * {@link PacketStream} over it reads it from the start again.
+	 */
+	@Nonnull
+	public static Packet replyPacket(@Nonnull byte[] recorded) throws IOException
+	{
+		Packet packet = Packet.fromByteArray(recorded);
+		packet.replied = true;
+		return packet;
+	}
+
+	@Override
+	public void close()
+	{
+		mySimulator.close();
+	}
+}
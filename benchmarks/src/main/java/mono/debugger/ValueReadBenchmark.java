@@ -0,0 +1,186 @@
+package mono.debugger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import consulo.internal.dotnet.asm.signature.SignatureConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Read side of the codec: {@link PacketStream#readValue()} for every tag the agent sends, and
+ * {@link PacketStream#readCustomAttributes()}. Each benchmark reads a reply of {@link #COUNT} entries.
+ *
+ * @since 2026-10-19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueReadBenchmark
+{
+	private static final int COUNT = 64;
+
+	@State(Scope.Thread)
+	public static class Values
+	{
+		@Param({"BOOLEAN", "CHAR", "I4", "I8", "R4", "R8", "PTR", "STRING", "CLASS", "SZARRAY", "VALUETYPE", "NULL", "TYPE"})
+		public String tag;
+
+		private Packet myPacket;
+
+		@Setup
+		public void setUp(ValueReadBenchmark benchmark) throws IOException
+		{
+			int typeId = benchmark.mySession.type().id();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
+			for(int i = 0; i < COUNT; i++)
+			{
+				writeValue(data, tag, i, typeId);
+			}
+			myPacket = reply(bytes.toByteArray());
+		}
+	}
+
+	private RecordedSession mySession;
+	private Packet myCustomAttributes;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		mySession = new RecordedSession();
+
+		// attributes with a string and an int argument, and a bool property, like [Category("name", 1, Browsable = true)]
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		data.writeInt(COUNT);
+		for(int i = 0; i < COUNT; i++)
+		{
+			data.writeInt(100 + i);
+			data.writeInt(2);
+			writeValue(data, "STRING", i, 0);
+			writeValue(data, "I4", i, 0);
+			data.writeInt(1);
+			data.writeByte(0x54);
+			data.writeInt(200 + i);
+			writeValue(data, "BOOLEAN", i, 0);
+		}
+		myCustomAttributes = reply(bytes.toByteArray());
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		mySession.close();
+	}
+
+	@Benchmark
+	public void readValue(Values values, Blackhole blackhole)
+	{
+		PacketStream ps = new PacketStream(mySession.vm(), values.myPacket);
+		for(int i = 0; i < COUNT; i++)
+		{
+			blackhole.consume(ps.readValue());
+		}
+	}
+
+	@Benchmark
+	public CustomAttributeMirror[] readCustomAttributes()
+	{
+		return new PacketStream(mySession.vm(), myCustomAttributes).readCustomAttributes();
+	}
+
+	private static Packet reply(byte[] data)
+	{
+		Packet packet = new Packet();
+		packet.flags = Packet.Reply;
+		packet.data = data;
+		packet.replied = true;
+		return packet;
+	}
+
+	/*
+	 * Writes a value like the agent does, see PacketStream.readValue()
+	 */
+	private static void writeValue(DataOutputStream data, String tag, int i, int typeId) throws IOException
+	{
+		switch(tag)
+		{
+			case "BOOLEAN":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_BOOLEAN);
+				data.writeInt(i & 1);
+				break;
+			case "CHAR":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_CHAR);
+				data.writeInt('a' + i % 26);
+				break;
+			case "I4":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_I4);
+				data.writeInt(i);
+				break;
+			case "I8":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_I8);
+				data.writeLong(i * 1_000_000_007L);
+				break;
+			case "R4":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_R4);
+				data.writeFloat(i / 3f);
+				break;
+			case "R8":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_R8);
+				data.writeDouble(i / 3d);
+				break;
+			case "PTR":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_PTR);
+				data.writeInt(typeId);
+				data.writeLong(0x7f0000000000L + i * 8);
+				break;
+			case "STRING":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_STRING);
+				data.writeInt(1000 + i);
+				break;
+			case "CLASS":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_CLASS);
+				data.writeInt(1000 + i);
+				break;
+			case "SZARRAY":
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_SZARRAY);
+				data.writeInt(1000 + i);
+				break;
+			case "VALUETYPE":
+				// a struct of two ints
+				data.writeByte(SignatureConstants.ELEMENT_TYPE_VALUETYPE);
+				data.writeByte(0);
+				data.writeInt(typeId);
+				data.writeInt(2);
+				writeValue(data, "I4", i, typeId);
+				writeValue(data, "I4", -i, typeId);
+				break;
+			case "NULL":
+				data.writeByte(0xf0);
+				break;
+			case "TYPE":
+				data.writeByte(0xf1);
+				data.writeInt(typeId);
+				break;
+			default:
+				throw new IllegalArgumentException(tag);
+		}
+	}
+}
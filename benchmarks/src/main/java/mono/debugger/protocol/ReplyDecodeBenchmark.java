@@ -0,0 +1,72 @@
+package mono.debugger.protocol;
+
+import java.util.concurrent.TimeUnit;
+
+import mono.debugger.JDWPException;
+import mono.debugger.Packet;
+import mono.debugger.PacketStream;
+import mono.debugger.RecordedSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of replies recorded from the agent simulator: a type info, a line table of
+ * {@link RecordedSession#LINE_COUNT} lines and {@link RecordedSession#ARRAY_LENGTH} array elements.
+ *
+ * @since 2026-10-19
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplyDecodeBenchmark
+{
+	private RecordedSession mySession;
+	private Packet myTypeInfo;
+	private Packet myDebugInfo;
+	private Packet myArrayValues;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		mySession = new RecordedSession();
+		myTypeInfo = RecordedSession.replyPacket(mySession.typeInfoReply());
+		myDebugInfo = RecordedSession.replyPacket(mySession.debugInfoReply());
+		myArrayValues = RecordedSession.replyPacket(mySession.arrayValuesReply());
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		mySession.close();
+	}
+
+	@Benchmark
+	public Type_GetInfo typeGetInfo() throws JDWPException
+	{
+		return Type_GetInfo.waitForReply(mySession.vm(), mySession.type(), new PacketStream(mySession.vm(), myTypeInfo));
+	}
+
+	@Benchmark
+	public Method_GetDebugInfo methodGetDebugInfo() throws JDWPException
+	{
+		return Method_GetDebugInfo.waitForReply(mySession.vm(), new PacketStream(mySession.vm(), myDebugInfo));
+	}
+
+	@Benchmark
+	public ArrayReference_GetValues arrayReferenceGetValues() throws JDWPException
+	{
+		return ArrayReference_GetValues.waitForReply(mySession.vm(), new PacketStream(mySession.vm(), myArrayValues), RecordedSession.ARRAY_LENGTH);
+	}
+}
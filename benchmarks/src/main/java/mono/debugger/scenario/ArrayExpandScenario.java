@@ -0,0 +1,54 @@
+package mono.debugger.scenario;
+
+import mono.debugger.ArrayValueMirror;
+import mono.debugger.StackFrameMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+import mono.debugger.simulator.SimulatedValue;
+
+/**
+ * The user expands an array of {@link #LENGTH} ints in the variables view
+ *
+ * @since 2026-10-19
+ */
+class ArrayExpandScenario extends Scenario
+{
+	private static final int LENGTH = 1000;
+
+	private SimulatedProgram.Thread myThread;
+	private ArrayValueMirror myArray;
+
+	@Override
+	void build(SimulatedProgram program)
+	{
+		SimulatedProgram.Type type = program.addAssembly("Scenario", "/scenario/Scenario.exe").addType("Scenario", "Program");
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).addLocal("values", program.arrayType()).setLines("/scenario/Program.cs", 0, 10);
+
+		SimulatedValue[] elements = new SimulatedValue[LENGTH];
+		for(int i = 0; i < LENGTH; i++)
+		{
+			elements[i] = SimulatedValue.ofInt(i * 31);
+		}
+		myThread = program.addThread("Main Thread");
+		myThread.pushFrame(main, 0).setLocal(0, SimulatedValue.of(program.newArray(elements)));
+	}
+
+	@Override
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		resumeFromStart(vm, simulator);
+		StackFrameMirror frame = stopAt(vm, simulator, myThread, method(vm, "Scenario.Program", "Main"), 0).thread().frames().get(0);
+		myArray = (ArrayValueMirror) frame.localOrParameterValue(frame.location().method().locals()[0]);
+	}
+
+	@Override
+	void run(VirtualMachine vm, AgentSimulator simulator)
+	{
+		int length = myArray.length();
+		for(int i = 0; i < length; i++)
+		{
+			myArray.get(i).value();
+		}
+	}
+}
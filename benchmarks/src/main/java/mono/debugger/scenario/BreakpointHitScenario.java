@@ -0,0 +1,84 @@
+package mono.debugger.scenario;
+
+import java.util.List;
+
+import mono.debugger.MethodMirror;
+import mono.debugger.LocationImpl;
+import mono.debugger.StackFrameMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.VirtualMachineImpl;
+import mono.debugger.event.BreakpointEvent;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+import mono.debugger.simulator.SimulatedValue;
+
+/**
+ * A breakpoint is hit, and the debugger shows the call stack and the top frame with its arguments and locals
+ *
+ * @since 2026-10-19
+ */
+class BreakpointHitScenario extends Scenario
+{
+	private static final int DEPTH = 10;
+	private static final int OFFSET = 14;
+
+	private SimulatedProgram.Thread myThread;
+
+	@Override
+	void build(SimulatedProgram program)
+	{
+		SimulatedProgram.Type type = program.addAssembly("Scenario", "/scenario/Scenario.exe").addType("Scenario", "Program");
+		SimulatedProgram.Method work = type.addMethod("Work", program.voidType())
+				.addParameter("count", program.int32Type())
+				.addParameter("name", program.stringType())
+				.addParameter("owner", program.objectType())
+				.addLocal("i", program.int32Type())
+				.addLocal("total", program.int64Type())
+				.addLocal("ratio", program.doubleType())
+				.addLocal("done", program.booleanType())
+				.addLocal("label", program.stringType())
+				.addLocal("next", type)
+				.setLines("/scenario/Program.cs", 0, 20, 7, 21, 14, 22, 21, 23);
+
+		myThread = program.addThread("Main Thread");
+		for(int i = 0; i < DEPTH - 1; i++)
+		{
+			SimulatedProgram.Method caller = type.addMethod("Caller" + i, program.voidType()).setLines("/scenario/Program.cs", 0, 100 + i * 10);
+			myThread.pushFrame(caller, 0).setThis(SimulatedValue.of(program.newObject(type)));
+		}
+		myThread.pushFrame(work, 0)
+				.setThis(SimulatedValue.of(program.newObject(type)))
+				.setArgument(0, SimulatedValue.ofInt(42))
+				.setArgument(1, program.string("scenario"))
+				.setArgument(2, SimulatedValue.of(program.newObject(program.objectType())))
+				.setLocal(0, SimulatedValue.ofInt(3))
+				.setLocal(1, SimulatedValue.ofLong(1L << 40))
+				.setLocal(2, SimulatedValue.ofDouble(0.5))
+				.setLocal(3, SimulatedValue.ofBoolean(false))
+				.setLocal(4, program.string("label"))
+				.setLocal(5, SimulatedValue.NULL);
+	}
+
+	@Override
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		resumeFromStart(vm, simulator);
+		MethodMirror work = method(vm, "Scenario.Program", "Work");
+		vm.eventRequestManager().createBreakpointRequest(new LocationImpl((VirtualMachineImpl) vm, work, OFFSET)).enable();
+	}
+
+	@Override
+	void run(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		simulator.hitBreakpoint(myThread, OFFSET);
+		BreakpointEvent event = await(vm, BreakpointEvent.class);
+
+		List<StackFrameMirror> frames = event.thread().frames();
+		for(StackFrameMirror frame : frames)
+		{
+			frame.location().method().name();
+			frame.location().lineNumber();
+		}
+		renderFrame(frames.get(0));
+	}
+}
@@ -0,0 +1,75 @@
+package mono.debugger.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mono.debugger.LocationImpl;
+import mono.debugger.MethodMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.VirtualMachineImpl;
+import mono.debugger.protocol.Method_GetDebugInfo;
+import mono.debugger.request.BreakpointRequest;
+import mono.debugger.request.EventRequestManager;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * The debugger sets the {@link #BREAKPOINTS} breakpoints of a workspace after it attached, one by one or
+ * with {@link EventRequestManager#enableAll}
+ *
+ * @since 2026-10-19
+ */
+class BreakpointSetScenario extends Scenario
+{
+	private static final int BREAKPOINTS = 300;
+
+	private final boolean myPipelined;
+	private MethodMirror myMethod;
+
+	BreakpointSetScenario(boolean pipelined)
+	{
+		myPipelined = pipelined;
+	}
+
+	@Override
+	void build(SimulatedProgram program)
+	{
+		int[] offsetsAndLines = new int[BREAKPOINTS * 2];
+		for(int i = 0; i < BREAKPOINTS; i++)
+		{
+			offsetsAndLines[i * 2] = i * 5;
+			offsetsAndLines[i * 2 + 1] = 10 + i;
+		}
+		SimulatedProgram.Type type = program.addAssembly("Scenario", "/scenario/Scenario.exe").addType("Scenario", "Program");
+		type.addStaticMethod("Main", program.voidType()).setLines("/scenario/Program.cs", offsetsAndLines);
+		program.addThread("Main Thread");
+	}
+
+	@Override
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		resumeFromStart(vm, simulator);
+		myMethod = method(vm, "Scenario.Program", "Main");
+		myMethod.debugInfo();
+	}
+
+	@Override
+	void run(VirtualMachine vm, AgentSimulator simulator)
+	{
+		EventRequestManager manager = vm.eventRequestManager();
+		List<BreakpointRequest> requests = new ArrayList<BreakpointRequest>();
+		for(Method_GetDebugInfo.Entry entry : myMethod.debugInfo())
+		{
+			BreakpointRequest request = manager.createBreakpointRequest(new LocationImpl((VirtualMachineImpl) vm, myMethod, entry.offset));
+			if(!myPipelined)
+			{
+				request.enable();
+			}
+			requests.add(request);
+		}
+		if(myPipelined)
+		{
+			manager.enableAll(requests);
+		}
+	}
+}
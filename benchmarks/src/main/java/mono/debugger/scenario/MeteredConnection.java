@@ -0,0 +1,74 @@
+package mono.debugger.scenario;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mono.debugger.connect.spi.Connection;
+
+/**
+ * Counts what the debugger side sends and receives. A round trip is a span in which at least one command
+ * waits for its reply, so commands which are pipelined behind each other count once.
+ *
+ * @since 2026-10-19
+ */
+class MeteredConnection extends Connection
+{
+	private static final int REPLY_FLAG = 0x80;
+
+	private final Connection myDelegate;
+	private final AtomicInteger myOutstanding = new AtomicInteger();
+	final AtomicLong commands = new AtomicLong();
+	final AtomicLong roundTrips = new AtomicLong();
+	final AtomicLong events = new AtomicLong();
+	final AtomicLong bytesSent = new AtomicLong();
+	final AtomicLong bytesReceived = new AtomicLong();
+
+	MeteredConnection(Connection delegate)
+	{
+		myDelegate = delegate;
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException
+	{
+		byte[] packet = myDelegate.readPacket();
+		if(packet.length > 8)
+		{
+			bytesReceived.addAndGet(packet.length);
+			if((packet[8] & REPLY_FLAG) != 0)
+			{
+				myOutstanding.decrementAndGet();
+			}
+			else
+			{
+				events.incrementAndGet();
+			}
+		}
+		return packet;
+	}
+
+	@Override
+	public void writePacket(byte[] packet) throws IOException
+	{
+		commands.incrementAndGet();
+		bytesSent.addAndGet(packet.length);
+		if(myOutstanding.getAndIncrement() == 0)
+		{
+			roundTrips.incrementAndGet();
+		}
+		myDelegate.writePacket(packet);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		myDelegate.close();
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return myDelegate.isOpen();
+	}
+}
@@ -0,0 +1,138 @@
+package mono.debugger.scenario;
+
+import java.util.concurrent.TimeUnit;
+
+import mono.debugger.LocalVariableMirror;
+import mono.debugger.LocationImpl;
+import mono.debugger.MethodMirror;
+import mono.debugger.MethodParameterMirror;
+import mono.debugger.ObjectValueMirror;
+import mono.debugger.StackFrameMirror;
+import mono.debugger.StringValueMirror;
+import mono.debugger.TypeMirror;
+import mono.debugger.Value;
+import mono.debugger.VirtualMachine;
+import mono.debugger.VirtualMachineImpl;
+import mono.debugger.event.BreakpointEvent;
+import mono.debugger.event.Event;
+import mono.debugger.event.EventSet;
+import mono.debugger.event.VMStartEvent;
+import mono.debugger.request.BreakpointRequest;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * A user operation measured end to end. Every run gets a new instance, a new program and a new virtual
+ * machine, so no mirror is cached from the run before.
+ *
+ * @since 2026-10-19
+ */
+abstract class Scenario
+{
+	/**
+	 * Adds what the operation needs to the program, before the debugger connects
+	 */
+	abstract void build(SimulatedProgram program);
+
+	/**
+	 * Brings the debugger to where the user starts the operation, not measured
+	 */
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+	}
+
+	/**
+	 * The measured operation
+	 */
+	abstract void run(VirtualMachine vm, AgentSimulator simulator) throws Exception;
+
+	/**
+	 * Takes the VM start and lets the program run, like a debugger which just attached
+	 */
+	static void resumeFromStart(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		await(vm, VMStartEvent.class);
+		vm.resume();
+		simulator.awaitResume(10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops the thread with a breakpoint at the offset of the method, and deletes the breakpoint again
+	 */
+	static BreakpointEvent stopAt(VirtualMachine vm, AgentSimulator simulator, SimulatedProgram.Thread thread, MethodMirror method, int offset) throws Exception
+	{
+		BreakpointRequest request = vm.eventRequestManager().createBreakpointRequest(new LocationImpl((VirtualMachineImpl) vm, method, offset));
+		request.enable();
+		simulator.hitBreakpoint(thread, offset);
+		BreakpointEvent event = await(vm, BreakpointEvent.class);
+		vm.eventRequestManager().deleteEventRequest(request);
+		return event;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T extends Event> T await(VirtualMachine vm, Class<T> kind) throws Exception
+	{
+		while(true)
+		{
+			EventSet eventSet = vm.eventQueue().remove(10_000);
+			if(eventSet == null)
+			{
+				throw new IllegalStateException("no " + kind.getSimpleName());
+			}
+			for(Event event : eventSet)
+			{
+				if(kind.isInstance(event))
+				{
+					return (T) event;
+				}
+			}
+		}
+	}
+
+	static MethodMirror method(VirtualMachine vm, String typeName, String methodName)
+	{
+		TypeMirror type = vm.findTypesByQualifiedName(typeName, false)[0];
+		for(MethodMirror method : type.methods())
+		{
+			if(method.name().equals(methodName))
+			{
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+
+	/**
+	 * Renders the frame like a stack frame view: method, line, and every argument and local with its value
+	 */
+	static int renderFrame(StackFrameMirror frame)
+	{
+		StringBuilder builder = new StringBuilder();
+		MethodMirror method = frame.location().method();
+		builder.append(method.name()).append(':').append(frame.location().lineNumber());
+		builder.append(" this=").append(render(frame.thisObject()));
+		for(MethodParameterMirror parameter : method.parameters())
+		{
+			builder.append(' ').append(parameter.name()).append('=').append(render(frame.localOrParameterValue(parameter)));
+		}
+		for(LocalVariableMirror local : method.locals())
+		{
+			builder.append(' ').append(local.name()).append('=').append(render(frame.localOrParameterValue(local)));
+		}
+		return builder.length();
+	}
+
+	static String render(Value<?> value)
+	{
+		if(value instanceof StringValueMirror)
+		{
+			return '"' + ((StringValueMirror) value).value() + '"';
+		}
+		if(value instanceof ObjectValueMirror)
+		{
+			// like "{Scenario.Program}"
+			return "{" + value.type().fullName() + "}";
+		}
+		return String.valueOf(value.value());
+	}
+}
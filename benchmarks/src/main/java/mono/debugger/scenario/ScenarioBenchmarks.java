@@ -0,0 +1,206 @@
+package mono.debugger.scenario;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import mono.debugger.Bootstrap;
+import mono.debugger.VirtualMachine;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * End to end benchmarks of user operations against the agent simulator, over a link with a given round trip
+ * time. For every scenario it reports the wall time, the round trips, the commands, the events and the bytes
+ * of the operation as JSON, for trend tracking.
+ * <p/>
+ * Arguments: <code>[--rtt-micros=1000] [--bandwidth=0] [--iterations=5] [--warmup=2] [--out=file.json] [scenario...]</code>
+ *
+ * @since 2026-10-19
+ */
+public class ScenarioBenchmarks
+{
+	private static final Map<String, Supplier<Scenario>> ourScenarios = new LinkedHashMap<String, Supplier<Scenario>>();
+
+	static
+	{
+		ourScenarios.put("breakpoint-hit-top-frame", BreakpointHitScenario::new);
+		ourScenarios.put("expand-array-1000", ArrayExpandScenario::new);
+		ourScenarios.put("list-threads-1000", ThreadListScenario::new);
+		ourScenarios.put("set-breakpoints-300", () -> new BreakpointSetScenario(false));
+		ourScenarios.put("set-breakpoints-300-pipelined", () -> new BreakpointSetScenario(true));
+		ourScenarios.put("step-over-100", StepOverScenario::new);
+	}
+
+	private static class Measurement
+	{
+		long wallNanos;
+		long roundTrips;
+		long commands;
+		long events;
+		long bytesSent;
+		long bytesReceived;
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		long rttMicros = 1000;
+		long bandwidth = 0;
+		int iterations = 5;
+		int warmup = 2;
+		String out = null;
+		Map<String, Supplier<Scenario>> selected = new LinkedHashMap<String, Supplier<Scenario>>();
+		for(String arg : args)
+		{
+			if(arg.startsWith("--rtt-micros="))
+			{
+				rttMicros = Long.parseLong(value(arg));
+			}
+			else if(arg.startsWith("--bandwidth="))
+			{
+				bandwidth = Long.parseLong(value(arg));
+			}
+			else if(arg.startsWith("--iterations="))
+			{
+				iterations = Integer.parseInt(value(arg));
+			}
+			else if(arg.startsWith("--warmup="))
+			{
+				warmup = Integer.parseInt(value(arg));
+			}
+			else if(arg.startsWith("--out="))
+			{
+				out = value(arg);
+			}
+			else if(ourScenarios.containsKey(arg))
+			{
+				selected.put(arg, ourScenarios.get(arg));
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unknown argument " + arg + ", scenarios are " + ourScenarios.keySet());
+			}
+		}
+		if(selected.isEmpty())
+		{
+			selected.putAll(ourScenarios);
+		}
+
+		StringBuilder json = new StringBuilder();
+		json.append("{\n");
+		json.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+		json.append("  \"javaVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+		json.append("  \"rttMicros\": ").append(rttMicros).append(",\n");
+		json.append("  \"bandwidthBytesPerSecond\": ").append(bandwidth).append(",\n");
+		json.append("  \"iterations\": ").append(iterations).append(",\n");
+		json.append("  \"scenarios\": [");
+
+		boolean first = true;
+		for(Map.Entry<String, Supplier<Scenario>> entry : selected.entrySet())
+		{
+			for(int i = 0; i < warmup; i++)
+			{
+				measure(entry.getValue().get(), rttMicros, bandwidth);
+			}
+			Measurement[] measurements = new Measurement[iterations];
+			for(int i = 0; i < iterations; i++)
+			{
+				measurements[i] = measure(entry.getValue().get(), rttMicros, bandwidth);
+			}
+
+			long[] wall = new long[iterations];
+			for(int i = 0; i < iterations; i++)
+			{
+				wall[i] = measurements[i].wallNanos;
+			}
+			Arrays.sort(wall);
+			// the counts do not change between runs
+			Measurement last = measurements[iterations - 1];
+
+			System.out.printf(Locale.ROOT, "%-30s %9.2f ms  %6d round trips  %6d commands  %9d bytes%n", entry.getKey(), wall[iterations / 2] / 1e6, last.roundTrips, last.commands, last.bytesSent + last.bytesReceived);
+
+			json.append(first ? "\n" : ",\n");
+			first = false;
+			json.append("    {\n");
+			json.append("      \"name\": \"").append(entry.getKey()).append("\",\n");
+			json.append("      \"wallMillis\": {");
+			json.append("\"median\": ").append(millis(wall[iterations / 2])).append(", ");
+			json.append("\"min\": ").append(millis(wall[0])).append(", ");
+			json.append("\"max\": ").append(millis(wall[iterations - 1])).append("},\n");
+			json.append("      \"roundTrips\": ").append(last.roundTrips).append(",\n");
+			json.append("      \"commands\": ").append(last.commands).append(",\n");
+			json.append("      \"events\": ").append(last.events).append(",\n");
+			json.append("      \"bytesSent\": ").append(last.bytesSent).append(",\n");
+			json.append("      \"bytesReceived\": ").append(last.bytesReceived).append("\n");
+			json.append("    }");
+		}
+		json.append("\n  ]\n}\n");
+
+		if(out == null)
+		{
+			System.out.print(json);
+		}
+		else
+		{
+			Files.write(Paths.get(out), json.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static Measurement measure(Scenario scenario, long rttMicros, long bandwidth) throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		scenario.build(program);
+
+		AgentSimulator simulator = new AgentSimulator(program);
+		simulator.setLatency(rttMicros * 1000 / 2, TimeUnit.NANOSECONDS);
+		simulator.setBandwidth(bandwidth);
+		MeteredConnection connection = new MeteredConnection(simulator.startInMemory());
+		VirtualMachine vm = Bootstrap.virtualMachineManager().createVirtualMachine(connection);
+		try
+		{
+			scenario.prepare(vm, simulator);
+
+			Measurement measurement = new Measurement();
+			long roundTrips = connection.roundTrips.get();
+			long commands = connection.commands.get();
+			long events = connection.events.get();
+			long bytesSent = connection.bytesSent.get();
+			long bytesReceived = connection.bytesReceived.get();
+			long start = System.nanoTime();
+
+			scenario.run(vm, simulator);
+
+			measurement.wallNanos = System.nanoTime() - start;
+			measurement.roundTrips = connection.roundTrips.get() - roundTrips;
+			measurement.commands = connection.commands.get() - commands;
+			measurement.events = connection.events.get() - events;
+			measurement.bytesSent = connection.bytesSent.get() - bytesSent;
+			measurement.bytesReceived = connection.bytesReceived.get() - bytesReceived;
+			return measurement;
+		}
+		finally
+		{
+			vm.dispose();
+			simulator.close();
+		}
+	}
+
+	private static String value(String arg)
+	{
+		return arg.substring(arg.indexOf('=') + 1);
+	}
+
+	private static String millis(long nanos)
+	{
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+}
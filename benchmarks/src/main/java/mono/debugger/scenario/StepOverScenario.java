@@ -0,0 +1,80 @@
+package mono.debugger.scenario;
+
+import java.util.concurrent.TimeUnit;
+
+import mono.debugger.ThreadMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.event.StepEvent;
+import mono.debugger.request.StepRequest;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * The user steps over {@link #STEPS} lines, and the debugger shows the top frame after every step
+ *
+ * @since 2026-10-19
+ */
+class StepOverScenario extends Scenario
+{
+	private static final int STEPS = 100;
+
+	private SimulatedProgram.Thread myThread;
+	private ThreadMirror myThreadMirror;
+
+	@Override
+	void build(SimulatedProgram program)
+	{
+		int[] offsetsAndLines = new int[(STEPS + 1) * 2];
+		for(int i = 0; i <= STEPS; i++)
+		{
+			offsetsAndLines[i * 2] = i * 4;
+			offsetsAndLines[i * 2 + 1] = 10 + i;
+		}
+		SimulatedProgram.Type type = program.addAssembly("Scenario", "/scenario/Scenario.exe").addType("Scenario", "Program");
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).setLines("/scenario/Program.cs", offsetsAndLines);
+		myThread = program.addThread("Main Thread");
+		myThread.pushFrame(main, 0);
+	}
+
+	@Override
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		resumeFromStart(vm, simulator);
+		myThreadMirror = stopAt(vm, simulator, myThread, method(vm, "Scenario.Program", "Main"), 0).thread();
+
+		// the program: runs to the next line whenever the debugger resumes it
+		Thread program = new Thread(() ->
+		{
+			try
+			{
+				for(int i = 1; i <= STEPS; i++)
+				{
+					if(!simulator.awaitResume(30, TimeUnit.SECONDS))
+					{
+						return;
+					}
+					simulator.step(myThread, i * 4);
+				}
+			}
+			catch(InterruptedException ignored)
+			{
+			}
+		}, "Scenario Program");
+		program.setDaemon(true);
+		program.start();
+	}
+
+	@Override
+	void run(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		StepRequest request = vm.eventRequestManager().createStepRequest(myThreadMirror, StepRequest.StepSize.Line, StepRequest.StepDepth.Over);
+		request.enable();
+		for(int i = 0; i < STEPS; i++)
+		{
+			vm.resume();
+			StepEvent event = await(vm, StepEvent.class);
+			event.thread().frames().get(0).location().lineNumber();
+		}
+		vm.eventRequestManager().deleteEventRequest(request);
+	}
+}
@@ -0,0 +1,42 @@
+package mono.debugger.scenario;
+
+import mono.debugger.ThreadMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * The program is paused, and the threads view lists its {@link #THREADS} threads by name
+ *
+ * @since 2026-10-19
+ */
+class ThreadListScenario extends Scenario
+{
+	private static final int THREADS = 1000;
+
+	@Override
+	void build(SimulatedProgram program)
+	{
+		program.addThread("Main Thread");
+		for(int i = 1; i < THREADS; i++)
+		{
+			program.addThread("Worker " + i);
+		}
+	}
+
+	@Override
+	void prepare(VirtualMachine vm, AgentSimulator simulator) throws Exception
+	{
+		resumeFromStart(vm, simulator);
+		vm.suspend();
+	}
+
+	@Override
+	void run(VirtualMachine vm, AgentSimulator simulator)
+	{
+		for(ThreadMirror thread : vm.allThreads())
+		{
+			thread.name();
+		}
+	}
+}
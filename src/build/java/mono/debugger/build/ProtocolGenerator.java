@@ -0,0 +1,1471 @@
+package mono.debugger.build;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes <code>mono.debugger.ProtocolFeatures</code> and the codecs of the commands in a protocol description,
+ * see the comment at the top of <code>src/main/protocol/mono-debugger.protocol</code> for its format. The build
+ * runs it in the generate-sources phase with the source launcher of the JDK, which is why it is one file and needs
+ * nothing but the JDK:
+ * <pre>
+ * java src/build/java/mono/debugger/build/ProtocolGenerator.java src/main/protocol/mono-debugger.protocol target/generated-sources/protocol
+ * </pre>
+ * Files are only written if their text changed, so that an unchanged description does not recompile the library.
+ *
+ * @since 2026-10-19
+ */
+public class ProtocolGenerator
+{
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length != 2)
+		{
+			System.err.println("usage: ProtocolGenerator <protocol description> <output directory>");
+			System.exit(2);
+		}
+
+		Path description = Paths.get(args[0]);
+		Protocol protocol;
+		try
+		{
+			protocol = new Parser(description).parse();
+		}
+		catch(DescriptionException e)
+		{
+			System.err.println(e.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		Path root = Paths.get(args[1]);
+		String source = description.getFileName().toString();
+		write(root, "mono.debugger", "ProtocolFeatures", new FeaturesWriter(protocol, source).write());
+		write(root, "mono.debugger.protocol", "ProtocolDecoders", new DecodersWriter(protocol, source).write());
+		for(Command command : protocol.myCommands)
+		{
+			write(root, "mono.debugger.protocol", command.myName, new CommandWriter(command, source).write());
+		}
+	}
+
+	private static void write(Path root, String packageName, String className, String text) throws IOException
+	{
+		Path file = root.resolve(packageName.replace('.', '/')).resolve(className + ".java");
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if(Files.exists(file) && Arrays.equals(Files.readAllBytes(file), bytes))
+		{
+			return;
+		}
+		Files.createDirectories(file.getParent());
+		Files.write(file, bytes);
+	}
+
+	static class DescriptionException extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+
+		DescriptionException(String file, int line, String message)
+		{
+			super(file + ":" + line + ": " + message);
+		}
+	}
+
+	static final class Version implements Comparable<Version>
+	{
+		final int myMajor;
+		final int myMinor;
+
+		Version(int major, int minor)
+		{
+			myMajor = major;
+			myMinor = minor;
+		}
+
+		@Override
+		public int compareTo(Version o)
+		{
+			return myMajor != o.myMajor ? Integer.compare(myMajor, o.myMajor) : Integer.compare(myMinor, o.myMinor);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof Version && compareTo((Version) obj) == 0;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return myMajor * 1000 + myMinor;
+		}
+
+		String suffix()
+		{
+			return myMajor + "_" + myMinor;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myMajor + "." + myMinor;
+		}
+	}
+
+	static final class Feature
+	{
+		final Version myVersion;
+		final String myName;
+		final String myDoc;
+
+		Feature(Version version, String name, String doc)
+		{
+			myVersion = version;
+			myName = name;
+			myDoc = doc;
+		}
+	}
+
+	static final class Protocol
+	{
+		final Map<String, Feature> myFeatures = new LinkedHashMap<String, Feature>();
+		final List<Command> myCommands = new ArrayList<Command>();
+	}
+
+	static final class Command
+	{
+		final String myName;
+		final String myCommandSet;
+		final int myId;
+		final String myDoc;
+		final List<Param> myParams = new ArrayList<Param>();
+		final Map<String, Struct> myStructs = new LinkedHashMap<String, Struct>();
+		final List<Field> myReply = new ArrayList<Field>();
+
+		Command(String name, int id, String doc)
+		{
+			myName = name;
+			myCommandSet = name.substring(0, name.indexOf('_'));
+			myId = id;
+			myDoc = doc;
+		}
+
+		Param param(String name)
+		{
+			for(Param param : myParams)
+			{
+				if(param.myName.equals(name))
+				{
+					return param;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return parameters which are counts of arrays in the reply, the decoders need them
+		 */
+		List<Param> countParams()
+		{
+			List<Param> params = new ArrayList<Param>();
+			for(Param param : myParams)
+			{
+				for(Field field : myReply)
+				{
+					if(field.myType.myElement != null && param.myName.equals(field.myType.myCount))
+					{
+						params.add(param);
+						break;
+					}
+				}
+			}
+			return params;
+		}
+
+		Field cursorField()
+		{
+			for(Field field : myReply)
+			{
+				if(field.myCursor)
+				{
+					return field;
+				}
+			}
+			return null;
+		}
+	}
+
+	static final class Param
+	{
+		final String myWireType;
+		final String myName;
+		final String myJavaType;
+
+		Param(String wireType, String name, String javaType)
+		{
+			myWireType = wireType;
+			myName = name;
+			myJavaType = javaType;
+		}
+	}
+
+	static final class Struct
+	{
+		final String myName;
+		final String myDoc;
+		final List<Field> myFields = new ArrayList<Field>();
+
+		Struct(String name, String doc)
+		{
+			myName = name;
+			myDoc = doc;
+		}
+
+		/**
+		 * @return local arrays of the reply the fields index into, they are passed to the readers
+		 */
+		List<Field> tables(Command command)
+		{
+			List<Field> tables = new ArrayList<Field>();
+			for(Field field : myFields)
+			{
+				if(field.myTable != null)
+				{
+					for(Field replyField : command.myReply)
+					{
+						if(replyField.myName.equals(field.myTable) && !tables.contains(replyField))
+						{
+							tables.add(replyField);
+						}
+					}
+				}
+			}
+			return tables;
+		}
+	}
+
+	static final class Field
+	{
+		final int myLine;
+		final String myDoc;
+		final boolean myLocal;
+		final boolean myCursor;
+		final Type myType;
+		final String myName;
+		// reads an int index into this local array of the reply
+		final String myTable;
+		// null if every version sends the field
+		final Feature myWhen;
+		// Java expression, or [n] for arrays
+		final String myOtherwise;
+
+		Field(int line, String doc, boolean local, boolean cursor, Type type, String name, String table, Feature when, String otherwise)
+		{
+			myLine = line;
+			myDoc = doc;
+			myLocal = local;
+			myCursor = cursor;
+			myType = type;
+			myName = name;
+			myTable = table;
+			myWhen = when;
+			myOtherwise = otherwise;
+		}
+	}
+
+	static final class Type
+	{
+		// scalars
+		static final Type BYTE = new Type("byte", "byte", "ps.readByte()", 1, "0");
+		static final Type INT = new Type("int", "int", "ps.readInt()", 4, "0");
+		static final Type LONG = new Type("long", "long", "ps.readLong()", 8, "0");
+		static final Type ID = new Type("id", "int", "ps.readId()", 4, "0");
+		static final Type STRING = new Type("string", "String", "ps.readString()", -1, "null");
+		static final Type LOCATION = new Type("location", "Location", "ps.readLocation()", 8, "null");
+		static final Type VALUE = new Type("value", "Value<?>", "ps.readValue()", -1, "null");
+
+		final String myName;
+		final String myJavaType;
+		final String myRead;
+		final int mySize;
+		final String myDefault;
+
+		final Struct myStruct;
+		final Type myElement;
+		// int, id, a parameter or a number
+		final String myCount;
+
+		private Type(String name, String javaType, String read, int size, String defaultValue)
+		{
+			myName = name;
+			myJavaType = javaType;
+			myRead = read;
+			mySize = size;
+			myDefault = defaultValue;
+			myStruct = null;
+			myElement = null;
+			myCount = null;
+		}
+
+		Type(Struct struct)
+		{
+			myName = struct.myName;
+			myJavaType = struct.myName;
+			myRead = null;
+			mySize = -1;
+			myDefault = "null";
+			myStruct = struct;
+			myElement = null;
+			myCount = null;
+		}
+
+		Type(Type element, String count)
+		{
+			boolean bytes = element == BYTE && count.chars().allMatch(Character::isDigit);
+			myName = element.myName + "[" + count + "]";
+			myJavaType = element.myJavaType + "[]";
+			myRead = bytes ? "ps.readByteArray(" + count + ")" : null;
+			mySize = bytes ? Integer.parseInt(count) : -1;
+			myDefault = "null";
+			myStruct = null;
+			// a fixed number of bytes is read as a whole
+			myElement = bytes ? null : element;
+			myCount = bytes ? null : count;
+		}
+
+		static Type scalar(String name)
+		{
+			for(Type type : new Type[] {BYTE, INT, LONG, ID, STRING, LOCATION, VALUE})
+			{
+				if(type.myName.equals(name))
+				{
+					return type;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return bytes the type takes in a reply, or -1 if they vary
+		 */
+		int size()
+		{
+			if(myStruct == null)
+			{
+				return mySize;
+			}
+			int size = 0;
+			for(Field field : myStruct.myFields)
+			{
+				int fieldSize = field.myTable != null ? 4 : field.myType.size();
+				if(fieldSize < 0 || field.myWhen != null)
+				{
+					return -1;
+				}
+				size += fieldSize;
+			}
+			return size;
+		}
+
+		/**
+		 * Adds the features which change how the type is read
+		 */
+		void features(Collection<Feature> features)
+		{
+			if(myElement != null)
+			{
+				myElement.features(features);
+			}
+			if(myStruct != null)
+			{
+				for(Field field : myStruct.myFields)
+				{
+					if(field.myWhen != null)
+					{
+						features.add(field.myWhen);
+					}
+					// an index into a table is read the same, whatever the table holds
+					if(field.myTable == null)
+					{
+						field.myType.features(features);
+					}
+				}
+			}
+		}
+	}
+
+	static final class Parser
+	{
+		private final Path myFile;
+		private final String myFileName;
+		private final Protocol myProtocol = new Protocol();
+		private int myLine;
+		private String myDoc;
+		private Command myCommand;
+		private Struct myStruct;
+		private boolean myInReply;
+
+		Parser(Path file)
+		{
+			myFile = file;
+			myFileName = file.getFileName().toString();
+		}
+
+		Protocol parse() throws IOException, DescriptionException
+		{
+			List<String> lines = Files.readAllLines(myFile, StandardCharsets.UTF_8);
+			List<Object[]> fields = new ArrayList<Object[]>();
+			for(int i = 0; i < lines.size(); i++)
+			{
+				myLine = i + 1;
+				String line = lines.get(i);
+				String text = line.trim();
+				if(text.isEmpty())
+				{
+					continue;
+				}
+				if(text.startsWith("##"))
+				{
+					String doc = text.substring(2).trim();
+					myDoc = myDoc == null ? doc : myDoc + "\n" + doc;
+					continue;
+				}
+				if(text.startsWith("#"))
+				{
+					continue;
+				}
+
+				int indent = 0;
+				while(line.charAt(indent) == '\t')
+				{
+					indent++;
+				}
+				if(line.charAt(indent) == ' ')
+				{
+					throw error("nesting is by tabs");
+				}
+
+				String doc = myDoc;
+				myDoc = null;
+				switch(indent)
+				{
+					case 0:
+						topLevel(text, doc);
+						break;
+					case 1:
+						commandPart(text, doc);
+						break;
+					case 2:
+						if(myCommand == null || myStruct == null && !myInReply)
+						{
+							throw error("field outside of a struct or reply");
+						}
+						fields.add(new Object[] {myLine, doc, text, myCommand, myStruct});
+						break;
+					default:
+						throw error("nested too deep");
+				}
+			}
+
+			// structs may be declared after the fields which use them
+			for(Object[] field : fields)
+			{
+				myLine = (Integer) field[0];
+				Command command = (Command) field[3];
+				Struct struct = (Struct) field[4];
+				Field parsed = field((String) field[1], (String) field[2], command);
+				(struct == null ? command.myReply : struct.myFields).add(parsed);
+			}
+			for(Command command : myProtocol.myCommands)
+			{
+				validate(command);
+			}
+			return myProtocol;
+		}
+
+		private void topLevel(String text, String doc) throws DescriptionException
+		{
+			String[] words = text.split("\\s+", 4);
+			myCommand = null;
+			myStruct = null;
+			myInReply = false;
+			if(words[0].equals("feature") && words.length == 4)
+			{
+				String[] version = words[1].split("\\.");
+				if(version.length != 2 || myProtocol.myFeatures.containsKey(words[2]))
+				{
+					throw error("bad version or duplicate feature " + words[2]);
+				}
+				myProtocol.myFeatures.put(words[2], new Feature(new Version(number(version[0]), number(version[1])), words[2], words[3]));
+			}
+			else if(words[0].equals("command") && words.length == 3)
+			{
+				if(words[1].indexOf('_') <= 0)
+				{
+					throw error("command name is not <CommandSet>_<Command>");
+				}
+				myCommand = new Command(words[1], number(words[2]), doc);
+				myProtocol.myCommands.add(myCommand);
+			}
+			else
+			{
+				throw error("expected feature or command");
+			}
+		}
+
+		private void commandPart(String text, String doc) throws DescriptionException
+		{
+			if(myCommand == null)
+			{
+				throw error("not in a command");
+			}
+			String[] words = text.split("\\s+");
+			myStruct = null;
+			myInReply = false;
+			if(words[0].equals("param") && (words.length == 3 || words.length == 4))
+			{
+				String wireType = words[1];
+				String javaType;
+				switch(wireType)
+				{
+					case "id":
+						javaType = words.length == 4 ? words[3] : "MirrorWithId";
+						break;
+					case "int":
+					case "byte":
+						javaType = wireType;
+						break;
+					case "string":
+						javaType = "String";
+						break;
+					case "value":
+						javaType = "Value<?>";
+						break;
+					default:
+						throw error("unknown parameter type " + wireType);
+				}
+				myCommand.myParams.add(new Param(wireType, words[2], javaType));
+			}
+			else if(words[0].equals("struct") && words.length == 2)
+			{
+				if(myCommand.myStructs.containsKey(words[1]))
+				{
+					throw error("duplicate struct " + words[1]);
+				}
+				myStruct = new Struct(words[1], doc);
+				myCommand.myStructs.put(words[1], myStruct);
+			}
+			else if(words[0].equals("reply") && words.length == 1)
+			{
+				myInReply = true;
+			}
+			else
+			{
+				throw error("expected param, struct or reply");
+			}
+		}
+
+		private Field field(String doc, String text, Command command) throws DescriptionException
+		{
+			Feature when = null;
+			String otherwise = null;
+			int whenIndex = text.indexOf(" when ");
+			if(whenIndex >= 0)
+			{
+				String[] condition = text.substring(whenIndex + 6).trim().split("\\s+", 3);
+				text = text.substring(0, whenIndex);
+				when = myProtocol.myFeatures.get(condition[0]);
+				if(when == null)
+				{
+					throw error("unknown feature " + condition[0]);
+				}
+				if(condition.length == 3 && condition[1].equals("else"))
+				{
+					otherwise = condition[2];
+				}
+				else if(condition.length != 1)
+				{
+					throw error("expected when <feature> [else <default>]");
+				}
+			}
+
+			List<String> words = new ArrayList<String>(List.of(text.trim().split("\\s+")));
+			boolean local = words.remove("local");
+			boolean cursor = words.remove("cursor");
+			String table = null;
+			if(words.size() == 4 && words.get(2).equals("="))
+			{
+				String index = words.get(3);
+				if(!index.endsWith("[int]"))
+				{
+					throw error("expected = <table>[int]");
+				}
+				table = index.substring(0, index.length() - 5);
+				words = words.subList(0, 2);
+			}
+			if(words.size() != 2)
+			{
+				throw error("expected [local] [cursor] <type> <name> [= <table>[int]] [when <feature> [else <default>]]");
+			}
+			String name = words.get(1);
+			if(name.equals("ps") || name.equals("i") || name.equals("vm"))
+			{
+				throw error(name + " is taken by the generated code");
+			}
+			Type type = type(words.get(0), command);
+			if(otherwise != null && otherwise.startsWith("[") && (type.myElement == null || !otherwise.endsWith("]")))
+			{
+				throw error("else [<n>] is for arrays");
+			}
+			return new Field(myLine, doc, local, cursor, type, name, table, when, otherwise);
+		}
+
+		private Type type(String name, Command command) throws DescriptionException
+		{
+			int bracket = name.indexOf('[');
+			if(bracket > 0 && name.endsWith("]"))
+			{
+				String count = name.substring(bracket + 1, name.length() - 1);
+				if(!count.equals("int") && !count.equals("id") && !count.chars().allMatch(Character::isDigit))
+				{
+					Param param = command.param(count);
+					if(param == null || !param.myWireType.equals("int"))
+					{
+						throw error("array count " + count + " is not int, id, a number or an int parameter");
+					}
+				}
+				return new Type(type(name.substring(0, bracket), command), count);
+			}
+			Type scalar = Type.scalar(name);
+			if(scalar != null)
+			{
+				return scalar;
+			}
+			Struct struct = command.myStructs.get(name);
+			if(struct == null)
+			{
+				throw error("unknown type " + name);
+			}
+			return new Type(struct);
+		}
+
+		private void validate(Command command) throws DescriptionException
+		{
+			for(Struct struct : command.myStructs.values())
+			{
+				for(Field field : struct.myFields)
+				{
+					myLine = field.myLine;
+					if(field.myLocal || field.myCursor)
+					{
+						throw error("local and cursor are for reply fields");
+					}
+					if(field.myType.myCount != null && command.param(field.myType.myCount) != null)
+					{
+						throw error("arrays in structs can not be counted by a parameter");
+					}
+				}
+			}
+
+			List<String> declared = new ArrayList<String>();
+			for(Field field : command.myReply)
+			{
+				myLine = field.myLine;
+				if(field.myTable != null)
+				{
+					throw error("= <table>[int] is for struct fields");
+				}
+				Type element = field.myType.myElement;
+				if(element != null && element.myStruct != null)
+				{
+					for(Field table : element.myStruct.tables(command))
+					{
+						if(!declared.contains(table.myName))
+						{
+							throw error(field.myName + " indexes into " + table.myName + ", which is not read before it");
+						}
+					}
+				}
+				if(field.myCursor)
+				{
+					List<Feature> features = new ArrayList<Feature>();
+					field.myType.features(features);
+					if(element == null || command.myReply.size() != 1 || field.myWhen != null || !features.isEmpty())
+					{
+						throw error("a cursor is for the only field of a reply, an array which every version sends the same");
+					}
+				}
+				declared.add(field.myName);
+			}
+
+			for(Struct struct : command.myStructs.values())
+			{
+				for(Field field : struct.myFields)
+				{
+					if(field.myTable == null)
+					{
+						continue;
+					}
+					myLine = field.myLine;
+					Field table = null;
+					for(Field replyField : command.myReply)
+					{
+						if(replyField.myName.equals(field.myTable))
+						{
+							table = replyField;
+						}
+					}
+					if(table == null || !table.myLocal || table.myType.myElement == null || table.myType.myElement.myStruct != field.myType.myStruct)
+					{
+						throw error(field.myTable + " is not a local array of " + field.myType.myName + " in the reply");
+					}
+				}
+			}
+		}
+
+		private int number(String text) throws DescriptionException
+		{
+			try
+			{
+				return Integer.parseInt(text);
+			}
+			catch(NumberFormatException e)
+			{
+				throw error("not a number: " + text);
+			}
+		}
+
+		private DescriptionException error(String message)
+		{
+			return new DescriptionException(myFileName, myLine, message);
+		}
+	}
+
+	/**
+	 * Java source with tabs for nesting
+	 */
+	static final class JavaWriter
+	{
+		private final StringBuilder myText = new StringBuilder();
+		private int myIndent;
+
+		JavaWriter line(String line)
+		{
+			if(!line.isEmpty())
+			{
+				for(int i = 0; i < myIndent; i++)
+				{
+					myText.append('\t');
+				}
+				myText.append(line);
+			}
+			myText.append('\n');
+			return this;
+		}
+
+		JavaWriter open()
+		{
+			line("{");
+			myIndent++;
+			return this;
+		}
+
+		JavaWriter close(String after)
+		{
+			myIndent--;
+			return line("}" + after);
+		}
+
+		JavaWriter close()
+		{
+			return close("");
+		}
+
+		JavaWriter doc(String... lines)
+		{
+			line("/**");
+			for(String text : lines)
+			{
+				// ## lines of the description stay lines
+				for(String docLine : text.split("\n", -1))
+				{
+					line(docLine.isEmpty() ? " *" : " * " + docLine);
+				}
+			}
+			return line(" */");
+		}
+
+		static String header(String source)
+		{
+			return "// Generated by mono.debugger.build.ProtocolGenerator from " + source + ", edit the description instead\n";
+		}
+
+		@Override
+		public String toString()
+		{
+			return myText.toString();
+		}
+	}
+
+	static final class FeaturesWriter
+	{
+		private final Protocol myProtocol;
+		private final String mySource;
+
+		FeaturesWriter(Protocol protocol, String source)
+		{
+			myProtocol = protocol;
+			mySource = source;
+		}
+
+		String write()
+		{
+			Collection<Feature> features = myProtocol.myFeatures.values();
+			JavaWriter w = new JavaWriter();
+			w.line(JavaWriter.header(mySource) + "package mono.debugger;");
+			w.line("");
+			w.doc("What the protocol version of the debuggee supports, resolved once when the version is known, so that codecs test",
+					"a final field instead of comparing versions, in loops over elements too. Named after what the version adds, with",
+					"the version it came in.",
+					"",
+					"@since 2026-10-19");
+			w.line("public final class ProtocolFeatures");
+			w.open();
+			w.line("private final int myMajor;");
+			w.line("private final int myMinor;");
+			w.line("");
+			for(Feature feature : features)
+			{
+				w.line("private final boolean " + fieldName(feature) + ";");
+			}
+			w.line("");
+			w.line("ProtocolFeatures(int major, int minor)");
+			w.open();
+			w.line("myMajor = major;");
+			w.line("myMinor = minor;");
+			w.line("");
+			for(Feature feature : features)
+			{
+				w.line(fieldName(feature) + " = isAtLeast(" + feature.myVersion.myMajor + ", " + feature.myVersion.myMinor + ");");
+			}
+			w.close();
+			w.line("");
+			w.line("public boolean isAtLeast(int major, int minor)");
+			w.open();
+			w.line("return myMajor > major || myMajor == major && myMinor >= minor;");
+			w.close();
+			for(Feature feature : features)
+			{
+				w.line("");
+				w.doc(feature.myVersion + ": " + feature.myDoc);
+				w.line("public boolean " + feature.myName + "()");
+				w.open();
+				w.line("return " + fieldName(feature) + ";");
+				w.close();
+			}
+			w.line("");
+			w.line("@Override");
+			w.line("public String toString()");
+			w.open();
+			w.line("return myMajor + \".\" + myMinor;");
+			w.close();
+			w.close();
+			return w.toString();
+		}
+
+		private static String fieldName(Feature feature)
+		{
+			return "my" + Character.toUpperCase(feature.myName.charAt(0)) + feature.myName.substring(1);
+		}
+	}
+
+	static final class DecodersWriter
+	{
+		private final Protocol myProtocol;
+		private final String mySource;
+
+		DecodersWriter(Protocol protocol, String source)
+		{
+			myProtocol = protocol;
+			mySource = source;
+		}
+
+		String write()
+		{
+			JavaWriter w = new JavaWriter();
+			w.line(JavaWriter.header(mySource) + "package mono.debugger.protocol;");
+			w.line("");
+			w.line("import jakarta.annotation.Nonnull;");
+			w.line("import mono.debugger.ProtocolFeatures;");
+			w.line("");
+			w.doc("Decoders of the replies which differ between protocol versions, each picked once for the version of the debuggee.",
+					"",
+					"@since 2026-10-19");
+			w.line("public final class ProtocolDecoders");
+			w.open();
+			List<Command> versioned = new ArrayList<Command>();
+			for(Command command : myProtocol.myCommands)
+			{
+				if(!new CommandWriter(command, mySource).layouts().isEmpty())
+				{
+					versioned.add(command);
+					w.line("final " + command.myName + ".Decoder " + fieldName(command) + ";");
+				}
+			}
+			if(!versioned.isEmpty())
+			{
+				w.line("");
+			}
+			w.line("public ProtocolDecoders(@Nonnull ProtocolFeatures features)");
+			w.open();
+			for(Command command : versioned)
+			{
+				w.line(fieldName(command) + " = " + command.myName + ".decoder(features);");
+			}
+			w.close();
+			w.close();
+			return w.toString();
+		}
+
+		static String fieldName(Command command)
+		{
+			String name = command.myName.replace("_", "");
+			return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+		}
+	}
+
+	static final class CommandWriter
+	{
+		private final Command myCommand;
+		private final String mySource;
+		private final JavaWriter w = new JavaWriter();
+
+		CommandWriter(Command command, String source)
+		{
+			myCommand = command;
+			mySource = source;
+		}
+
+		/**
+		 * @return versions which change the reply, the reply has one layout before the first and one since each
+		 */
+		List<Version> layouts()
+		{
+			List<Feature> features = new ArrayList<Feature>();
+			for(Field field : myCommand.myReply)
+			{
+				if(field.myWhen != null)
+				{
+					features.add(field.myWhen);
+				}
+				field.myType.features(features);
+			}
+			return versions(features);
+		}
+
+		private static List<Version> versions(Collection<Feature> features)
+		{
+			TreeSet<Version> versions = new TreeSet<Version>();
+			for(Feature feature : features)
+			{
+				versions.add(feature.myVersion);
+			}
+			return new ArrayList<Version>(versions);
+		}
+
+		/**
+		 * @param layouts versions which change the reply of the command or struct
+		 * @param version layout of the command, null for before the first version
+		 * @return the layout of those which the version reads with, null for before the first
+		 */
+		private static Version layout(List<Version> layouts, Version version)
+		{
+			Version layout = null;
+			if(version != null)
+			{
+				for(Version candidate : layouts)
+				{
+					if(candidate.compareTo(version) <= 0)
+					{
+						layout = candidate;
+					}
+				}
+			}
+			return layout;
+		}
+
+		private static String suffix(List<Version> layouts, Version layout)
+		{
+			if(layouts.isEmpty())
+			{
+				return "";
+			}
+			return layout == null ? "Before" + layouts.get(0).suffix() : "Since" + layout.suffix();
+		}
+
+		String write()
+		{
+			List<Version> layouts = layouts();
+			Field cursor = myCommand.cursorField();
+
+			w.line(JavaWriter.header(mySource) + "package mono.debugger.protocol;");
+			w.line("");
+			for(String importName : imports(layouts, cursor))
+			{
+				w.line("import " + importName + ";");
+			}
+			w.line("");
+			List<String> classDoc = new ArrayList<String>();
+			if(myCommand.myDoc != null)
+			{
+				classDoc.add(myCommand.myDoc);
+				classDoc.add("");
+			}
+			classDoc.add("@since 2026-10-19");
+			w.doc(classDoc.toArray(new String[0]));
+			w.line("public class " + myCommand.myName + " implements " + myCommand.myCommandSet);
+			w.open();
+			w.line("static final int COMMAND = " + myCommand.myId + ";");
+
+			for(Struct struct : myCommand.myStructs.values())
+			{
+				w.line("");
+				writeStruct(struct);
+			}
+
+			w.line("");
+			List<Field> replyFields = new ArrayList<Field>();
+			for(Field field : myCommand.myReply)
+			{
+				if(!field.myLocal)
+				{
+					replyFields.add(field);
+					if(field.myDoc != null)
+					{
+						w.doc(field.myDoc);
+					}
+					w.line("public final " + field.myType.myJavaType + " " + field.myName + ";");
+				}
+			}
+			w.line("");
+			writeConstructor("private " + myCommand.myName, replyFields);
+
+			String params = params(true);
+			String names = params(false);
+			String countParams = countParams(true);
+			String countNames = countParams(false);
+
+			w.line("");
+			w.line("public static " + myCommand.myName + " process(VirtualMachineImpl vm" + params + ") throws JDWPException");
+			w.open();
+			w.line("PacketStream ps = enqueueCommand(vm" + names + ");");
+			w.line("return waitForReply(vm, ps" + countNames + ");");
+			w.close();
+
+			if(cursor != null)
+			{
+				w.line("");
+				writeCursor(cursor, params, names);
+			}
+
+			w.line("");
+			w.line("public static PacketStream enqueueCommand(VirtualMachineImpl vm" + params + ")");
+			w.open();
+			w.line("PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);");
+			for(Param param : myCommand.myParams)
+			{
+				w.line("ps.write" + writer(param) + "(" + param.myName + ");");
+			}
+			w.line("ps.send();");
+			w.line("return ps;");
+			w.close();
+
+			w.line("");
+			w.line("public static " + myCommand.myName + " waitForReply(VirtualMachineImpl vm, PacketStream ps" + countParams + ") throws JDWPException");
+			w.open();
+			w.line("ps.waitForReply();");
+			if(layouts.isEmpty())
+			{
+				w.line("return read(ps" + countNames + ");");
+			}
+			else
+			{
+				w.line("return vm.protocolDecoders()." + DecodersWriter.fieldName(myCommand) + ".read(ps" + countNames + ");");
+			}
+			w.close();
+
+			if(!layouts.isEmpty())
+			{
+				w.line("");
+				w.doc("Reads the reply as one protocol version lays it out");
+				w.line("interface Decoder");
+				w.open();
+				w.line(myCommand.myName + " read(PacketStream ps" + countParams + ");");
+				w.close();
+
+				w.line("");
+				w.doc("@return the decoder for the protocol version of the debuggee, picked once by {@link ProtocolDecoders}");
+				w.line("static Decoder decoder(ProtocolFeatures features)");
+				w.open();
+				for(int i = layouts.size() - 1; i >= 0; i--)
+				{
+					Version version = layouts.get(i);
+					w.line("if(features.isAtLeast(" + version.myMajor + ", " + version.myMinor + "))");
+					w.open();
+					w.line("return " + myCommand.myName + "::read" + suffix(layouts, version) + ";");
+					w.close();
+				}
+				w.line("return " + myCommand.myName + "::read" + suffix(layouts, null) + ";");
+				w.close();
+			}
+
+			List<Version> commandLayouts = new ArrayList<Version>();
+			commandLayouts.add(null);
+			commandLayouts.addAll(layouts);
+			for(Version layout : commandLayouts)
+			{
+				w.line("");
+				w.line("private static " + myCommand.myName + " read" + suffix(layouts, layout) + "(PacketStream ps" + countParams + ")");
+				w.open();
+				for(Field field : myCommand.myReply)
+				{
+					readField(field, layout);
+				}
+				w.line("return new " + myCommand.myName + "(" + names(replyFields) + ");");
+				w.close();
+			}
+
+			for(Struct struct : myCommand.myStructs.values())
+			{
+				List<Feature> features = new ArrayList<Feature>();
+				new Type(struct).features(features);
+				List<Version> structLayouts = versions(features);
+				List<Version> written = new ArrayList<Version>();
+				for(Version layout : commandLayouts)
+				{
+					Version structLayout = layout(structLayouts, layout);
+					if(written.contains(structLayout))
+					{
+						continue;
+					}
+					written.add(structLayout);
+					w.line("");
+					writeStructReader(struct, structLayouts, structLayout);
+				}
+			}
+
+			w.close();
+			return w.toString();
+		}
+
+		private List<String> imports(List<Version> layouts, Field cursor)
+		{
+			TreeSet<String> imports = new TreeSet<String>();
+			imports.add("mono.debugger.JDWPException");
+			imports.add("mono.debugger.PacketStream");
+			imports.add("mono.debugger.VirtualMachineImpl");
+			if(!layouts.isEmpty())
+			{
+				imports.add("mono.debugger.ProtocolFeatures");
+			}
+			if(cursor != null)
+			{
+				imports.add("mono.debugger.ReplyCursor");
+			}
+			for(Param param : myCommand.myParams)
+			{
+				addImport(imports, param.myJavaType);
+			}
+			List<Field> fields = new ArrayList<Field>(myCommand.myReply);
+			for(Struct struct : myCommand.myStructs.values())
+			{
+				fields.addAll(struct.myFields);
+			}
+			for(Field field : fields)
+			{
+				addImport(imports, field.myType.myJavaType);
+			}
+			return new ArrayList<String>(imports);
+		}
+
+		private void addImport(Collection<String> imports, String javaType)
+		{
+			String name = javaType.replace("[]", "").replace("<?>", "");
+			if(Character.isUpperCase(name.charAt(0)) && !name.equals("String") && !myCommand.myStructs.containsKey(name))
+			{
+				imports.add("mono.debugger." + name);
+			}
+		}
+
+		private void writeStruct(Struct struct)
+		{
+			if(struct.myDoc != null)
+			{
+				w.doc(struct.myDoc);
+			}
+			w.line("public static class " + struct.myName);
+			w.open();
+			for(Field field : struct.myFields)
+			{
+				if(isArray(field))
+				{
+					w.line("private final " + field.myType.myJavaType + " " + field.myName + ";");
+				}
+				else
+				{
+					if(field.myDoc != null)
+					{
+						w.doc(field.myDoc);
+					}
+					w.line("public final " + field.myType.myJavaType + " " + field.myName + ";");
+				}
+			}
+			w.line("");
+			writeConstructor(struct.myName, struct.myFields);
+			for(Field field : struct.myFields)
+			{
+				if(isArray(field))
+				{
+					w.line("");
+					w.doc("@return copy of the " + (field.myDoc == null ? field.myName : field.myDoc));
+					w.line("public " + field.myType.myJavaType + " " + field.myName + "()");
+					w.open();
+					w.line("return " + field.myName + ".clone();");
+					w.close();
+				}
+			}
+			w.close();
+		}
+
+		private static boolean isArray(Field field)
+		{
+			return field.myType.myJavaType.endsWith("[]");
+		}
+
+		private void writeConstructor(String declaration, List<Field> fields)
+		{
+			StringBuilder params = new StringBuilder();
+			for(Field field : fields)
+			{
+				if(params.length() > 0)
+				{
+					params.append(", ");
+				}
+				params.append(field.myType.myJavaType).append(' ').append(field.myName);
+			}
+			w.line(declaration + "(" + params + ")");
+			w.open();
+			for(Field field : fields)
+			{
+				w.line("this." + field.myName + " = " + field.myName + ";");
+			}
+			w.close();
+		}
+
+		private void writeCursor(Field cursor, String params, String names)
+		{
+			Type element = cursor.myType.myElement;
+			String elementType = element.myJavaType;
+			w.doc("Like {@link #process}, with the " + cursor.myName + " read as they are taken");
+			w.line("public static ReplyCursor<" + elementType + "> cursor(VirtualMachineImpl vm" + params + ") throws JDWPException");
+			w.open();
+			w.line("PacketStream ps = enqueueCommand(vm" + names + ");");
+			w.line("ps.waitForReply();");
+			w.line("return new ReplyCursor<" + elementType + ">(" + count(cursor.myType.myCount) + ")");
+			w.open();
+			w.line("@Override");
+			w.line("protected " + elementType + " read()");
+			w.open();
+			w.line("return " + read(element, null) + ";");
+			w.close();
+			int size = element.size();
+			if(size >= 0)
+			{
+				w.line("");
+				w.line("@Override");
+				w.line("protected void skipOne()");
+				w.open();
+				if(element.myStruct != null)
+				{
+					w.line("// " + names(element.myStruct.myFields));
+				}
+				w.line("ps.skipBytes(" + size + ");");
+				w.close();
+			}
+			w.close(";");
+			w.close();
+		}
+
+		private void writeStructReader(Struct struct, List<Version> layouts, Version layout)
+		{
+			StringBuilder params = new StringBuilder();
+			for(Field table : struct.tables(myCommand))
+			{
+				params.append(", ").append(table.myType.myJavaType).append(' ').append(table.myName);
+			}
+			w.line("private static " + struct.myName + " read" + struct.myName + suffix(layouts, layout) + "(PacketStream ps" + params + ")");
+			w.open();
+			for(Field field : struct.myFields)
+			{
+				readField(field, layout);
+			}
+			w.line("return new " + struct.myName + "(" + names(struct.myFields) + ");");
+			w.close();
+		}
+
+		/**
+		 * Writes statements which read the field into a local of its name
+		 *
+		 * @param layout version the reply is read as, null for before the first which changed it
+		 */
+		private void readField(Field field, Version layout)
+		{
+			String declaration = field.myType.myJavaType + " " + field.myName;
+			boolean sent = field.myWhen == null || layout != null && field.myWhen.myVersion.compareTo(layout) <= 0;
+			if(!sent)
+			{
+				String otherwise = field.myOtherwise;
+				if(otherwise != null && otherwise.startsWith("["))
+				{
+					readArray(field, otherwise.substring(1, otherwise.length() - 1).trim(), layout);
+				}
+				else
+				{
+					w.line(declaration + " = " + (otherwise == null ? field.myType.myDefault : otherwise) + ";");
+				}
+				return;
+			}
+
+			if(field.myTable != null)
+			{
+				String index = field.myName + "Index";
+				w.line("int " + index + " = ps.readInt();");
+				w.line(declaration + " = " + index + " >= 0 ? " + field.myTable + "[" + index + "] : null;");
+			}
+			else if(field.myType.myElement != null)
+			{
+				readArray(field, field.myType.myCount, layout);
+			}
+			else
+			{
+				w.line(declaration + " = " + read(field.myType, layout) + ";");
+			}
+		}
+
+		private void readArray(Field field, String count, Version layout)
+		{
+			String size = count(count);
+			if(size.startsWith("ps."))
+			{
+				w.line("int " + field.myName + "Count = " + size + ";");
+				size = field.myName + "Count";
+			}
+			Type element = field.myType.myElement;
+			w.line(field.myType.myJavaType + " " + field.myName + " = new " + element.myJavaType + "[" + size + "];");
+			w.line("for(int i = 0; i < " + size + "; i++)");
+			w.open();
+			w.line(field.myName + "[i] = " + read(element, layout) + ";");
+			w.close();
+		}
+
+		private String read(Type type, Version layout)
+		{
+			if(type.myStruct == null)
+			{
+				return type.myRead;
+			}
+			List<Feature> features = new ArrayList<Feature>();
+			type.features(features);
+			List<Version> layouts = versions(features);
+			StringBuilder call = new StringBuilder("read").append(type.myStruct.myName).append(suffix(layouts, layout(layouts, layout))).append("(ps");
+			for(Field table : type.myStruct.tables(myCommand))
+			{
+				call.append(", ").append(table.myName);
+			}
+			return call.append(')').toString();
+		}
+
+		private static String count(String count)
+		{
+			switch(count)
+			{
+				case "int":
+					return "ps.readInt()";
+				case "id":
+					return "ps.readId()";
+				default:
+					return count;
+			}
+		}
+
+		private static String writer(Param param)
+		{
+			switch(param.myWireType)
+			{
+				case "id":
+					return "Id";
+				case "int":
+					return "Int";
+				case "byte":
+					return "Byte";
+				case "string":
+					return "String";
+				default:
+					return "Value";
+			}
+		}
+
+		private String params(boolean declare)
+		{
+			StringBuilder params = new StringBuilder();
+			for(Param param : myCommand.myParams)
+			{
+				params.append(", ");
+				if(declare)
+				{
+					params.append(param.myJavaType).append(' ');
+				}
+				params.append(param.myName);
+			}
+			return params.toString();
+		}
+
+		private String countParams(boolean declare)
+		{
+			StringBuilder params = new StringBuilder();
+			for(Param param : myCommand.countParams())
+			{
+				params.append(", ");
+				if(declare)
+				{
+					params.append(param.myJavaType).append(' ');
+				}
+				params.append(param.myName);
+			}
+			return params.toString();
+		}
+
+		private static String names(List<Field> fields)
+		{
+			StringBuilder names = new StringBuilder();
+			for(Field field : fields)
+			{
+				if(names.length() > 0)
+				{
+					names.append(", ");
+				}
+				names.append(field.myName);
+			}
+			return names.toString();
+		}
+	}
+}
@@ -5,6 +5,8 @@
 module mono.soft.debugging {
     requires transitive consulo.internal.dotnet.asm;
     requires jakarta.annotation;
+    requires java.management;
+    requires jdk.jfr;
 
     exports mono.debugger;
     exports mono.debugger.connect;
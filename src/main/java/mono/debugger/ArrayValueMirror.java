@@ -51,6 +51,22 @@ public class ArrayValueMirror extends ValueImpl<Object> implements MirrorWithId
 		}
 	}
 
+	/**
+	 * Values from index on, taken with one command, created as the cursor is moved
+	 */
+	@Nonnull
+	public ReplyCursor<Value<?>> values(int index, int length)
+	{
+		try
+		{
+			return ArrayReference_GetValues.cursor(vm, myObjectValueMirror, index, length);
+		}
+		catch(JDWPException e)
+		{
+			throw e.asUncheckedException();
+		}
+	}
+
 	public void set(int index, @Nonnull Value<?> value)
 	{
 		try
@@ -13,6 +13,7 @@ import mono.debugger.protocol.Assembly_GetType;
 public class AssemblyMirror extends MirrorWithIdAndName
 {
 	private String myLocation;
+	private String myMetadataIdentity;
 
 	public AssemblyMirror(@Nonnull VirtualMachine aVm, int aRef)
 	{
@@ -55,4 +56,33 @@ public class AssemblyMirror extends MirrorWithIdAndName
 		}
 		return myLocation;
 	}
+
+	/**
+	 * Identity of the assembly file, for sharing metadata between virtual machines which loaded the same build.
+	 * The protocol has no MVID, so this is the location plus the full name, which includes the version.
+	 *
+	 * @see MetadataCache
+	 */
+	@Nonnull
+	public String metadataIdentity()
+	{
+		if(myMetadataIdentity == null)
+		{
+			myMetadataIdentity = location() + "|" + name();
+		}
+		return myMetadataIdentity;
+	}
+
+	/**
+	 * @return {@link #metadataIdentity()} if it is known without asking the target VM, or null
+	 */
+	@Nullable
+	String loadedMetadataIdentity()
+	{
+		if(myMetadataIdentity == null && myLocation != null && loadedName() != null)
+		{
+			myMetadataIdentity = myLocation + "|" + loadedName();
+		}
+		return myMetadataIdentity;
+	}
 }
@@ -0,0 +1,24 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connection backed by a socket channel, whose packets can be read by a {@link ConnectionSelector}
+ * instead of a reader thread.
+ *
+ * @since 2026-10-19
+ */
+interface ChannelConnection
+{
+	/**
+	 * @return the channel of the connection, or null if it has none
+	 */
+	SocketChannel channel();
+
+	/**
+	 * Puts the channel into non-blocking mode. From then on packets must not be read with
+	 * {@link mono.debugger.connect.spi.Connection#readPacket()}.
+	 */
+	void configureNonBlocking() throws IOException;
+}
@@ -0,0 +1,58 @@
+package mono.debugger;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Readable names of the commands this library sends, like <code>Type_GetInfo</code>, after the classes which
+ * send them.
+ *
+ * @since 2026-10-19
+ */
+class CommandNames
+{
+	private static final String[][] ourNames = new String[256][];
+
+	static
+	{
+		set(1, "VirtualMachine", "GetVersion", "AllThreads", "Suspend", "Resume", "Exit", "Dispose", "InvokeMethod", "SetProtocolVersion", null, null,
+				"GetTypesForSourceFile", "GetTypes");
+		set(9, "ObjectReference", "GetType", "GetValues", null, "GetAddress", null, "SetValues");
+		set(10, "StringReference", "GetValue");
+		set(11, "Thread", "GetFrameInfo", "GetName", "GetState", null, "GetId", "GetTId");
+		set(13, "ArrayReference", "GetLength", "GetValues", "SetValues");
+		set(15, "EventRequest", "Set", "Clear", "ClearAllBreakpoints");
+		set(16, "StackFrame", "GetValues", "GetThis", "SetValues");
+		set(20, "AppDomain", "GetRootDomain", "GetFriendlyName", "GetAssemblies", "GetEntryAssembly", "CreateString", "GetCorlib", "CreateBoxValue");
+		set(21, "Assembly", "GetLocation", null, null, null, "GetType", "GetName");
+		set(22, "Method", "GetName", "GetDeclarationType", "GetDebugInfo", "GetParamInfo", "GetLocalsInfo", "GetInfo", null, null, "GetCustomAttributes");
+		set(23, "Type", "GetInfo", "GetMethods", "GetFields", "GetValues", null, null, "SetValues", "IsAssignableFrom", "GetProperties",
+				"GetCustomAttributes", "GetFieldCustomAttributes", "GetPropertyCustomAttributes", null, null, null, "GetInterfaces");
+		// sent by the debuggee
+		ourNames[64] = new String[256];
+		ourNames[64][100] = "Event_Composite";
+	}
+
+	private static void set(int commandSet, String setName, String... commandNames)
+	{
+		String[] names = new String[256];
+		for(int i = 0; i < commandNames.length; i++)
+		{
+			if(commandNames[i] != null)
+			{
+				names[i + 1] = setName + "_" + commandNames[i];
+			}
+		}
+		ourNames[commandSet] = names;
+	}
+
+	/**
+	 * @return the name of the command, or <code>commandSet/command</code> for a command this library does not send
+	 */
+	@Nonnull
+	static String name(int commandSet, int command)
+	{
+		String[] names = ourNames[commandSet & 0xff];
+		String name = names == null ? null : names[command & 0xff];
+		return name == null ? commandSet + "/" + command : name;
+	}
+}
@@ -0,0 +1,282 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads packets of many channel connections on a few threads, instead of one
+ * {@link TargetVM} reader thread per connection.
+ * <p/>
+ * Each connection is bound to one selector thread, which reads with a non-blocking
+ * channel, frames packets by their length and hands them to
+ * {@link TargetVM#handlePacket(Packet)}. Packets of one connection are therefore
+ * handled in order, on one thread, like with a reader thread. Commands are still
+ * written by the threads which send them.
+ *
+ * @see VirtualMachineManagerImpl#setSelectorThreads(int)
+ * @since 2026-10-19
+ */
+class ConnectionSelector
+{
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private static final int PACKET_LENGTH_SIZE = 4;
+	// length, id, flags, command set and command (or error code)
+	private static final int MIN_PACKET_SIZE = 11;
+
+	/*
+	 * Read state of one connection, only touched by its selector thread
+	 */
+	private class Reader
+	{
+		final ChannelConnection connection;
+		final TargetVM target;
+		final Loop loop;
+		final ByteBuffer header = ByteBuffer.allocate(PACKET_LENGTH_SIZE);
+		SelectionKey key;
+		byte[] packet;
+		int offset;
+
+		Reader(ChannelConnection connection, TargetVM target, Loop loop)
+		{
+			this.connection = connection;
+			this.target = target;
+			this.loop = loop;
+		}
+
+		/*
+		 * Splits read bytes into packets, and hands each complete packet to the target
+		 */
+		void consume(ByteBuffer buffer) throws IOException
+		{
+			while(buffer.hasRemaining())
+			{
+				if(packet == null)
+				{
+					while(header.hasRemaining() && buffer.hasRemaining())
+					{
+						header.put(buffer.get());
+					}
+					if(header.hasRemaining())
+					{
+						return;
+					}
+
+					int length = header.getInt(0);
+					if(length < MIN_PACKET_SIZE)
+					{
+						throw new IOException("protocol error - invalid length");
+					}
+					packet = new byte[length];
+					header.flip();
+					header.get(packet, 0, PACKET_LENGTH_SIZE);
+					header.clear();
+					offset = PACKET_LENGTH_SIZE;
+				}
+
+				int count = Math.min(buffer.remaining(), packet.length - offset);
+				buffer.get(packet, offset, count);
+				offset += count;
+
+				if(offset == packet.length)
+				{
+					byte[] complete = packet;
+					packet = null;
+					target.handlePacket(Packet.fromByteArray(complete));
+				}
+			}
+		}
+	}
+
+	private class Loop implements Runnable
+	{
+		final Selector selector;
+		final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+		// shared by all connections of this loop, they are read one at a time
+		final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+		Loop() throws IOException
+		{
+			selector = Selector.open();
+		}
+
+		void execute(Runnable task)
+		{
+			tasks.add(task);
+			selector.wakeup();
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				while(!(myShutdown && selector.keys().isEmpty()))
+				{
+					selector.select();
+
+					Runnable task;
+					while((task = tasks.poll()) != null)
+					{
+						task.run();
+					}
+
+					Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+					while(iterator.hasNext())
+					{
+						SelectionKey key = iterator.next();
+						iterator.remove();
+						read(key);
+					}
+				}
+			}
+			catch(IOException | ClosedSelectorException e)
+			{
+				// nothing can be read any more, fail every connection of this loop
+				for(Reader reader : myReaders.values())
+				{
+					if(reader.loop == this)
+					{
+						disconnect(reader);
+					}
+				}
+			}
+			finally
+			{
+				try
+				{
+					selector.close();
+				}
+				catch(IOException e)
+				{
+				}
+			}
+		}
+
+		private void read(SelectionKey key)
+		{
+			Reader reader = (Reader) key.attachment();
+			SocketChannel channel = (SocketChannel) key.channel();
+			try
+			{
+				while(true)
+				{
+					readBuffer.clear();
+					int count = channel.read(readBuffer);
+					if(count < 0)
+					{
+						disconnect(reader);
+						return;
+					}
+					if(count == 0)
+					{
+						return;
+					}
+					readBuffer.flip();
+					reader.consume(readBuffer);
+					if(count < READ_BUFFER_SIZE)
+					{
+						return;
+					}
+				}
+			}
+			catch(IOException | RuntimeException e)
+			{
+				// a broken packet of one connection must not stop the others
+				disconnect(reader);
+			}
+		}
+
+		private void disconnect(Reader reader)
+		{
+			if(reader.key != null)
+			{
+				reader.key.cancel();
+			}
+			if(myReaders.remove(reader.connection, reader))
+			{
+				reader.target.disconnected();
+			}
+		}
+	}
+
+	private final Loop[] myLoops;
+	private final AtomicInteger myNextLoop = new AtomicInteger();
+	private final Map<ChannelConnection, Reader> myReaders = new ConcurrentHashMap<ChannelConnection, Reader>();
+	private volatile boolean myShutdown;
+
+	ConnectionSelector(VirtualMachineManagerImpl manager, int threads) throws IOException
+	{
+		myLoops = new Loop[threads];
+		for(int i = 0; i < threads; i++)
+		{
+			myLoops[i] = new Loop();
+		}
+		for(int i = 0; i < threads; i++)
+		{
+			manager.newThread(manager.mainGroupForJDI(), myLoops[i], "MDI Connection Selector #" + (i + 1)).start();
+		}
+	}
+
+	/**
+	 * Starts reading packets of the connection, which must have a channel
+	 */
+	void register(ChannelConnection connection, TargetVM target) throws IOException
+	{
+		if(myShutdown)
+		{
+			throw new IOException("Selector is shut down");
+		}
+
+		connection.configureNonBlocking();
+
+		Loop loop = myLoops[Math.floorMod(myNextLoop.getAndIncrement(), myLoops.length)];
+		Reader reader = new Reader(connection, target, loop);
+		myReaders.put(connection, reader);
+		loop.execute(() ->
+		{
+			try
+			{
+				reader.key = connection.channel().register(loop.selector, SelectionKey.OP_READ, reader);
+			}
+			catch(IOException e)
+			{
+				loop.disconnect(reader);
+			}
+		});
+	}
+
+	/**
+	 * Stops reading packets of a connection which was closed on our side
+	 */
+	void unregister(ChannelConnection connection)
+	{
+		Reader reader = myReaders.get(connection);
+		if(reader != null)
+		{
+			reader.loop.execute(() -> reader.loop.disconnect(reader));
+		}
+	}
+
+	/**
+	 * Takes no new connections. Selector threads end when their last connection is gone.
+	 */
+	void shutdown()
+	{
+		myShutdown = true;
+		for(Loop loop : myLoops)
+		{
+			loop.selector.wakeup();
+		}
+	}
+}
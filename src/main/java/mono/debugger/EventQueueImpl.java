@@ -26,6 +26,9 @@
 package mono.debugger;
 
 import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import mono.debugger.event.EventQueue;
 import mono.debugger.event.EventSet;
@@ -34,13 +37,21 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 
     /*
      * Note this is not a synchronized list. Iteration/update should be
-     * protected through the 'this' monitor.
+     * protected through the 'lock'.
      */
     LinkedList<EventSet> eventSets = new LinkedList<EventSet>();
 
     TargetVM target;
     boolean closed = false;
 
+    /*
+     * A lock and condition rather than the 'this' monitor, so that a
+     * consumer waiting in remove() is parked the same way on platform
+     * and virtual threads, and a timed remove() needs no timer thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
     EventQueueImpl(VirtualMachine vm, TargetVM target) {
         super(vm);
         this.target = target;
@@ -60,21 +71,39 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
         return System.identityHashCode(this);
     }
 
-    synchronized void enqueue(EventSet eventSet) {
-        eventSets.add(eventSet);
-        notifyAll();
+    void enqueue(EventSet eventSet) {
+        lock.lock();
+        try {
+            eventSets.add(eventSet);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    synchronized int size() {
-        return eventSets.size();
+    int size() {
+        lock.lock();
+        try {
+            return eventSets.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    synchronized void close() {
-        if (!closed) {
-            closed = true; // OK for this the be first since synchronized
+    void close() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
 
-            // place VMDisconnectEvent into queue
-           // enqueue(new EventSetImpl(vm, (byte)JDWP.EventKind.VM_DISCONNECTED));
+                // place VMDisconnectEvent into queue
+               // enqueue(new EventSetImpl(vm, (byte)JDWP.EventKind.VM_DISCONNECTED));
+
+                // waiting consumers get a VMDisconnectedException
+                notEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -119,18 +148,6 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
         return eventSet;
     }
 
-    private TimerThread startTimerThread(long timeout) {
-        TimerThread thread = new TimerThread(timeout);
-        thread.setDaemon(true);
-        thread.start();
-        return thread;
-    }
-
-    private boolean shouldWait(TimerThread timerThread) {
-        return !closed && eventSets.isEmpty() &&
-               ((timerThread == null) ? true : !timerThread.timedOut());
-    }
-
     private EventSetImpl removeUnfiltered(long timeout)
                                                throws InterruptedException {
         EventSetImpl eventSet = null;
@@ -141,52 +158,34 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
          */
         vm.waitInitCompletion();
 
-        synchronized(this) {
-            if (!eventSets.isEmpty()) {
-                /*
-                 * If there's already something there, no need
-                 * for anything elaborate.
-                 */
-                eventSet = (EventSetImpl)eventSets.removeFirst();
-            } else {
-                /*
-                 * If a timeout was specified, create a thread to
-                 * notify this one when a timeout
-                 * occurs. We can't use the timed version of wait()
-                 * because it is possible for multiple enqueue() calls
-                 * before we see something in the eventSet queue
-                 * (this is possible when multiple threads call
-                 * remove() concurrently -- not a great idea, but
-                 * it should be supported). Even if enqueue() did a
-                 * notify() instead of notifyAll() we are not able to
-                 * use a timed wait because there's no way to distinguish
-                 * a timeout from a notify.  That limitation implies a
-                 * possible race condition between a timed out thread
-                 * and a notified thread.
-                 */
-                TimerThread timerThread = null;
-                try {
-                    if (timeout > 0) {
-                        timerThread = startTimerThread(timeout);
-                    }
-
-                    while (shouldWait(timerThread)) {
-                        this.wait();
-                    }
-                } finally {
-                    if ((timerThread != null) && !timerThread.timedOut()) {
-                        timerThread.interrupt();
+        lock.lock();
+        try {
+            /*
+             * awaitNanos() tells a timeout from a signal, even when
+             * several threads call remove() concurrently -- not a great
+             * idea, but it should be supported.
+             */
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (!closed && eventSets.isEmpty()) {
+                if (timeout == 0) {
+                    notEmpty.await();
+                } else {
+                    if (nanos <= 0) {
+                        break;
                     }
+                    nanos = notEmpty.awaitNanos(nanos);
                 }
+            }
 
-                if (eventSets.isEmpty()) {
-                    if (closed) {
-                        throw new VMDisconnectedException();
-                    }
-                } else {
-                    eventSet = (EventSetImpl)eventSets.removeFirst();
+            if (eventSets.isEmpty()) {
+                if (closed) {
+                    throw new VMDisconnectedException();
                 }
+            } else {
+                eventSet = (EventSetImpl)eventSets.removeFirst();
             }
+        } finally {
+            lock.unlock();
         }
 
         // The build is synchronized on the event set, don't hold
@@ -197,32 +196,4 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
         }
         return eventSet;
     }
-
-    private class TimerThread extends Thread {
-        private boolean timedOut = false;
-        private long timeout;
-
-        TimerThread(long timeout) {
-            super(vm.threadGroupForJDI(), "JDI Event Queue Timer");
-            this.timeout = timeout;
-        }
-
-        boolean timedOut() {
-            return timedOut;
-        }
-
-        @Override
-		public void run() {
-            try {
-                Thread.sleep(timeout);
-                EventQueueImpl queue = EventQueueImpl.this;
-                synchronized(queue) {
-                    timedOut = true;
-                    queue.notifyAll();
-                }
-            } catch (InterruptedException e) {
-                // Exit without notifying
-            }
-        }
-    }
 }
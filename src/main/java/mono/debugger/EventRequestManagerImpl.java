@@ -28,13 +28,23 @@ package mono.debugger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
+import mono.debugger.event.Event;
+import mono.debugger.event.TypeLoadEvent;
+import mono.debugger.internal.EventRequestAccess;
+import mono.debugger.protocol.Method_GetDebugInfo;
 import mono.debugger.request.*;
 
 /**
@@ -48,7 +58,41 @@ import mono.debugger.request.*;
 @SuppressWarnings("unchecked")
 public class EventRequestManagerImpl extends MirrorImpl implements EventRequestManager
 {
-	private Map<EventKind, List<EventRequest>> myEventRequests = new HashMap<EventKind, List<EventRequest>>();
+	/*
+	 * Requests are added and deleted from any thread, and read from the event
+	 * decoding threads, so the lists are copy-on-write: iterating a list returned
+	 * by the xxxRequests() accessors never throws ConcurrentModificationException.
+	 */
+	private final Map<EventKind, List<EventRequest>> myEventRequests = new EnumMap<EventKind, List<EventRequest>>(EventKind.class);
+
+	/*
+	 * Index of enabled (or once enabled) requests by their request id, looked up
+	 * for every incoming event. Request ids are unique across event kinds.
+	 */
+	private final Map<Integer, EventRequest> myRequestsById = new ConcurrentHashMap<Integer, EventRequest>();
+
+	private final List<SourceLineBreakpointRequest> mySourceLineBreakpoints = new CopyOnWriteArrayList<SourceLineBreakpointRequest>();
+
+	/*
+	 * Enabled source line breakpoints by source file, and the internal type load requests
+	 * which tell us that code of a source file was loaded. Guarded by mySourceFiles, which is
+	 * never held while talking to the target VM.
+	 */
+	private final Map<String, PendingSourceFile> mySourceFiles = new HashMap<String, PendingSourceFile>();
+	private final Map<TypeLoadRequest, PendingSourceFile> mySourceFileRequests = new ConcurrentHashMap<TypeLoadRequest, PendingSourceFile>();
+
+	private static class PendingSourceFile
+	{
+		final String path;
+		// line -> requests, so that only debug entries of lines with breakpoints are looked at
+		final Map<Integer, List<SourceLineBreakpointRequest>> requestsByLine = new HashMap<Integer, List<SourceLineBreakpointRequest>>();
+		TypeLoadRequest typeLoadRequest;
+
+		PendingSourceFile(String path)
+		{
+			this.path = path;
+		}
+	}
 
 	/**
 	 * Constructor.
@@ -59,7 +103,7 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 
 		for(EventKind eventKind : EventKind.values())
 		{
-			myEventRequests.put(eventKind, new ArrayList<EventRequest>());
+			myEventRequests.put(eventKind, new CopyOnWriteArrayList<EventRequest>());
 		}
 	}
 
@@ -136,6 +180,31 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		return add(new BreakpointRequest(vm, this, location));
 	}
 
+	@Nonnull
+	@Override
+	public TracepointRequest createTracepointRequest(@Nonnull Location location, @Nonnull TracepointSink sink)
+	{
+		validateMirror(location);
+		if(location.codeIndex() == -1)
+		{
+			throw new NativeMethodException("Cannot set tracepoints on native methods");
+		}
+		return add(new TracepointRequest(vm, this, location, sink));
+	}
+
+	@Nonnull
+	@Override
+	public SourceLineBreakpointRequest createSourceLineBreakpointRequest(@Nonnull String sourcePath, int line)
+	{
+		if(line < 1)
+		{
+			throw new IllegalArgumentException("line is less than one");
+		}
+		SourceLineBreakpointRequest request = new SourceLineBreakpointRequest(vm, this, sourcePath, line);
+		mySourceLineBreakpoints.add(request);
+		return request;
+	}
+
 	@Override
 	public VMDeathRequest createVMDeathRequest()
 	{
@@ -159,10 +228,152 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		}
 	}
 
+	@Nonnull
+	@Override
+	public Map<EventRequest, RuntimeException> enableAll(@Nonnull Collection<? extends EventRequest> eventRequests)
+	{
+		validateMirrors(eventRequests);
+
+		EventRequestAccess access = EventRequestAccess.get();
+		Map<EventRequest, RuntimeException> failures = new LinkedHashMap<EventRequest, RuntimeException>();
+		Map<EventRequest, PacketStream> pending = new LinkedHashMap<EventRequest, PacketStream>();
+		List<SourceLineBreakpointRequest> sourceLineRequests = new ArrayList<SourceLineBreakpointRequest>();
+		for(EventRequest eventRequest : eventRequests)
+		{
+			if(eventRequest.isEnabled() || pending.containsKey(eventRequest))
+			{
+				continue;
+			}
+
+			// not a request in the target VM, enabling it binds it to loaded code
+			if(eventRequest instanceof SourceLineBreakpointRequest)
+			{
+				sourceLineRequests.add((SourceLineBreakpointRequest) eventRequest);
+				continue;
+			}
+
+			try
+			{
+				pending.put(eventRequest, access.enqueueSet(eventRequest));
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(eventRequest, e);
+			}
+		}
+
+		for(Map.Entry<EventRequest, PacketStream> entry : pending.entrySet())
+		{
+			try
+			{
+				access.completeSet(entry.getKey(), entry.getValue());
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(entry.getKey(), e);
+			}
+		}
+
+		for(SourceLineBreakpointRequest request : sourceLineRequests)
+		{
+			try
+			{
+				request.enable();
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(request, e);
+			}
+		}
+		return failures;
+	}
+
+	@Nonnull
+	@Override
+	public Map<EventRequest, RuntimeException> deleteAll(@Nonnull Collection<? extends EventRequest> eventRequests)
+	{
+		validateMirrors(eventRequests);
+
+		EventRequestAccess access = EventRequestAccess.get();
+		Map<EventRequest, RuntimeException> failures = new LinkedHashMap<EventRequest, RuntimeException>();
+		Map<EventRequest, PacketStream> pending = new LinkedHashMap<EventRequest, PacketStream>();
+		List<SourceLineBreakpointRequest> sourceLineRequests = new ArrayList<SourceLineBreakpointRequest>();
+		for(EventRequest eventRequest : eventRequests)
+		{
+			// not a request in the target VM, disabling it clears the breakpoints it is bound to
+			if(eventRequest instanceof SourceLineBreakpointRequest)
+			{
+				sourceLineRequests.add((SourceLineBreakpointRequest) eventRequest);
+				continue;
+			}
+
+			if(!eventRequest.isEnabled())
+			{
+				access.markDeleted(eventRequest);
+				continue;
+			}
+
+			if(pending.containsKey(eventRequest))
+			{
+				continue;
+			}
+
+			try
+			{
+				pending.put(eventRequest, access.enqueueClear(eventRequest));
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(eventRequest, e);
+			}
+		}
+
+		for(Map.Entry<EventRequest, PacketStream> entry : pending.entrySet())
+		{
+			EventRequest eventRequest = entry.getKey();
+			try
+			{
+				access.completeClear(eventRequest, entry.getValue());
+				access.markDeleted(eventRequest);
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(eventRequest, e);
+			}
+		}
+
+		for(SourceLineBreakpointRequest request : sourceLineRequests)
+		{
+			try
+			{
+				if(request.isEnabled())
+				{
+					request.disable();
+				}
+				access.markDeleted(request);
+			}
+			catch(RuntimeException e)
+			{
+				failures.put(request, e);
+			}
+		}
+		return failures;
+	}
+
 	@Override
 	public void deleteAllBreakpoints()
 	{
-		requestList(EventKind.BREAKPOINT).clear();
+		for(SourceLineBreakpointRequest request : mySourceLineBreakpoints)
+		{
+			request.delete();
+		}
+
+		List<EventRequest> breakpoints = myEventRequests.get(EventKind.BREAKPOINT);
+		for(EventRequest breakpoint : breakpoints)
+		{
+			myRequestsById.remove(breakpoint.id(), breakpoint);
+		}
+		breakpoints.clear();
 
 		try
 		{
@@ -204,6 +415,13 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		return (List<BreakpointRequest>) unmodifiableRequestList(EventKind.BREAKPOINT);
 	}
 
+	@Nonnull
+	@Override
+	public List<SourceLineBreakpointRequest> sourceLineBreakpointRequests()
+	{
+		return Collections.unmodifiableList(mySourceLineBreakpoints);
+	}
+
 	@Override
 	public List<MethodEntryRequest> methodEntryRequests()
 	{
@@ -250,16 +468,12 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 
 	EventRequest request(EventKind eventCmd, int requestId)
 	{
-		List<? extends EventRequest> rl = requestList(eventCmd);
-		for(int i = rl.size() - 1; i >= 0; i--)
+		EventRequest er = myRequestsById.get(requestId);
+		if(er == null || er.eventCmd() != eventCmd)
 		{
-			EventRequest er = rl.get(i);
-			if(er.id() == requestId)
-			{
-				return er;
-			}
+			return null;
 		}
-		return null;
+		return er;
 	}
 
 	public <T extends EventRequest> T add(T t)
@@ -268,6 +482,243 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		return t;
 	}
 
+	/**
+	 * Called after the back-end assigned a new id to the request
+	 */
+	public void requestIdAssigned(@Nonnull EventRequest eventRequest, int oldId)
+	{
+		if(oldId != 0)
+		{
+			myRequestsById.remove(oldId, eventRequest);
+		}
+		myRequestsById.put(eventRequest.id(), eventRequest);
+	}
+
+	/**
+	 * Called when the request is deleted, events for it are not reported anymore
+	 */
+	public void remove(@Nonnull EventRequest eventRequest)
+	{
+		if(eventRequest instanceof SourceLineBreakpointRequest)
+		{
+			mySourceLineBreakpoints.remove(eventRequest);
+			return;
+		}
+		myEventRequests.get(eventRequest.eventCmd()).remove(eventRequest);
+		if(eventRequest.id() != 0)
+		{
+			myRequestsById.remove(eventRequest.id(), eventRequest);
+		}
+	}
+
+	/**
+	 * Registers the request for its source file, and binds it to already loaded code
+	 */
+	public void enableSourceLineBreakpoint(@Nonnull SourceLineBreakpointRequest request)
+	{
+		String key = normalizeSourcePath(request.sourcePath());
+		PendingSourceFile sourceFile;
+		TypeLoadRequest newTypeLoadRequest = null;
+		synchronized(mySourceFiles)
+		{
+			sourceFile = mySourceFiles.get(key);
+			if(sourceFile == null)
+			{
+				sourceFile = new PendingSourceFile(key);
+
+				newTypeLoadRequest = new TypeLoadRequest(vm, this);
+				newTypeLoadRequest.addSourceFileFilter(request.sourcePath());
+				newTypeLoadRequest.setSuspendPolicy(SuspendPolicy.ALL);
+
+				sourceFile.typeLoadRequest = newTypeLoadRequest;
+				mySourceFiles.put(key, sourceFile);
+				mySourceFileRequests.put(newTypeLoadRequest, sourceFile);
+			}
+
+			List<SourceLineBreakpointRequest> requests = sourceFile.requestsByLine.get(request.line());
+			if(requests == null)
+			{
+				sourceFile.requestsByLine.put(request.line(), requests = new ArrayList<SourceLineBreakpointRequest>(1));
+			}
+			requests.add(request);
+		}
+
+		if(newTypeLoadRequest != null)
+		{
+			// must be enabled before looking at loaded types, or we can miss types loaded in between
+			try
+			{
+				newTypeLoadRequest.enable();
+			}
+			catch(RuntimeException e)
+			{
+				synchronized(mySourceFiles)
+				{
+					if(mySourceFiles.get(key) == sourceFile)
+					{
+						mySourceFiles.remove(key);
+					}
+					mySourceFileRequests.remove(newTypeLoadRequest);
+				}
+				throw e;
+			}
+		}
+
+		if(vm.protocolFeatures().typesForSourceFile())
+		{
+			for(TypeMirror typeMirror : vm.findTypesBySourcePath(request.sourcePath(), false))
+			{
+				bindSourceLineBreakpoints(sourceFile, typeMirror);
+			}
+		}
+	}
+
+	/**
+	 * Removes the breakpoints set for the request, and forgets its source file if it was the last request for it
+	 */
+	public void disableSourceLineBreakpoint(@Nonnull SourceLineBreakpointRequest request)
+	{
+		deleteAll(request.boundRequests());
+		for(BreakpointRequest boundRequest : request.boundRequests())
+		{
+			request.removeBoundRequest(boundRequest);
+		}
+
+		TypeLoadRequest typeLoadRequest;
+		synchronized(mySourceFiles)
+		{
+			String key = normalizeSourcePath(request.sourcePath());
+			PendingSourceFile sourceFile = mySourceFiles.get(key);
+			if(sourceFile == null)
+			{
+				return;
+			}
+
+			List<SourceLineBreakpointRequest> requests = sourceFile.requestsByLine.get(request.line());
+			if(requests != null)
+			{
+				requests.remove(request);
+				if(requests.isEmpty())
+				{
+					sourceFile.requestsByLine.remove(request.line());
+				}
+			}
+
+			if(!sourceFile.requestsByLine.isEmpty())
+			{
+				return;
+			}
+			mySourceFiles.remove(key);
+			mySourceFileRequests.remove(sourceFile.typeLoadRequest);
+			typeLoadRequest = sourceFile.typeLoadRequest;
+		}
+		typeLoadRequest.delete();
+	}
+
+	/**
+	 * Handles events of internal requests. Called on the event queue consumer thread, before
+	 * the event set is handed to the client, so it is allowed to talk to the target VM.
+	 *
+	 * @return true if the event is internal, and must not be seen by the client
+	 */
+	boolean handleInternalEvent(@Nonnull Event event)
+	{
+		if(vm.methodTracer().handleEvent(event))
+		{
+			return true;
+		}
+
+		if(!(event instanceof TypeLoadEvent))
+		{
+			return false;
+		}
+
+		PendingSourceFile sourceFile = mySourceFileRequests.get(event.request());
+		if(sourceFile == null)
+		{
+			return false;
+		}
+
+		bindSourceLineBreakpoints(sourceFile, ((TypeLoadEvent) event).typeMirror());
+		return true;
+	}
+
+	private void bindSourceLineBreakpoints(PendingSourceFile sourceFile, TypeMirror typeMirror)
+	{
+		// read before taking the lock, these are round trips
+		MethodMirror[] methods = typeMirror.methods();
+		Method_GetDebugInfo.Entry[][] debugInfos = new Method_GetDebugInfo.Entry[methods.length][];
+		for(int i = 0; i < methods.length; i++)
+		{
+			debugInfos[i] = methods[i].debugEntries();
+		}
+
+		List<BreakpointRequest> newRequests = new ArrayList<BreakpointRequest>();
+		synchronized(mySourceFiles)
+		{
+			// could be disabled in the meantime, for example while the event was in the queue
+			if(mySourceFiles.get(sourceFile.path) != sourceFile)
+			{
+				return;
+			}
+
+			for(int i = 0; i < methods.length; i++)
+			{
+				Set<Integer> boundLines = new HashSet<Integer>();
+				for(Method_GetDebugInfo.Entry entry : debugInfos[i])
+				{
+					List<SourceLineBreakpointRequest> requests = sourceFile.requestsByLine.get(entry.line);
+					// first entry of a line has the lowest offset
+					if(requests == null || entry.sourceFile == null || boundLines.contains(entry.line))
+					{
+						continue;
+					}
+
+					if(!sourceFile.path.equals(normalizeSourcePath(entry.sourceFile.name)))
+					{
+						continue;
+					}
+
+					boundLines.add(entry.line);
+
+					Location location = new LocationImpl(vm, methods[i], entry.offset);
+					for(SourceLineBreakpointRequest request : requests)
+					{
+						// checked and bound under the lock, so that two callers do not bind the same location
+						if(request.isBoundAt(location))
+						{
+							continue;
+						}
+
+						BreakpointRequest boundRequest = new BreakpointRequest(vm, this, location, request);
+						boundRequest.filters.addAll(request.filters);
+						boundRequest.setSuspendPolicy(request.suspendPolicy());
+						boundRequest.setCondition(request.condition());
+						request.addBoundRequest(boundRequest);
+						newRequests.add(boundRequest);
+					}
+				}
+			}
+		}
+
+		if(newRequests.isEmpty())
+		{
+			return;
+		}
+
+		for(EventRequest failedRequest : enableAll(newRequests).keySet())
+		{
+			BreakpointRequest breakpointRequest = (BreakpointRequest) failedRequest;
+			breakpointRequest.sourceLineRequest().removeBoundRequest(breakpointRequest);
+		}
+	}
+
+	@Nonnull
+	private static String normalizeSourcePath(@Nonnull String path)
+	{
+		return path.replace('\\', '/');
+	}
+
 	public List<? extends EventRequest> requestList(EventKind eventCmd)
 	{
 		return myEventRequests.get(eventCmd);
@@ -28,10 +28,15 @@ package mono.debugger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.annotation.Nonnull;
 import mono.debugger.event.*;
+import mono.debugger.request.BreakpointCondition;
+import mono.debugger.request.BreakpointConditionStatistics;
+import mono.debugger.request.BreakpointRequest;
 import mono.debugger.request.EventRequest;
 
 /*
@@ -54,6 +59,27 @@ public class EventSetImpl extends ArrayList<Event> implements EventSet
 	private VirtualMachineImpl vm; // we implement Mirror
 	private Packet pkt;
 	private SuspendPolicy suspendPolicy;
+	private boolean built;
+	// not a monitor: decoding and building send commands, and wait for their replies under it
+	private final ReentrantLock lock = new ReentrantLock();
+	// progress of a decode() which failed half way, so that a retry runs no filter twice
+	private transient Decoding decoding;
+
+	private static final class Decoding
+	{
+		final JDWP.Event.Composite composite;
+		final EventImpl[] events;
+		final List<EventImpl> kept;
+		int filtered;
+		boolean dropped;
+
+		Decoding(JDWP.Event.Composite composite, EventImpl[] events)
+		{
+			this.composite = composite;
+			this.events = events;
+			this.kept = new ArrayList<EventImpl>(events.length);
+		}
+	}
 
 	@Override
 	public String toString()
@@ -176,29 +202,162 @@ public class EventSetImpl extends ArrayList<Event> implements EventSet
 	}
 
 	/*
-	 * Complete the construction of an EventSet.  This is called from
-	 * an event handler thread.  It upacks the JDWP events inside
-	 * the packet and creates EventImpls for them.  The EventSet is already
-	 * on EventQueues when this is called, so it has to be synch.
+	 * Unpack the JDWP events inside the packet, create EventImpls for them and
+	 * run them through the breakpoint conditions and the exception monitor.
+	 * Those send commands to the target VM, and the VM is resumed here when
+	 * every event was filtered out, so whichever thread runs this, a consumer
+	 * or an event decoder thread (see VirtualMachineImpl.setEventDecoderThreads()),
+	 * talks to the back-end. Calling it more than once is a no-op, and after a
+	 * failure half way a call picks up after the last filter which completed.
 	 */
-	synchronized void build()
+	void decode()
+	{
+		lock.lock();
+		try
+		{
+			doDecode();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void doDecode()
 	{
 		if(pkt == null)
 		{
 			return;
 		}
-		PacketStream ps = new PacketStream(vm, pkt);
-		JDWP.Event.Composite compEvt = new JDWP.Event.Composite(vm, ps);
-		suspendPolicy = SuspendPolicy.values()[compEvt.suspendPolicy];
+		Decoding decoding = this.decoding;
+		if(decoding == null)
+		{
+			PacketStream ps = new PacketStream(vm, pkt);
+			JDWP.Event.Composite compEvt = new JDWP.Event.Composite(vm, ps);
+			EventImpl[] events = new EventImpl[compEvt.events.length];
+			for(int i = 0; i < compEvt.events.length; i++)
+			{
+				events[i] = createEvent(compEvt.events[i]);
+			}
+			decoding = this.decoding = new Decoding(compEvt, events);
+		}
 
-		for(int i = 0; i < compEvt.events.length; i++)
+		// filters count hits and send commands, a filter which completed is not run again on a retry
+		for(; decoding.filtered < decoding.events.length; decoding.filtered++)
 		{
-			EventImpl evt = createEvent(compEvt.events[i]);
+			EventImpl evt = decoding.events[decoding.filtered];
+			if(evt instanceof BreakpointEvent && !shouldStop((BreakpointEvent) evt) ||
+					evt instanceof ExceptionEvent && vm.exceptionMonitor().handleEvent((ExceptionEvent) evt))
+			{
+				decoding.dropped = true;
+				continue;
+			}
+			decoding.kept.add(evt);
+		}
 
+		for(EventImpl evt : decoding.kept)
+		{
 			addEvent(evt);
 		}
+		for(JDWP.Event.Composite.Events evt : decoding.composite.events)
+		{
+			vm.protocolMetrics().eventDecoded(evt.eventKind);
+		}
+		SuspendPolicy policy = SuspendPolicy.values()[decoding.composite.suspendPolicy];
+		boolean dropped = decoding.dropped;
+		this.decoding = null;
 		pkt = null; // No longer needed - free it up
 
+		// Every event was a breakpoint with a false condition, or counted by the
+		// exception monitor. Resume right here,
+		// without going through the event queue consumer.
+		if(dropped && super.isEmpty())
+		{
+			if(policy != SuspendPolicy.NONE)
+			{
+				vm.resume();
+			}
+			policy = SuspendPolicy.NONE;
+		}
+		suspendPolicy = policy;
+	}
+
+	private boolean shouldStop(BreakpointEvent event)
+	{
+		EventRequest request = event.request();
+		if(!(request instanceof BreakpointRequest))
+		{
+			return true;
+		}
+
+		BreakpointRequest breakpointRequest = (BreakpointRequest) request;
+		BreakpointCondition condition = breakpointRequest.condition();
+		if(condition == null)
+		{
+			return true;
+		}
+
+		BreakpointConditionStatistics statistics = breakpointRequest.conditionStatistics();
+		long hitCount = statistics.hit();
+		long start = System.nanoTime();
+		boolean stop;
+		boolean error = false;
+		try
+		{
+			stop = condition.shouldStop(new FrameSnapshot(vm, event.thread(), event.location(), hitCount));
+		}
+		catch(RuntimeException e)
+		{
+			stop = true;
+			error = true;
+		}
+		statistics.evaluated(stop, error, System.nanoTime() - start);
+		return stop;
+	}
+
+	/*
+	 * Complete the construction of an EventSet.  This is called from
+	 * an event handler thread.  It upacks the JDWP events inside
+	 * the packet (unless a decoder thread already did it).
+	 * The EventSet is already on EventQueues when this is called, so it has to be synch.
+	 */
+	void build()
+	{
+		lock.lock();
+		try
+		{
+			doBuild();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void doBuild()
+	{
+		if(built)
+		{
+			return;
+		}
+		built = true;
+
+		FlightRecorderEvents.EventSetBuildEvent recorderEvent = new FlightRecorderEvents.EventSetBuildEvent();
+		recorderEvent.begin();
+
+		decode();
+
+		// Events of our internal requests are handled here and never seen by the client
+		EventRequestManagerImpl eventRequestManager = vm.eventRequestManagerImpl();
+		for(int i = super.size() - 1; i >= 0; i--)
+		{
+			Event event = get(i);
+			if(event != null && eventRequestManager.handleInternalEvent(event))
+			{
+				super.remove(i);
+			}
+		}
+
 		// Avoid hangs described in 6296125, 6293795
 		if(super.size() == 0)
 		{
@@ -212,6 +371,13 @@ public class EventSetImpl extends ArrayList<Event> implements EventSet
 
 		}
 
+		if(recorderEvent.shouldCommit())
+		{
+			recorderEvent.vm = vm.sequenceNumber;
+			recorderEvent.eventCount = super.size();
+			recorderEvent.suspendPolicy = suspendPolicy.name();
+			recorderEvent.commit();
+		}
 	}
 
 	/**
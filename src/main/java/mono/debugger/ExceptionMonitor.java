@@ -0,0 +1,327 @@
+package mono.debugger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.event.ExceptionEvent;
+import mono.debugger.protocol.ObjectReference_GetType;
+import mono.debugger.protocol.Thread_GetFrameInfo;
+import mono.debugger.request.ExceptionRequest;
+
+/**
+ * Counts exceptions thrown in the target VM, caught or not, without delivering them to the event queue.
+ * <p/>
+ * Exceptions are counted by type, and by throw location if asked for. Mono does not send the throw location with
+ * the event, so locations need the throwing thread suspended: with locations the monitor's request has
+ * {@link SuspendPolicy#EVENT_THREAD}, and the decode stage reads the top frames and resumes right away.
+ * Without locations the request has {@link SuspendPolicy#NONE} and only the type of the exception is read.
+ * Either way each exception costs one round trip, made on the thread which decodes the event set, see
+ * {@link VirtualMachineImpl#setEventDecoderThreads(int)}.
+ *
+ * @since 2026-10-19
+ */
+public class ExceptionMonitor
+{
+	/**
+	 * Exceptions of one type thrown at one location
+	 */
+	public static final class ExceptionStatistics
+	{
+		private final TypeMirror myType;
+		private final Location myLocation;
+		private final AtomicLong myCount = new AtomicLong();
+		private final long myFirstTimeMillis;
+		private volatile long myLastTimeMillis;
+		// guarded by itself
+		private final List<List<Location>> mySamples = new ArrayList<List<Location>>();
+
+		private ExceptionStatistics(TypeMirror type, Location location, long timeMillis)
+		{
+			myType = type;
+			myLocation = location;
+			myFirstTimeMillis = timeMillis;
+		}
+
+		@Nonnull
+		public TypeMirror type()
+		{
+			return myType;
+		}
+
+		/**
+		 * @return top frame of the throwing thread, or null if locations are not captured
+		 */
+		@Nullable
+		public Location location()
+		{
+			return myLocation;
+		}
+
+		public long count()
+		{
+			return myCount.get();
+		}
+
+		public long firstTimeMillis()
+		{
+			return myFirstTimeMillis;
+		}
+
+		public long lastTimeMillis()
+		{
+			return myLastTimeMillis;
+		}
+
+		/**
+		 * @return stacks of the first throws, top frame first
+		 */
+		@Nonnull
+		public List<List<Location>> stackSamples()
+		{
+			synchronized(mySamples)
+			{
+				return new ArrayList<List<Location>>(mySamples);
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return myType.fullName() + (myLocation == null ? "" : " at " + myLocation.method().name() + ":" + myLocation.codeIndex()) + " x" + count();
+		}
+	}
+
+	private static final class Key
+	{
+		private final int myTypeId;
+		private final int myMethodId;
+		private final long myCodeIndex;
+
+		private Key(int typeId, int methodId, long codeIndex)
+		{
+			myTypeId = typeId;
+			myMethodId = methodId;
+			myCodeIndex = codeIndex;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key))
+			{
+				return false;
+			}
+			Key key = (Key) o;
+			return myTypeId == key.myTypeId && myMethodId == key.myMethodId && myCodeIndex == key.myCodeIndex;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(myTypeId, myMethodId, myCodeIndex);
+		}
+	}
+
+	private final VirtualMachineImpl myVm;
+
+	private final Map<Key, ExceptionStatistics> myStatistics = new ConcurrentHashMap<Key, ExceptionStatistics>();
+	private final AtomicLong myTotalCount = new AtomicLong();
+	private final AtomicLong myErrorCount = new AtomicLong();
+
+	// not a monitor, start() and stop() send commands under it
+	private final ReentrantLock myLock = new ReentrantLock();
+
+	// written under myLock
+	private volatile ExceptionRequest myRequest;
+	private volatile boolean myCaptureLocations;
+	private volatile int mySamplesPerKey;
+	private volatile int myMaxFrames;
+
+	ExceptionMonitor(@Nonnull VirtualMachineImpl vm)
+	{
+		myVm = vm;
+	}
+
+	/**
+	 * Starts counting exceptions. Counts collected before are kept, see {@link #reset()}.
+	 *
+	 * @param captureLocations count by type and throw location instead of by type only
+	 * @param samplesPerKey    how many stacks to keep for each type and location, needs <code>captureLocations</code>
+	 * @param maxFrames        how many frames from the top are kept in a stack sample
+	 */
+	public void start(boolean captureLocations, int samplesPerKey, int maxFrames)
+	{
+		myLock.lock();
+		try
+		{
+			doStart(captureLocations, samplesPerKey, maxFrames);
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void doStart(boolean captureLocations, int samplesPerKey, int maxFrames)
+	{
+		if(samplesPerKey < 0 || maxFrames < 1)
+		{
+			throw new IllegalArgumentException("samplesPerKey is negative or maxFrames is not positive");
+		}
+		if(myRequest != null)
+		{
+			throw new IllegalStateException("Monitor is already running");
+		}
+
+		myCaptureLocations = captureLocations;
+		mySamplesPerKey = captureLocations ? samplesPerKey : 0;
+		myMaxFrames = maxFrames;
+
+		ExceptionRequest request = new ExceptionRequest(null, true, true, true, myVm, myVm.eventRequestManagerImpl());
+		request.setSuspendPolicy(captureLocations ? SuspendPolicy.EVENT_THREAD : SuspendPolicy.NONE);
+		myRequest = request;
+		try
+		{
+			request.enable();
+		}
+		catch(RuntimeException e)
+		{
+			myRequest = null;
+			throw e;
+		}
+	}
+
+	public void stop()
+	{
+		myLock.lock();
+		try
+		{
+			ExceptionRequest request = myRequest;
+			if(request == null)
+			{
+				return;
+			}
+			try
+			{
+				request.delete();
+			}
+			finally
+			{
+				myRequest = null;
+			}
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	public boolean isRunning()
+	{
+		return myRequest != null;
+	}
+
+	/**
+	 * Drops all counts and samples
+	 */
+	public void reset()
+	{
+		myStatistics.clear();
+		myTotalCount.set(0);
+		myErrorCount.set(0);
+	}
+
+	public long totalCount()
+	{
+		return myTotalCount.get();
+	}
+
+	/**
+	 * @return exceptions which could not be counted, because the type or stack could not be read
+	 */
+	public long errorCount()
+	{
+		return myErrorCount.get();
+	}
+
+	/**
+	 * @return the most thrown type and location pairs, most thrown first
+	 */
+	@Nonnull
+	public List<ExceptionStatistics> topOffenders(int limit)
+	{
+		List<ExceptionStatistics> list = new ArrayList<ExceptionStatistics>(myStatistics.values());
+		list.sort((o1, o2) -> Long.compare(o2.count(), o1.count()));
+		return list.size() > limit ? new ArrayList<ExceptionStatistics>(list.subList(0, limit)) : list;
+	}
+
+	/**
+	 * Called from the decode stage of an event set.
+	 *
+	 * @return true if the event belongs to the monitor, and must not be delivered
+	 */
+	boolean handleEvent(@Nonnull ExceptionEvent event)
+	{
+		ExceptionRequest request = myRequest;
+		if(request == null || event.request() != request)
+		{
+			return false;
+		}
+
+		long timeMillis = System.currentTimeMillis();
+		myTotalCount.incrementAndGet();
+
+		ThreadMirror thread = event.thread();
+		ObjectValueMirror exception = event.exception();
+		try
+		{
+			TypeMirror type;
+			List<Location> stack = Collections.emptyList();
+			if(myCaptureLocations)
+			{
+				// the thread is suspended, ask for the type and the stack in one round trip
+				int frames = mySamplesPerKey > 0 ? myMaxFrames : 1;
+				PacketStream typeStream = ObjectReference_GetType.enqueueCommand(myVm, exception);
+				PacketStream framesStream = Thread_GetFrameInfo.enqueueCommand(myVm, thread, 0, frames);
+				type = ObjectReference_GetType.waitForReply(myVm, typeStream).type;
+				Thread_GetFrameInfo.Frame[] frameInfos = Thread_GetFrameInfo.waitForReply(myVm, framesStream).frames;
+				stack = new ArrayList<Location>(frameInfos.length);
+				for(Thread_GetFrameInfo.Frame frame : frameInfos)
+				{
+					stack.add(frame.location);
+				}
+			}
+			else
+			{
+				type = ObjectReference_GetType.process(myVm, exception).type;
+			}
+
+			Location location = stack.isEmpty() ? null : stack.get(0);
+			Key key = new Key(type.id(), location == null ? 0 : location.method().id(), location == null ? -1 : location.codeIndex());
+			ExceptionStatistics statistics = myStatistics.computeIfAbsent(key, k -> new ExceptionStatistics(type, location, timeMillis));
+			long count = statistics.myCount.incrementAndGet();
+			statistics.myLastTimeMillis = timeMillis;
+			if(count <= mySamplesPerKey)
+			{
+				synchronized(statistics.mySamples)
+				{
+					statistics.mySamples.add(Collections.unmodifiableList(stack));
+				}
+			}
+		}
+		catch(JDWPException | RuntimeException e)
+		{
+			// the exception object can be collected, or the thread gone, before we ask
+			myErrorCount.incrementAndGet();
+		}
+		return true;
+	}
+}
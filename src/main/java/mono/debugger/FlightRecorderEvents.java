@@ -0,0 +1,133 @@
+package mono.debugger;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the debugger, so that a stall of the debugger can be told apart from the rest of
+ * a recording of the IDE. An event costs nothing but an allocation unless a recording has it enabled: the code
+ * creating it checks {@link Event#isEnabled()} before filling it in.
+ *
+ * @since 2026-10-19
+ */
+final class FlightRecorderEvents
+{
+	private static final String CATEGORY = "Mono Debugger";
+
+	@Name("mono.debugger.Command")
+	@Label("Debugger Command")
+	@Description("A command sent to the debuggee, from sending it to reading its reply")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class CommandEvent extends Event
+	{
+		@Label("Virtual Machine")
+		int vm;
+
+		@Label("Command Set")
+		int commandSet;
+
+		@Label("Command")
+		int command;
+
+		@Label("Name")
+		String name;
+
+		@Label("Requesting Thread")
+		Thread requestingThread;
+
+		@Label("Bytes Sent")
+		@DataAmount
+		int bytesSent;
+
+		@Label("Bytes Received")
+		@DataAmount
+		int bytesReceived;
+
+		@Label("Error Code")
+		int errorCode;
+	}
+
+	@Name("mono.debugger.EventSetBuild")
+	@Label("Debugger Event Set Build")
+	@Description("An event set turned into events when it is taken from the event queue")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class EventSetBuildEvent extends Event
+	{
+		@Label("Virtual Machine")
+		int vm;
+
+		@Label("Events")
+		@Description("Events left for the client, after internal ones were handled")
+		int eventCount;
+
+		@Label("Suspend Policy")
+		String suspendPolicy;
+	}
+
+	@Name("mono.debugger.Freeze")
+	@Label("Debugger Freeze")
+	@Description("The debuggee was seen suspended, so state may be cached")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class FreezeEvent extends Event
+	{
+		@Label("Virtual Machine")
+		int vm;
+
+		@Label("Cache Enabled")
+		@Description("False if the debuggee was already frozen, or a resume is still pending")
+		boolean cacheEnabled;
+	}
+
+	@Name("mono.debugger.Thaw")
+	@Label("Debugger Thaw")
+	@Description("The debuggee or one of its threads is resuming, so cached state is dropped")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class ThawEvent extends Event
+	{
+		@Label("Virtual Machine")
+		int vm;
+
+		@Label("Resuming Thread")
+		@Description("Id of the thread being resumed, or 0 if all threads are")
+		int threadId;
+	}
+
+	@Name("mono.debugger.Invoke")
+	@Label("Debugger Invoke")
+	@Description("A method invoked in the debuggee")
+	@Category(CATEGORY)
+	static final class InvokeEvent extends Event
+	{
+		@Label("Virtual Machine")
+		int vm;
+
+		@Label("Method Id")
+		int methodId;
+
+		@Label("Method Name")
+		@Description("Null if the name was not loaded by the debugger yet")
+		String methodName;
+
+		@Label("Thread Id")
+		int threadId;
+
+		@Label("Invoke Flags")
+		int invokeFlags;
+
+		@Label("Failed")
+		boolean failed;
+	}
+
+	private FlightRecorderEvents()
+	{
+	}
+}
@@ -0,0 +1,204 @@
+package mono.debugger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.protocol.ObjectReference_GetValues;
+import mono.debugger.protocol.StackFrame_GetThis;
+import mono.debugger.protocol.StackFrame_GetValues;
+
+/**
+ * Top frame of a thread suspended by an event, as seen by a {@link mono.debugger.request.BreakpointCondition}.
+ * <p/>
+ * Nothing is fetched until asked for. The first access to {@link #thisObject()} or a value fetches
+ * <code>this</code> and all live locals and parameters together, with the commands pipelined,
+ * so a condition over any number of values costs two round trips (frame and values).
+ *
+ * @since 2026-10-19
+ */
+public class FrameSnapshot
+{
+	private final VirtualMachineImpl myVm;
+	private final ThreadMirror myThread;
+	private final Location myLocation;
+	private final long myHitCount;
+
+	private StackFrameMirror myFrame;
+	private Value<?> myThisObject;
+	private Map<String, Value<?>> myValues;
+
+	public FrameSnapshot(@Nonnull VirtualMachine vm, @Nonnull ThreadMirror thread, @Nonnull Location location, long hitCount)
+	{
+		myVm = (VirtualMachineImpl) vm;
+		myThread = thread;
+		myLocation = location;
+		myHitCount = hitCount;
+	}
+
+	@Nonnull
+	public ThreadMirror thread()
+	{
+		return myThread;
+	}
+
+	@Nonnull
+	public Location location()
+	{
+		return myLocation;
+	}
+
+	/**
+	 * @return how many times the breakpoint was hit, including this hit
+	 */
+	public long hitCount()
+	{
+		return myHitCount;
+	}
+
+	@Nonnull
+	public StackFrameMirror frame()
+	{
+		if(myFrame == null)
+		{
+			List<StackFrameMirror> frames = myThread.frames(0, 1);
+			if(frames.isEmpty())
+			{
+				throw new InternalException("Thread has no frames");
+			}
+			myFrame = frames.get(0);
+		}
+		return myFrame;
+	}
+
+	/**
+	 * @return <code>this</code> of the frame, or null for static methods
+	 */
+	@Nullable
+	public Value<?> thisObject()
+	{
+		fetchValues();
+		return myThisObject;
+	}
+
+	/**
+	 * @return value of a local variable or parameter, or null if there is none with this name
+	 */
+	@Nullable
+	public Value<?> value(@Nonnull String name)
+	{
+		fetchValues();
+		return myValues.get(name);
+	}
+
+	/**
+	 * @return values of live locals and parameters by name
+	 */
+	@Nonnull
+	public Map<String, Value<?>> values()
+	{
+		fetchValues();
+		return Collections.unmodifiableMap(myValues);
+	}
+
+	/**
+	 * Reads fields of {@link #thisObject()} with a single command. Fields are looked up by name in the
+	 * declaring type of the method and its base types.
+	 *
+	 * @return values by field name, fields which are not found (or a static method) are missing
+	 */
+	@Nonnull
+	public Map<String, Value<?>> fieldValues(@Nonnull String... names)
+	{
+		Map<String, Value<?>> values = new LinkedHashMap<String, Value<?>>();
+		Value<?> thisObject = thisObject();
+		if(!(thisObject instanceof ObjectValueMirror) || names.length == 0)
+		{
+			return values;
+		}
+
+		List<FieldMirror> fields = new ArrayList<FieldMirror>(names.length);
+		List<FieldMirror> allFields = myLocation.method().declaringType().fieldsDeep();
+		for(String name : names)
+		{
+			for(FieldMirror field : allFields)
+			{
+				if(!field.isStatic() && field.name().equals(name))
+				{
+					fields.add(field);
+					break;
+				}
+			}
+		}
+
+		if(fields.isEmpty())
+		{
+			return values;
+		}
+
+		FieldMirror[] array = fields.toArray(new FieldMirror[fields.size()]);
+		try
+		{
+			Value<?>[] result = ObjectReference_GetValues.process(myVm, (ObjectValueMirror) thisObject, array).values;
+			for(int i = 0; i < array.length; i++)
+			{
+				values.put(array[i].name(), result[i]);
+			}
+		}
+		catch(JDWPException e)
+		{
+			throw e.asUncheckedException();
+		}
+		return values;
+	}
+
+	private void fetchValues()
+	{
+		if(myValues != null)
+		{
+			return;
+		}
+
+		StackFrameMirror frame = frame();
+		MethodMirror method = myLocation.method();
+
+		List<LocalVariableOrParameterMirror> mirrors = new ArrayList<LocalVariableOrParameterMirror>();
+		Collections.addAll(mirrors, method.parameters());
+		Collections.addAll(mirrors, method.locals(myLocation.codeIndex()));
+
+		Map<String, Value<?>> values = new LinkedHashMap<String, Value<?>>();
+		if(frame.flags().contains(StackFrameMirror.StackFrameFlags.NATIVE_TRANSITION))
+		{
+			myValues = values;
+			return;
+		}
+
+		LocalVariableOrParameterMirror[] array = mirrors.toArray(new LocalVariableOrParameterMirror[mirrors.size()]);
+		PacketStream thisStream = method.isStatic() ? null : StackFrame_GetThis.enqueueCommand(myVm, myThread, frame);
+		PacketStream valuesStream = array.length == 0 ? null : StackFrame_GetValues.enqueueCommand(myVm, myThread, frame, array);
+		try
+		{
+			if(thisStream != null)
+			{
+				myThisObject = StackFrame_GetThis.waitForReply(myVm, thisStream).value;
+			}
+			if(valuesStream != null)
+			{
+				Value<?>[] result = StackFrame_GetValues.waitForReply(myVm, valuesStream, array.length).values;
+				for(int i = 0; i < array.length; i++)
+				{
+					values.put(array[i].name(), result[i]);
+				}
+			}
+		}
+		catch(JDWPException e)
+		{
+			throw e.asUncheckedException();
+		}
+		myValues = values;
+	}
+}
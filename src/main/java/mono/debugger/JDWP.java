@@ -445,13 +445,13 @@ public class JDWP
 					void write(PacketStream ps, VirtualMachineImpl vm)
 					{
 						ps.writeId(exceptionOrNull);
-						if(vm.isAtLeastVersion(2, 0))
+						if(vm.protocolFeatures().exceptionModifierCaughtFlags())
 						{
 							ps.writeByteBool(caught);
 							ps.writeByteBool(uncaught);
 						}
 
-						if(vm.isAtLeastVersion(2, 24))
+						if(vm.protocolFeatures().exceptionModifierSubclasses())
 						{
 							ps.writeByteBool(mySubclasses);
 						}
@@ -504,7 +504,7 @@ public class JDWP
 						ps.writeId(thread);
 						ps.writeInt(size.ordinal());
 						ps.writeInt(depth.ordinal());
-						if(vm.isAtLeastVersion(2, 16))
+						if(vm.protocolFeatures().stepModifierFilter())
 						{
 							ps.writeInt(0); //TODO [VISTALL] filter
 						}
@@ -615,7 +615,7 @@ public class JDWP
 				return waitForReply(vm, ps);
 			}
 
-			static PacketStream enqueueCommand(VirtualMachineImpl vm, byte eventKind, int suspendPolicy, Modifier[] modifiers)
+			public static PacketStream enqueueCommand(VirtualMachineImpl vm, byte eventKind, int suspendPolicy, Modifier[] modifiers)
 			{
 				PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 				ps.writeByte(eventKind);
@@ -629,7 +629,7 @@ public class JDWP
 				return ps;
 			}
 
-			static Set waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+			public static Set waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 			{
 				ps.waitForReply();
 				return new Set(vm, ps);
@@ -674,7 +674,7 @@ public class JDWP
 				return waitForReply(vm, ps);
 			}
 
-			static PacketStream enqueueCommand(VirtualMachineImpl vm, byte eventKind, int requestID)
+			public static PacketStream enqueueCommand(VirtualMachineImpl vm, byte eventKind, int requestID)
 			{
 				PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 				ps.writeByte(eventKind);
@@ -683,7 +683,7 @@ public class JDWP
 				return ps;
 			}
 
-			static Clear waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+			public static Clear waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 			{
 				ps.waitForReply();
 				return new Clear(vm, ps);
@@ -1326,7 +1326,7 @@ public class JDWP
 						thread = ps.readThreadMirror();
 						level = ps.readInt();
 						category = ps.readString();
-						message = ps.readString();
+						message = ps.readUncachedString();
 					}
 				}
 
@@ -1380,7 +1380,7 @@ public class JDWP
 					{
 						requestID = ps.readInt();
 						thread = ps.readThreadMirror();
-						exitCode = vm.isAtLeastVersion(2, 27) ? ps.readInt() : 0;
+						exitCode = vm.protocolFeatures().vmDeathExitCode() ? ps.readInt() : 0;
 					}
 				}
 			}
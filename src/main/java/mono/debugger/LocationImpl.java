@@ -121,7 +121,7 @@ public class LocationImpl extends MirrorImpl implements Location
 			return null;
 		}
 
-		Method_GetDebugInfo.Entry[] entries = myMethodMirror.debugInfo();
+		Method_GetDebugInfo.Entry[] entries = myMethodMirror.debugEntries();
 
 		for(int i = entries.length - 1; i >= 0; --i)
 		{
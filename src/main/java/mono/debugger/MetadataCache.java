@@ -0,0 +1,124 @@
+package mono.debugger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Metadata which does not depend on the process, shared by all virtual machines of a
+ * {@link VirtualMachineManagerImpl}. Mirror ids differ between processes, so entries are keyed by
+ * {@link AssemblyMirror#metadataIdentity()} and metadata token instead.
+ * <p/>
+ * Only payloads without mirrors are cached - today the line tables of methods, which are the
+ * biggest part of the metadata read when breakpoints are bound. Entries are never changed after they are put,
+ * so they can be used by any number of virtual machines at once.
+ * <p/>
+ * The cache holds at most <code>maxEntries</code> entries, when it is full new entries are not added.
+ *
+ * @see VirtualMachineManagerImpl#setMetadataCache(MetadataCache)
+ * @since 2026-10-19
+ */
+public class MetadataCache
+{
+	public enum Kind
+	{
+		METHOD_DEBUG_INFO
+	}
+
+	private static final class Key
+	{
+		private final String myAssembly;
+		private final int myToken;
+		private final Kind myKind;
+
+		private Key(String assembly, int token, Kind kind)
+		{
+			myAssembly = assembly;
+			myToken = token;
+			myKind = kind;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key))
+			{
+				return false;
+			}
+			Key key = (Key) o;
+			return myToken == key.myToken && myKind == key.myKind && myAssembly.equals(key.myAssembly);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(myAssembly, myToken, myKind);
+		}
+	}
+
+	private final Map<Key, Object> myEntries = new ConcurrentHashMap<Key, Object>();
+	private final int myMaxEntries;
+	private final AtomicLong myHits = new AtomicLong();
+	private final AtomicLong myMisses = new AtomicLong();
+
+	public MetadataCache(int maxEntries)
+	{
+		if(maxEntries < 1)
+		{
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		myMaxEntries = maxEntries;
+	}
+
+	@Nullable
+	public <T> T get(@Nonnull String assembly, int token, @Nonnull Kind kind, @Nonnull Class<T> type)
+	{
+		Object value = myEntries.get(new Key(assembly, token, kind));
+		if(value == null)
+		{
+			myMisses.incrementAndGet();
+			return null;
+		}
+		myHits.incrementAndGet();
+		return type.cast(value);
+	}
+
+	public void put(@Nonnull String assembly, int token, @Nonnull Kind kind, @Nonnull Object value)
+	{
+		// the size check races with other puts, going over by a few entries is fine
+		if(myEntries.size() < myMaxEntries)
+		{
+			myEntries.putIfAbsent(new Key(assembly, token, kind), value);
+		}
+	}
+
+	public int size()
+	{
+		return myEntries.size();
+	}
+
+	public long hits()
+	{
+		return myHits.get();
+	}
+
+	public long misses()
+	{
+		return myMisses.get();
+	}
+
+	public void clear()
+	{
+		myEntries.clear();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "MetadataCache{size=" + size() + ", hits=" + hits() + ", misses=" + misses() + "}";
+	}
+}
@@ -96,7 +96,7 @@ public class MethodMirror extends CustomAttributeMirrorOwner implements MirrorWi
 
 	public int maxCodeIndex()
 	{
-		debugInfo();
+		debugEntries();
 		return myMaxCodeIndex;
 	}
 
@@ -134,25 +134,63 @@ public class MethodMirror extends CustomAttributeMirrorOwner implements MirrorWi
 		{
 			throw new IllegalArgumentException("Wrong count of arguments");
 		}
+		FlightRecorderEvents.InvokeEvent event = new FlightRecorderEvents.InvokeEvent();
+		event.begin();
+		event.failed = true;
 		try
 		{
 			thisObject = thisObject == null ? new NoObjectValueMirror(vm) : thisObject;
-			return VirtualMachine_InvokeMethod.process(vm, threadMirror, invokeFlags, this, thisObject, arguments).getValue();
+			InvokeResult result = VirtualMachine_InvokeMethod.process(vm, threadMirror, invokeFlags, this, thisObject, arguments).getValue();
+			event.failed = false;
+			return result;
 		}
 		catch(JDWPException e)
 		{
 			throw e.asUncheckedException();
 		}
+		finally
+		{
+			if(event.shouldCommit())
+			{
+				event.vm = vm.sequenceNumber;
+				event.methodId = id();
+				event.methodName = loadedName();
+				event.threadId = threadMirror.id();
+				event.invokeFlags = invokeFlags;
+				event.commit();
+			}
+		}
 	}
 
+	/**
+	 * @return metadata token of the method, unique within its assembly
+	 */
+	public int token()
+	{
+		return info().token;
+	}
+
+	/**
+	 * @return copy of the line table, entries are immutable and may be shared with other virtual machines
+	 */
 	@Nonnull
 	public Method_GetDebugInfo.Entry[] debugInfo()
+	{
+		return debugEntries().clone();
+	}
+
+	/**
+	 * @return the line table itself, which must not be changed
+	 */
+	@Nonnull
+	Method_GetDebugInfo.Entry[] debugEntries()
 	{
 		if(myMaxCodeIndex == Integer.MIN_VALUE)
 		{
 			try
 			{
-				Method_GetDebugInfo process = Method_GetDebugInfo.process(vm, this);
+				MetadataCache cache = vm.vmManager.metadataCache();
+				Method_GetDebugInfo process = cache == null ? Method_GetDebugInfo.process(vm, this) : cachedDebugInfo(cache);
 				myDebugEntries = process.entries;
 				myMaxCodeIndex = process.maxIndex;
 			}
@@ -165,6 +203,63 @@ public class MethodMirror extends CustomAttributeMirrorOwner implements MirrorWi
 		return myDebugEntries;
 	}
 
+	/*
+	 * The cache is keyed by assembly identity and token, and only used when both are known without
+	 * asking the target VM, so that it never costs a round trip. Otherwise the declaring type and info
+	 * are asked for in the same round trip as the debug info, for the next lookups.
+	 */
+	private Method_GetDebugInfo cachedDebugInfo(MetadataCache cache) throws JDWPException
+	{
+		String assembly = loadedMetadataAssembly();
+		if(assembly != null)
+		{
+			Method_GetDebugInfo process = cache.get(assembly, myInfo.token, MetadataCache.Kind.METHOD_DEBUG_INFO, Method_GetDebugInfo.class);
+			if(process == null)
+			{
+				process = Method_GetDebugInfo.process(vm, this);
+				cache.put(assembly, myInfo.token, MetadataCache.Kind.METHOD_DEBUG_INFO, process);
+			}
+			return process;
+		}
+
+		PacketStream typeStream = myDeclarationType == null ? Method_GetDeclarationType.enqueueCommand(vm, this) : null;
+		PacketStream infoStream = myInfo == null ? Method_GetInfo.enqueueCommand(vm, this) : null;
+		PacketStream debugInfoStream = Method_GetDebugInfo.enqueueCommand(vm, this);
+		if(typeStream != null)
+		{
+			myDeclarationType = Method_GetDeclarationType.waitForReply(vm, typeStream).declarationType;
+		}
+		if(infoStream != null)
+		{
+			myInfo = Method_GetInfo.waitForReply(vm, infoStream);
+		}
+		Method_GetDebugInfo process = Method_GetDebugInfo.waitForReply(vm, debugInfoStream);
+
+		// shares the entries of another virtual machine if the identity is known by now
+		assembly = loadedMetadataAssembly();
+		if(assembly != null)
+		{
+			Method_GetDebugInfo cached = cache.get(assembly, myInfo.token, MetadataCache.Kind.METHOD_DEBUG_INFO, Method_GetDebugInfo.class);
+			if(cached != null)
+			{
+				return cached;
+			}
+			cache.put(assembly, myInfo.token, MetadataCache.Kind.METHOD_DEBUG_INFO, process);
+		}
+		return process;
+	}
+
+	@Nullable
+	private String loadedMetadataAssembly()
+	{
+		if(myDeclarationType == null || myInfo == null)
+		{
+			return null;
+		}
+		AssemblyMirror assembly = myDeclarationType.loadedAssembly();
+		return assembly == null ? null : assembly.loadedMetadataIdentity();
+	}
+
 	@Nonnull
 	public LocalVariableMirror[] locals()
 	{
@@ -189,7 +284,7 @@ public class MethodMirror extends CustomAttributeMirrorOwner implements MirrorWi
 	@Override
 	protected CustomAttributeMirror[] customAttributesImpl() throws JDWPException
 	{
-		return vm.isAtLeastVersion(2, 21) ? Method_GetCustomAttributes.process(vm, this).customAttributeMirrors : CustomAttributeMirror.EMPTY_ARRAY;
+		return vm.protocolFeatures().methodCustomAttributes() ? Method_GetCustomAttributes.process(vm, this).customAttributeMirrors : CustomAttributeMirror.EMPTY_ARRAY;
 	}
 
 	@Nonnull
@@ -0,0 +1,795 @@
+package mono.debugger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.event.Event;
+import mono.debugger.event.MethodEntryEvent;
+import mono.debugger.event.MethodExitEvent;
+import mono.debugger.request.EventRequest;
+import mono.debugger.request.MethodEntryRequest;
+import mono.debugger.request.MethodExitRequest;
+import mono.debugger.request.TypeVisibleEventRequest;
+
+/**
+ * Call tracing for instrumentation rather than debugging.
+ * <p/>
+ * While running, the tracer owns a method entry and a method exit request with {@link SuspendPolicy#NONE}.
+ * Their events never become {@link EventSetImpl event sets} or {@link Event events}: the transport reader
+ * thread copies thread id, method id and arrival time of each record into reusable primitive buffers, and a
+ * background thread folds the buffers into one call tree per thread. The target VM does not send timestamps,
+ * so times are measured when the packet is read and include transport jitter.
+ * <p/>
+ * Method exit events are not sent for methods which end with an exception, the call tree unwinds them
+ * when an exit of a caller arrives. Calls still running when a snapshot is taken are not counted.
+ *
+ * @since 2026-10-19
+ */
+public class MethodTracer
+{
+	/**
+	 * Node of a call tree snapshot. The root node of a thread has no method.
+	 */
+	public static final class Node
+	{
+		private final int myMethodId;
+		private final MethodMirror myMethod;
+		private final long myCalls;
+		private final long myInclusiveNanos;
+		private final long myExclusiveNanos;
+		private final List<Node> myChildren;
+
+		private Node(int methodId, @Nullable MethodMirror method, long calls, long inclusiveNanos, long exclusiveNanos, List<Node> children)
+		{
+			myMethodId = methodId;
+			myMethod = method;
+			myCalls = calls;
+			myInclusiveNanos = inclusiveNanos;
+			myExclusiveNanos = exclusiveNanos;
+			myChildren = children;
+		}
+
+		public int methodId()
+		{
+			return myMethodId;
+		}
+
+		@Nullable
+		public MethodMirror method()
+		{
+			return myMethod;
+		}
+
+		public long calls()
+		{
+			return myCalls;
+		}
+
+		/**
+		 * @return time spent in calls of this method, including callees
+		 */
+		public long inclusiveNanos()
+		{
+			return myInclusiveNanos;
+		}
+
+		/**
+		 * @return time spent in calls of this method, excluding callees
+		 */
+		public long exclusiveNanos()
+		{
+			return myExclusiveNanos;
+		}
+
+		@Nonnull
+		public List<Node> children()
+		{
+			return myChildren;
+		}
+	}
+
+	/**
+	 * Totals of one method over all threads and callers
+	 */
+	public static final class MethodStatistics
+	{
+		private final MethodMirror myMethod;
+		private long myCalls;
+		private long myInclusiveNanos;
+		private long myExclusiveNanos;
+
+		private MethodStatistics(MethodMirror method)
+		{
+			myMethod = method;
+		}
+
+		@Nonnull
+		public MethodMirror method()
+		{
+			return myMethod;
+		}
+
+		public long calls()
+		{
+			return myCalls;
+		}
+
+		/**
+		 * @return time spent in calls of this method including callees, recursive calls are counted once
+		 */
+		public long inclusiveNanos()
+		{
+			return myInclusiveNanos;
+		}
+
+		public long exclusiveNanos()
+		{
+			return myExclusiveNanos;
+		}
+	}
+
+	private static final int BUFFER_SIZE = 4096;
+	// events beyond this many full buffers are dropped instead of stalling the transport reader
+	private static final int MAX_BUFFERS = 64;
+
+	private static final byte ENTRY = (byte) EventKind.METHOD_ENTRY.ordinal();
+	private static final byte EXIT = (byte) EventKind.METHOD_EXIT.ordinal();
+
+	// kind byte, request id, thread id, method id
+	private static final int RECORD_SIZE = 1 + 4 + 4 + 4;
+
+	private static final class EventBuffer
+	{
+		final int[] threadIds = new int[BUFFER_SIZE];
+		final int[] methodIds = new int[BUFFER_SIZE];
+		final long[] times = new long[BUFFER_SIZE];
+		final boolean[] exits = new boolean[BUFFER_SIZE];
+		int size;
+	}
+
+	private static final class CallNode
+	{
+		final int methodId;
+		long calls;
+		long inclusiveNanos;
+		long exclusiveNanos;
+		int[] childIds = new int[4];
+		CallNode[] children = new CallNode[4];
+		int childCount;
+
+		CallNode(int methodId)
+		{
+			this.methodId = methodId;
+		}
+
+		CallNode child(int id)
+		{
+			for(int i = 0; i < childCount; i++)
+			{
+				if(childIds[i] == id)
+				{
+					return children[i];
+				}
+			}
+			if(childCount == childIds.length)
+			{
+				childIds = Arrays.copyOf(childIds, childCount * 2);
+				children = Arrays.copyOf(children, childCount * 2);
+			}
+			CallNode node = new CallNode(id);
+			childIds[childCount] = id;
+			children[childCount++] = node;
+			return node;
+		}
+	}
+
+	private static final class ThreadCalls
+	{
+		final int threadId;
+		final CallNode root = new CallNode(0);
+		CallNode[] stack = new CallNode[64];
+		long[] entryTimes = new long[64];
+		long[] childNanos = new long[64];
+		int depth;
+
+		ThreadCalls(int threadId)
+		{
+			this.threadId = threadId;
+			stack[0] = root;
+		}
+
+		void enter(int methodId, long time)
+		{
+			CallNode node = stack[depth].child(methodId);
+			if(++depth == stack.length)
+			{
+				stack = Arrays.copyOf(stack, depth * 2);
+				entryTimes = Arrays.copyOf(entryTimes, depth * 2);
+				childNanos = Arrays.copyOf(childNanos, depth * 2);
+			}
+			stack[depth] = node;
+			entryTimes[depth] = time;
+			childNanos[depth] = 0;
+		}
+
+		void exit(int methodId, long time)
+		{
+			int frame = depth;
+			while(frame > 0 && stack[frame].methodId != methodId)
+			{
+				frame--;
+			}
+			// exit of a call which was entered before tracing started
+			if(frame == 0)
+			{
+				return;
+			}
+			// frames above were left by an exception
+			while(depth >= frame)
+			{
+				long inclusive = time - entryTimes[depth];
+				CallNode node = stack[depth];
+				node.calls++;
+				node.inclusiveNanos += inclusive;
+				node.exclusiveNanos += inclusive - childNanos[depth];
+				stack[depth--] = null;
+				childNanos[depth] += inclusive;
+			}
+			stack[0] = root;
+		}
+	}
+
+	private final VirtualMachineImpl myVm;
+
+	// guarded by myBufferLock
+	private final ReentrantLock myBufferLock = new ReentrantLock();
+	private final Condition myBufferFull = myBufferLock.newCondition();
+	private final ArrayDeque<EventBuffer> myFullBuffers = new ArrayDeque<EventBuffer>();
+	private final ArrayDeque<EventBuffer> myFreeBuffers = new ArrayDeque<EventBuffer>();
+	private EventBuffer myCurrentBuffer;
+	private int myBufferCount;
+	private long myDroppedEvents;
+	private Thread myAggregatorThread;
+
+	// guarded by myLock, not a monitor, since start() and stop() send commands
+	private final ReentrantLock myLock = new ReentrantLock();
+	private final Map<Integer, ThreadCalls> myThreads = new HashMap<Integer, ThreadCalls>();
+	private ThreadCalls myLastThread;
+	private long myEventCount;
+
+	// written under myLock
+	private volatile MethodEntryRequest myEntryRequest;
+	private volatile MethodExitRequest myExitRequest;
+
+	// read by the transport reader, 0 while not running
+	private volatile int myEntryRequestId;
+	private volatile int myExitRequestId;
+
+	MethodTracer(@Nonnull VirtualMachineImpl vm)
+	{
+		myVm = vm;
+	}
+
+	/**
+	 * Starts tracing calls of methods in the given assemblies, or of all methods if none are given.
+	 * Calls traced before are kept, see {@link #reset()}.
+	 */
+	public void start(@Nonnull AssemblyMirror... assemblies)
+	{
+		myLock.lock();
+		try
+		{
+			doStart(assemblies);
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void doStart(@Nonnull AssemblyMirror... assemblies)
+	{
+		if(myEntryRequest != null)
+		{
+			throw new IllegalStateException("Tracer is already running");
+		}
+
+		myBufferLock.lock();
+		try
+		{
+			Thread thread = myVm.newThread(this::aggregate, "MDI Method Tracer");
+			myAggregatorThread = thread;
+			thread.start();
+		}
+		finally
+		{
+			myBufferLock.unlock();
+		}
+
+		EventRequestManagerImpl requestManager = myVm.eventRequestManagerImpl();
+		MethodEntryRequest entryRequest = new MethodEntryRequest(myVm, requestManager);
+		MethodExitRequest exitRequest = new MethodExitRequest(myVm, requestManager);
+		for(TypeVisibleEventRequest request : new TypeVisibleEventRequest[]{entryRequest, exitRequest})
+		{
+			if(assemblies.length > 0)
+			{
+				request.addAssemblyFilter(assemblies);
+			}
+			request.setSuspendPolicy(SuspendPolicy.NONE);
+		}
+
+		myEntryRequest = entryRequest;
+		myExitRequest = exitRequest;
+		try
+		{
+			// events which arrive before the ids are known go through handleEvent()
+			Map<EventRequest, RuntimeException> failures = requestManager.enableAll(Arrays.asList(entryRequest, exitRequest));
+			if(!failures.isEmpty())
+			{
+				throw failures.values().iterator().next();
+			}
+		}
+		catch(RuntimeException e)
+		{
+			stop();
+			throw e;
+		}
+		myEntryRequestId = entryRequest.id();
+		myExitRequestId = exitRequest.id();
+	}
+
+	/**
+	 * Stops tracing. Traced calls are kept.
+	 */
+	public void stop()
+	{
+		myLock.lock();
+		try
+		{
+			doStop();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void doStop()
+	{
+		if(myEntryRequest == null)
+		{
+			return;
+		}
+
+		myEntryRequestId = 0;
+		myExitRequestId = 0;
+		try
+		{
+			myVm.eventRequestManagerImpl().deleteAll(Arrays.<EventRequest>asList(myEntryRequest, myExitRequest));
+		}
+		finally
+		{
+			myEntryRequest = null;
+			myExitRequest = null;
+
+			Thread thread;
+			myBufferLock.lock();
+			try
+			{
+				thread = myAggregatorThread;
+				myAggregatorThread = null;
+				myBufferFull.signalAll();
+			}
+			finally
+			{
+				myBufferLock.unlock();
+			}
+			if(thread != null && thread != Thread.currentThread())
+			{
+				thread.interrupt();
+			}
+		}
+	}
+
+	public boolean isRunning()
+	{
+		return myEntryRequest != null;
+	}
+
+	/**
+	 * Drops all traced calls. Calls which are running are forgotten too, their exits are ignored.
+	 */
+	public void reset()
+	{
+		myLock.lock();
+		try
+		{
+			drain();
+			myThreads.clear();
+			myLastThread = null;
+			myEventCount = 0;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+		myBufferLock.lock();
+		try
+		{
+			myDroppedEvents = 0;
+		}
+		finally
+		{
+			myBufferLock.unlock();
+		}
+	}
+
+	/**
+	 * @return events folded into the call trees
+	 */
+	public long eventCount()
+	{
+		myLock.lock();
+		try
+		{
+			drain();
+			return myEventCount;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return events which were dropped because the call trees could not be built fast enough
+	 */
+	public long droppedEventCount()
+	{
+		myBufferLock.lock();
+		try
+		{
+			return myDroppedEvents;
+		}
+		finally
+		{
+			myBufferLock.unlock();
+		}
+	}
+
+	/**
+	 * @return copy of the call tree of each thread which made a traced call
+	 */
+	@Nonnull
+	public Map<ThreadMirror, Node> threadCallTrees()
+	{
+		myLock.lock();
+		try
+		{
+			drain();
+			Map<ThreadMirror, Node> trees = new LinkedHashMap<ThreadMirror, Node>();
+			for(ThreadCalls calls : myThreads.values())
+			{
+				trees.put(new ThreadMirror(myVm, calls.threadId), copy(calls.root));
+			}
+			return trees;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return totals of each traced method over all threads, highest exclusive time first
+	 */
+	@Nonnull
+	public List<MethodStatistics> methodStatistics()
+	{
+		Map<Integer, MethodStatistics> statistics = new HashMap<Integer, MethodStatistics>();
+		myLock.lock();
+		try
+		{
+			drain();
+			List<Integer> path = new ArrayList<Integer>();
+			for(ThreadCalls calls : myThreads.values())
+			{
+				for(int i = 0; i < calls.root.childCount; i++)
+				{
+					collect(calls.root.children[i], path, statistics);
+				}
+			}
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+
+		List<MethodStatistics> list = new ArrayList<MethodStatistics>(statistics.values());
+		list.sort((o1, o2) -> Long.compare(o2.myExclusiveNanos, o1.myExclusiveNanos));
+		return list;
+	}
+
+	private void collect(CallNode node, List<Integer> path, Map<Integer, MethodStatistics> statistics)
+	{
+		MethodStatistics methodStatistics = statistics.get(node.methodId);
+		if(methodStatistics == null)
+		{
+			methodStatistics = new MethodStatistics(myVm.getOrCreateMethodMirror(node.methodId));
+			statistics.put(node.methodId, methodStatistics);
+		}
+		methodStatistics.myCalls += node.calls;
+		methodStatistics.myExclusiveNanos += node.exclusiveNanos;
+		// time of a recursive call is already in the inclusive time of the outer call
+		if(!path.contains(node.methodId))
+		{
+			methodStatistics.myInclusiveNanos += node.inclusiveNanos;
+		}
+
+		path.add(node.methodId);
+		for(int i = 0; i < node.childCount; i++)
+		{
+			collect(node.children[i], path, statistics);
+		}
+		path.remove(path.size() - 1);
+	}
+
+	private Node copy(CallNode node)
+	{
+		List<Node> children = new ArrayList<Node>(node.childCount);
+		for(int i = 0; i < node.childCount; i++)
+		{
+			children.add(copy(node.children[i]));
+		}
+		MethodMirror method = node.methodId == 0 ? null : myVm.getOrCreateMethodMirror(node.methodId);
+		return new Node(node.methodId, method, node.calls, node.inclusiveNanos, node.exclusiveNanos, Collections.unmodifiableList(children));
+	}
+
+	/**
+	 * Called by the transport reader for each event packet. Packets which only hold events of the
+	 * tracer's requests are recorded and consumed, anything else goes the usual way.
+	 *
+	 * @return true if the packet was consumed
+	 */
+	boolean consume(@Nonnull Packet packet)
+	{
+		int entryRequestId = myEntryRequestId;
+		int exitRequestId = myExitRequestId;
+		if(entryRequestId == 0)
+		{
+			return false;
+		}
+
+		byte[] data = packet.data;
+		if(packet.cmd != JDWP.Event.Composite.COMMAND || data.length < 5 || data[0] != SuspendPolicy.NONE.ordinal())
+		{
+			return false;
+		}
+		int count = readInt(data, 1);
+		if(count <= 0 || data.length != 5 + count * RECORD_SIZE)
+		{
+			return false;
+		}
+
+		for(int i = 0, offset = 5; i < count; i++, offset += RECORD_SIZE)
+		{
+			byte kind = data[offset];
+			int requestId = readInt(data, offset + 1);
+			if(!(kind == ENTRY && requestId == entryRequestId || kind == EXIT && requestId == exitRequestId))
+			{
+				return false;
+			}
+		}
+
+		long time = System.nanoTime();
+		myBufferLock.lock();
+		try
+		{
+			for(int i = 0, offset = 5; i < count; i++, offset += RECORD_SIZE)
+			{
+				record(data[offset] == EXIT, readInt(data, offset + 5), readInt(data, offset + 9), time);
+			}
+		}
+		finally
+		{
+			myBufferLock.unlock();
+		}
+		return true;
+	}
+
+	/**
+	 * Records tracer events which were decoded the usual way, because they came in a set with other events
+	 * or before the request ids were known.
+	 *
+	 * @return true if the event belongs to the tracer
+	 */
+	boolean handleEvent(@Nonnull Event event)
+	{
+		EventRequest request = event.request();
+		if(request == null)
+		{
+			return false;
+		}
+
+		if(request != myEntryRequest && request != myExitRequest)
+		{
+			return false;
+		}
+
+		long time = System.nanoTime();
+		myBufferLock.lock();
+		try
+		{
+			if(event instanceof MethodEntryEvent)
+			{
+				MethodEntryEvent entryEvent = (MethodEntryEvent) event;
+				record(false, entryEvent.thread().id(), entryEvent.method().id(), time);
+			}
+			else if(event instanceof MethodExitEvent)
+			{
+				MethodExitEvent exitEvent = (MethodExitEvent) event;
+				record(true, exitEvent.thread().id(), exitEvent.method().id(), time);
+			}
+		}
+		finally
+		{
+			myBufferLock.unlock();
+		}
+		return true;
+	}
+
+	// guarded by myBufferLock
+	private void record(boolean exit, int threadId, int methodId, long time)
+	{
+		EventBuffer buffer = myCurrentBuffer;
+		if(buffer == null)
+		{
+			buffer = myFreeBuffers.poll();
+			if(buffer == null)
+			{
+				if(myBufferCount == MAX_BUFFERS)
+				{
+					myDroppedEvents++;
+					return;
+				}
+				myBufferCount++;
+				buffer = new EventBuffer();
+			}
+			myCurrentBuffer = buffer;
+		}
+
+		int index = buffer.size++;
+		buffer.exits[index] = exit;
+		buffer.threadIds[index] = threadId;
+		buffer.methodIds[index] = methodId;
+		buffer.times[index] = time;
+
+		if(buffer.size == BUFFER_SIZE)
+		{
+			myFullBuffers.add(buffer);
+			myCurrentBuffer = null;
+			myBufferFull.signalAll();
+		}
+	}
+
+	private void aggregate()
+	{
+		Thread thread = Thread.currentThread();
+		while(true)
+		{
+			myBufferLock.lock();
+			try
+			{
+				while(myAggregatorThread == thread && myFullBuffers.isEmpty())
+				{
+					myBufferFull.await();
+				}
+				if(myAggregatorThread != thread)
+				{
+					return;
+				}
+			}
+			catch(InterruptedException e)
+			{
+				return;
+			}
+			finally
+			{
+				myBufferLock.unlock();
+			}
+			myLock.lock();
+			try
+			{
+				drain();
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+	}
+
+	// guarded by myLock, folds every recorded event into the call trees
+	private void drain()
+	{
+		while(true)
+		{
+			EventBuffer buffer;
+			myBufferLock.lock();
+			try
+			{
+				buffer = myFullBuffers.poll();
+				if(buffer == null)
+				{
+					buffer = myCurrentBuffer;
+					myCurrentBuffer = null;
+				}
+			}
+			finally
+			{
+				myBufferLock.unlock();
+			}
+			if(buffer == null)
+			{
+				return;
+			}
+
+			for(int i = 0; i < buffer.size; i++)
+			{
+				ThreadCalls calls = threadCalls(buffer.threadIds[i]);
+				if(buffer.exits[i])
+				{
+					calls.exit(buffer.methodIds[i], buffer.times[i]);
+				}
+				else
+				{
+					calls.enter(buffer.methodIds[i], buffer.times[i]);
+				}
+			}
+			myEventCount += buffer.size;
+
+			buffer.size = 0;
+			myBufferLock.lock();
+			try
+			{
+				myFreeBuffers.add(buffer);
+			}
+			finally
+			{
+				myBufferLock.unlock();
+			}
+		}
+	}
+
+	private ThreadCalls threadCalls(int threadId)
+	{
+		ThreadCalls calls = myLastThread;
+		if(calls != null && calls.threadId == threadId)
+		{
+			return calls;
+		}
+		calls = myThreads.get(threadId);
+		if(calls == null)
+		{
+			calls = new ThreadCalls(threadId);
+			myThreads.put(threadId, calls);
+		}
+		myLastThread = calls;
+		return calls;
+	}
+
+	private static int readInt(byte[] data, int offset)
+	{
+		return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+	}
+}
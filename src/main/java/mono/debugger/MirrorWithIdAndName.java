@@ -1,6 +1,7 @@
 package mono.debugger;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 /**
  * @author VISTALL
@@ -37,6 +38,15 @@ public abstract class MirrorWithIdAndName extends MirrorImpl implements MirrorWi
 	@Nonnull
 	protected abstract String nameImpl() throws JDWPException;
 
+	/**
+	 * @return the name if it was loaded already, without a round trip
+	 */
+	@Nullable
+	String loadedName()
+	{
+		return myName;
+	}
+
 	@Override
 	public int id()
 	{
@@ -46,6 +46,16 @@ public class Packet extends Object {
 	public String errorMessage;
     byte[] data;
     volatile boolean replied = false;
+    // thread parked in TargetVM.waitForReply until replied is set
+    volatile Thread waiter;
+    // set by ProtocolMetrics when the command is sent
+    ProtocolMetrics.CommandStatistics metrics;
+    long sentNanos;
+    // set if round trip scopes were open when the command was sent
+    RoundTripScope[] scopes;
+    Thread sender;
+    // not null while a flight recording has command events enabled
+    FlightRecorderEvents.CommandEvent recorderEvent;
 
     /**
      * Return byte representation of the packet
@@ -385,13 +385,25 @@ public class PacketStream
 	}
 
 	/**
-	 * Read string represented as four byte length followed by
-	 * characters of the string.
+	 * Reads a name, a path or another string likely to be sent again, shared through the string table of the VM
 	 */
 	public String readString()
 	{
 		int len = readInt();
 
+		String ret = vm.stringTable().get(pkt.data, inCursor, len);
+
+		inCursor += len;
+		return ret;
+	}
+
+	/**
+	 * Reads a string which is data of the debuggee, like a string value, without going through the string table
+	 */
+	public String readUncachedString()
+	{
+		int len = readInt();
+
 		String ret = new String(pkt.data, inCursor, len, StandardCharsets.UTF_8);
 
 		inCursor += len;
@@ -501,7 +513,7 @@ public class PacketStream
 				return new NumberValueMirror(vm, tag, readLong());
 			case SignatureConstants.ELEMENT_TYPE_PTR:
 				int typeId = 0;
-				if(vm.isAtLeastVersion(2, 46))
+				if(vm.protocolFeatures().pointerValueType())
 				{
 					typeId = readId();
 				}
@@ -586,7 +598,10 @@ public class PacketStream
 		return new LocationImpl(vm, methodRef, codeIndex);
 	}
 
-	byte[] readByteArray(int length)
+	/**
+	 * Reads a fixed number of bytes, like a hash
+	 */
+	public byte[] readByteArray(int length)
 	{
 		byte[] array = new byte[length];
 		System.arraycopy(pkt.data, inCursor, array, 0, length);
@@ -594,7 +609,7 @@ public class PacketStream
 		return array;
 	}
 
-	int skipBytes(int n)
+	public int skipBytes(int n)
 	{
 		inCursor += n;
 		return n;
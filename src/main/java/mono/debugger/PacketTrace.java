@@ -0,0 +1,207 @@
+package mono.debugger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Flight recorder of the wire: keeps the last packets sent and received in a fixed ring of records, a header and
+ * optionally the first bytes of the payload each, with a timestamp. Cheap enough to be left running in the field,
+ * then {@link #dump(Path) dumped} when a hang is reported and read with {@link PacketTraceDecoder}.
+ * <p/>
+ * Recording a packet takes no lock and allocates nothing: the record is claimed by a counter and published by its
+ * sequence number, so a dump taken while packets flow skips the records being overwritten.
+ *
+ * @since 2026-10-19
+ */
+public class PacketTrace
+{
+	static final int MAGIC = 0x4D445054; // MDPT
+	static final short VERSION = 1;
+
+	static final byte SENT = 0;
+	static final byte RECEIVED = 1;
+
+	private static final class Ring
+	{
+		private final int myMask;
+		private final int myPayloadBytes;
+		private final long myStartMillis = System.currentTimeMillis();
+		private final long myStartNanos = System.nanoTime();
+		private final AtomicLong myNext = new AtomicLong();
+		// sequence number of the record in each slot, -1 while it is written
+		private final AtomicLongArray myPublished;
+		private final long[] myTimes;
+		private final int[] myIds;
+		// direction << 24 | flags << 16 | command set << 8 | command, or error code for replies
+		private final int[] myHeaders;
+		private final int[] myLengths;
+		private final byte[] myPayloads;
+
+		private Ring(int records, int payloadBytes)
+		{
+			myMask = records - 1;
+			myPayloadBytes = payloadBytes;
+			myPublished = new AtomicLongArray(records);
+			for(int i = 0; i < records; i++)
+			{
+				myPublished.set(i, -1);
+			}
+			myTimes = new long[records];
+			myIds = new int[records];
+			myHeaders = new int[records];
+			myLengths = new int[records];
+			myPayloads = new byte[records * payloadBytes];
+		}
+	}
+
+	private volatile Ring myRing;
+
+	PacketTrace()
+	{
+	}
+
+	/**
+	 * Starts recording, dropping what was recorded before.
+	 *
+	 * @param records      how many packets are kept, rounded up to a power of two
+	 * @param payloadBytes how many bytes of each payload are kept, 0 for headers only
+	 */
+	public synchronized void start(int records, int payloadBytes)
+	{
+		if(records < 1 || records > 1 << 24 || payloadBytes < 0 || (long) records * payloadBytes > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("records is not between 1 and 2^24, or payloadBytes is negative or too big");
+		}
+		myRing = new Ring(records == 1 ? 1 : Integer.highestOneBit(records - 1) << 1, payloadBytes);
+	}
+
+	/**
+	 * Stops recording and drops what was recorded
+	 */
+	public synchronized void stop()
+	{
+		myRing = null;
+	}
+
+	public boolean isRunning()
+	{
+		return myRing != null;
+	}
+
+	/**
+	 * Called by TargetVM for every packet written or read
+	 */
+	void record(boolean sent, @Nonnull Packet packet)
+	{
+		Ring ring = myRing;
+		if(ring == null)
+		{
+			return;
+		}
+
+		long sequence = ring.myNext.getAndIncrement();
+		int slot = (int) (sequence & ring.myMask);
+		ring.myPublished.set(slot, -1);
+		// a dump must not see the new fields with the old sequence number
+		VarHandle.storeStoreFence();
+
+		ring.myTimes[slot] = System.nanoTime();
+		ring.myIds[slot] = packet.id;
+		ring.myHeaders[slot] = header(sent, packet);
+		byte[] data = packet.data;
+		ring.myLengths[slot] = data.length;
+		if(ring.myPayloadBytes > 0)
+		{
+			System.arraycopy(data, 0, ring.myPayloads, slot * ring.myPayloadBytes, Math.min(data.length, ring.myPayloadBytes));
+		}
+
+		ring.myPublished.set(slot, sequence);
+	}
+
+	static int header(boolean sent, Packet packet)
+	{
+		int header = (sent ? SENT : RECEIVED) << 24 | (packet.flags & 0xff) << 16;
+		if((packet.flags & Packet.Reply) == 0)
+		{
+			return header | (packet.cmdSet & 0xff) << 8 | packet.cmd & 0xff;
+		}
+		return header | packet.errorCode & 0xffff;
+	}
+
+	/**
+	 * Writes the recorded packets, oldest first, in the format {@link PacketTraceDecoder} reads. Recording goes on.
+	 */
+	public void dump(@Nonnull Path file) throws IOException
+	{
+		try (OutputStream out = Files.newOutputStream(file))
+		{
+			dump(out);
+		}
+	}
+
+	/**
+	 * Writes the recorded packets, oldest first, in the format {@link PacketTraceDecoder} reads. Recording goes on.
+	 * The stream is not closed.
+	 *
+	 * @throws IllegalStateException if the trace is not running
+	 */
+	public void dump(@Nonnull OutputStream stream) throws IOException
+	{
+		Ring ring = myRing;
+		if(ring == null)
+		{
+			throw new IllegalStateException("Packet trace is not running");
+		}
+
+		long end = ring.myNext.get();
+		long start = Math.max(0, end - ring.myMask - 1);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeLong(ring.myStartMillis);
+		out.writeLong(ring.myStartNanos);
+		out.writeInt(ring.myPayloadBytes);
+
+		byte[] payload = new byte[ring.myPayloadBytes];
+		for(long sequence = start; sequence < end; sequence++)
+		{
+			int slot = (int) (sequence & ring.myMask);
+			if(ring.myPublished.get(slot) != sequence)
+			{
+				continue;
+			}
+			long time = ring.myTimes[slot];
+			int id = ring.myIds[slot];
+			int header = ring.myHeaders[slot];
+			int length = ring.myLengths[slot];
+			int captured = Math.min(length, ring.myPayloadBytes);
+			System.arraycopy(ring.myPayloads, slot * ring.myPayloadBytes, payload, 0, captured);
+			// the fields must be read before checking the record was not overwritten meanwhile
+			VarHandle.acquireFence();
+			if(ring.myPublished.get(slot) != sequence)
+			{
+				continue;
+			}
+
+			out.writeBoolean(true);
+			out.writeLong(time);
+			out.writeInt(id);
+			out.writeInt(header);
+			out.writeInt(length);
+			out.writeInt(captured);
+			out.write(payload, 0, captured);
+		}
+		out.writeBoolean(false);
+		out.flush();
+	}
+}
@@ -0,0 +1,152 @@
+package mono.debugger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Renders a {@link PacketTrace} dump as text, one line per packet, with command names and the time replies took:
+ * <pre>
+ * java -cp mono-soft-debugging.jar mono.debugger.PacketTraceDecoder [-x] trace.bin
+ * </pre>
+ * <code>-x</code> adds a hex dump of the recorded payload bytes.
+ *
+ * @since 2026-10-19
+ */
+public class PacketTraceDecoder
+{
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+	public static void main(String[] args) throws IOException
+	{
+		boolean hex = args.length == 2 && args[0].equals("-x");
+		if(args.length != (hex ? 2 : 1))
+		{
+			System.err.println("Usage: PacketTraceDecoder [-x] <trace file>");
+			System.exit(1);
+		}
+
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out));
+		try (InputStream in = Files.newInputStream(Paths.get(args[hex ? 1 : 0])))
+		{
+			decode(in, out, hex);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads a dump written by {@link PacketTrace#dump} and writes its packets as text
+	 */
+	public static void decode(@Nonnull InputStream stream, @Nonnull Appendable out, boolean hex) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		if(in.readInt() != PacketTrace.MAGIC)
+		{
+			throw new IOException("Not a packet trace");
+		}
+		short version = in.readShort();
+		if(version != PacketTrace.VERSION)
+		{
+			throw new IOException("Unsupported packet trace version " + version);
+		}
+		long startMillis = in.readLong();
+		long startNanos = in.readLong();
+		in.readInt(); // payload bytes per record
+
+		// commands by id, to name replies and time them
+		Map<Integer, long[]> commands = new HashMap<Integer, long[]>();
+		StringBuilder line = new StringBuilder();
+		while(in.readBoolean())
+		{
+			long time = in.readLong();
+			int id = in.readInt();
+			int header = in.readInt();
+			int length = in.readInt();
+			byte[] payload = new byte[in.readInt()];
+			in.readFully(payload);
+
+			line.setLength(0);
+			long nanos = time - startNanos;
+			Instant instant = Instant.ofEpochMilli(startMillis).plusNanos(nanos);
+			line.append(TIME_FORMAT.format(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()))).append(' ');
+
+			long[] command = null;
+			boolean reply = (header >>> 16 & Packet.Reply) != 0;
+			if(reply)
+			{
+				command = commands.remove(id);
+			}
+			else if((header >>> 24) == PacketTrace.SENT)
+			{
+				commands.put(id, new long[]{header, time});
+			}
+			describe(line, id, header, length, command == null ? -1 : (int) command[0]);
+			if(command != null)
+			{
+				line.append(String.format(", %.3f ms", (time - command[1]) / 1e6));
+			}
+			out.append(line).append('\n');
+
+			if(hex)
+			{
+				appendHex(out, payload);
+			}
+		}
+	}
+
+	/**
+	 * Appends like <code>-&gt; #42 Type_GetInfo, 4 bytes</code>
+	 *
+	 * @param commandHeader header of the command a reply answers, or -1 if not known
+	 */
+	static void describe(@Nonnull StringBuilder line, int id, int header, int length, int commandHeader)
+	{
+		line.append((header >>> 24) == PacketTrace.SENT ? "-> #" : "<- #").append(id).append(' ');
+		if((header >>> 16 & Packet.Reply) == 0)
+		{
+			line.append(CommandNames.name(header >>> 8 & 0xff, header & 0xff));
+		}
+		else
+		{
+			line.append("reply");
+			if(commandHeader != -1)
+			{
+				line.append(" to ").append(CommandNames.name(commandHeader >>> 8 & 0xff, commandHeader & 0xff));
+			}
+			int errorCode = header & 0xffff;
+			if(errorCode != Packet.ReplyNoError)
+			{
+				line.append(", error ").append(errorCode);
+			}
+		}
+		line.append(", ").append(length).append(" bytes");
+	}
+
+	private static void appendHex(Appendable out, byte[] payload) throws IOException
+	{
+		StringBuilder line = new StringBuilder(80);
+		for(int offset = 0; offset < payload.length; offset += 16)
+		{
+			line.setLength(0);
+			line.append(String.format("    %06x:", offset));
+			for(int i = offset; i < Math.min(offset + 16, payload.length); i++)
+			{
+				line.append(' ').append(Character.forDigit(payload[i] >>> 4 & 0xf, 16)).append(Character.forDigit(payload[i] & 0xf, 16));
+			}
+			out.append(line).append('\n');
+		}
+	}
+}
@@ -0,0 +1,654 @@
+package mono.debugger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Counts what goes over the wire: for every command its count, bytes each way, errors, commands waiting for a
+ * reply and a latency histogram; and for events the sets received, the events decoded by kind and the depth of
+ * the event queues.
+ * <p/>
+ * Always on: a command costs two {@link System#nanoTime()} calls and a few atomic adds, which is nothing next to a
+ * round trip. Latency is measured from writing the command to reading its reply, so it includes time the reply
+ * spent behind other packets on the wire, but not the time a waiting thread needs to wake up. Method entries and
+ * exits consumed by the {@link MethodTracer} are counted as event sets, but not by kind.
+ *
+ * @since 2026-10-19
+ */
+public class ProtocolMetrics
+{
+	/**
+	 * Log2 histogram of latencies: bucket <code>i</code> counts latencies below <code>2^i</code> microseconds and at
+	 * least half that, bucket 0 those below a microsecond. The last bucket also takes everything above it.
+	 */
+	public static final class LatencyHistogram
+	{
+		public static final int BUCKET_COUNT = 32;
+
+		private final AtomicLongArray myBuckets = new AtomicLongArray(BUCKET_COUNT);
+		private final AtomicLong myCount = new AtomicLong();
+		private final AtomicLong myTotalNanos = new AtomicLong();
+		private final AtomicLong myMaxNanos = new AtomicLong();
+
+		private LatencyHistogram()
+		{
+		}
+
+		void record(long nanos)
+		{
+			long micros = Math.max(nanos, 0) / 1000;
+			myBuckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1));
+			myCount.incrementAndGet();
+			myTotalNanos.addAndGet(nanos);
+			myMaxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		public long count()
+		{
+			return myCount.get();
+		}
+
+		public long totalNanos()
+		{
+			return myTotalNanos.get();
+		}
+
+		public long meanNanos()
+		{
+			long count = myCount.get();
+			return count == 0 ? 0 : myTotalNanos.get() / count;
+		}
+
+		public long maxNanos()
+		{
+			return myMaxNanos.get();
+		}
+
+		/**
+		 * @param percentile between 0 and 100
+		 * @return upper bound of the bucket the percentile falls into, at most {@link #maxNanos()}, or 0 if nothing
+		 * was recorded
+		 */
+		public long percentileNanos(double percentile)
+		{
+			if(percentile < 0 || percentile > 100)
+			{
+				throw new IllegalArgumentException("percentile is not between 0 and 100");
+			}
+			long[] buckets = bucketCounts();
+			long count = 0;
+			for(long bucket : buckets)
+			{
+				count += bucket;
+			}
+			if(count == 0)
+			{
+				return 0;
+			}
+
+			long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+			long seen = 0;
+			for(int i = 0; i < buckets.length; i++)
+			{
+				seen += buckets[i];
+				if(seen >= rank)
+				{
+					return i == buckets.length - 1 ? maxNanos() : Math.min((1L << i) * 1000, maxNanos());
+				}
+			}
+			return maxNanos();
+		}
+
+		@Nonnull
+		public long[] bucketCounts()
+		{
+			long[] buckets = new long[BUCKET_COUNT];
+			for(int i = 0; i < BUCKET_COUNT; i++)
+			{
+				buckets[i] = myBuckets.get(i);
+			}
+			return buckets;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "n=" + count() + " mean=" + meanNanos() / 1000 + "us p99=" + percentileNanos(99) / 1000 + "us max=" + maxNanos() / 1000 + "us";
+		}
+	}
+
+	/**
+	 * Totals of one command, by command set and command number
+	 */
+	public static final class CommandStatistics
+	{
+		private final int myCommandSet;
+		private final int myCommand;
+		private final AtomicLong myCount = new AtomicLong();
+		private final AtomicLong myErrorCount = new AtomicLong();
+		private final AtomicLong myBytesSent = new AtomicLong();
+		private final AtomicLong myBytesReceived = new AtomicLong();
+		private final AtomicInteger myInFlight = new AtomicInteger();
+		private final LatencyHistogram myLatency = new LatencyHistogram();
+
+		private CommandStatistics(int commandSet, int command)
+		{
+			myCommandSet = commandSet;
+			myCommand = command;
+		}
+
+		public int commandSet()
+		{
+			return myCommandSet;
+		}
+
+		public int command()
+		{
+			return myCommand;
+		}
+
+		/**
+		 * @return like <code>Type_GetInfo</code>, or <code>commandSet/command</code> for an unknown command
+		 */
+		@Nonnull
+		public String name()
+		{
+			return CommandNames.name(myCommandSet, myCommand);
+		}
+
+		/**
+		 * @return commands sent
+		 */
+		public long count()
+		{
+			return myCount.get();
+		}
+
+		/**
+		 * @return replies with an error code
+		 */
+		public long errorCount()
+		{
+			return myErrorCount.get();
+		}
+
+		/**
+		 * @return whole packets, with their header
+		 */
+		public long bytesSent()
+		{
+			return myBytesSent.get();
+		}
+
+		/**
+		 * @return whole reply packets, with their header
+		 */
+		public long bytesReceived()
+		{
+			return myBytesReceived.get();
+		}
+
+		/**
+		 * @return commands sent and not replied to yet
+		 */
+		public int inFlight()
+		{
+			return myInFlight.get();
+		}
+
+		/**
+		 * @return time from sending to reading the reply
+		 */
+		@Nonnull
+		public LatencyHistogram latency()
+		{
+			return myLatency;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name() + " x" + count() + " " + myLatency;
+		}
+	}
+
+	private final class MXBean implements ProtocolMetricsMXBean
+	{
+		@Override
+		public long getCommandCount()
+		{
+			return commandCount();
+		}
+
+		@Override
+		public long getErrorCount()
+		{
+			return errorCount();
+		}
+
+		@Override
+		public long getInFlightCount()
+		{
+			return inFlightCount();
+		}
+
+		@Override
+		public long getBytesSent()
+		{
+			return bytesSent();
+		}
+
+		@Override
+		public long getBytesReceived()
+		{
+			return bytesReceived();
+		}
+
+		@Override
+		public long getEventSetCount()
+		{
+			return eventSetCount();
+		}
+
+		@Override
+		public int getEventQueueDepth()
+		{
+			return eventQueueDepth();
+		}
+
+		@Override
+		public int getPeakEventQueueDepth()
+		{
+			return peakEventQueueDepth();
+		}
+
+		@Override
+		public Map<String, Long> getEventCounts()
+		{
+			Map<String, Long> counts = new LinkedHashMap<String, Long>();
+			for(Map.Entry<EventKind, Long> entry : eventCounts().entrySet())
+			{
+				counts.put(entry.getKey().name(), entry.getValue());
+			}
+			return counts;
+		}
+
+		@Override
+		public List<CommandData> getCommands()
+		{
+			List<CommandData> commands = new ArrayList<CommandData>();
+			for(CommandStatistics statistics : commandStatistics())
+			{
+				commands.add(new CommandData(statistics));
+			}
+			return commands;
+		}
+
+		@Override
+		public void reset()
+		{
+			ProtocolMetrics.this.reset();
+		}
+	}
+
+	private final VirtualMachineImpl myVm;
+
+	// by command set, then by command; replaced as a whole by reset()
+	private volatile AtomicReferenceArray<AtomicReferenceArray<CommandStatistics>> myCommands = newCommandTable();
+	private volatile AtomicLongArray myEventCounts = new AtomicLongArray(EventKind.values().length);
+	private final AtomicLong myEventSetCount = new AtomicLong();
+	private volatile int myEventQueueDepth;
+	private final AtomicInteger myPeakEventQueueDepth = new AtomicInteger();
+
+	private static final RoundTripScope[] NO_SCOPES = new RoundTripScope[0];
+	// copied on write, under this
+	private volatile RoundTripScope[] myScopes = NO_SCOPES;
+
+	// written under this
+	private volatile ObjectName myObjectName;
+
+	ProtocolMetrics(@Nonnull VirtualMachineImpl vm)
+	{
+		myVm = vm;
+	}
+
+	private static AtomicReferenceArray<AtomicReferenceArray<CommandStatistics>> newCommandTable()
+	{
+		return new AtomicReferenceArray<AtomicReferenceArray<CommandStatistics>>(256);
+	}
+
+	/**
+	 * @return every command sent at least once since the last {@link #reset()}, most total latency first
+	 */
+	@Nonnull
+	public List<CommandStatistics> commandStatistics()
+	{
+		List<CommandStatistics> result = new ArrayList<CommandStatistics>();
+		AtomicReferenceArray<AtomicReferenceArray<CommandStatistics>> commands = myCommands;
+		for(int i = 0; i < commands.length(); i++)
+		{
+			AtomicReferenceArray<CommandStatistics> set = commands.get(i);
+			if(set == null)
+			{
+				continue;
+			}
+			for(int j = 0; j < set.length(); j++)
+			{
+				CommandStatistics statistics = set.get(j);
+				if(statistics != null)
+				{
+					result.add(statistics);
+				}
+			}
+		}
+		result.sort(Comparator.comparingLong((CommandStatistics statistics) -> statistics.latency().totalNanos()).reversed());
+		return result;
+	}
+
+	/**
+	 * @return null if the command was not sent since the last {@link #reset()}
+	 */
+	@Nullable
+	public CommandStatistics commandStatistics(int commandSet, int command)
+	{
+		AtomicReferenceArray<CommandStatistics> set = myCommands.get(commandSet & 0xff);
+		return set == null ? null : set.get(command & 0xff);
+	}
+
+	public long commandCount()
+	{
+		long count = 0;
+		for(CommandStatistics statistics : commandStatistics())
+		{
+			count += statistics.count();
+		}
+		return count;
+	}
+
+	public long errorCount()
+	{
+		long count = 0;
+		for(CommandStatistics statistics : commandStatistics())
+		{
+			count += statistics.errorCount();
+		}
+		return count;
+	}
+
+	public long inFlightCount()
+	{
+		long count = 0;
+		for(CommandStatistics statistics : commandStatistics())
+		{
+			count += statistics.inFlight();
+		}
+		return count;
+	}
+
+	public long bytesSent()
+	{
+		long count = 0;
+		for(CommandStatistics statistics : commandStatistics())
+		{
+			count += statistics.bytesSent();
+		}
+		return count;
+	}
+
+	/**
+	 * @return bytes of replies, events are not included
+	 */
+	public long bytesReceived()
+	{
+		long count = 0;
+		for(CommandStatistics statistics : commandStatistics())
+		{
+			count += statistics.bytesReceived();
+		}
+		return count;
+	}
+
+	public long eventSetCount()
+	{
+		return myEventSetCount.get();
+	}
+
+	/**
+	 * @return events decoded, by kind, kinds never seen left out
+	 */
+	@Nonnull
+	public Map<EventKind, Long> eventCounts()
+	{
+		Map<EventKind, Long> counts = new EnumMap<EventKind, Long>(EventKind.class);
+		AtomicLongArray eventCounts = myEventCounts;
+		for(EventKind kind : EventKind.values())
+		{
+			long count = eventCounts.get(kind.ordinal());
+			if(count != 0)
+			{
+				counts.put(kind, count);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return event sets waiting in the fullest event queue, as of the last set queued or removed
+	 */
+	public int eventQueueDepth()
+	{
+		return myEventQueueDepth;
+	}
+
+	public int peakEventQueueDepth()
+	{
+		return myPeakEventQueueDepth.get();
+	}
+
+	/**
+	 * Starts counting from zero. Commands waiting for a reply are not counted as in flight anymore, and their
+	 * replies are not counted.
+	 */
+	public void reset()
+	{
+		myCommands = newCommandTable();
+		myEventCounts = new AtomicLongArray(EventKind.values().length);
+		myEventSetCount.set(0);
+		myPeakEventQueueDepth.set(myEventQueueDepth);
+	}
+
+	/**
+	 * Opens a scope which counts the commands sent until it is closed, see {@link RoundTripScope}
+	 *
+	 * @param name what the scope counts, for its {@link RoundTripScope#toString()}
+	 */
+	@Nonnull
+	public synchronized RoundTripScope openScope(@Nonnull String name)
+	{
+		RoundTripScope scope = new RoundTripScope(this, name);
+		RoundTripScope[] scopes = Arrays.copyOf(myScopes, myScopes.length + 1);
+		scopes[scopes.length - 1] = scope;
+		myScopes = scopes;
+		return scope;
+	}
+
+	synchronized void closeScope(RoundTripScope scope)
+	{
+		List<RoundTripScope> scopes = new ArrayList<RoundTripScope>(Arrays.asList(myScopes));
+		scopes.remove(scope);
+		myScopes = scopes.toArray(NO_SCOPES);
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server as
+	 * <code>mono.debugger:type=ProtocolMetrics,vm=&lt;sequence number&gt;</code>, until the virtual machine
+	 * is disconnected or {@link #unregisterMBean()} is called.
+	 *
+	 * @return name of the registered bean
+	 */
+	@Nonnull
+	public synchronized ObjectName registerMBean()
+	{
+		if(myObjectName != null)
+		{
+			return myObjectName;
+		}
+		try
+		{
+			ObjectName name = new ObjectName("mono.debugger:type=ProtocolMetrics,vm=" + myVm.sequenceNumber);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new MXBean(), ProtocolMetricsMXBean.class, true), name);
+			myObjectName = name;
+			return name;
+		}
+		catch(JMException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public synchronized void unregisterMBean()
+	{
+		ObjectName name = myObjectName;
+		if(name == null)
+		{
+			return;
+		}
+		myObjectName = null;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			server.unregisterMBean(name);
+		}
+		catch(JMException e)
+		{
+			// unregistered by someone else
+		}
+	}
+
+	private CommandStatistics statistics(int commandSet, int command)
+	{
+		AtomicReferenceArray<AtomicReferenceArray<CommandStatistics>> commands = myCommands;
+		AtomicReferenceArray<CommandStatistics> set = commands.get(commandSet & 0xff);
+		if(set == null)
+		{
+			commands.compareAndSet(commandSet & 0xff, null, new AtomicReferenceArray<CommandStatistics>(256));
+			set = commands.get(commandSet & 0xff);
+		}
+		CommandStatistics statistics = set.get(command & 0xff);
+		if(statistics == null)
+		{
+			set.compareAndSet(command & 0xff, null, new CommandStatistics(commandSet, command));
+			statistics = set.get(command & 0xff);
+		}
+		return statistics;
+	}
+
+	/*
+	 * Called by TargetVM.send() right before the command is written
+	 */
+	void commandSent(Packet packet, int length)
+	{
+		CommandStatistics statistics = statistics(packet.cmdSet, packet.cmd);
+		statistics.myCount.incrementAndGet();
+		statistics.myBytesSent.addAndGet(length);
+		statistics.myInFlight.incrementAndGet();
+		packet.metrics = statistics;
+		RoundTripScope[] scopes = myScopes;
+		if(scopes.length > 0)
+		{
+			packet.sender = Thread.currentThread();
+			packet.scopes = scopes;
+			for(RoundTripScope scope : scopes)
+			{
+				scope.commandSent(packet, length);
+			}
+		}
+		packet.sentNanos = System.nanoTime();
+	}
+
+	/*
+	 * Called by the thread which read the reply, before the waiting thread is woken up
+	 */
+	void replyReceived(Packet command, Packet reply)
+	{
+		RoundTripScope[] scopes = command.scopes;
+		if(scopes != null)
+		{
+			for(RoundTripScope scope : scopes)
+			{
+				// the scope may have been closed while the command was in flight
+				if(!scope.isClosed())
+				{
+					scope.replyReceived(command, reply.data.length + 11);
+				}
+			}
+		}
+
+		CommandStatistics statistics = command.metrics;
+		if(statistics == null)
+		{
+			return;
+		}
+		statistics.myLatency.record(System.nanoTime() - command.sentNanos);
+		statistics.myBytesReceived.addAndGet(reply.data.length + 11);
+		if(reply.errorCode != Packet.ReplyNoError)
+		{
+			statistics.myErrorCount.incrementAndGet();
+		}
+		statistics.myInFlight.decrementAndGet();
+	}
+
+	/*
+	 * Called for commands left without a reply when the connection is gone
+	 */
+	void commandAbandoned(Packet command)
+	{
+		RoundTripScope[] scopes = command.scopes;
+		if(scopes != null)
+		{
+			for(RoundTripScope scope : scopes)
+			{
+				scope.commandDone(command);
+			}
+		}
+		CommandStatistics statistics = command.metrics;
+		if(statistics != null)
+		{
+			statistics.myInFlight.decrementAndGet();
+		}
+	}
+
+	void eventSetReceived()
+	{
+		myEventSetCount.incrementAndGet();
+	}
+
+	void eventDecoded(EventKind kind)
+	{
+		myEventCounts.incrementAndGet(kind.ordinal());
+	}
+
+	void eventQueueDepth(int depth)
+	{
+		myEventQueueDepth = depth;
+		myPeakEventQueueDepth.accumulateAndGet(depth, Math::max);
+	}
+}
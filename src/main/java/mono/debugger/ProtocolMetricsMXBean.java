@@ -0,0 +1,130 @@
+package mono.debugger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management view of the {@link ProtocolMetrics} of a virtual machine, registered with
+ * {@link ProtocolMetrics#registerMBean()}. Latencies are in microseconds.
+ *
+ * @since 2026-10-19
+ */
+public interface ProtocolMetricsMXBean
+{
+	/**
+	 * Totals of one command, see {@link ProtocolMetrics.CommandStatistics}
+	 */
+	final class CommandData
+	{
+		private final String myName;
+		private final long myCount;
+		private final long myErrorCount;
+		private final long myInFlight;
+		private final long myBytesSent;
+		private final long myBytesReceived;
+		private final long myTotalMicros;
+		private final long myMeanMicros;
+		private final long myP50Micros;
+		private final long myP99Micros;
+		private final long myMaxMicros;
+
+		CommandData(ProtocolMetrics.CommandStatistics statistics)
+		{
+			ProtocolMetrics.LatencyHistogram latency = statistics.latency();
+			myName = statistics.name();
+			myCount = statistics.count();
+			myErrorCount = statistics.errorCount();
+			myInFlight = statistics.inFlight();
+			myBytesSent = statistics.bytesSent();
+			myBytesReceived = statistics.bytesReceived();
+			myTotalMicros = latency.totalNanos() / 1000;
+			myMeanMicros = latency.meanNanos() / 1000;
+			myP50Micros = latency.percentileNanos(50) / 1000;
+			myP99Micros = latency.percentileNanos(99) / 1000;
+			myMaxMicros = latency.maxNanos() / 1000;
+		}
+
+		public String getName()
+		{
+			return myName;
+		}
+
+		public long getCount()
+		{
+			return myCount;
+		}
+
+		public long getErrorCount()
+		{
+			return myErrorCount;
+		}
+
+		public long getInFlight()
+		{
+			return myInFlight;
+		}
+
+		public long getBytesSent()
+		{
+			return myBytesSent;
+		}
+
+		public long getBytesReceived()
+		{
+			return myBytesReceived;
+		}
+
+		public long getTotalMicros()
+		{
+			return myTotalMicros;
+		}
+
+		public long getMeanMicros()
+		{
+			return myMeanMicros;
+		}
+
+		public long getP50Micros()
+		{
+			return myP50Micros;
+		}
+
+		public long getP99Micros()
+		{
+			return myP99Micros;
+		}
+
+		public long getMaxMicros()
+		{
+			return myMaxMicros;
+		}
+	}
+
+	long getCommandCount();
+
+	long getErrorCount();
+
+	long getInFlightCount();
+
+	long getBytesSent();
+
+	long getBytesReceived();
+
+	long getEventSetCount();
+
+	int getEventQueueDepth();
+
+	int getPeakEventQueueDepth();
+
+	/**
+	 * @return decoded events by {@link EventKind} name
+	 */
+	Map<String, Long> getEventCounts();
+
+	/**
+	 * @return every command sent at least once, most total latency first
+	 */
+	List<CommandData> getCommands();
+
+	void reset();
+}
@@ -0,0 +1,65 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.connect.spi.Connection;
+
+/**
+ * Connection which journals every packet written and read, with its time, to a memory-mapped file, for a
+ * {@link ReplayConnection} to play the session back later:
+ * <pre>
+ * VirtualMachine vm = manager.createVirtualMachine(new RecordingConnection(connection, journal));
+ * </pre>
+ * The journal is complete once the connection is closed. It holds the whole session, including anything the
+ * debuggee sent, so it is as sensitive as the debuggee's memory.
+ *
+ * @since 2026-10-19
+ */
+public class RecordingConnection extends Connection
+{
+	private final Connection myDelegate;
+	private final SessionJournal.Writer myJournal;
+
+	public RecordingConnection(@Nonnull Connection delegate, @Nonnull Path journal) throws IOException
+	{
+		myDelegate = delegate;
+		myJournal = new SessionJournal.Writer(journal);
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException
+	{
+		byte[] packet = myDelegate.readPacket();
+		myJournal.append(packet.length == 0 ? SessionJournal.END_OF_STREAM : SessionJournal.IN, packet);
+		return packet;
+	}
+
+	@Override
+	public void writePacket(byte[] packet) throws IOException
+	{
+		// journaled first, so that a reply never comes before its command
+		myJournal.append(SessionJournal.OUT, packet);
+		myDelegate.writePacket(packet);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			myDelegate.close();
+		}
+		finally
+		{
+			myJournal.close();
+		}
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return myDelegate.isOpen();
+	}
+}
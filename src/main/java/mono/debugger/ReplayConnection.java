@@ -0,0 +1,342 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.connect.spi.ClosedConnectionException;
+import mono.debugger.connect.spi.Connection;
+
+/**
+ * Connection which plays back a session journaled by a {@link RecordingConnection}, without a debuggee. Running the
+ * same debugger code against it again repeats the session, so a slow session can be turned into a benchmark.
+ * <p/>
+ * A command written is matched to the first recorded command not matched yet with the same command set, command and
+ * payload, or failing that with the same command set and command only, and its recorded reply is read back with the
+ * id of the command written. Commands need not come in the recorded order, since threads race, but a command which
+ * was not recorded fails with an {@link IOException}. Packets the debuggee sent on its own, like events, are read
+ * once all commands written before them in the recording were matched.
+ * <p/>
+ * At original speed a reply comes as long after its command as it did when recorded, and an event as long after
+ * the command before it. Otherwise everything comes as soon as it may.
+ *
+ * @since 2026-10-19
+ */
+public class ReplayConnection extends Connection
+{
+	private final SessionJournal.Record[] myRecords;
+	private final boolean myOriginalSpeed;
+	private final long myStartNanos = System.nanoTime();
+
+	// for each record read by the debugger, the command it waits for: its command, or for others the last command before it
+	private final int[] myAnchors;
+	// for each command, live time and id once matched
+	private final long[] myMatchedNanos;
+	private final int[] myLiveIds;
+	private final boolean[] myMatched;
+	private final boolean[] myDelivered;
+
+	// not a monitor, the reader waits for commands under it
+	private final ReentrantLock myLock = new ReentrantLock();
+	private final Condition myChanged = myLock.newCondition();
+
+	// guarded by myLock
+	private int myFirstUnmatched;
+	private int myFirstUndelivered;
+	private boolean myClosed;
+
+	/**
+	 * @param originalSpeed delay packets like they were when recorded, instead of playing them back as fast as possible
+	 */
+	public ReplayConnection(@Nonnull Path journal, boolean originalSpeed) throws IOException
+	{
+		List<SessionJournal.Record> records = SessionJournal.read(journal);
+		myRecords = records.toArray(new SessionJournal.Record[0]);
+		myOriginalSpeed = originalSpeed;
+		myAnchors = new int[myRecords.length];
+		myMatchedNanos = new long[myRecords.length];
+		myLiveIds = new int[myRecords.length];
+		myMatched = new boolean[myRecords.length];
+		myDelivered = new boolean[myRecords.length];
+
+		Map<Integer, Integer> commandsById = new HashMap<Integer, Integer>();
+		int lastCommand = -1;
+		for(int i = 0; i < myRecords.length; i++)
+		{
+			SessionJournal.Record record = myRecords[i];
+			if(record.kind == SessionJournal.OUT)
+			{
+				commandsById.put(id(record.packet), i);
+				lastCommand = i;
+				myDelivered[i] = true;
+			}
+			else if(record.kind == SessionJournal.IN && isReply(record.packet))
+			{
+				Integer command = commandsById.remove(id(record.packet));
+				// a reply without a command is not expected, it is read back as recorded
+				myAnchors[i] = command == null ? -1 : command;
+			}
+			else
+			{
+				myAnchors[i] = lastCommand;
+			}
+		}
+		advance();
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException
+	{
+		boolean interrupted = false;
+		myLock.lock();
+		try
+		{
+			while(true)
+			{
+				if(myClosed)
+				{
+					throw new ClosedConnectionException();
+				}
+
+				int next = nextDeliverable();
+				long waitNanos = next == -1 ? 0 : dueNanos(next) - System.nanoTime();
+				if(next != -1 && waitNanos <= 0)
+				{
+					myDelivered[next] = true;
+					advance();
+					return packetToRead(next);
+				}
+
+				try
+				{
+					if(next == -1)
+					{
+						myChanged.await();
+					}
+					else
+					{
+						myChanged.awaitNanos(waitNanos);
+					}
+				}
+				catch(InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+		}
+		finally
+		{
+			myLock.unlock();
+			if(interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void writePacket(byte[] packet) throws IOException
+	{
+		myLock.lock();
+		try
+		{
+			match(packet);
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void match(byte[] packet) throws IOException
+	{
+		if(myClosed)
+		{
+			throw new ClosedConnectionException();
+		}
+
+		int match = -1;
+		for(int i = myFirstUnmatched; i < myRecords.length && match == -1; i++)
+		{
+			if(isUnmatchedCommand(i) && sameCommand(myRecords[i].packet, packet) && samePayload(myRecords[i].packet, packet))
+			{
+				match = i;
+			}
+		}
+		for(int i = myFirstUnmatched; i < myRecords.length && match == -1; i++)
+		{
+			if(isUnmatchedCommand(i) && sameCommand(myRecords[i].packet, packet))
+			{
+				match = i;
+			}
+		}
+		if(match == -1)
+		{
+			throw new IOException("Command " + CommandNames.name(packet[9] & 0xff, packet[10] & 0xff) + " is not in the journal, or was replayed already");
+		}
+
+		myMatched[match] = true;
+		myMatchedNanos[match] = System.nanoTime();
+		myLiveIds[match] = id(packet);
+		advance();
+		myChanged.signalAll();
+	}
+
+	@Override
+	public void close()
+	{
+		myLock.lock();
+		try
+		{
+			myClosed = true;
+			myChanged.signalAll();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		myLock.lock();
+		try
+		{
+			return !myClosed;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return commands of the journal matched so far
+	 */
+	public int matchedCommandCount()
+	{
+		myLock.lock();
+		try
+		{
+			int count = 0;
+			for(boolean matched : myMatched)
+			{
+				if(matched)
+				{
+					count++;
+				}
+			}
+			return count;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private boolean isUnmatchedCommand(int index)
+	{
+		return myRecords[index].kind == SessionJournal.OUT && !myMatched[index];
+	}
+
+	private void advance()
+	{
+		while(myFirstUnmatched < myRecords.length && !isUnmatchedCommand(myFirstUnmatched))
+		{
+			myFirstUnmatched++;
+		}
+		while(myFirstUndelivered < myRecords.length && myDelivered[myFirstUndelivered])
+		{
+			myFirstUndelivered++;
+		}
+	}
+
+	/**
+	 * @return the first record to read which may be read, or -1
+	 */
+	private int nextDeliverable()
+	{
+		for(int i = myFirstUndelivered; i < myRecords.length; i++)
+		{
+			if(myDelivered[i])
+			{
+				continue;
+			}
+			SessionJournal.Record record = myRecords[i];
+			if(record.kind == SessionJournal.IN && isReply(record.packet))
+			{
+				if(myAnchors[i] == -1 || myMatched[myAnchors[i]])
+				{
+					return i;
+				}
+			}
+			else if(myFirstUnmatched > i)
+			{
+				// sent by the debuggee on its own, once every command recorded before it was written
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private long dueNanos(int index)
+	{
+		if(!myOriginalSpeed)
+		{
+			return System.nanoTime();
+		}
+		int anchor = myAnchors[index];
+		if(anchor == -1)
+		{
+			return myStartNanos + myRecords[index].nanos;
+		}
+		return myMatchedNanos[anchor] + myRecords[index].nanos - myRecords[anchor].nanos;
+	}
+
+	private byte[] packetToRead(int index)
+	{
+		SessionJournal.Record record = myRecords[index];
+		if(record.kind == SessionJournal.END_OF_STREAM)
+		{
+			return new byte[0];
+		}
+		if(!isReply(record.packet) || myAnchors[index] == -1)
+		{
+			return record.packet;
+		}
+		byte[] packet = Arrays.copyOf(record.packet, record.packet.length);
+		int id = myLiveIds[myAnchors[index]];
+		packet[4] = (byte) (id >>> 24);
+		packet[5] = (byte) (id >>> 16);
+		packet[6] = (byte) (id >>> 8);
+		packet[7] = (byte) id;
+		return packet;
+	}
+
+	private static int id(byte[] packet)
+	{
+		return (packet[4] & 0xff) << 24 | (packet[5] & 0xff) << 16 | (packet[6] & 0xff) << 8 | packet[7] & 0xff;
+	}
+
+	private static boolean isReply(byte[] packet)
+	{
+		return (packet[8] & Packet.Reply) != 0;
+	}
+
+	private static boolean sameCommand(byte[] recorded, byte[] packet)
+	{
+		return recorded[9] == packet[9] && recorded[10] == packet[10];
+	}
+
+	private static boolean samePayload(byte[] recorded, byte[] packet)
+	{
+		return Arrays.equals(recorded, 11, recorded.length, packet, 11, packet.length);
+	}
+}
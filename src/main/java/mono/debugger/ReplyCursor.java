@@ -0,0 +1,128 @@
+package mono.debugger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Reads the elements of a reply one by one, straight from the reply packet, so that mirrors and values are only
+ * created for the elements a caller takes, and a caller who found what it looked for can stop early.
+ * <p/>
+ * The reply was read off the wire as a whole already: a cursor saves decoding and garbage, not round trips.
+ * A cursor is meant to be used by one thread, and keeps the reply packet alive until it is dropped.
+ *
+ * @since 2026-10-19
+ */
+public abstract class ReplyCursor<T> implements Iterator<T>
+{
+	private final int mySize;
+	private int myPosition;
+
+	protected ReplyCursor(int size)
+	{
+		mySize = size;
+	}
+
+	/**
+	 * @return elements in the reply, taken or not
+	 */
+	public int size()
+	{
+		return mySize;
+	}
+
+	/**
+	 * @return elements taken or skipped so far
+	 */
+	public int position()
+	{
+		return myPosition;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		return myPosition < mySize;
+	}
+
+	@Override
+	public T next()
+	{
+		if(myPosition >= mySize)
+		{
+			throw new NoSuchElementException();
+		}
+		myPosition++;
+		return read();
+	}
+
+	/**
+	 * Moves past elements without creating them, as far as the layout of the reply allows
+	 */
+	public void skip(int count)
+	{
+		if(count < 0 || count > mySize - myPosition)
+		{
+			throw new IllegalArgumentException("count is negative or past the end");
+		}
+		for(int i = 0; i < count; i++)
+		{
+			myPosition++;
+			skipOne();
+		}
+	}
+
+	/**
+	 * @return the elements not taken yet
+	 */
+	@Nonnull
+	public List<T> toList()
+	{
+		List<T> list = new ArrayList<T>(mySize - myPosition);
+		while(hasNext())
+		{
+			list.add(next());
+		}
+		return list;
+	}
+
+	/**
+	 * @return a cursor over the same reply, which creates elements with the function as they are taken
+	 */
+	@Nonnull
+	public <R> ReplyCursor<R> map(@Nonnull Function<? super T, ? extends R> function)
+	{
+		ReplyCursor<T> source = this;
+		return new ReplyCursor<R>(mySize - myPosition)
+		{
+			@Override
+			protected R read()
+			{
+				return function.apply(source.next());
+			}
+
+			@Override
+			protected void skipOne()
+			{
+				source.skip(1);
+			}
+		};
+	}
+
+	/**
+	 * Reads the element at the cursor of the reply
+	 */
+	protected abstract T read();
+
+	/**
+	 * Moves the cursor of the reply past one element, by reading it unless overridden
+	 */
+	protected void skipOne()
+	{
+		read();
+	}
+}
@@ -0,0 +1,34 @@
+package mono.debugger;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Thrown by {@link RoundTripScope#close()} when the scope took more round trips than its budget allows.
+ * The message lists the commands sent.
+ *
+ * @since 2026-10-19
+ */
+public class RoundTripBudgetExceededException extends RuntimeException
+{
+	private static final long serialVersionUID = -3969032377716521386L;
+
+	private final int myBudget;
+	private final int myRoundTrips;
+
+	RoundTripBudgetExceededException(@Nonnull RoundTripScope scope, int budget)
+	{
+		super(scope.name() + " took " + scope.roundTrips() + " round trips, budget is " + budget + ". " + scope);
+		myBudget = budget;
+		myRoundTrips = scope.roundTrips();
+	}
+
+	public int budget()
+	{
+		return myBudget;
+	}
+
+	public int roundTrips()
+	{
+		return myRoundTrips;
+	}
+}
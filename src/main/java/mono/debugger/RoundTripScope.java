@@ -0,0 +1,202 @@
+package mono.debugger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Counts the commands a piece of work costs, like rendering a variables view:
+ * <pre>
+ * try(RoundTripScope scope = vm.protocolMetrics().openScope("variables view").budget(3))
+ * {
+ *     ...
+ * }
+ * </pre>
+ * Every command the virtual machine sends while the scope is open is counted, whichever thread sends it, so
+ * unrelated work running at the same time is counted too. Scopes may be nested or overlap, each counts for
+ * itself.
+ * <p/>
+ * A round trip is a thread waiting for the wire: commands a thread sends while it has others in flight, like the
+ * pipelined ones of {@link mono.debugger.request.EventRequestManager#enableAll}, share a round trip.
+ * {@link #serialDepth()} counts round trips the way a clock does: those of threads running at the same time overlap.
+ * At a round trip time of 1 ms a scope takes at least {@link #serialDepth()} ms.
+ *
+ * @since 2026-10-19
+ */
+public final class RoundTripScope implements AutoCloseable
+{
+	private final ProtocolMetrics myMetrics;
+	private final String myName;
+	private final long myStartNanos;
+	private volatile long myEndNanos;
+	private volatile int myBudget = -1;
+
+	// guarded by this
+	private int myCommandCount;
+	private int myRoundTrips;
+	private int mySerialDepth;
+	private long myBytesSent;
+	private long myBytesReceived;
+	private int myInFlight;
+	private final Map<Thread, Integer> myInFlightByThread = new HashMap<Thread, Integer>();
+	private final Map<String, Integer> myCommandCounts = new TreeMap<String, Integer>();
+
+	RoundTripScope(@Nonnull ProtocolMetrics metrics, @Nonnull String name)
+	{
+		myMetrics = metrics;
+		myName = name;
+		myStartNanos = System.nanoTime();
+	}
+
+	/**
+	 * Makes {@link #close()} throw a {@link RoundTripBudgetExceededException} if the scope took more round trips
+	 *
+	 * @return this scope
+	 */
+	@Nonnull
+	public RoundTripScope budget(int maxRoundTrips)
+	{
+		if(maxRoundTrips < 0)
+		{
+			throw new IllegalArgumentException("maxRoundTrips is negative");
+		}
+		myBudget = maxRoundTrips;
+		return this;
+	}
+
+	@Nonnull
+	public String name()
+	{
+		return myName;
+	}
+
+	public synchronized int commandCount()
+	{
+		return myCommandCount;
+	}
+
+	/**
+	 * @return times a thread sent a command with none of its own in flight, summed over the threads
+	 */
+	public synchronized int roundTrips()
+	{
+		return myRoundTrips;
+	}
+
+	/**
+	 * @return times a command was sent with none in flight at all, the longest chain of round trips one after another
+	 */
+	public synchronized int serialDepth()
+	{
+		return mySerialDepth;
+	}
+
+	public synchronized long bytesSent()
+	{
+		return myBytesSent;
+	}
+
+	/**
+	 * @return bytes of the replies to commands sent in the scope, events are not included
+	 */
+	public synchronized long bytesReceived()
+	{
+		return myBytesReceived;
+	}
+
+	/**
+	 * @return commands by name, like <code>Type_GetInfo</code>
+	 */
+	@Nonnull
+	public synchronized Map<String, Integer> commandCounts()
+	{
+		return new TreeMap<String, Integer>(myCommandCounts);
+	}
+
+	/**
+	 * @return time the scope was open, or has been so far
+	 */
+	public long elapsedNanos()
+	{
+		long end = myEndNanos;
+		return (end == 0 ? System.nanoTime() : end) - myStartNanos;
+	}
+
+	/**
+	 * Stops counting. Replies to commands still in flight are not counted.
+	 *
+	 * @throws RoundTripBudgetExceededException if a {@link #budget(int)} is set and the scope took more round trips
+	 */
+	@Override
+	public void close()
+	{
+		if(myEndNanos != 0)
+		{
+			return;
+		}
+		myEndNanos = System.nanoTime();
+		myMetrics.closeScope(this);
+
+		int budget = myBudget;
+		if(budget >= 0 && roundTrips() > budget)
+		{
+			throw new RoundTripBudgetExceededException(this, budget);
+		}
+	}
+
+	boolean isClosed()
+	{
+		return myEndNanos != 0;
+	}
+
+	synchronized void commandSent(Packet packet, int length)
+	{
+		myCommandCount++;
+		myBytesSent += length;
+		myCommandCounts.merge(CommandNames.name(packet.cmdSet, packet.cmd), 1, Integer::sum);
+
+		if(myInFlight++ == 0)
+		{
+			mySerialDepth++;
+		}
+		Integer threadInFlight = myInFlightByThread.get(packet.sender);
+		if(threadInFlight == null)
+		{
+			myRoundTrips++;
+			threadInFlight = 0;
+		}
+		myInFlightByThread.put(packet.sender, threadInFlight + 1);
+	}
+
+	synchronized void replyReceived(Packet packet, int length)
+	{
+		myBytesReceived += length;
+		commandDone(packet);
+	}
+
+	synchronized void commandDone(Packet packet)
+	{
+		myInFlight--;
+		Integer threadInFlight = myInFlightByThread.get(packet.sender);
+		if(threadInFlight != null)
+		{
+			if(threadInFlight == 1)
+			{
+				myInFlightByThread.remove(packet.sender);
+			}
+			else
+			{
+				myInFlightByThread.put(packet.sender, threadInFlight - 1);
+			}
+		}
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return myName + ": " + myRoundTrips + " round trips, serial depth " + mySerialDepth + ", " + myCommandCount + " commands, " +
+				myBytesSent + " bytes out, " + myBytesReceived + " bytes in, " + myCommandCounts;
+	}
+}
@@ -0,0 +1,560 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Poor man's CPU profiler for a running target VM.
+ * <p/>
+ * Each sample suspends the VM, asks for the top frames of all threads with the commands pipelined
+ * (one round trip for all threads instead of one per thread) and resumes. Stacks are merged into a
+ * call tree keyed by method id, which can be written as collapsed stacks for flame graph tools.
+ * <p/>
+ * Sampling is adaptive: the interval grows when samples take long, so that the share of wall time the
+ * target VM spends suspended by the profiler stays under the budget given to {@link #start(long, int, double)}.
+ * <p/>
+ * Only threads which run managed code show up, and a thread which already waits in the target VM
+ * (suspended by an event, blocked in native code) is sampled at the frame it waits in.
+ *
+ * @since 2026-10-19
+ */
+public class SamplingProfiler
+{
+	/**
+	 * Node of the call tree. The root node has no method.
+	 */
+	public static final class Node
+	{
+		private final int myMethodId;
+		private final MethodMirror myMethod;
+		private final Map<Integer, Node> myChildren = new LinkedHashMap<Integer, Node>();
+		private long mySamples;
+		private long mySelfSamples;
+
+		private Node(int methodId, @Nullable MethodMirror method)
+		{
+			myMethodId = methodId;
+			myMethod = method;
+		}
+
+		public int methodId()
+		{
+			return myMethodId;
+		}
+
+		@Nullable
+		public MethodMirror method()
+		{
+			return myMethod;
+		}
+
+		/**
+		 * @return samples in which this method was on the stack, below the same callers
+		 */
+		public long samples()
+		{
+			return mySamples;
+		}
+
+		/**
+		 * @return samples in which this method was the top frame
+		 */
+		public long selfSamples()
+		{
+			return mySelfSamples;
+		}
+
+		@Nonnull
+		public Collection<Node> children()
+		{
+			return Collections.unmodifiableCollection(myChildren.values());
+		}
+
+		private Node child(MethodMirror method)
+		{
+			Node node = myChildren.get(method.id());
+			if(node == null)
+			{
+				node = new Node(method.id(), method);
+				myChildren.put(method.id(), node);
+			}
+			return node;
+		}
+	}
+
+	// exponential moving average weight of the last sample duration
+	private static final double PAUSE_AVERAGE_WEIGHT = 0.2;
+
+	private final VirtualMachineImpl myVm;
+
+	// not a monitor, the sampler waits between samples under it
+	private final ReentrantLock myLock = new ReentrantLock();
+	private final Condition myStopped = myLock.newCondition();
+
+	// guarded by myLock
+	private Node myRoot = new Node(0, null);
+	private long mySampleCount;
+	private long mySuspendedNanos;
+	private long myStartNanos;
+	private long myStopNanos;
+
+	// guarded by myLock
+	private Thread mySamplerThread;
+	private long myIntervalMillis;
+	private int myMaxFrames;
+	private double mySuspendBudget;
+	private double myAveragePauseNanos;
+	private volatile long myCurrentIntervalMillis;
+
+	SamplingProfiler(@Nonnull VirtualMachineImpl vm)
+	{
+		myVm = vm;
+	}
+
+	/**
+	 * Starts sampling on a background thread. Samples are added to the ones collected before, see {@link #reset()}.
+	 *
+	 * @param intervalMillis shortest interval between samples
+	 * @param maxFrames      how many frames from the top of each thread are captured
+	 * @param suspendBudget  share of wall time the target VM may be suspended by sampling, for example 0.02 for 2%
+	 */
+	public void start(long intervalMillis, int maxFrames, double suspendBudget)
+	{
+		myLock.lock();
+		try
+		{
+			doStart(intervalMillis, maxFrames, suspendBudget);
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void doStart(long intervalMillis, int maxFrames, double suspendBudget)
+	{
+		if(intervalMillis < 1)
+		{
+			throw new IllegalArgumentException("intervalMillis must be positive");
+		}
+		if(maxFrames < 1)
+		{
+			throw new IllegalArgumentException("maxFrames must be positive");
+		}
+		if(!(suspendBudget > 0 && suspendBudget <= 1))
+		{
+			throw new IllegalArgumentException("suspendBudget must be in (0, 1]");
+		}
+		if(mySamplerThread != null)
+		{
+			throw new IllegalStateException("Profiler is already running");
+		}
+
+		myIntervalMillis = intervalMillis;
+		myMaxFrames = maxFrames;
+		mySuspendBudget = suspendBudget;
+		myAveragePauseNanos = 0;
+		myCurrentIntervalMillis = intervalMillis;
+		myStartNanos = System.nanoTime() - (myStopNanos - myStartNanos);
+
+		Thread thread = myVm.newThread(this::run, "MDI Sampling Profiler");
+		mySamplerThread = thread;
+		thread.start();
+	}
+
+	/**
+	 * Stops sampling. Collected samples are kept. Does nothing if the profiler is not running.
+	 */
+	public void stop()
+	{
+		Thread thread;
+		myLock.lock();
+		try
+		{
+			thread = mySamplerThread;
+			if(thread == null)
+			{
+				return;
+			}
+			mySamplerThread = null;
+			myStopNanos = System.nanoTime();
+			myStopped.signalAll();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+
+		if(thread != Thread.currentThread())
+		{
+			try
+			{
+				thread.join();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public boolean isRunning()
+	{
+		myLock.lock();
+		try
+		{
+			return mySamplerThread != null;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * Drops all collected samples
+	 */
+	public void reset()
+	{
+		myLock.lock();
+		try
+		{
+			myRoot = new Node(0, null);
+			mySampleCount = 0;
+			mySuspendedNanos = 0;
+			myStartNanos = myStopNanos = System.nanoTime();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * Takes one sample now, on the calling thread
+	 *
+	 * @param maxFrames how many frames from the top of each thread are captured
+	 * @return time the target VM was suspended, in nanoseconds
+	 */
+	public long sample(int maxFrames)
+	{
+		long start = System.nanoTime();
+		List<List<Location>> stacks = new ArrayList<List<Location>>();
+
+		myVm.suspend();
+		try
+		{
+			for(List<Location> frames : ThreadMirror.frameLocations(myVm, myVm.allThreads(), maxFrames).values())
+			{
+				List<Location> stack = new ArrayList<Location>(frames.size());
+				for(Location location : frames)
+				{
+					if(location.method() != null)
+					{
+						stack.add(location);
+					}
+				}
+				if(!stack.isEmpty())
+				{
+					stacks.add(stack);
+				}
+			}
+		}
+		finally
+		{
+			myVm.resume();
+		}
+
+		long pause = System.nanoTime() - start;
+
+		myLock.lock();
+		try
+		{
+			mySampleCount++;
+			mySuspendedNanos += pause;
+			for(List<Location> stack : stacks)
+			{
+				Node node = myRoot;
+				node.mySamples++;
+				// frames come top first, the tree grows from the outermost captured frame
+				for(int i = stack.size() - 1; i >= 0; i--)
+				{
+					node = node.child(stack.get(i).method());
+					node.mySamples++;
+				}
+				node.mySelfSamples++;
+			}
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+		return pause;
+	}
+
+	/**
+	 * @return root of the call tree, which must not be read while the profiler is running
+	 */
+	@Nonnull
+	public Node callTree()
+	{
+		myLock.lock();
+		try
+		{
+			return myRoot;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	public long sampleCount()
+	{
+		myLock.lock();
+		try
+		{
+			return mySampleCount;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return total time the target VM was suspended by samples, in nanoseconds
+	 */
+	public long suspendedNanos()
+	{
+		myLock.lock();
+		try
+		{
+			return mySuspendedNanos;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return share of wall time since the profiler was started which the target VM spent suspended by samples
+	 */
+	public double suspendedShare()
+	{
+		myLock.lock();
+		try
+		{
+			long wall = (mySamplerThread != null ? System.nanoTime() : myStopNanos) - myStartNanos;
+			return wall <= 0 ? 0 : (double) mySuspendedNanos / wall;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return interval the sampler currently waits between samples, after adapting to the suspend budget
+	 */
+	public long currentIntervalMillis()
+	{
+		return myCurrentIntervalMillis;
+	}
+
+	/**
+	 * Call tree as collapsed stacks: one line per distinct stack, outermost frame first, frames separated
+	 * by <code>;</code>, followed by a space and the number of samples. This is the input format of
+	 * flamegraph.pl and most flame graph viewers.
+	 * <p/>
+	 * Method names are resolved here, without holding up sampling, but each new name is a round trip, so this
+	 * should be called after sampling is stopped, or at least not while the target VM is expected to be fast.
+	 */
+	@Nonnull
+	public String collapsedStacks()
+	{
+		StringBuilder builder = new StringBuilder();
+		writeCollapsedStacks(builder);
+		return builder.toString();
+	}
+
+	public void writeCollapsedStacks(@Nonnull Appendable out)
+	{
+		// stacks are copied under the lock and named after it is released, since naming a method talks to the target VM
+		List<int[]> stacks = new ArrayList<int[]>();
+		List<Long> counts = new ArrayList<Long>();
+		Map<Integer, MethodMirror> methods = new HashMap<Integer, MethodMirror>();
+		myLock.lock();
+		try
+		{
+			for(Node child : myRoot.myChildren.values())
+			{
+				collectStacks(child, new int[0], stacks, counts, methods);
+			}
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+
+		Map<Integer, String> names = new HashMap<Integer, String>();
+		try
+		{
+			StringBuilder line = new StringBuilder();
+			for(int i = 0; i < stacks.size(); i++)
+			{
+				line.setLength(0);
+				for(int methodId : stacks.get(i))
+				{
+					if(line.length() > 0)
+					{
+						line.append(';');
+					}
+					line.append(frameName(methodId, methods.get(methodId), names));
+				}
+				out.append(line).append(' ').append(Long.toString(counts.get(i))).append('\n');
+			}
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void collectStacks(Node node, int[] parent, List<int[]> stacks, List<Long> counts, Map<Integer, MethodMirror> methods)
+	{
+		int[] stack = Arrays.copyOf(parent, parent.length + 1);
+		stack[parent.length] = node.myMethodId;
+		methods.put(node.myMethodId, node.myMethod);
+
+		if(node.mySelfSamples > 0)
+		{
+			stacks.add(stack);
+			counts.add(node.mySelfSamples);
+		}
+		for(Node child : node.myChildren.values())
+		{
+			collectStacks(child, stack, stacks, counts, methods);
+		}
+	}
+
+	private static String frameName(int methodId, MethodMirror method, Map<Integer, String> names)
+	{
+		String name = names.get(methodId);
+		if(name == null)
+		{
+			try
+			{
+				TypeMirror type = method.declaringType();
+				name = (type == null ? "" : type.fullName() + ".") + method.name();
+			}
+			catch(RuntimeException e)
+			{
+				name = "method#" + methodId;
+			}
+			// ';' separates frames, ' ' separates the count
+			name = name.replace(';', '_').replace(' ', '_');
+			names.put(methodId, name);
+		}
+		return name;
+	}
+
+	private void run()
+	{
+		Thread thread = Thread.currentThread();
+		while(true)
+		{
+			int maxFrames;
+			myLock.lock();
+			try
+			{
+				if(mySamplerThread != thread)
+				{
+					return;
+				}
+				maxFrames = myMaxFrames;
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+
+			long pause;
+			try
+			{
+				pause = sample(maxFrames);
+			}
+			catch(VMDisconnectedException e)
+			{
+				myLock.lock();
+				try
+				{
+					if(mySamplerThread == thread)
+					{
+						mySamplerThread = null;
+						myStopNanos = System.nanoTime();
+					}
+				}
+				finally
+				{
+					myLock.unlock();
+				}
+				return;
+			}
+			catch(RuntimeException e)
+			{
+				// the sample is lost, keep sampling at the current pace
+				pause = (long) myAveragePauseNanos;
+			}
+
+			myLock.lock();
+			try
+			{
+				if(mySamplerThread != thread)
+				{
+					return;
+				}
+
+				myAveragePauseNanos = myAveragePauseNanos == 0 ? pause : myAveragePauseNanos + PAUSE_AVERAGE_WEIGHT * (pause - myAveragePauseNanos);
+				// pause / (pause + gap) <= budget
+				long budgetGapMillis = (long) (myAveragePauseNanos * (1 - mySuspendBudget) / mySuspendBudget / 1000000L);
+				long interval = Math.max(myIntervalMillis, budgetGapMillis);
+				myCurrentIntervalMillis = interval;
+
+				long left = TimeUnit.MILLISECONDS.toNanos(interval);
+				try
+				{
+					while(mySamplerThread == thread && left > 0)
+					{
+						left = myStopped.awaitNanos(left);
+					}
+				}
+				catch(InterruptedException e)
+				{
+					mySamplerThread = null;
+					myStopNanos = System.nanoTime();
+					return;
+				}
+			}
+			finally
+			{
+				myLock.unlock();
+			}
+		}
+	}
+}
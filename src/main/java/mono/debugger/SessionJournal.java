@@ -0,0 +1,181 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * File format of {@link RecordingConnection} and {@link ReplayConnection}: a header, then one record per packet in
+ * the order the debugger wrote or read them.
+ * <pre>
+ * header: int magic, short version, long start time in epoch millis
+ * record: byte kind, varlong nanos since the record before, varint length, the packet as on the wire
+ * </pre>
+ * A kind of 0 ends the records, which is also what the rest of a mapped region reads as when the recording
+ * process died before truncating the file.
+ *
+ * @since 2026-10-19
+ */
+class SessionJournal
+{
+	static final int MAGIC = 0x4D44524A; // MDRJ
+	static final short VERSION = 1;
+
+	static final byte END_OF_RECORDS = 0;
+	// written by the debugger
+	static final byte OUT = 1;
+	// read by the debugger
+	static final byte IN = 2;
+	// the debuggee closed the connection
+	static final byte END_OF_STREAM = 3;
+
+	private static final int REGION_SIZE = 16 << 20;
+
+	static final class Record
+	{
+		final byte kind;
+		// since the start of the recording
+		final long nanos;
+		final byte[] packet;
+
+		Record(byte kind, long nanos, byte[] packet)
+		{
+			this.kind = kind;
+			this.nanos = nanos;
+			this.packet = packet;
+		}
+	}
+
+	/**
+	 * Appends records to a file through memory-mapped regions
+	 */
+	static final class Writer
+	{
+		private final FileChannel myChannel;
+		private final long myStartNanos = System.nanoTime();
+		private MappedByteBuffer myRegion;
+		private long myRegionStart;
+		private long myLastNanos;
+		private boolean myClosed;
+
+		Writer(@Nonnull Path file) throws IOException
+		{
+			myChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			myRegion = myChannel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+			myRegion.putInt(MAGIC);
+			myRegion.putShort(VERSION);
+			myRegion.putLong(System.currentTimeMillis());
+		}
+
+		synchronized void append(byte kind, @Nonnull byte[] packet) throws IOException
+		{
+			if(myClosed)
+			{
+				return;
+			}
+			long nanos = System.nanoTime() - myStartNanos;
+			// kind, two varints and the packet
+			int size = 1 + 10 + 5 + packet.length;
+			if(myRegion.remaining() < size)
+			{
+				myRegionStart += myRegion.position();
+				myRegion = myChannel.map(FileChannel.MapMode.READ_WRITE, myRegionStart, Math.max(REGION_SIZE, size));
+			}
+			myRegion.put(kind);
+			putVarLong(myRegion, nanos - myLastNanos);
+			putVarLong(myRegion, packet.length);
+			myRegion.put(packet);
+			myLastNanos = nanos;
+		}
+
+		/**
+		 * Cuts the file after the last record
+		 */
+		synchronized void close() throws IOException
+		{
+			if(myClosed)
+			{
+				return;
+			}
+			myClosed = true;
+			long length = myRegionStart + myRegion.position();
+			myRegion.force();
+			myRegion = null;
+			try
+			{
+				myChannel.truncate(length);
+			}
+			catch(IOException e)
+			{
+				// the region may still be mapped on some platforms, the records end with a zero kind anyway
+			}
+			myChannel.close();
+		}
+	}
+
+	@Nonnull
+	static List<Record> read(@Nonnull Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.remaining() < 14 || buffer.getInt() != MAGIC)
+			{
+				throw new IOException("Not a session journal: " + file);
+			}
+			short version = buffer.getShort();
+			if(version != VERSION)
+			{
+				throw new IOException("Unsupported session journal version " + version);
+			}
+			buffer.getLong();
+
+			List<Record> records = new ArrayList<Record>();
+			long nanos = 0;
+			while(buffer.hasRemaining())
+			{
+				byte kind = buffer.get();
+				if(kind == END_OF_RECORDS)
+				{
+					break;
+				}
+				nanos += getVarLong(buffer);
+				byte[] packet = new byte[(int) getVarLong(buffer)];
+				buffer.get(packet);
+				records.add(new Record(kind, nanos, packet));
+			}
+			return records;
+		}
+	}
+
+	private static void putVarLong(ByteBuffer buffer, long value)
+	{
+		while((value & ~0x7fL) != 0)
+		{
+			buffer.put((byte) (value & 0x7f | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static long getVarLong(ByteBuffer buffer)
+	{
+		long value = 0;
+		for(int shift = 0; ; shift += 7)
+		{
+			byte b = buffer.get();
+			value |= (long) (b & 0x7f) << shift;
+			if(b >= 0)
+			{
+				return value;
+			}
+		}
+	}
+}
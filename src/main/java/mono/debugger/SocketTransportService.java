@@ -35,6 +35,11 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ResourceBundle;
 
 import mono.debugger.connect.TransportTimeoutException;
@@ -158,6 +163,17 @@ public class SocketTransportService extends TransportService {
         s.setSoTimeout(0);
     }
 
+    /*
+     * Sockets are created from channels only while the connections of new
+     * virtual machines are read by a ConnectionSelector. A blocking channel
+     * is closed when a thread using it is interrupted, and a caller which is
+     * interrupted while it waits for a reply must not end the session.
+     */
+    private static boolean useChannels() {
+        VirtualMachineManagerImpl manager = (VirtualMachineManagerImpl) Bootstrap.virtualMachineManager();
+        return manager.connectionSelector() != null;
+    }
+
     /**
      * No-arg constructor
      */
@@ -232,7 +248,7 @@ public class SocketTransportService extends TransportService {
         // open TCP connection to VM
 
         InetSocketAddress sa = new InetSocketAddress(host, port);
-        Socket s = new Socket();
+        Socket s = useChannels() ? SocketChannel.open().socket() : new Socket();
         try {
             s.connect(sa, (int)attachTimeout);
         } catch (SocketTimeoutException exc) {
@@ -266,7 +282,8 @@ public class SocketTransportService extends TransportService {
         } else {
             sa = new InetSocketAddress(localaddress, port);
         }
-        ServerSocket ss = new ServerSocket();
+        // accepted sockets have a channel if the listener has one
+        ServerSocket ss = useChannels() ? ServerSocketChannel.open().socket() : new ServerSocket();
         ss.bind(sa);
         return new SocketListenKey(ss);
     }
@@ -385,7 +402,7 @@ public class SocketTransportService extends TransportService {
 /*
  * The Connection returned by attach and accept is one of these
  */
-class SocketConnection extends Connection {
+class SocketConnection extends Connection implements ChannelConnection {
     private Socket socket;
     private boolean closed = false;
     private OutputStream socketOutput;
@@ -393,6 +410,8 @@ class SocketConnection extends Connection {
     private Object receiveLock = new Object();
     private Object sendLock = new Object();
     private Object closeLock = new Object();
+    private volatile boolean nonBlocking = false;
+    private volatile Selector writeSelector = null;
 
     SocketConnection(Socket socket) throws IOException {
         this.socket = socket;
@@ -412,6 +431,12 @@ class SocketConnection extends Connection {
            socket.close();
            closed = true;
         }
+
+        // a sender waiting for the socket buffer sees the socket closed
+        Selector selector = writeSelector;
+        if (selector != null) {
+            selector.wakeup();
+        }
     }
 
     @Override
@@ -421,6 +446,27 @@ class SocketConnection extends Connection {
         }
     }
 
+    /**
+     * Returns the channel of the socket, or null if the socket
+     * was not created from a channel.
+     */
+    @Override
+    public SocketChannel channel() {
+        return socket.getChannel();
+    }
+
+    /**
+     * Puts the channel into non-blocking mode, for a ConnectionSelector.
+     * From then on packets must not be read with {@link #readPacket}.
+     */
+    @Override
+    public void configureNonBlocking() throws IOException {
+        synchronized (sendLock) {
+            socket.getChannel().configureBlocking(false);
+            nonBlocking = true;
+        }
+    }
+
     @Override
 	public byte[] readPacket() throws IOException {
         if (!isOpen()) {
@@ -523,7 +569,17 @@ class SocketConnection extends Connection {
                  * Send the packet (ignoring any bytes that follow
                  * the packet in the byte array).
                  */
-                socketOutput.write(b, 0, len);
+                if (nonBlocking) {
+                    ByteBuffer buffer = ByteBuffer.wrap(b, 0, len);
+                    SocketChannel channel = socket.getChannel();
+                    while (buffer.hasRemaining()) {
+                        if (channel.write(buffer) == 0) {
+                            awaitWritable(channel);
+                        }
+                    }
+                } else {
+                    socketOutput.write(b, 0, len);
+                }
             } catch (IOException ioe) {
                 if (!isOpen()) {
                     throw new ClosedConnectionException("connection is closed");
@@ -533,6 +589,30 @@ class SocketConnection extends Connection {
             }
         }
     }
+
+    /*
+     * Waits until the socket buffer, which is full only while the target
+     * VM is slow to read, takes bytes again. Called with sendLock held.
+     */
+    private void awaitWritable(SocketChannel channel) throws IOException {
+        // an interrupt would end every select at once, keep it for the caller
+        boolean interrupted = Thread.interrupted();
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_WRITE);
+            writeSelector = selector;
+            try {
+                if (isOpen()) {
+                    selector.select();
+                }
+            } finally {
+                writeSelector = null;
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
 
 
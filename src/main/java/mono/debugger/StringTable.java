@@ -0,0 +1,71 @@
+package mono.debugger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Bounded table of the strings the decoders read, looked up by their UTF-8 bytes, so that a name or a source path
+ * sent again and again is neither decoded nor kept in the heap more than once.
+ * <p/>
+ * Direct mapped: a string evicts whichever string had its slot. Slots are replaced whole with immutable
+ * entries, so decoder threads share the table without locks, at worst losing an entry to a race.
+ *
+ * @since 2026-10-19
+ */
+class StringTable
+{
+	private static final int SLOT_COUNT = 4096;
+	// longer strings are rarely repeated names
+	private static final int MAX_LENGTH = 1024;
+
+	private static final class Entry
+	{
+		private final int myHash;
+		private final byte[] myBytes;
+		private final String myString;
+
+		private Entry(int hash, byte[] bytes, String string)
+		{
+			myHash = hash;
+			myBytes = bytes;
+			myString = string;
+		}
+	}
+
+	private final Entry[] mySlots = new Entry[SLOT_COUNT];
+
+	/**
+	 * @return the string of the UTF-8 bytes at the offset
+	 */
+	@Nonnull
+	String get(@Nonnull byte[] data, int offset, int length)
+	{
+		if(length == 0)
+		{
+			return "";
+		}
+		if(length > MAX_LENGTH)
+		{
+			return new String(data, offset, length, StandardCharsets.UTF_8);
+		}
+
+		int hash = 1;
+		for(int i = offset, end = offset + length; i < end; i++)
+		{
+			hash = 31 * hash + data[i];
+		}
+		int slot = (hash ^ hash >>> 16) & (SLOT_COUNT - 1);
+
+		Entry entry = mySlots[slot];
+		if(entry != null && entry.myHash == hash && Arrays.equals(entry.myBytes, 0, entry.myBytes.length, data, offset, offset + length))
+		{
+			return entry.myString;
+		}
+
+		String string = new String(data, offset, length, StandardCharsets.UTF_8);
+		mySlots[slot] = new Entry(hash, Arrays.copyOfRange(data, offset, offset + length), string);
+		return string;
+	}
+}
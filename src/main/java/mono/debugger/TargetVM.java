@@ -32,6 +32,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
 
 import mono.debugger.connect.spi.Connection;
 import mono.debugger.event.EventQueue;
@@ -40,11 +43,13 @@ import mono.debugger.event.EventSet;
 public class TargetVM implements Runnable
 {
 	private Map<String, Packet> waitingQueue = new HashMap<String, Packet>(32, 0.75f);
-	private boolean shouldListen = true;
+	private volatile boolean shouldListen = true;
 	private List<EventQueue> eventQueues = Collections.synchronizedList(new ArrayList<EventQueue>(2));
 	private VirtualMachineImpl vm;
 	private Connection connection;
 	private Thread readerThread;
+	// not null if packets are read by a selector thread instead of readerThread
+	private ConnectionSelector selector;
 	private boolean eventsHeld = false;
 
 	/*
@@ -58,75 +63,48 @@ public class TargetVM implements Runnable
 	{
 		this.vm = vm;
 		this.connection = connection;
-		this.readerThread = new Thread(vm.threadGroupForJDI(), this, "MDI Target VM Interface");
-		this.readerThread.setDaemon(true);
 	}
 
 	void start()
 	{
-		readerThread.start();
-	}
-
-	private void dumpPacket(Packet packet, boolean sending)
-	{
-		String direction = sending ? "Sending" : "Receiving";
-		if(sending)
-		{
-			vm.printTrace(direction + " Command. id=" + packet.id +
-					", length=" + packet.data.length +
-					", commandSet=" + packet.cmdSet +
-					", command=" + packet.cmd +
-					", flags=" + packet.flags);
-		}
-		else
+		ConnectionSelector connectionSelector = vm.vmManager.connectionSelector();
+		if(connectionSelector != null && connection instanceof ChannelConnection && ((ChannelConnection) connection).channel() != null)
 		{
-			String type = (packet.flags & Packet.Reply) != 0 ? "Reply" : "Event";
-			vm.printTrace(direction + " " + type + ". id=" + packet.id +
-					", length=" + packet.data.length +
-					", errorCode=" + packet.errorCode +
-					", flags=" + packet.flags);
-		}
-		StringBuffer line = new StringBuffer(80);
-		line.append("0000: ");
-		for(int i = 0; i < packet.data.length; i++)
-		{
-			if((i > 0) && (i % 16 == 0))
+			selector = connectionSelector;
+			try
 			{
-				vm.printTrace(line.toString());
-				line.setLength(0);
-				line.append(String.valueOf(i));
-				line.append(": ");
-				int len = line.length();
-				for(int j = 0; j < 6 - len; j++)
-				{
-					line.insert(0, '0');
-				}
+				connectionSelector.register((ChannelConnection) connection, this);
+				return;
 			}
-			int val = 0xff & packet.data[i];
-			String str = Integer.toHexString(val);
-			if(str.length() == 1)
+			catch(IOException e)
 			{
-				line.append('0');
+				// fall back to a reader thread
+				selector = null;
 			}
-			line.append(str);
-			line.append(' ');
-		}
-		if(line.length() > 6)
-		{
-			vm.printTrace(line.toString());
 		}
+
+		readerThread = vm.newThread(this, "MDI Target VM Interface");
+		readerThread.start();
+	}
+
+	/*
+	 * One line per packet, see VirtualMachineImpl.TRACE_RAW_SENDS. Payloads are recorded by vm.packetTrace().
+	 */
+	private void tracePacket(Packet packet, boolean sending)
+	{
+		StringBuilder line = new StringBuilder(80);
+		PacketTraceDecoder.describe(line, packet.id, PacketTrace.header(sending, packet), packet.data.length, -1);
+		vm.printTrace(line.toString());
 	}
 
 	@Override
 	public void run()
 	{
-		Packet p = null, p2;
-		String idString;
-
 		while(shouldListen)
 		{
 
 			boolean done = false;
+			Packet p = null;
 			try
 			{
 				byte b[] = connection.readPacket();
@@ -143,64 +121,96 @@ public class TargetVM implements Runnable
 
 			if(done)
 			{
-				shouldListen = false;
-				try
-				{
-					connection.close();
-				}
-				catch(IOException ioe)
-				{
-				}
 				break;
 			}
 
-			if((vm.traceFlags & VirtualMachineImpl.TRACE_RAW_RECEIVES) != 0)
-			{
-				dumpPacket(p, false);
-			}
+			handlePacket(p);
+		}
 
-			if((p.flags & Packet.Reply) == 0)
-			{
-				// It's a command
-				handleVMCommand(p);
-			}
-			else
-			{
-				/*if(p.errorCode != Packet.ReplyNoError) {
-                    System.err.println("Packet " + p.id + " returned failure = " + p.errorCode);
-                }*/
+		disconnected();
+	}
 
-				vm.state().notifyCommandComplete(p.id);
-				idString = String.valueOf(p.id);
+	/*
+	 * Called by the reader thread, or by a ConnectionSelector thread, for
+	 * every packet read from the target VM. Must never block on the target VM.
+	 */
+	void handlePacket(Packet p)
+	{
+		Packet p2;
+		String idString;
 
-				synchronized(waitingQueue)
-				{
-					p2 = waitingQueue.get(idString);
+		vm.packetTrace().record(false, p);
+		if((vm.traceFlags & VirtualMachineImpl.TRACE_RAW_RECEIVES) != 0)
+		{
+			tracePacket(p, false);
+		}
 
-					if(p2 != null)
-					{
-						waitingQueue.remove(idString);
-					}
-				}
+		if((p.flags & Packet.Reply) == 0)
+		{
+			// It's a command
+			handleVMCommand(p);
+		}
+		else
+		{
+			/*if(p.errorCode != Packet.ReplyNoError) {
+                System.err.println("Packet " + p.id + " returned failure = " + p.errorCode);
+            }*/
 
-				if(p2 == null)
-				{
-					// Whoa! a reply without a sender. Problem.
-					// FIX ME! Need to post an error.
+			vm.state().notifyCommandComplete(p.id);
+			idString = String.valueOf(p.id);
 
-					System.err.println("Recieved reply with no sender!");
-					continue;
-				}
-				p2.errorCode = p.errorCode;
-				p2.data = p.data;
-				p2.replied = true;
+			synchronized(waitingQueue)
+			{
+				p2 = waitingQueue.get(idString);
 
-				synchronized(p2)
+				if(p2 != null)
 				{
-					p2.notify();
+					waitingQueue.remove(idString);
 				}
 			}
+
+			if(p2 == null)
+			{
+				// Whoa! a reply without a sender. Problem.
+				// FIX ME! Need to post an error.
+
+				System.err.println("Recieved reply with no sender!");
+				return;
+			}
+			vm.protocolMetrics().replyReceived(p2, p);
+			FlightRecorderEvents.CommandEvent event = p2.recorderEvent;
+			if(event != null)
+			{
+				p2.recorderEvent = null;
+				event.bytesReceived = p.data.length + 11;
+				event.errorCode = p.errorCode;
+				event.commit();
+			}
+			p2.errorCode = p.errorCode;
+			p2.data = p.data;
+			p2.replied = true;
+
+			// replied is written before waiter is read, and the waiter does it the other way round,
+			// so either it sees the reply or we see it and unpark it
+			LockSupport.unpark(p2.waiter);
+		}
+	}
+
+	/*
+	 * Called once, when the connection reached end of stream, failed or was closed.
+	 */
+	void disconnected()
+	{
+		shouldListen = false;
+		try
+		{
+			connection.close();
 		}
+		catch(IOException ioe)
+		{
+		}
+
+		vm.setEventDecoderThreads(0);
 
 		// inform the VM mamager that this VM is history
 		vm.vmManager.disposeVirtualMachine(vm);
@@ -225,13 +235,16 @@ public class TargetVM implements Runnable
 			while(iter.hasNext())
 			{
 				Packet packet = iter.next();
-				synchronized(packet)
-				{
-					packet.notify();
-				}
+				vm.protocolMetrics().commandAbandoned(packet);
+				LockSupport.unpark(packet.waiter);
 			}
 			waitingQueue.clear();
 		}
+
+		// only after waiters are released, the sampler thread may be waiting for a reply
+		vm.samplingProfiler().stop();
+		vm.methodTracer().stop();
+		vm.protocolMetrics().unregisterMBean();
 	}
 
 	protected void handleVMCommand(Packet p)
@@ -260,11 +273,31 @@ public class TargetVM implements Runnable
 	 */
 	protected void handleEventCmdSet(Packet p)
 	{
-		EventSet eventSet = new EventSetImpl(vm, p);
+		vm.protocolMetrics().eventSetReceived();
 
-		if(eventSet != null)
+		// method tracing records entry and exit events without creating an event set
+		if(vm.methodTracer().consume(p))
 		{
-			queueEventSet(eventSet);
+			return;
+		}
+
+		EventSetImpl eventSet = new EventSetImpl(vm, p);
+
+		queueEventSet(eventSet);
+
+		// The set is already queued in arrival order, a decoder thread only
+		// gets a head start on it. Whoever comes first does the decoding.
+		ExecutorService decoder = vm.eventDecoder();
+		if(decoder != null)
+		{
+			try
+			{
+				decoder.execute(eventSet::decode);
+			}
+			catch(RejectedExecutionException e)
+			{
+				// decoder was switched off - consumer will decode it
+			}
 		}
 	}
 
@@ -294,6 +327,7 @@ public class TargetVM implements Runnable
 				maxQueueSize = Math.max(maxQueueSize, queue.size());
 			}
 		}
+		vm.protocolMetrics().eventQueueDepth(maxQueueSize);
 		controlEventFlow(maxQueueSize);
 	}
 
@@ -312,6 +346,7 @@ public class TargetVM implements Runnable
 			}
 		}
 
+		vm.protocolMetrics().eventQueueDepth(maxQueueSize);
 		controlEventFlow(maxQueueSize);
 	}
 
@@ -324,14 +359,29 @@ public class TargetVM implements Runnable
 			waitingQueue.put(id, packet);
 		}
 
+		vm.packetTrace().record(true, packet);
 		if((vm.traceFlags & VirtualMachineImpl.TRACE_RAW_SENDS) != 0)
 		{
-			dumpPacket(packet, true);
+			tracePacket(packet, true);
 		}
 
+		byte[] bytes = packet.toByteArray();
+		vm.protocolMetrics().commandSent(packet, bytes.length);
+		FlightRecorderEvents.CommandEvent event = new FlightRecorderEvents.CommandEvent();
+		if(event.isEnabled())
+		{
+			event.vm = vm.sequenceNumber;
+			event.commandSet = packet.cmdSet;
+			event.command = packet.cmd;
+			event.name = CommandNames.name(packet.cmdSet, packet.cmd);
+			event.requestingThread = Thread.currentThread();
+			event.bytesSent = bytes.length;
+			packet.recorderEvent = event;
+			event.begin();
+		}
 		try
 		{
-			connection.writePacket(packet.toByteArray());
+			connection.writePacket(bytes);
 		}
 		catch(IOException e)
 		{
@@ -339,27 +389,39 @@ public class TargetVM implements Runnable
 		}
 	}
 
+	/*
+	 * Parks instead of waiting on a monitor, so that a virtual thread
+	 * waiting for a reply does not pin its carrier thread.
+	 */
 	void waitForReply(Packet packet)
 	{
-		synchronized(packet)
+		boolean interrupted = false;
+		packet.waiter = Thread.currentThread();
+		try
 		{
 			while((!packet.replied) && shouldListen)
 			{
-				try
-				{
-					packet.wait();
-				}
-				catch(InterruptedException e)
+				LockSupport.park(packet);
+				// interrupts are ignored, as before, but park() would not block again while one is pending
+				if(Thread.interrupted())
 				{
-					;
+					interrupted = true;
 				}
 			}
-
-			if(!packet.replied)
+		}
+		finally
+		{
+			packet.waiter = null;
+			if(interrupted)
 			{
-				throw new VMDisconnectedException();
+				Thread.currentThread().interrupt();
 			}
 		}
+
+		if(!packet.replied)
+		{
+			throw new VMDisconnectedException();
+		}
 	}
 
 	void addEventQueue(EventQueueImpl queue)
@@ -377,5 +439,11 @@ public class TargetVM implements Runnable
 		catch(IOException ioe)
 		{
 		}
+
+		// a closed channel is dropped by its selector without a read event, so tell it
+		if(selector != null)
+		{
+			selector.unregister((ChannelConnection) connection);
+		}
 	}
 }
@@ -31,7 +31,9 @@ import mono.debugger.util.BitUtil;
 import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ThreadMirror extends MirrorWithIdAndName
 {
@@ -128,36 +130,85 @@ public class ThreadMirror extends MirrorWithIdAndName
 
 	@Nonnull
 	public List<StackFrameMirror> frames(int startIndex, int length)
+	{
+		return frameCursor(startIndex, length).toList();
+	}
+
+	/**
+	 * Like {@link #frames(int, int)}, with a mirror created for a frame only when the cursor is moved over it, for
+	 * callers which look for a frame of a deep stack and stop there
+	 */
+	@Nonnull
+	public ReplyCursor<StackFrameMirror> frameCursor(int startIndex, int length)
 	{
 		try
 		{
-			Thread_GetFrameInfo.Frame[] frames = Thread_GetFrameInfo.process(vm, this, startIndex, length).frames;
-			List<StackFrameMirror> frameMirrors = new ArrayList<>(frames.length);
-			for(Thread_GetFrameInfo.Frame frame : frames)
+			return Thread_GetFrameInfo.cursor(vm, this, startIndex, length).map(this::toFrameMirror);
+		}
+		catch(JDWPException e)
+		{
+			throw e.asUncheckedException();
+		}
+	}
+
+	@Nonnull
+	private StackFrameMirror toFrameMirror(@Nonnull Thread_GetFrameInfo.Frame frame)
+	{
+		if(frame.location == null)
+		{
+			throw new InternalException("Invalid frame location");
+		}
+
+		List<StackFrameMirror.StackFrameFlags> result = new ArrayList<>();
+		byte flags = frame.flags;
+		for(StackFrameMirror.StackFrameFlags f : StackFrameMirror.StackFrameFlags.values())
+		{
+			if(BitUtil.isSet(flags, f.mask))
 			{
-				if(frame.location == null)
-				{
-					throw new InternalException("Invalid frame location");
-				}
+				result.add(f);
+			}
+		}
+
+		return new StackFrameMirror(vm, this, frame.frameID, frame.location, result.isEmpty() ? EnumSet.noneOf(StackFrameMirror.StackFrameFlags.class) : EnumSet.copyOf(result));
+	}
+
+	/**
+	 * Locations of the top frames of several threads, which must be suspended. The commands for all threads
+	 * are sent before the first reply is read, so this takes one round trip however many threads there are.
+	 *
+	 * @return top frame first, threads which exited in the meantime are missing
+	 */
+	@Nonnull
+	public static Map<ThreadMirror, List<Location>> frameLocations(@Nonnull VirtualMachine vm, @Nonnull List<ThreadMirror> threads, int maxFrames)
+	{
+		VirtualMachineImpl vmImpl = (VirtualMachineImpl) vm;
+		PacketStream[] streams = new PacketStream[threads.size()];
+		for(int i = 0; i < streams.length; i++)
+		{
+			streams[i] = Thread_GetFrameInfo.enqueueCommand(vmImpl, threads.get(i), 0, maxFrames);
+		}
 
-				List<StackFrameMirror.StackFrameFlags> result = new ArrayList<>();
-				byte flags = frame.flags;
-				for(StackFrameMirror.StackFrameFlags f : StackFrameMirror.StackFrameFlags.values())
+		Map<ThreadMirror, List<Location>> result = new LinkedHashMap<>(streams.length);
+		for(int i = 0; i < streams.length; i++)
+		{
+			try
+			{
+				Thread_GetFrameInfo.Frame[] frames = Thread_GetFrameInfo.waitForReply(vmImpl, streams[i]).frames;
+				List<Location> locations = new ArrayList<>(frames.length);
+				for(Thread_GetFrameInfo.Frame frame : frames)
 				{
-					if(BitUtil.isSet(flags, f.mask))
+					if(frame.location != null)
 					{
-						result.add(f);
+						locations.add(frame.location);
 					}
 				}
-
-				frameMirrors.add(new StackFrameMirror(vm, this, frame.frameID, frame.location, result.isEmpty() ? EnumSet.noneOf(StackFrameMirror.StackFrameFlags.class) : EnumSet.copyOf(result)));
+				result.put(threads.get(i), locations);
+			}
+			catch(JDWPException e)
+			{
+				// thread exited between AllThreads and GetFrameInfo
 			}
-			return frameMirrors;
-
-		}
-		catch(JDWPException e)
-		{
-			throw e.asUncheckedException();
 		}
+		return result;
 	}
 }
@@ -46,6 +46,16 @@ public class TypeMirror extends CustomAttributeMirrorOwner implements MirrorWith
 		return info().assemblyMirror;
 	}
 
+	/**
+	 * @return {@link #assembly()} if it is known without asking the target VM, or null
+	 */
+	@Nullable
+	AssemblyMirror loadedAssembly()
+	{
+		Type_GetInfo info = myInfo;
+		return info == null ? null : info.assemblyMirror;
+	}
+
 	@Nonnull
 	private Type_GetInfo info()
 	{
@@ -204,7 +214,7 @@ public class TypeMirror extends CustomAttributeMirrorOwner implements MirrorWith
 		}
 		try
 		{
-			if(virtualMachine().isAtLeastVersion(2, 11))
+			if(vm.protocolFeatures().typeInterfaces())
 			{
 				return myInterfaces = Type_GetInterfaces.process(vm, this).interfaces;
 			}
@@ -0,0 +1,46 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.util.Map;
+
+import mono.debugger.connect.Connector;
+import mono.debugger.connect.IllegalConnectorArgumentsException;
+import mono.debugger.connect.Transport;
+
+/**
+ * An AttachingConnector that uses the {@link UnixDomainSocketTransportService}
+ *
+ * @since 2026-10-19
+ */
+public class UnixDomainSocketAttachingConnector extends GenericAttachingConnector
+{
+	public static final String ARG_PATH = "path";
+
+	public UnixDomainSocketAttachingConnector()
+	{
+		super(new UnixDomainSocketTransportService());
+
+		addStringArgument(ARG_PATH, "", true);
+
+		transport = new Transport()
+		{
+			@Override
+			public String name()
+			{
+				return "dt_unix";
+			}
+		};
+	}
+
+	@Override
+	public VirtualMachine attach(Map<String, ? extends Connector.Argument> arguments) throws IOException, IllegalConnectorArgumentsException
+	{
+		return super.attach(argument(ARG_PATH, arguments).value(), arguments);
+	}
+
+	@Override
+	public String name()
+	{
+		return "mono.debugger.UnixDomainSocketAttach";
+	}
+}
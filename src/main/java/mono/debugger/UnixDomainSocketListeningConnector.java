@@ -0,0 +1,47 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.util.Map;
+
+import mono.debugger.connect.Connector;
+import mono.debugger.connect.IllegalConnectorArgumentsException;
+import mono.debugger.connect.Transport;
+
+/**
+ * A ListeningConnector that uses the {@link UnixDomainSocketTransportService}. Without a path it listens
+ * on a new socket file in the temporary directory, whose path is returned by {@link #startListening(Map)}.
+ *
+ * @since 2026-10-19
+ */
+public class UnixDomainSocketListeningConnector extends GenericListeningConnector
+{
+	public static final String ARG_PATH = "path";
+
+	public UnixDomainSocketListeningConnector()
+	{
+		super(new UnixDomainSocketTransportService());
+
+		addStringArgument(ARG_PATH, "", false);
+
+		transport = new Transport()
+		{
+			@Override
+			public String name()
+			{
+				return "dt_unix";
+			}
+		};
+	}
+
+	@Override
+	public String startListening(Map<String, ? extends Connector.Argument> args) throws IOException, IllegalConnectorArgumentsException
+	{
+		return super.startListening(argument(ARG_PATH, args).value(), args);
+	}
+
+	@Override
+	public String name()
+	{
+		return "mono.debugger.UnixDomainSocketListen";
+	}
+}
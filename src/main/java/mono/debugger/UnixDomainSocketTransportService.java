@@ -0,0 +1,561 @@
+package mono.debugger;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mono.debugger.connect.TransportTimeoutException;
+import mono.debugger.connect.spi.ClosedConnectionException;
+import mono.debugger.connect.spi.Connection;
+import mono.debugger.connect.spi.TransportService;
+
+/**
+ * Transport service over a Unix domain socket, for a debuggee on the same machine. The address is the path
+ * of the socket file.
+ * <p/>
+ * Compared to TCP loopback there is no TCP stack on the way - no checksums, acknowledgements or Nagle timers -
+ * which shortens each round trip. The Mono runtime itself only offers <code>dt_socket</code>, so the other side
+ * is a host which registers its own debugger transport, or a local proxy in front of the TCP port.
+ * <p/>
+ * Connections have a channel, so they can be read by a {@link ConnectionSelector}.
+ *
+ * @see UnixDomainSocketAttachingConnector
+ * @see UnixDomainSocketListeningConnector
+ * @since 2026-10-19
+ */
+public class UnixDomainSocketTransportService extends TransportService
+{
+	private static final byte[] HANDSHAKE = "DWP-Handshake".getBytes(StandardCharsets.UTF_8);
+
+	private static final AtomicInteger ourListenCount = new AtomicInteger();
+
+	/**
+	 * The listener returned by startListening, the socket file is deleted when it stops
+	 */
+	static class UnixDomainSocketListenKey extends ListenKey
+	{
+		private final ServerSocketChannel myChannel;
+		private final Path myPath;
+		// serializes accepts with a timeout, which switch the channel to non-blocking mode
+		private final Object myAcceptLock = new Object();
+
+		UnixDomainSocketListenKey(ServerSocketChannel channel, Path path)
+		{
+			myChannel = channel;
+			myPath = path;
+		}
+
+		ServerSocketChannel channel()
+		{
+			return myChannel;
+		}
+
+		Path path()
+		{
+			return myPath;
+		}
+
+		@Override
+		public String address()
+		{
+			return myPath.toString();
+		}
+
+		@Override
+		public String toString()
+		{
+			return address();
+		}
+	}
+
+	static class Capabilities extends TransportService.Capabilities
+	{
+		@Override
+		public boolean supportsMultipleConnections()
+		{
+			return true;
+		}
+
+		/**
+		 * A connect to a Unix domain socket completes or fails at once
+		 */
+		@Override
+		public boolean supportsAttachTimeout()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean supportsAcceptTimeout()
+		{
+			return true;
+		}
+
+		@Override
+		public boolean supportsHandshakeTimeout()
+		{
+			return true;
+		}
+	}
+
+	@Override
+	public String name()
+	{
+		return "UnixDomainSocket";
+	}
+
+	@Override
+	public String description()
+	{
+		return "Transports debugger packets over a Unix domain socket";
+	}
+
+	@Override
+	public TransportService.Capabilities capabilities()
+	{
+		return new Capabilities();
+	}
+
+	@Override
+	public Connection attach(String address, long attachTimeout, long handshakeTimeout) throws IOException
+	{
+		if(address == null)
+		{
+			throw new NullPointerException("address is null");
+		}
+		if(address.length() == 0)
+		{
+			throw new IllegalArgumentException("address is empty");
+		}
+		if(attachTimeout < 0 || handshakeTimeout < 0)
+		{
+			throw new IllegalArgumentException("timeout is negative");
+		}
+
+		SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+		try
+		{
+			channel.connect(UnixDomainSocketAddress.of(address));
+			handshake(channel, handshakeTimeout);
+		}
+		catch(IOException | RuntimeException e)
+		{
+			closeQuietly(channel);
+			throw e;
+		}
+		return new UnixDomainSocketConnection(channel);
+	}
+
+	/**
+	 * Listens on the socket file at <code>address</code>, which must not exist yet
+	 */
+	@Override
+	public ListenKey startListening(String address) throws IOException
+	{
+		if(address == null || address.length() == 0)
+		{
+			return startListening();
+		}
+		return startListening(Path.of(address));
+	}
+
+	/**
+	 * Listens on a new socket file in the temporary directory
+	 */
+	@Override
+	public ListenKey startListening() throws IOException
+	{
+		String name = "mono-debugger-" + ProcessHandle.current().pid() + "-" + ourListenCount.incrementAndGet() + ".sock";
+		return startListening(Path.of(System.getProperty("java.io.tmpdir"), name));
+	}
+
+	private ListenKey startListening(Path path) throws IOException
+	{
+		ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		try
+		{
+			channel.bind(UnixDomainSocketAddress.of(path));
+		}
+		catch(IOException e)
+		{
+			closeQuietly(channel);
+			throw e;
+		}
+		return new UnixDomainSocketListenKey(channel, path);
+	}
+
+	@Override
+	public void stopListening(ListenKey listener) throws IOException
+	{
+		if(!(listener instanceof UnixDomainSocketListenKey))
+		{
+			throw new IllegalArgumentException("Invalid listener");
+		}
+
+		UnixDomainSocketListenKey key = (UnixDomainSocketListenKey) listener;
+		synchronized(key)
+		{
+			if(!key.channel().isOpen())
+			{
+				throw new IllegalArgumentException("Invalid listener");
+			}
+			try
+			{
+				key.channel().close();
+			}
+			finally
+			{
+				// unlike a port, the socket file outlives the channel
+				Files.deleteIfExists(key.path());
+			}
+		}
+	}
+
+	@Override
+	public Connection accept(ListenKey listener, long acceptTimeout, long handshakeTimeout) throws IOException
+	{
+		if(acceptTimeout < 0 || handshakeTimeout < 0)
+		{
+			throw new IllegalArgumentException("timeout is negative");
+		}
+		if(!(listener instanceof UnixDomainSocketListenKey))
+		{
+			throw new IllegalArgumentException("Invalid listener");
+		}
+
+		ServerSocketChannel serverChannel = ((UnixDomainSocketListenKey) listener).channel();
+		if(!serverChannel.isOpen())
+		{
+			throw new IllegalArgumentException("Invalid listener");
+		}
+
+		SocketChannel channel;
+		if(acceptTimeout == 0)
+		{
+			channel = serverChannel.accept();
+		}
+		else
+		{
+			synchronized(((UnixDomainSocketListenKey) listener).myAcceptLock)
+			{
+				serverChannel.configureBlocking(false);
+				try
+				{
+					try (Selector selector = Selector.open())
+					{
+						serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+						if(selector.select(acceptTimeout) == 0)
+						{
+							throw new TransportTimeoutException("timeout waiting for connection");
+						}
+					}
+					channel = serverChannel.accept();
+				}
+				finally
+				{
+					// the key was cancelled by closing the selector
+					serverChannel.configureBlocking(true);
+				}
+			}
+			if(channel == null)
+			{
+				throw new TransportTimeoutException("timeout waiting for connection");
+			}
+		}
+
+		try
+		{
+			handshake(channel, handshakeTimeout);
+		}
+		catch(IOException | RuntimeException e)
+		{
+			closeQuietly(channel);
+			throw e;
+		}
+		return new UnixDomainSocketConnection(channel);
+	}
+
+	/**
+	 * Handshake with the debuggee, a channel has no read timeout so it is done in non-blocking mode
+	 */
+	static void handshake(SocketChannel channel, long timeout) throws IOException
+	{
+		long deadline = System.nanoTime() + timeout * 1_000_000L;
+
+		ByteBuffer hello = ByteBuffer.wrap(HANDSHAKE);
+		ByteBuffer reply = ByteBuffer.allocate(HANDSHAKE.length);
+
+		channel.configureBlocking(false);
+		try (Selector selector = Selector.open())
+		{
+			SelectionKey key = channel.register(selector, SelectionKey.OP_WRITE);
+			while(hello.hasRemaining())
+			{
+				if(channel.write(hello) == 0)
+				{
+					await(selector, timeout, deadline);
+				}
+			}
+
+			key.interestOps(SelectionKey.OP_READ);
+			while(reply.hasRemaining())
+			{
+				int count = channel.read(reply);
+				if(count < 0)
+				{
+					throw new IOException("handshake failed - connection prematurally closed");
+				}
+				if(count == 0)
+				{
+					await(selector, timeout, deadline);
+				}
+			}
+		}
+		channel.configureBlocking(true);
+
+		for(int i = 0; i < HANDSHAKE.length; i++)
+		{
+			if(reply.get(i) != HANDSHAKE[i])
+			{
+				throw new IOException("handshake failed - unrecognized message from target VM");
+			}
+		}
+	}
+
+	private static void await(Selector selector, long timeout, long deadline) throws IOException
+	{
+		if(timeout == 0)
+		{
+			selector.select();
+		}
+		else
+		{
+			long remaining = deadline - System.nanoTime();
+			if(remaining <= 0)
+			{
+				throw new IOException("handshake timeout");
+			}
+			selector.select(Math.max(1, remaining / 1_000_000L));
+		}
+		selector.selectedKeys().clear();
+	}
+
+	private static void closeQuietly(Channel channel)
+	{
+		try
+		{
+			channel.close();
+		}
+		catch(IOException ignored)
+		{
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return name();
+	}
+}
+
+/*
+ * The Connection returned by attach and accept is one of these
+ */
+class UnixDomainSocketConnection extends Connection implements ChannelConnection
+{
+	private static final int MIN_PACKET_SIZE = 11;
+
+	private final SocketChannel myChannel;
+	private final Object myReceiveLock = new Object();
+	private final Object mySendLock = new Object();
+	private volatile boolean myNonBlocking;
+	private volatile Selector myWriteSelector;
+
+	UnixDomainSocketConnection(SocketChannel channel)
+	{
+		myChannel = channel;
+	}
+
+	@Override
+	public SocketChannel channel()
+	{
+		return myChannel;
+	}
+
+	@Override
+	public void configureNonBlocking() throws IOException
+	{
+		synchronized(mySendLock)
+		{
+			myChannel.configureBlocking(false);
+			myNonBlocking = true;
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		myChannel.close();
+
+		// a sender waiting for the socket buffer sees the channel closed
+		Selector selector = myWriteSelector;
+		if(selector != null)
+		{
+			selector.wakeup();
+		}
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return myChannel.isOpen();
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException
+	{
+		if(!isOpen())
+		{
+			throw new ClosedConnectionException("connection is closed");
+		}
+		synchronized(myReceiveLock)
+		{
+			try
+			{
+				ByteBuffer header = ByteBuffer.allocate(4);
+				if(!readFully(header))
+				{
+					if(header.position() == 0)
+					{
+						// EOF
+						return new byte[0];
+					}
+					throw new IOException("protocol error - premature EOF");
+				}
+
+				int length = header.getInt(0);
+				if(length < 0)
+				{
+					throw new IOException("protocol error - invalid length");
+				}
+
+				byte[] packet = new byte[Math.max(length, 4)];
+				ByteBuffer body = ByteBuffer.wrap(packet);
+				body.put(header.array());
+				if(!readFully(body))
+				{
+					throw new IOException("protocol error - premature EOF");
+				}
+				return packet;
+			}
+			catch(IOException e)
+			{
+				if(!isOpen())
+				{
+					throw new ClosedConnectionException("connection is closed");
+				}
+				throw e;
+			}
+		}
+	}
+
+	private boolean readFully(ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			if(myChannel.read(buffer) < 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void writePacket(byte[] b) throws IOException
+	{
+		if(!isOpen())
+		{
+			throw new ClosedConnectionException("connection is closed");
+		}
+		if(b.length < MIN_PACKET_SIZE)
+		{
+			throw new IllegalArgumentException("packet is insufficient size");
+		}
+		int length = ((b[0] & 0xff) << 24) | ((b[1] & 0xff) << 16) | ((b[2] & 0xff) << 8) | (b[3] & 0xff);
+		if(length < MIN_PACKET_SIZE)
+		{
+			throw new IllegalArgumentException("packet is insufficient size");
+		}
+		if(length > b.length)
+		{
+			throw new IllegalArgumentException("length mis-match");
+		}
+
+		synchronized(mySendLock)
+		{
+			try
+			{
+				ByteBuffer buffer = ByteBuffer.wrap(b, 0, length);
+				while(buffer.hasRemaining())
+				{
+					if(myChannel.write(buffer) == 0 && myNonBlocking)
+					{
+						awaitWritable();
+					}
+				}
+			}
+			catch(IOException e)
+			{
+				if(!isOpen())
+				{
+					throw new ClosedConnectionException("connection is closed");
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Waits until the socket buffer, which is full only while the target VM is slow to read, takes bytes again.
+	 * Called with the send lock held.
+	 */
+	private void awaitWritable() throws IOException
+	{
+		// an interrupt would end every select at once, keep it for the caller
+		boolean interrupted = Thread.interrupted();
+		try (Selector selector = Selector.open())
+		{
+			myChannel.register(selector, SelectionKey.OP_WRITE);
+			myWriteSelector = selector;
+			try
+			{
+				if(isOpen())
+				{
+					selector.select();
+				}
+			}
+			finally
+			{
+				myWriteSelector = null;
+			}
+		}
+		finally
+		{
+			if(interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
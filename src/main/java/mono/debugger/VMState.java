@@ -99,6 +99,8 @@ class VMState {
     }
 
     synchronized void freeze() {
+        FlightRecorderEvents.FreezeEvent event = new FlightRecorderEvents.FreezeEvent();
+        event.begin();
         if (cache == null && (lastCompletedCommandId >= lastResumeCommandId)) {
             /*
              * No pending resumes to worry about. The VM is suspended
@@ -107,6 +109,11 @@ class VMState {
              */
             processVMAction(new VMAction(vm, VMAction.VM_SUSPENDED));
             enableCache();
+            event.cacheEnabled = true;
+        }
+        if (event.shouldCommit()) {
+            event.vm = vm.sequenceNumber;
+            event.commit();
         }
     }
 
@@ -130,10 +137,17 @@ class VMState {
      * resumed.
      */
     synchronized void thaw(ThreadMirror resumingThread) {
+        FlightRecorderEvents.ThawEvent event = new FlightRecorderEvents.ThawEvent();
+        event.begin();
         if (cache != null) {
             disableCache();
         }
         processVMAction(new VMAction(vm, resumingThread, VMAction.VM_NOT_SUSPENDED));
+        if (event.shouldCommit()) {
+            event.vm = vm.sequenceNumber;
+            event.threadId = resumingThread == null ? 0 : resumingThread.id();
+            event.commit();
+        }
     }
 
     private synchronized void processVMAction(VMAction action) {
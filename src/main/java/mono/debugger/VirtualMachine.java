@@ -82,6 +82,14 @@ public interface VirtualMachine extends Mirror
 	@Nonnull
 	TypeMirror[] findTypesByQualifiedName(String typeName, boolean ignoreCase);
 
+	/**
+	 * Like {@link #findTypesByQualifiedName}, with a mirror created for a type only when the cursor is moved over it
+	 *
+	 * @since 2.9
+	 */
+	@Nonnull
+	ReplyCursor<TypeMirror> findTypesByQualifiedNameCursor(String typeName, boolean ignoreCase);
+
 	/**
 	 * @since 2.7
 	 */
@@ -152,6 +160,57 @@ public interface VirtualMachine extends Mirror
 	@Nonnull
 	EventRequestManager eventRequestManager();
 
+	/**
+	 * Returns the sampling profiler of this virtual machine, which is
+	 * not running until {@link SamplingProfiler#start(long, int, double)} is called.
+	 * A virtual machine has only one {@link SamplingProfiler} object.
+	 *
+	 * @return the {@link SamplingProfiler} for this virtual machine.
+	 */
+	@Nonnull
+	SamplingProfiler samplingProfiler();
+
+	/**
+	 * Returns the call tracer of this virtual machine, which is
+	 * not running until {@link MethodTracer#start(AssemblyMirror...)} is called.
+	 * A virtual machine has only one {@link MethodTracer} object.
+	 *
+	 * @return the {@link MethodTracer} for this virtual machine.
+	 */
+	@Nonnull
+	MethodTracer methodTracer();
+
+	/**
+	 * Returns the exception monitor of this virtual machine, which is
+	 * not running until {@link ExceptionMonitor#start(boolean, int, int)} is called.
+	 * A virtual machine has only one {@link ExceptionMonitor} object.
+	 *
+	 * @return the {@link ExceptionMonitor} for this virtual machine.
+	 */
+	@Nonnull
+	ExceptionMonitor exceptionMonitor();
+
+	/**
+	 * Returns the protocol metrics of this virtual machine, counted
+	 * from the first command on. They are visible over JMX after
+	 * {@link ProtocolMetrics#registerMBean()} is called.
+	 * A virtual machine has only one {@link ProtocolMetrics} object.
+	 *
+	 * @return the {@link ProtocolMetrics} for this virtual machine.
+	 */
+	@Nonnull
+	ProtocolMetrics protocolMetrics();
+
+	/**
+	 * Returns the packet trace of this virtual machine, which is
+	 * not recording until {@link PacketTrace#start(int, int)} is called.
+	 * A virtual machine has only one {@link PacketTrace} object.
+	 *
+	 * @return the {@link PacketTrace} for this virtual machine.
+	 */
+	@Nonnull
+	PacketTrace packetTrace();
+
 	/**
 	 * Returns the {@link java.lang.Process} object for this
 	 * virtual machine if launched
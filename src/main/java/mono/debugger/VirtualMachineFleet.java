@@ -0,0 +1,280 @@
+package mono.debugger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Runs one operation against many virtual machines at once, for example to take thread dumps of a
+ * whole farm of worker processes.
+ * <p/>
+ * Operations run against up to {@link #parallelism()} virtual machines at once, on threads of
+ * {@link VirtualMachineManagerImpl#setThreadFactory}, and each has the timeout from when it starts. Results are handed
+ * to the caller as they complete. An operation which misses its timeout is reported as timed out and its place goes to
+ * the next virtual machine, so hung virtual machines do not use up the time of those after them. It is left running,
+ * since commands can not be cancelled, and its thread ends when the reply comes or the virtual machine disconnects.
+ *
+ * @since 2026-10-19
+ */
+public class VirtualMachineFleet
+{
+	/**
+	 * Outcome of an operation on one virtual machine
+	 */
+	public static final class Result<T>
+	{
+		private final VirtualMachine myVirtualMachine;
+		private final T myValue;
+		private final Throwable myError;
+		private final boolean myTimedOut;
+		private final long myElapsedNanos;
+
+		private Result(VirtualMachine virtualMachine, T value, Throwable error, boolean timedOut, long elapsedNanos)
+		{
+			myVirtualMachine = virtualMachine;
+			myValue = value;
+			myError = error;
+			myTimedOut = timedOut;
+			myElapsedNanos = elapsedNanos;
+		}
+
+		@Nonnull
+		public VirtualMachine virtualMachine()
+		{
+			return myVirtualMachine;
+		}
+
+		public boolean isSuccess()
+		{
+			return !myTimedOut && myError == null;
+		}
+
+		public boolean isTimedOut()
+		{
+			return myTimedOut;
+		}
+
+		/**
+		 * @return the value returned by the operation, null if it failed or timed out
+		 */
+		@Nullable
+		public T value()
+		{
+			return myValue;
+		}
+
+		/**
+		 * @return what the operation threw, null if it completed or timed out
+		 */
+		@Nullable
+		public Throwable error()
+		{
+			return myError;
+		}
+
+		public long elapsedNanos()
+		{
+			return myElapsedNanos;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myVirtualMachine.name() + ": " + (myTimedOut ? "timed out" : myError != null ? "failed " + myError : String.valueOf(myValue));
+		}
+	}
+
+	private static final class Operation<T>
+	{
+		private final VirtualMachine myVirtualMachine;
+		private final long myStartNanos = System.nanoTime();
+		// written before the operation is queued as completed
+		private Result<T> myResult;
+
+		private Operation(VirtualMachine virtualMachine)
+		{
+			myVirtualMachine = virtualMachine;
+		}
+
+		private void run(Function<? super VirtualMachine, ? extends T> operation, BlockingQueue<Operation<T>> completed)
+		{
+			try
+			{
+				T value = operation.apply(myVirtualMachine);
+				myResult = new Result<T>(myVirtualMachine, value, null, false, System.nanoTime() - myStartNanos);
+			}
+			catch(RuntimeException | Error e)
+			{
+				myResult = new Result<T>(myVirtualMachine, null, e, false, System.nanoTime() - myStartNanos);
+			}
+			completed.add(this);
+		}
+	}
+
+	// operations mostly wait for replies, but a thread each for a farm of hundreds is too many
+	public static final int DEFAULT_PARALLELISM = 32;
+
+	private static final AtomicInteger ourFleetCount = new AtomicInteger();
+
+	private final VirtualMachineManagerImpl myManager;
+	private final List<VirtualMachine> myVirtualMachines;
+	private volatile int myParallelism = DEFAULT_PARALLELISM;
+
+	/**
+	 * Fleet of the virtual machines connected to the manager at the time each operation starts
+	 */
+	public VirtualMachineFleet(@Nonnull VirtualMachineManager manager)
+	{
+		myManager = (VirtualMachineManagerImpl) manager;
+		myVirtualMachines = null;
+	}
+
+	/**
+	 * Fleet of the given virtual machines
+	 */
+	public VirtualMachineFleet(@Nonnull VirtualMachineManager manager, @Nonnull Collection<? extends VirtualMachine> virtualMachines)
+	{
+		myManager = (VirtualMachineManagerImpl) manager;
+		myVirtualMachines = new ArrayList<VirtualMachine>(virtualMachines);
+	}
+
+	@Nonnull
+	public List<VirtualMachine> virtualMachines()
+	{
+		return myVirtualMachines == null ? new ArrayList<VirtualMachine>(myManager.connectedVirtualMachines()) : myVirtualMachines;
+	}
+
+	/**
+	 * @return how many virtual machines an operation runs against at once
+	 */
+	public int parallelism()
+	{
+		return myParallelism;
+	}
+
+	/**
+	 * Sets how many virtual machines an operation runs against at once. Operations which timed out do not count,
+	 * though they keep their threads. With a virtual thread factory set on the manager, this can be as large as the fleet.
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if(parallelism < 1)
+		{
+			throw new IllegalArgumentException("parallelism must be positive");
+		}
+		myParallelism = parallelism;
+	}
+
+	/**
+	 * Runs the operation against every virtual machine, {@link #parallelism()} at a time, and hands each result to <code>sink</code>
+	 * on the calling thread as soon as it is known. Returns when every virtual machine has a result.
+	 *
+	 * @param timeout time each operation has to complete, from when it starts on its virtual machine
+	 */
+	public <T> void run(@Nonnull Function<? super VirtualMachine, ? extends T> operation, long timeout, @Nonnull TimeUnit unit, @Nonnull Consumer<? super Result<T>> sink) throws InterruptedException
+	{
+		List<VirtualMachine> virtualMachines = virtualMachines();
+		long timeoutNanos = unit.toNanos(timeout);
+		int fleet = ourFleetCount.incrementAndGet();
+		int parallelism = myParallelism;
+
+		Deque<VirtualMachine> waiting = new ArrayDeque<VirtualMachine>(virtualMachines);
+		// operations which neither completed nor timed out, oldest first
+		Deque<Operation<T>> running = new ArrayDeque<Operation<T>>();
+		BlockingQueue<Operation<T>> completed = new LinkedBlockingQueue<Operation<T>>();
+		int worker = 0;
+		int results = 0;
+		while(results < virtualMachines.size())
+		{
+			while(running.size() < parallelism && !waiting.isEmpty())
+			{
+				Operation<T> started = new Operation<T>(waiting.poll());
+				running.add(started);
+				myManager.newThread(myManager.mainGroupForJDI(), () -> started.run(operation, completed), "MDI Fleet #" + fleet + " Worker #" + ++worker).start();
+			}
+
+			Operation<T> done = completed.poll(running.peek().myStartNanos + timeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+			if(done != null)
+			{
+				// the result of an operation which timed out already is dropped
+				if(running.remove(done))
+				{
+					sink.accept(done.myResult);
+					results++;
+				}
+				continue;
+			}
+
+			long now = System.nanoTime();
+			while(!running.isEmpty() && running.peek().myStartNanos + timeoutNanos - now <= 0)
+			{
+				// left running, since commands can not be cancelled, but its place goes to the next virtual machine
+				Operation<T> timedOut = running.poll();
+				sink.accept(new Result<T>(timedOut.myVirtualMachine, null, null, true, now - timedOut.myStartNanos));
+				results++;
+			}
+		}
+	}
+
+	/**
+	 * Like {@link #run(Function, long, TimeUnit, Consumer)}, collecting the results in completion order
+	 */
+	@Nonnull
+	public <T> List<Result<T>> runAll(@Nonnull Function<? super VirtualMachine, ? extends T> operation, long timeout, @Nonnull TimeUnit unit) throws InterruptedException
+	{
+		List<Result<T>> results = new ArrayList<Result<T>>();
+		this.<T>run(operation, timeout, unit, results::add);
+		return results;
+	}
+
+	/**
+	 * Operation which suspends the virtual machine, reads the top frames of all threads and resumes it
+	 */
+	@Nonnull
+	public static Function<VirtualMachine, Map<ThreadMirror, List<Location>>> threadDumps(int maxFrames)
+	{
+		return virtualMachine ->
+		{
+			virtualMachine.suspend();
+			try
+			{
+				return ThreadMirror.frameLocations(virtualMachine, virtualMachine.allThreads(), maxFrames);
+			}
+			finally
+			{
+				virtualMachine.resume();
+			}
+		};
+	}
+
+	/**
+	 * Operation which reads the most thrown exceptions of a running {@link ExceptionMonitor}
+	 */
+	@Nonnull
+	public static Function<VirtualMachine, List<ExceptionMonitor.ExceptionStatistics>> exceptionStatistics(int limit)
+	{
+		return virtualMachine -> virtualMachine.exceptionMonitor().topOffenders(limit);
+	}
+
+	/**
+	 * Operation which lists the assemblies loaded in the root domain
+	 */
+	@Nonnull
+	public static Function<VirtualMachine, List<AssemblyMirror>> assemblies()
+	{
+		return virtualMachine -> Arrays.asList(virtualMachine.rootAppDomain().assemblies());
+	}
+}
@@ -26,15 +26,20 @@
 package mono.debugger;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.annotation.Nonnull;
 
 import mono.debugger.connect.spi.Connection;
 import mono.debugger.event.EventQueue;
 import mono.debugger.protocol.AppDomain_GetRootDomain;
+import mono.debugger.protocol.ProtocolDecoders;
 import mono.debugger.protocol.VirtualMachine_GetTypes;
 import mono.debugger.protocol.VirtualMachine_GetTypesForSourceFile;
 import mono.debugger.protocol.VirtualMachine_GetVersion;
@@ -64,6 +69,8 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 
 	// These are cached once for the life of the VM
 	private final VirtualMachine_GetVersion myVersionInfo;
+	private final ProtocolFeatures myProtocolFeatures;
+	private final ProtocolDecoders myProtocolDecoders;
 
 	// Launched debuggee process
 	private Process process;
@@ -71,12 +78,22 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 	// coordinates state changes and corresponding listener notifications
 	private VMState state = new VMState(this);
 
-	private final Object initMonitor = new Object();
-	private boolean initComplete = false;
+	private final CountDownLatch initCompletion = new CountDownLatch(1);
 
-	private Map<Integer, TypeMirror> myTypeMirrorCache = new HashMap<Integer, TypeMirror>();
-	private Map<Integer, MethodMirror> myMethodMirrorCache = new HashMap<Integer, MethodMirror>();
-	private Map<Integer, AssemblyMirror> myAssemblyMirrorCache = new HashMap<Integer, AssemblyMirror>();
+	// mirrors are resolved from the event decoder threads too, see setEventDecoderThreads()
+	private Map<Integer, TypeMirror> myTypeMirrorCache = new ConcurrentHashMap<Integer, TypeMirror>();
+	private Map<Integer, MethodMirror> myMethodMirrorCache = new ConcurrentHashMap<Integer, MethodMirror>();
+	private Map<Integer, AssemblyMirror> myAssemblyMirrorCache = new ConcurrentHashMap<Integer, AssemblyMirror>();
+
+	private final SamplingProfiler mySamplingProfiler = new SamplingProfiler(this);
+	private final MethodTracer myMethodTracer = new MethodTracer(this);
+	private final ExceptionMonitor myExceptionMonitor = new ExceptionMonitor(this);
+	private final ProtocolMetrics myProtocolMetrics = new ProtocolMetrics(this);
+	private final PacketTrace myPacketTrace = new PacketTrace();
+	private final StringTable myStringTable = new StringTable();
+
+	// null if event sets are decoded lazily by the event queue consumer
+	private volatile ExecutorService myEventDecoder;
 
 
 	VirtualMachineImpl(VirtualMachineManager manager, Connection connection, Process process, int sequenceNumber)
@@ -116,6 +133,8 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		try
 		{
 			myVersionInfo = VirtualMachine_GetVersion.process(vm);
+			myProtocolFeatures = new ProtocolFeatures(myVersionInfo.jdwpMajor, myVersionInfo.jdwpMinor);
+			myProtocolDecoders = new ProtocolDecoders(myProtocolFeatures);
 
 			if(myVersionInfo.jdwpMajor != vmManager.majorInterfaceVersion())
 			{
@@ -134,29 +153,29 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 
 	private void notifyInitCompletion()
 	{
-		synchronized(initMonitor)
-		{
-			initComplete = true;
-			initMonitor.notifyAll();
-		}
+		initCompletion.countDown();
 	}
 
 	void waitInitCompletion()
 	{
-		synchronized(initMonitor)
+		boolean interrupted = false;
+		while(true)
 		{
-			while(!initComplete)
+			try
 			{
-				try
-				{
-					initMonitor.wait();
-				}
-				catch(InterruptedException e)
-				{
-					// ignore
-				}
+				initCompletion.await();
+				break;
+			}
+			catch(InterruptedException e)
+			{
+				// ignore
+				interrupted = true;
 			}
 		}
+		if(interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	VMState state()
@@ -186,6 +205,21 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		}
 	}
 
+	@Nonnull
+	@Override
+	public ReplyCursor<TypeMirror> findTypesByQualifiedNameCursor(String typeName, boolean ignoreCase)
+	{
+		checkVersion(2, 9);
+		try
+		{
+			return VirtualMachine_GetTypes.cursor(vm, typeName, ignoreCase);
+		}
+		catch(JDWPException exc)
+		{
+			throw exc.asUncheckedException();
+		}
+	}
+
 	@Nonnull
 	@Override
 	public TypeMirror[] findTypesBySourcePath(String sourcePath, boolean ignoreCase)
@@ -345,7 +379,25 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 	@Override
 	public boolean isAtLeastVersion(int major, int minor)
 	{
-		return (myVersionInfo.jdwpMajor > major) || ((myVersionInfo.jdwpMajor == major && myVersionInfo.jdwpMinor >= minor));
+		return myProtocolFeatures.isAtLeast(major, minor);
+	}
+
+	/**
+	 * @return what the protocol version of the debuggee supports, resolved when it connected
+	 */
+	@Nonnull
+	public ProtocolFeatures protocolFeatures()
+	{
+		return myProtocolFeatures;
+	}
+
+	/**
+	 * @return decoders of the replies which differ between protocol versions, picked for the debuggee when it connected
+	 */
+	@Nonnull
+	public ProtocolDecoders protocolDecoders()
+	{
+		return myProtocolDecoders;
 	}
 
 	@Override
@@ -398,7 +450,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		TypeMirror typeMirror = myTypeMirrorCache.get(id);
 		if(typeMirror == null)
 		{
-			myTypeMirrorCache.put(id, typeMirror = new TypeMirror(vm, parent, id));
+			typeMirror = myTypeMirrorCache.computeIfAbsent(id, key -> new TypeMirror(vm, parent, key));
 		}
 		return typeMirror;
 	}
@@ -415,7 +467,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		MethodMirror methodMirror = myMethodMirrorCache.get(id);
 		if(methodMirror == null)
 		{
-			myMethodMirrorCache.put(id, methodMirror = new MethodMirror(vm, id));
+			methodMirror = myMethodMirrorCache.computeIfAbsent(id, key -> new MethodMirror(vm, key));
 		}
 		return methodMirror;
 	}
@@ -426,7 +478,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		AssemblyMirror assemblyMirror = myAssemblyMirrorCache.get(id);
 		if(assemblyMirror == null)
 		{
-			myAssemblyMirrorCache.put(id, assemblyMirror = new AssemblyMirror(vm, id));
+			assemblyMirror = myAssemblyMirrorCache.computeIfAbsent(id, key -> new AssemblyMirror(vm, key));
 		}
 		return assemblyMirror;
 	}
@@ -447,6 +499,11 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		printTrace(sb.toString());
 	}
 
+	StringTable stringTable()
+	{
+		return myStringTable;
+	}
+
 	void sendToTarget(Packet packet)
 	{
 		target.send(packet);
@@ -457,8 +514,90 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine
 		target.waitForReply(packet);
 	}
 
+	@Nonnull
+	@Override
+	public SamplingProfiler samplingProfiler()
+	{
+		return mySamplingProfiler;
+	}
+
+	@Nonnull
+	@Override
+	public MethodTracer methodTracer()
+	{
+		return myMethodTracer;
+	}
+
+	@Nonnull
+	@Override
+	public ExceptionMonitor exceptionMonitor()
+	{
+		return myExceptionMonitor;
+	}
+
+	@Nonnull
+	@Override
+	public ProtocolMetrics protocolMetrics()
+	{
+		return myProtocolMetrics;
+	}
+
+	@Nonnull
+	@Override
+	public PacketTrace packetTrace()
+	{
+		return myPacketTrace;
+	}
+
+	/**
+	 * Creates a daemon thread for work on behalf of this virtual machine, with the thread factory
+	 * of the manager if one is set, see {@link VirtualMachineManagerImpl#setThreadFactory}.
+	 */
+	Thread newThread(@Nonnull Runnable runnable, @Nonnull String name)
+	{
+		return vmManager.newThread(threadGroupForJDI, runnable, name);
+	}
+
 	ThreadGroup threadGroupForJDI()
 	{
 		return threadGroupForJDI;
 	}
+
+	/**
+	 * Decode incoming event sets on a pool of <code>threads</code> threads as soon as they
+	 * are read from the transport, instead of lazily by the thread which removes them from
+	 * the {@link EventQueue}. Event sets are still delivered in the order they arrived.
+	 * Decoding evaluates breakpoint conditions and feeds the exception monitor, which send commands to the
+	 * target VM, and resumes the VM when every event of a set was filtered out, so decoder threads issue
+	 * commands and may resume the VM on their own.
+	 *
+	 * @param threads size of the decoder pool, or 0 to go back to lazy decoding
+	 */
+	public synchronized void setEventDecoderThreads(int threads)
+	{
+		if(threads < 0)
+		{
+			throw new IllegalArgumentException("threads is negative");
+		}
+
+		ExecutorService oldDecoder = myEventDecoder;
+		if(oldDecoder != null)
+		{
+			oldDecoder.shutdown();
+		}
+
+		if(threads == 0)
+		{
+			myEventDecoder = null;
+			return;
+		}
+
+		AtomicInteger counter = new AtomicInteger();
+		myEventDecoder = Executors.newFixedThreadPool(threads, runnable -> newThread(runnable, "MDI Event Decoder #" + counter.incrementAndGet()));
+	}
+
+	ExecutorService eventDecoder()
+	{
+		return myEventDecoder;
+	}
 }
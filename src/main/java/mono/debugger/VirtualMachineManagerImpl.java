@@ -26,10 +26,14 @@
 package mono.debugger;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 import mono.debugger.connect.spi.Connection;
 
@@ -39,10 +43,17 @@ public class VirtualMachineManagerImpl implements VirtualMachineManager
 	private static final int MAJOR_VERSION = 2;
 	private static final int MINOR_VERSION = 56;
 
-	private List<VirtualMachine> targets = new ArrayList<VirtualMachine>();
+	// read by fleet operations while virtual machines connect and disconnect
+	private final List<VirtualMachine> targets = new CopyOnWriteArrayList<VirtualMachine>();
 	private final ThreadGroup mainGroupForJDI;
 	private ResourceBundle messages = null;
 	private int vmSequenceNumber = 0;
+	// null if each virtual machine has its own reader thread
+	private volatile ConnectionSelector connectionSelector;
+	// null for platform threads in mainGroupForJDI
+	private volatile ThreadFactory threadFactory;
+	// null if every virtual machine reads its own metadata
+	private volatile MetadataCache metadataCache;
 
 	private static final Object lock = new Object();
 	private static VirtualMachineManagerImpl vmm;
@@ -131,6 +142,79 @@ public class VirtualMachineManagerImpl implements VirtualMachineManager
 		return MINOR_VERSION;
 	}
 
+	/**
+	 * Read packets of virtual machines created from now on with <code>threads</code>
+	 * selector threads, instead of one reader thread per virtual machine. This only applies
+	 * to socket connections, other connections always get a reader thread.
+	 * Virtual machines created before are not moved.
+	 * <p/>
+	 * Sockets are only created from channels, which a selector needs, while selector threads are set, so set them
+	 * before attaching or starting to listen. A blocking channel is closed when a thread using it is interrupted.
+	 *
+	 * @param threads number of selector threads, or 0 to go back to a reader thread per virtual machine
+	 */
+	public synchronized void setSelectorThreads(int threads) throws IOException
+	{
+		if(threads < 0)
+		{
+			throw new IllegalArgumentException("threads is negative");
+		}
+
+		ConnectionSelector oldSelector = connectionSelector;
+		connectionSelector = threads == 0 ? null : new ConnectionSelector(this, threads);
+		if(oldSelector != null)
+		{
+			oldSelector.shutdown();
+		}
+	}
+
+	/**
+	 * Sets the factory for threads started from now on: transport readers, selector, event decoder,
+	 * profiler and tracer threads. Threads blocked in commands or in {@link mono.debugger.event.EventQueue#remove}
+	 * are parked with <code>java.util.concurrent</code> primitives and never wait on a monitor, and neither do
+	 * the profiler, tracer and decoder threads between their work, so with
+	 * <code>Thread.ofVirtual().factory()</code> (Java 21) thousands of callers can wait for replies without
+	 * a platform thread each.
+	 *
+	 * @param factory thread factory, or null for daemon platform threads in the debugger thread group
+	 */
+	public void setThreadFactory(@Nullable ThreadFactory factory)
+	{
+		threadFactory = factory;
+	}
+
+	Thread newThread(@Nonnull ThreadGroup group, @Nonnull Runnable runnable, @Nonnull String name)
+	{
+		ThreadFactory factory = threadFactory;
+		Thread thread = factory == null ? new Thread(group, runnable, name) : factory.newThread(runnable);
+		thread.setName(name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Shares metadata between the virtual machines of this manager, which helps when many processes
+	 * run the same build. Assemblies are matched by location and full name, so only enable this if
+	 * a changed assembly file at the same location also gets a new version.
+	 *
+	 * @param cache the shared cache, or null to read metadata of each virtual machine on its own
+	 */
+	public void setMetadataCache(@Nullable MetadataCache cache)
+	{
+		metadataCache = cache;
+	}
+
+	@Nullable
+	public MetadataCache metadataCache()
+	{
+		return metadataCache;
+	}
+
+	ConnectionSelector connectionSelector()
+	{
+		return connectionSelector;
+	}
+
 	ThreadGroup mainGroupForJDI()
 	{
 		return mainGroupForJDI;
@@ -0,0 +1,74 @@
+package mono.debugger.internal;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.PacketStream;
+import mono.debugger.request.EventRequest;
+
+/**
+ * Package private hooks of {@link EventRequest}, for {@link mono.debugger.EventRequestManagerImpl} which pipelines the
+ * set and clear commands of many requests. This package is not exported by the module.
+ *
+ * @since 2026-10-19
+ */
+public abstract class EventRequestAccess
+{
+	private static volatile EventRequestAccess ourInstance;
+
+	/**
+	 * Called once, by the static initializer of {@link EventRequest}
+	 */
+	public static void install(@Nonnull EventRequestAccess access)
+	{
+		if(ourInstance != null)
+		{
+			throw new IllegalStateException("already installed");
+		}
+		ourInstance = access;
+	}
+
+	@Nonnull
+	public static EventRequestAccess get()
+	{
+		EventRequestAccess access = ourInstance;
+		if(access == null)
+		{
+			try
+			{
+				Class.forName(EventRequest.class.getName(), true, EventRequest.class.getClassLoader());
+			}
+			catch(ClassNotFoundException e)
+			{
+				throw new InternalError(e);
+			}
+			access = ourInstance;
+		}
+		return access;
+	}
+
+	/**
+	 * Sends the set command of the request without waiting for the reply
+	 */
+	@Nonnull
+	public abstract PacketStream enqueueSet(@Nonnull EventRequest request);
+
+	/**
+	 * Waits for the reply of {@link #enqueueSet}, and marks the request enabled
+	 */
+	public abstract void completeSet(@Nonnull EventRequest request, @Nonnull PacketStream ps);
+
+	/**
+	 * Sends the clear command of the request without waiting for the reply
+	 */
+	@Nonnull
+	public abstract PacketStream enqueueClear(@Nonnull EventRequest request);
+
+	/**
+	 * Waits for the reply of {@link #enqueueClear}, and marks the request disabled
+	 */
+	public abstract void completeClear(@Nonnull EventRequest request, @Nonnull PacketStream ps);
+
+	/**
+	 * Marks a request deleted which is not set in the target VM, or not any more
+	 */
+	public abstract void markDeleted(@Nonnull EventRequest request);
+}
@@ -20,7 +20,7 @@ public class Method_GetDeclarationType implements Method
 		return waitForReply(vm, ps);
 	}
 
-	static PacketStream enqueueCommand(VirtualMachineImpl vm, MethodMirror methodMirror)
+	public static PacketStream enqueueCommand(VirtualMachineImpl vm, MethodMirror methodMirror)
 	{
 		PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 		ps.writeId(methodMirror);
@@ -28,7 +28,7 @@ public class Method_GetDeclarationType implements Method
 		return ps;
 	}
 
-	static Method_GetDeclarationType waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+	public static Method_GetDeclarationType waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 	{
 		ps.waitForReply();
 		return new Method_GetDeclarationType(vm, ps);
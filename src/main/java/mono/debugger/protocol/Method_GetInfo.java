@@ -19,7 +19,7 @@ public class Method_GetInfo implements Method
 		return waitForReply(vm, ps);
 	}
 
-	static PacketStream enqueueCommand(VirtualMachineImpl vm, MethodMirror methodMirror)
+	public static PacketStream enqueueCommand(VirtualMachineImpl vm, MethodMirror methodMirror)
 	{
 		PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 		ps.writeId(methodMirror);
@@ -27,7 +27,7 @@ public class Method_GetInfo implements Method
 		return ps;
 	}
 
-	static Method_GetInfo waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+	public static Method_GetInfo waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 	{
 		ps.waitForReply();
 		return new Method_GetInfo(vm, ps);
@@ -35,10 +35,12 @@ public class Method_GetInfo implements Method
 
 	public final int attributes;
 	public final int implAttributes;
+	public final int token;
 
 	private Method_GetInfo(VirtualMachineImpl vm, PacketStream ps)
 	{
 		attributes = ps.readInt();
 		implAttributes = ps.readInt();
+		token = ps.readInt();
 	}
 }
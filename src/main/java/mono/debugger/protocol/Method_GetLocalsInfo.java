@@ -39,7 +39,7 @@ public class Method_GetLocalsInfo implements Method
 
 	private Method_GetLocalsInfo(VirtualMachineImpl vm, PacketStream ps)
 	{
-		if(vm.isAtLeastVersion(2, 43))
+		if(vm.protocolFeatures().localsScopes())
 		{
 			int nscopes = ps.readInt();
 			int[] scopes_start = new int[nscopes];
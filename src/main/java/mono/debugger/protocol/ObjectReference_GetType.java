@@ -20,7 +20,7 @@ public class ObjectReference_GetType implements ObjectReference
 		return waitForReply(vm, ps);
 	}
 
-	static PacketStream enqueueCommand(VirtualMachineImpl vm, ObjectValueMirror objectValueMirror)
+	public static PacketStream enqueueCommand(VirtualMachineImpl vm, ObjectValueMirror objectValueMirror)
 	{
 		PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 		ps.writeId(objectValueMirror);
@@ -28,7 +28,7 @@ public class ObjectReference_GetType implements ObjectReference
 		return ps;
 	}
 
-	static ObjectReference_GetType waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+	public static ObjectReference_GetType waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 	{
 		ps.waitForReply();
 		return new ObjectReference_GetType(vm, ps);
@@ -21,7 +21,7 @@ public class StackFrame_GetThis implements StackFrame
 		return waitForReply(vm, ps);
 	}
 
-	static PacketStream enqueueCommand(VirtualMachineImpl vm, ThreadMirror threadMirror, StackFrameMirror stackFrameMirror)
+	public static PacketStream enqueueCommand(VirtualMachineImpl vm, ThreadMirror threadMirror, StackFrameMirror stackFrameMirror)
 	{
 		PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
 		ps.writeId(threadMirror);
@@ -30,7 +30,7 @@ public class StackFrame_GetThis implements StackFrame
 		return ps;
 	}
 
-	static StackFrame_GetThis waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
+	public static StackFrame_GetThis waitForReply(VirtualMachineImpl vm, PacketStream ps) throws JDWPException
 	{
 		ps.waitForReply();
 		return new StackFrame_GetThis(vm, ps);
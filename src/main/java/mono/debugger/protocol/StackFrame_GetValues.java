@@ -27,7 +27,7 @@ public class StackFrame_GetValues implements StackFrame
 	}
 
 
-	static PacketStream enqueueCommand(
+	public static PacketStream enqueueCommand(
 			VirtualMachineImpl vm,
 			ThreadMirror threadMirror,
 			StackFrameMirror stackFrameMirror,
@@ -45,7 +45,7 @@ public class StackFrame_GetValues implements StackFrame
 		return ps;
 	}
 
-	static StackFrame_GetValues waitForReply(VirtualMachineImpl vm, PacketStream ps, int length) throws JDWPException
+	public static StackFrame_GetValues waitForReply(VirtualMachineImpl vm, PacketStream ps, int length) throws JDWPException
 	{
 		ps.waitForReply();
 		return new StackFrame_GetValues(vm, ps, length);
@@ -38,7 +38,7 @@ public class StringReference_GetValue implements StringReference
 	private StringReference_GetValue(VirtualMachineImpl vm, PacketStream ps)
 	{
 		boolean is_utf16 = false;
-		if(vm.isAtLeastVersion(2, 41))
+		if(vm.protocolFeatures().stringUtf16Flag())
 		{
 			is_utf16 = ps.readByteBool();
 		}
@@ -49,7 +49,7 @@ public class StringReference_GetValue implements StringReference
 		}
 		else
 		{
-			value = ps.readString();
+			value = ps.readUncachedString();
 		}
 	}
 }
@@ -76,12 +76,12 @@ public class Type_GetInfo implements Type
 			nestedTypes[i] = ps.readTypeMirror(parent);
 		}
 
-		if(vm.isAtLeastVersion(2, 12))
+		if(vm.protocolFeatures().typeInfoGeneralType())
 		{
 			generalType = ps.readTypeMirror();
 		}
 
-		if(vm.isAtLeastVersion(2, 15) && is_generic_type)
+		if(vm.protocolFeatures().typeInfoGenericArguments() && is_generic_type)
 		{
 			int n = ps.readInt();
 			genericArguments = new TypeMirror[n];
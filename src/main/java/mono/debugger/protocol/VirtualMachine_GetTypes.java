@@ -2,6 +2,7 @@ package mono.debugger.protocol;
 
 import mono.debugger.JDWPException;
 import mono.debugger.PacketStream;
+import mono.debugger.ReplyCursor;
 import mono.debugger.TypeMirror;
 import mono.debugger.VirtualMachineImpl;
 
@@ -19,6 +20,29 @@ public class VirtualMachine_GetTypes implements VirtualMachine
 		return waitForReply(vm, ps);
 	}
 
+	/**
+	 * Like {@link #process}, with the type mirrors created as they are taken
+	 */
+	public static ReplyCursor<TypeMirror> cursor(VirtualMachineImpl vm, String name, boolean ignoreCase) throws JDWPException
+	{
+		PacketStream ps = enqueueCommand(vm, name, ignoreCase);
+		ps.waitForReply();
+		return new ReplyCursor<TypeMirror>(ps.readInt())
+		{
+			@Override
+			protected TypeMirror read()
+			{
+				return ps.readTypeMirror();
+			}
+
+			@Override
+			protected void skipOne()
+			{
+				ps.skipBytes(4);
+			}
+		};
+	}
+
 	static PacketStream enqueueCommand(VirtualMachineImpl vm, String name, boolean ignoreCase)
 	{
 		PacketStream ps = new PacketStream(vm, COMMAND_SET, COMMAND);
@@ -0,0 +1,56 @@
+package mono.debugger.request;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.FrameSnapshot;
+
+/**
+ * Client side condition of a {@link BreakpointRequest}, see {@link BreakpointRequest#setCondition(BreakpointCondition)}.
+ * <p/>
+ * The condition is evaluated before the breakpoint event is put on the event queue, on the thread which decodes
+ * the event. If it returns false, the event is dropped and the target VM is resumed without waking the client.
+ * If it throws, the breakpoint stops as if the condition was true.
+ *
+ * @since 2026-10-19
+ */
+@FunctionalInterface
+public interface BreakpointCondition
+{
+	/**
+	 * Stops on the <code>count</code>-th hit and every hit after it
+	 */
+	@Nonnull
+	static BreakpointCondition hitCount(int count)
+	{
+		if(count < 1)
+		{
+			throw new IllegalArgumentException("count is less than one");
+		}
+		return snapshot -> snapshot.hitCount() >= count;
+	}
+
+	/**
+	 * Stops on every <code>n</code>-th hit
+	 */
+	@Nonnull
+	static BreakpointCondition everyNthHit(int n)
+	{
+		if(n < 1)
+		{
+			throw new IllegalArgumentException("n is less than one");
+		}
+		return snapshot -> snapshot.hitCount() % n == 0;
+	}
+
+	/**
+	 * @param snapshot suspended top frame of the thread which hit the breakpoint.
+	 *                 Values are fetched on first use, and only once
+	 * @return true if the breakpoint event must be reported
+	 */
+	boolean shouldStop(@Nonnull FrameSnapshot snapshot);
+
+	@Nonnull
+	default BreakpointCondition and(@Nonnull BreakpointCondition other)
+	{
+		return snapshot -> shouldStop(snapshot) && other.shouldStop(snapshot);
+	}
+}
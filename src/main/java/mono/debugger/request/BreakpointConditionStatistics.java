@@ -0,0 +1,92 @@
+package mono.debugger.request;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a conditional {@link BreakpointRequest}. Updated concurrently by the event decoding threads.
+ *
+ * @since 2026-10-19
+ */
+public class BreakpointConditionStatistics
+{
+	private final AtomicLong myHits = new AtomicLong();
+	private final AtomicLong myStops = new AtomicLong();
+	private final AtomicLong myErrors = new AtomicLong();
+	private final AtomicLong myTotalNanos = new AtomicLong();
+	private final AtomicLong myMaxNanos = new AtomicLong();
+
+	/**
+	 * @return the number of the new hit
+	 */
+	public long hit()
+	{
+		return myHits.incrementAndGet();
+	}
+
+	public void evaluated(boolean stop, boolean error, long nanos)
+	{
+		if(stop)
+		{
+			myStops.incrementAndGet();
+		}
+		if(error)
+		{
+			myErrors.incrementAndGet();
+		}
+		myTotalNanos.addAndGet(nanos);
+		myMaxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	public long hits()
+	{
+		return myHits.get();
+	}
+
+	/**
+	 * @return how many hits were reported to the client
+	 */
+	public long stops()
+	{
+		return myStops.get();
+	}
+
+	/**
+	 * @return how many hits were resumed without being reported
+	 */
+	public long skips()
+	{
+		return myHits.get() - myStops.get();
+	}
+
+	/**
+	 * @return how many evaluations threw (these are reported as stops)
+	 */
+	public long errors()
+	{
+		return myErrors.get();
+	}
+
+	public long totalEvaluationTime(TimeUnit unit)
+	{
+		return unit.convert(myTotalNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	public long maxEvaluationTime(TimeUnit unit)
+	{
+		return unit.convert(myMaxNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	public long averageEvaluationTime(TimeUnit unit)
+	{
+		long hits = myHits.get();
+		return hits == 0 ? 0 : unit.convert(myTotalNanos.get() / hits, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "hits = " + hits() + ", stops = " + stops() + ", errors = " + errors() + ", avg = " + averageEvaluationTime(TimeUnit.MICROSECONDS) + "us, max = " +
+				maxEvaluationTime(TimeUnit.MICROSECONDS) + "us";
+	}
+}
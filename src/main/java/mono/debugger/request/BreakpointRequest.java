@@ -25,6 +25,8 @@
 
 package mono.debugger.request;
 
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import mono.debugger.EventKind;
 import mono.debugger.EventRequestManagerImpl;
 import mono.debugger.JDWP;
@@ -53,11 +55,22 @@ import mono.debugger.VirtualMachine;
 public class BreakpointRequest extends TypeVisibleEventRequest
 {
 	private final Location location;
+	@Nullable
+	private final SourceLineBreakpointRequest mySourceLineRequest;
+	@Nullable
+	private volatile BreakpointCondition myCondition;
+	private final BreakpointConditionStatistics myConditionStatistics = new BreakpointConditionStatistics();
 
 	public BreakpointRequest(VirtualMachine virtualMachine, EventRequestManagerImpl requestManager, Location location)
+	{
+		this(virtualMachine, requestManager, location, null);
+	}
+
+	public BreakpointRequest(VirtualMachine virtualMachine, EventRequestManagerImpl requestManager, Location location, @Nullable SourceLineBreakpointRequest sourceLineRequest)
 	{
 		super(virtualMachine, requestManager);
 		this.location = location;
+		mySourceLineRequest = sourceLineRequest;
 		filters.add(0, JDWP.EventRequest.Set.Modifier.LocationOnly.create(location));
 	}
 
@@ -66,6 +79,46 @@ public class BreakpointRequest extends TypeVisibleEventRequest
 		return location;
 	}
 
+	/**
+	 * @return the request which set this breakpoint, if it was bound from a source line
+	 */
+	@Nullable
+	public SourceLineBreakpointRequest sourceLineRequest()
+	{
+		return mySourceLineRequest;
+	}
+
+	/**
+	 * Sets a client side condition, evaluated for every hit before the event is queued.
+	 * Hits for which the condition is false resume the target VM directly and are never seen in the
+	 * {@link mono.debugger.event.EventQueue}. Unlike filters, the condition can be changed while the request is enabled.
+	 * <p/>
+	 * Conditions are evaluated as soon as the event set is decoded, so with
+	 * {@link mono.debugger.VirtualMachineImpl#setEventDecoderThreads(int) decoder threads} they never wait for the event consumer.
+	 *
+	 * @param condition the condition, or null to stop on every hit
+	 */
+	public void setCondition(@Nullable BreakpointCondition condition)
+	{
+		if(deleted)
+		{
+			throw invalidState();
+		}
+		myCondition = condition;
+	}
+
+	@Nullable
+	public BreakpointCondition condition()
+	{
+		return myCondition;
+	}
+
+	@Nonnull
+	public BreakpointConditionStatistics conditionStatistics()
+	{
+		return myConditionStatistics;
+	}
+
 	@Override
 	public EventKind eventCmd()
 	{
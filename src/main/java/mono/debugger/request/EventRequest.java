@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.annotation.Nonnull;
 
@@ -37,19 +38,64 @@ import mono.debugger.EventRequestManagerImpl;
 import mono.debugger.JDWP;
 import mono.debugger.JDWPException;
 import mono.debugger.MirrorImpl;
+import mono.debugger.PacketStream;
 import mono.debugger.SuspendPolicy;
 import mono.debugger.VirtualMachine;
+import mono.debugger.internal.EventRequestAccess;
 
 public abstract class EventRequest extends MirrorImpl
 {
+	static
+	{
+		EventRequestAccess.install(new EventRequestAccess()
+		{
+			@Nonnull
+			@Override
+			public PacketStream enqueueSet(@Nonnull EventRequest request)
+			{
+				return request.enqueueSet();
+			}
+
+			@Override
+			public void completeSet(@Nonnull EventRequest request, @Nonnull PacketStream ps)
+			{
+				request.completeSet(ps);
+			}
+
+			@Nonnull
+			@Override
+			public PacketStream enqueueClear(@Nonnull EventRequest request)
+			{
+				return request.enqueueClear();
+			}
+
+			@Override
+			public void completeClear(@Nonnull EventRequest request, @Nonnull PacketStream ps)
+			{
+				request.completeClear(ps);
+			}
+
+			@Override
+			public void markDeleted(@Nonnull EventRequest request)
+			{
+				request.markDeleted();
+			}
+		});
+	}
 
 	private final EventRequestManagerImpl myRequestManager;
 	private int id;
 
+	/*
+	 * Guards the state of the request. Not a monitor, since enabling and
+	 * disabling wait for replies of the target VM while holding it.
+	 */
+	protected final ReentrantLock lock = new ReentrantLock();
+
 	/*
 	 * This list is not protected by a synchronized wrapper. All
-	 * access/modification should be protected by synchronizing on
-	 * the enclosing instance of EventRequestImpl.
+	 * access/modification should be protected by holding the lock of
+	 * the enclosing instance.
 	 */
 	public List<JDWP.EventRequest.Set.Modifier> filters = new ArrayList<JDWP.EventRequest.Set.Modifier>();
 
@@ -69,6 +115,11 @@ public abstract class EventRequest extends MirrorImpl
 		return id;
 	}
 
+	protected EventRequestManagerImpl requestManager()
+	{
+		return myRequestManager;
+	}
+
 	/*
 	 * Override superclass back to default equality
 	 */
@@ -111,7 +162,7 @@ public abstract class EventRequest extends MirrorImpl
 	{
 		if(!deleted)
 		{
-			requestList().remove(this);
+			myRequestManager.remove(this);
 			disable(); /* must do BEFORE delete */
 			deleted = true;
 		}
@@ -132,39 +183,55 @@ public abstract class EventRequest extends MirrorImpl
 		setEnabled(false);
 	}
 
-	public synchronized void setEnabled(boolean val)
+	public void setEnabled(boolean val)
 	{
-		if(deleted)
-		{
-			throw invalidState();
-		}
-		else
+		lock.lock();
+		try
 		{
-			if(val != isEnabled)
+			if(deleted)
 			{
-				if(isEnabled)
-				{
-					clear();
-				}
-				else
+				throw invalidState();
+			}
+			else
+			{
+				if(val != isEnabled)
 				{
-					set();
+					if(isEnabled)
+					{
+						clear();
+					}
+					else
+					{
+						set();
+					}
 				}
 			}
 		}
+		finally
+		{
+			lock.unlock();
+		}
 	}
 
-	public synchronized void addCountFilter(int count)
+	public void addCountFilter(int count)
 	{
-		if(isEnabled() || deleted)
+		lock.lock();
+		try
 		{
-			throw invalidState();
+			if(isEnabled() || deleted)
+			{
+				throw invalidState();
+			}
+			if(count < 1)
+			{
+				throw new IllegalArgumentException("count is less than one");
+			}
+			filters.add(JDWP.EventRequest.Set.Modifier.Count.create(count));
 		}
-		if(count < 1)
+		finally
 		{
-			throw new IllegalArgumentException("count is less than one");
+			lock.unlock();
 		}
-		filters.add(JDWP.EventRequest.Set.Modifier.Count.create(count));
 	}
 
 	public void setSuspendPolicy(SuspendPolicy policy)
@@ -185,31 +252,141 @@ public abstract class EventRequest extends MirrorImpl
 	/**
 	 * set (enable) the event request
 	 */
-	synchronized void set()
+	void set()
 	{
-		JDWP.EventRequest.Set.Modifier[] mods = filters.toArray(new JDWP.EventRequest.Set.Modifier[filters.size()]);
+		lock.lock();
 		try
 		{
-			id = JDWP.EventRequest.Set.process(vm, (byte) eventCmd().ordinal(), suspendPolicy.ordinal(), mods).requestID;
+			completeSet(enqueueSet());
 		}
-		catch(JDWPException exc)
+		finally
 		{
-			throw exc.asUncheckedException();
+			lock.unlock();
 		}
-		isEnabled = true;
 	}
 
-	synchronized void clear()
+	void clear()
 	{
+		lock.lock();
 		try
 		{
-			JDWP.EventRequest.Clear.process(vm, (byte) eventCmd().ordinal(), id);
+			completeClear(enqueueClear());
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * First half of {@link #set()}: sends the set command without waiting for the reply.
+	 * Used by {@link EventRequestManager#enableAll} to pipeline many requests.
+	 */
+	@Nonnull
+	PacketStream enqueueSet()
+	{
+		lock.lock();
+		try
+		{
+			if(deleted)
+			{
+				throw invalidState();
+			}
+			JDWP.EventRequest.Set.Modifier[] mods = filters.toArray(new JDWP.EventRequest.Set.Modifier[filters.size()]);
+			return JDWP.EventRequest.Set.enqueueCommand(vm, (byte) eventCmd().ordinal(), suspendPolicy.ordinal(), mods);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Second half of {@link #set()}: waits for the reply of {@link #enqueueSet()}
+	 */
+	void completeSet(@Nonnull PacketStream ps)
+	{
+		lock.lock();
+		try
+		{
+			int oldId = id;
+			try
+			{
+				id = JDWP.EventRequest.Set.waitForReply(vm, ps).requestID;
+			}
+			catch(JDWPException exc)
+			{
+				throw exc.asUncheckedException();
+			}
+			myRequestManager.requestIdAssigned(this, oldId);
+			isEnabled = true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * First half of {@link #clear()}: sends the clear command without waiting for the reply.
+	 * Used by {@link EventRequestManager#deleteAll} to pipeline many requests.
+	 */
+	@Nonnull
+	PacketStream enqueueClear()
+	{
+		lock.lock();
+		try
+		{
+			return JDWP.EventRequest.Clear.enqueueCommand(vm, (byte) eventCmd().ordinal(), id);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Second half of {@link #clear()}: waits for the reply of {@link #enqueueClear()}
+	 */
+	void completeClear(@Nonnull PacketStream ps)
+	{
+		lock.lock();
+		try
+		{
+			try
+			{
+				JDWP.EventRequest.Clear.waitForReply(vm, ps);
+			}
+			catch(JDWPException exc)
+			{
+				throw exc.asUncheckedException();
+			}
+			isEnabled = false;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Mark a request as deleted once it is cleared in the target VM, see {@link #delete()}
+	 */
+	void markDeleted()
+	{
+		lock.lock();
+		try
+		{
+			if(!deleted)
+			{
+				myRequestManager.remove(this);
+				deleted = true;
+			}
 		}
-		catch(JDWPException exc)
+		finally
 		{
-			throw exc.asUncheckedException();
+			lock.unlock();
 		}
-		isEnabled = false;
 	}
 
 	/**
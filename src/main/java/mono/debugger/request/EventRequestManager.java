@@ -27,6 +27,7 @@ package mono.debugger.request;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -189,6 +190,30 @@ public interface EventRequestManager extends Mirror
 	 */
 	BreakpointRequest createBreakpointRequest(Location location);
 
+	/**
+	 * Creates a new disabled {@link TracepointRequest}. It is listed in {@link #breakpointRequests()}
+	 * like any other breakpoint. Use {@link EventRequest#enable()} to activate this event request.
+	 * @param location the location of the tracepoint
+	 * @param sink receives a record for every hit, for example a {@link TracepointRingBuffer}
+	 * @return the created {@link TracepointRequest}
+	 * @throws NativeMethodException if location is within a native method.
+	 */
+	@Nonnull
+	TracepointRequest createTracepointRequest(@Nonnull Location location, @Nonnull TracepointSink sink);
+
+	/**
+	 * Creates a new disabled {@link SourceLineBreakpointRequest}.
+	 * Unlike {@link #createBreakpointRequest(Location)} the code for the line
+	 * does not need to be loaded yet: the breakpoint is set automatically
+	 * when a type from <code>sourcePath</code> is loaded.
+	 * Use {@link EventRequest#enable()} to activate this event request.
+	 * @param sourcePath the source file path, as it is known to the target VM
+	 * @param line the line number
+	 * @return the created {@link SourceLineBreakpointRequest}
+	 */
+	@Nonnull
+	SourceLineBreakpointRequest createSourceLineBreakpointRequest(@Nonnull String sourcePath, int line);
+
 	/**
 	 * Creates a new disabled {@link VMDeathRequest}.
 	 * The new request is added to the list managed by this
@@ -260,6 +285,29 @@ public interface EventRequestManager extends Mirror
 	 */
 	void deleteEventRequests(Collection<? extends EventRequest> eventRequests);
 
+	/**
+	 * Enables all given requests. Unlike calling {@link EventRequest#enable()} one by one,
+	 * all commands are sent to the target VM first and the replies are collected
+	 * afterwards, so enabling N requests costs about one round trip instead of N.
+	 * Requests which are already enabled are skipped. Source line breakpoint requests are enabled
+	 * after the others, one by one, since binding them reads the line tables of loaded code.
+	 * @param eventRequests the requests to enable
+	 * @return the requests which could not be enabled, mapped to the failure. Empty if all succeeded
+	 */
+	@Nonnull
+	Map<EventRequest, RuntimeException> enableAll(@Nonnull Collection<? extends EventRequest> eventRequests);
+
+	/**
+	 * Removes all given requests, pipelining the clear commands like {@link #enableAll(Collection)}.
+	 * Source line breakpoint requests are disabled after the others, which clears the breakpoints bound to them.
+	 * @param eventRequests the requests to remove
+	 * @return the requests which could not be cleared in the target VM, mapped to the failure.
+	 * Such requests are not deleted. Empty if all succeeded
+	 * @see #deleteEventRequest(EventRequest)
+	 */
+	@Nonnull
+	Map<EventRequest, RuntimeException> deleteAll(@Nonnull Collection<? extends EventRequest> eventRequests);
+
 	/**
 	 * Remove all breakpoints managed by this EventRequestManager.
 	 *
@@ -312,6 +360,15 @@ public interface EventRequestManager extends Mirror
 	 */
 	List<BreakpointRequest> breakpointRequests();
 
+	/**
+	 * Return an unmodifiable list of the enabled and disabled source line breakpoint requests.
+	 * This list is a live view of these requests and thus changes as requests
+	 * are added and deleted.
+	 * @return the list of all {@link SourceLineBreakpointRequest} objects.
+	 */
+	@Nonnull
+	List<SourceLineBreakpointRequest> sourceLineBreakpointRequests();
+
 	/**
 	 * Return an unmodifiable list of the enabled and disabled method entry requests.
 	 * This list is a live view of these requests and thus changes as requests
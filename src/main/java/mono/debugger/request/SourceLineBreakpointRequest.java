@@ -0,0 +1,157 @@
+package mono.debugger.request;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.EventKind;
+import mono.debugger.EventRequestManagerImpl;
+import mono.debugger.Location;
+import mono.debugger.VirtualMachine;
+
+/**
+ * Breakpoint on a source line, which may not be loaded yet.
+ * <p/>
+ * While enabled, the request is bound to every method which has code for the line.
+ * Methods which are already loaded are bound on {@link #enable()}, types loaded later are
+ * bound when the target VM reports them - before the thread which loaded the type continues.
+ * Each binding is a {@link BreakpointRequest} which is not listed in
+ * {@link EventRequestManager#breakpointRequests()}, use {@link BreakpointRequest#sourceLineRequest()}
+ * to find the source line request of a {@link mono.debugger.event.BreakpointEvent}.
+ * <p/>
+ * Filters, suspend policy and condition of this request are copied to each binding.
+ *
+ * @since 2026-10-19
+ */
+public class SourceLineBreakpointRequest extends ThreadVisibleEventRequest
+{
+	private final String mySourcePath;
+	private final int myLine;
+	private final List<BreakpointRequest> myBoundRequests = new CopyOnWriteArrayList<BreakpointRequest>();
+	@Nullable
+	private volatile BreakpointCondition myCondition;
+
+	public SourceLineBreakpointRequest(VirtualMachine virtualMachine, EventRequestManagerImpl requestManager, @Nonnull String sourcePath, int line)
+	{
+		super(virtualMachine, requestManager);
+		mySourcePath = sourcePath;
+		myLine = line;
+	}
+
+	@Nonnull
+	public String sourcePath()
+	{
+		return mySourcePath;
+	}
+
+	public int line()
+	{
+		return myLine;
+	}
+
+	/**
+	 * @see BreakpointRequest#setCondition(BreakpointCondition)
+	 */
+	public void setCondition(@Nullable BreakpointCondition condition)
+	{
+		if(deleted)
+		{
+			throw invalidState();
+		}
+		myCondition = condition;
+		for(BreakpointRequest request : myBoundRequests)
+		{
+			request.setCondition(condition);
+		}
+	}
+
+	@Nullable
+	public BreakpointCondition condition()
+	{
+		return myCondition;
+	}
+
+	/**
+	 * @return true if the line was found in loaded code, and at least one breakpoint is set
+	 */
+	public boolean isBound()
+	{
+		return !myBoundRequests.isEmpty();
+	}
+
+	/**
+	 * @return breakpoints set for this line, one per method which has code for it
+	 */
+	@Nonnull
+	public List<BreakpointRequest> boundRequests()
+	{
+		return Collections.unmodifiableList(myBoundRequests);
+	}
+
+	public boolean isBoundAt(@Nonnull Location location)
+	{
+		for(BreakpointRequest request : myBoundRequests)
+		{
+			Location boundLocation = request.location();
+			if(boundLocation.codeIndex() == location.codeIndex() && boundLocation.method().id() == location.method().id())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void addBoundRequest(@Nonnull BreakpointRequest request)
+	{
+		myBoundRequests.add(request);
+	}
+
+	public void removeBoundRequest(@Nonnull BreakpointRequest request)
+	{
+		myBoundRequests.remove(request);
+	}
+
+	@Override
+	void set()
+	{
+		lock.lock();
+		try
+		{
+			requestManager().enableSourceLineBreakpoint(this);
+			isEnabled = true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	void clear()
+	{
+		lock.lock();
+		try
+		{
+			requestManager().disableSourceLineBreakpoint(this);
+			isEnabled = false;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public EventKind eventCmd()
+	{
+		return EventKind.BREAKPOINT;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "source line breakpoint request " + mySourcePath + ":" + myLine + state();
+	}
+}
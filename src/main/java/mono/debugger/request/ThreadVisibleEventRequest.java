@@ -36,13 +36,21 @@ public abstract class ThreadVisibleEventRequest extends EventRequest
 		super(virtualMachine, requestManager);
 	}
 
-	public synchronized void addThreadFilter(ThreadMirror thread)
+	public void addThreadFilter(ThreadMirror thread)
 	{
-		validateMirror(thread);
-		if(isEnabled() || deleted)
+		lock.lock();
+		try
 		{
-			throw invalidState();
+			validateMirror(thread);
+			if(isEnabled() || deleted)
+			{
+				throw invalidState();
+			}
+			filters.add(JDWP.EventRequest.Set.Modifier.ThreadOnly.create(thread));
+		}
+		finally
+		{
+			lock.unlock();
 		}
-		filters.add(JDWP.EventRequest.Set.Modifier.ThreadOnly.create(thread));
 	}
 }
@@ -0,0 +1,103 @@
+package mono.debugger.request;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.Location;
+import mono.debugger.ThreadMirror;
+
+/**
+ * One hit of a {@link TracepointRequest}
+ *
+ * @since 2026-10-19
+ */
+public final class TracepointRecord
+{
+	private final TracepointRequest myRequest;
+	private final long myTimeMillis;
+	private final ThreadMirror myThread;
+	private final Location myLocation;
+	private final long myHitCount;
+	private final Map<String, Object> myValues;
+	private final long myCaptureNanos;
+
+	public TracepointRecord(@Nonnull TracepointRequest request,
+			long timeMillis,
+			@Nonnull ThreadMirror thread,
+			@Nonnull Location location,
+			long hitCount,
+			@Nonnull Map<String, Object> values,
+			long captureNanos)
+	{
+		myRequest = request;
+		myTimeMillis = timeMillis;
+		myThread = thread;
+		myLocation = location;
+		myHitCount = hitCount;
+		myValues = Collections.unmodifiableMap(values);
+		myCaptureNanos = captureNanos;
+	}
+
+	@Nonnull
+	public TracepointRequest request()
+	{
+		return myRequest;
+	}
+
+	/**
+	 * @return when the hit was decoded, as {@link System#currentTimeMillis()}
+	 */
+	public long timeMillis()
+	{
+		return myTimeMillis;
+	}
+
+	@Nonnull
+	public ThreadMirror thread()
+	{
+		return myThread;
+	}
+
+	@Nonnull
+	public Location location()
+	{
+		return myLocation;
+	}
+
+	public long hitCount()
+	{
+		return myHitCount;
+	}
+
+	/**
+	 * @return captured values by name: {@link mono.debugger.Value}s for locals and fields, whatever the expression returned
+	 * for expressions, or the {@link RuntimeException} if the capture failed
+	 */
+	@Nonnull
+	public Map<String, Object> values()
+	{
+		return myValues;
+	}
+
+	@Nullable
+	public Object value(@Nonnull String name)
+	{
+		return myValues.get(name);
+	}
+
+	/**
+	 * @return how long it took to capture the values, while the thread was suspended
+	 */
+	public long captureNanos()
+	{
+		return myCaptureNanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "tracepoint " + myLocation + " #" + myHitCount + " " + myValues;
+	}
+}
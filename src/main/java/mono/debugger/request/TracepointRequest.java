@@ -0,0 +1,181 @@
+package mono.debugger.request;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.EventRequestManagerImpl;
+import mono.debugger.FrameSnapshot;
+import mono.debugger.Location;
+import mono.debugger.SuspendPolicy;
+import mono.debugger.Value;
+import mono.debugger.VirtualMachine;
+
+/**
+ * Breakpoint which never stops: each hit captures the declared locals, fields of <code>this</code>
+ * and expressions, hands a {@link TracepointRecord} to the {@link TracepointSink} and resumes right away.
+ * Hits never reach the {@link mono.debugger.event.EventQueue}.
+ * <p/>
+ * Capturing runs in the decode stage like a {@link BreakpointCondition}, locals and <code>this</code> are fetched
+ * with pipelined commands, fields with one more command. Per hit cost is tracked in {@link #conditionStatistics()}
+ * and in {@link TracepointRecord#captureNanos()}.
+ * <p/>
+ * The suspend policy defaults to {@link SuspendPolicy#EVENT_THREAD}. A condition set by
+ * {@link #setCondition(BreakpointCondition)} filters which hits are recorded.
+ *
+ * @since 2026-10-19
+ */
+public class TracepointRequest extends BreakpointRequest
+{
+	private final TracepointSink mySink;
+	private final List<String> myLocals = new CopyOnWriteArrayList<String>();
+	private final List<String> myFields = new CopyOnWriteArrayList<String>();
+	private final Map<String, Function<FrameSnapshot, ?>> myExpressions = new LinkedHashMap<String, Function<FrameSnapshot, ?>>();
+
+	private final BreakpointCondition myCapture = this::capture;
+
+	public TracepointRequest(VirtualMachine virtualMachine, EventRequestManagerImpl requestManager, Location location, @Nonnull TracepointSink sink)
+	{
+		super(virtualMachine, requestManager, location);
+		mySink = sink;
+		suspendPolicy = SuspendPolicy.EVENT_THREAD;
+	}
+
+	@Nonnull
+	public TracepointSink sink()
+	{
+		return mySink;
+	}
+
+	/**
+	 * Captures locals or parameters with the given names
+	 */
+	public void addLocalCapture(@Nonnull String... names)
+	{
+		for(String name : names)
+		{
+			myLocals.add(name);
+		}
+	}
+
+	/**
+	 * Captures instance fields of <code>this</code> with the given names, recorded as <code>this.name</code>
+	 */
+	public void addFieldCapture(@Nonnull String... names)
+	{
+		for(String name : names)
+		{
+			myFields.add(name);
+		}
+	}
+
+	/**
+	 * Captures the result of an expression over the suspended frame. The expression is allowed to
+	 * talk to the target VM, but each round trip adds to the time the thread stays suspended.
+	 */
+	public void addExpressionCapture(@Nonnull String name, @Nonnull Function<FrameSnapshot, ?> expression)
+	{
+		synchronized(myExpressions)
+		{
+			myExpressions.put(name, expression);
+		}
+	}
+
+	@Nonnull
+	@Override
+	public BreakpointCondition condition()
+	{
+		return myCapture;
+	}
+
+	private boolean capture(FrameSnapshot snapshot)
+	{
+		BreakpointCondition filter = super.condition();
+		if(filter != null && !filter.shouldStop(snapshot))
+		{
+			return false;
+		}
+
+		long start = System.nanoTime();
+		long timeMillis = System.currentTimeMillis();
+
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+		if(!myLocals.isEmpty())
+		{
+			try
+			{
+				Map<String, Value<?>> frameValues = snapshot.values();
+				for(String local : myLocals)
+				{
+					values.put(local, frameValues.get(local));
+				}
+			}
+			catch(RuntimeException e)
+			{
+				for(String local : myLocals)
+				{
+					values.put(local, e);
+				}
+			}
+		}
+
+		if(!myFields.isEmpty())
+		{
+			List<String> fields = new ArrayList<String>(myFields);
+			try
+			{
+				Map<String, Value<?>> fieldValues = snapshot.fieldValues(fields.toArray(new String[fields.size()]));
+				for(String field : fields)
+				{
+					values.put("this." + field, fieldValues.get(field));
+				}
+			}
+			catch(RuntimeException e)
+			{
+				for(String field : fields)
+				{
+					values.put("this." + field, e);
+				}
+			}
+		}
+
+		List<Map.Entry<String, Function<FrameSnapshot, ?>>> expressions;
+		synchronized(myExpressions)
+		{
+			expressions = new ArrayList<Map.Entry<String, Function<FrameSnapshot, ?>>>(myExpressions.entrySet());
+		}
+		for(Map.Entry<String, Function<FrameSnapshot, ?>> entry : expressions)
+		{
+			Object value;
+			try
+			{
+				value = entry.getValue().apply(snapshot);
+			}
+			catch(RuntimeException e)
+			{
+				value = e;
+			}
+			values.put(entry.getKey(), value);
+		}
+
+		mySink.accept(new TracepointRecord(this, timeMillis, snapshot.thread(), snapshot.location(), snapshot.hitCount(), values, System.nanoTime() - start));
+		return false;
+	}
+
+	@Nullable
+	public BreakpointCondition filterCondition()
+	{
+		return super.condition();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "tracepoint request " + location() + state();
+	}
+}
@@ -0,0 +1,76 @@
+package mono.debugger.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Keeps the last <code>capacity</code> {@link TracepointRecord}s, older ones are overwritten
+ *
+ * @since 2026-10-19
+ */
+public class TracepointRingBuffer implements TracepointSink
+{
+	private final TracepointRecord[] myRecords;
+	private long myCount;
+
+	public TracepointRingBuffer(int capacity)
+	{
+		if(capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity is less than one");
+		}
+		myRecords = new TracepointRecord[capacity];
+	}
+
+	@Override
+	public synchronized void accept(@Nonnull TracepointRecord record)
+	{
+		myRecords[(int) (myCount % myRecords.length)] = record;
+		myCount++;
+	}
+
+	/**
+	 * @return records in the buffer, oldest first
+	 */
+	@Nonnull
+	public synchronized List<TracepointRecord> records()
+	{
+		int size = (int) Math.min(myCount, myRecords.length);
+		List<TracepointRecord> list = new ArrayList<TracepointRecord>(size);
+		for(long i = myCount - size; i < myCount; i++)
+		{
+			list.add(myRecords[(int) (i % myRecords.length)]);
+		}
+		return list;
+	}
+
+	/**
+	 * @return records in the buffer, oldest first, and empties the buffer
+	 */
+	@Nonnull
+	public synchronized List<TracepointRecord> drain()
+	{
+		List<TracepointRecord> records = records();
+		for(int i = 0; i < myRecords.length; i++)
+		{
+			myRecords[i] = null;
+		}
+		myCount = 0;
+		return records;
+	}
+
+	/**
+	 * @return how many records were accepted since creation or the last {@link #drain()}, including overwritten ones
+	 */
+	public synchronized long count()
+	{
+		return myCount;
+	}
+
+	public int capacity()
+	{
+		return myRecords.length;
+	}
+}
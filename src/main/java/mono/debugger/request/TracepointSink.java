@@ -0,0 +1,15 @@
+package mono.debugger.request;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Receives {@link TracepointRecord}s. Called on the thread which decodes events, so it must not block;
+ * {@link TracepointRingBuffer} is the default.
+ *
+ * @since 2026-10-19
+ */
+@FunctionalInterface
+public interface TracepointSink
+{
+	void accept(@Nonnull TracepointRecord record);
+}
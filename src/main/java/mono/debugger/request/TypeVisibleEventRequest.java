@@ -36,36 +36,60 @@ public abstract class TypeVisibleEventRequest extends ThreadVisibleEventRequest
 		super(virtualMachine, requestManager);
 	}
 
-	public synchronized void addSourceFileFilter(String... files)
+	public void addSourceFileFilter(String... files)
 	{
-		if(isEnabled() || deleted)
+		lock.lock();
+		try
 		{
-			throw invalidState();
-		}
+			if(isEnabled() || deleted)
+			{
+				throw invalidState();
+			}
 
-		filters.add(JDWP.EventRequest.Set.Modifier.SourceFileMatch.create(files));
+			filters.add(JDWP.EventRequest.Set.Modifier.SourceFileMatch.create(files));
+		}
+		finally
+		{
+			lock.unlock();
+		}
 	}
 
-	public synchronized void addTypeNameFilter(String... qNames)
+	public void addTypeNameFilter(String... qNames)
 	{
-		if(isEnabled() || deleted)
+		lock.lock();
+		try
 		{
-			throw invalidState();
-		}
+			if(isEnabled() || deleted)
+			{
+				throw invalidState();
+			}
 
-		filters.add(JDWP.EventRequest.Set.Modifier.TypeNameFilter.create(qNames));
+			filters.add(JDWP.EventRequest.Set.Modifier.TypeNameFilter.create(qNames));
+		}
+		finally
+		{
+			lock.unlock();
+		}
 	}
 
-	public synchronized void addAssemblyFilter(AssemblyMirror... mirrors)
+	public void addAssemblyFilter(AssemblyMirror... mirrors)
 	{
-		for(AssemblyMirror mirror : mirrors)
+		lock.lock();
+		try
 		{
-			validateMirror(mirror);
+			for(AssemblyMirror mirror : mirrors)
+			{
+				validateMirror(mirror);
+			}
+			if(isEnabled() || deleted)
+			{
+				throw invalidState();
+			}
+			filters.add(JDWP.EventRequest.Set.Modifier.AssemblyOnly.create(mirrors));
 		}
-		if(isEnabled() || deleted)
+		finally
 		{
-			throw invalidState();
+			lock.unlock();
 		}
-		filters.add(JDWP.EventRequest.Set.Modifier.AssemblyOnly.create(mirrors));
 	}
 }
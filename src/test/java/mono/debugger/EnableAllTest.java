@@ -0,0 +1,105 @@
+package mono.debugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import mono.debugger.request.BreakpointRequest;
+import mono.debugger.request.EventRequest;
+import mono.debugger.request.EventRequestManager;
+import mono.debugger.request.SourceLineBreakpointRequest;
+import mono.debugger.request.ThreadStartRequest;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * {@link EventRequestManager#enableAll} and {@link EventRequestManager#deleteAll} with source line breakpoint requests,
+ * which are not a request in the target VM, next to plain requests.
+ *
+ * @since 2026-10-19
+ */
+public class EnableAllTest
+{
+	private AgentSimulator mySimulator;
+	private SimulatedProgram.Thread myThread;
+	private VirtualMachine myVirtualMachine;
+	private EventRequestManager myManager;
+	private MethodMirror myMain;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		SimulatedProgram.Type type = program.addAssembly("Program", "/tmp/Program.exe").addType("Sample", "Program");
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).setLines("/tmp/Program.cs", 0, 10, 6, 11);
+		myThread = program.addThread("Main Thread");
+		myThread.pushFrame(main, 0);
+
+		mySimulator = new AgentSimulator(program);
+		myVirtualMachine = Bootstrap.virtualMachineManager().createVirtualMachine(mySimulator.startInMemory());
+		myManager = myVirtualMachine.eventRequestManager();
+		myMain = myVirtualMachine.findTypesByQualifiedName("Sample.Program", false)[0].findMethodByName("Main", false);
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		mySimulator.close();
+	}
+
+	@Test
+	public void sourceLineAndPlainRequests()
+	{
+		SourceLineBreakpointRequest sourceLine = myManager.createSourceLineBreakpointRequest("/tmp/Program.cs", 11);
+		BreakpointRequest breakpoint = myManager.createBreakpointRequest(new LocationImpl(myVirtualMachine, myMain, 0));
+		ThreadStartRequest threadStart = myManager.createThreadStartRequest();
+		List<EventRequest> requests = Arrays.<EventRequest>asList(sourceLine, breakpoint, threadStart);
+
+		assertTrue(myManager.enableAll(requests).isEmpty());
+		assertTrue(sourceLine.isEnabled());
+		assertTrue(breakpoint.isEnabled());
+		assertTrue(threadStart.isEnabled());
+		assertEquals(1, sourceLine.boundRequests().size());
+		assertEquals(6, sourceLine.boundRequests().get(0).location().codeIndex());
+		// the bound breakpoint and the plain one, none without a location
+		assertEquals(2, mySimulator.requestCount(EventKind.BREAKPOINT));
+		assertEquals(1, mySimulator.requestCount(EventKind.TYPE_LOAD));
+		assertEquals(1, mySimulator.requestCount(EventKind.THREAD_START));
+		assertTrue(mySimulator.hitBreakpoint(myThread, 6));
+
+		assertTrue(myManager.deleteAll(requests).isEmpty());
+		assertEquals(0, mySimulator.requestCount(EventKind.BREAKPOINT));
+		assertEquals(0, mySimulator.requestCount(EventKind.TYPE_LOAD));
+		assertEquals(0, mySimulator.requestCount(EventKind.THREAD_START));
+		assertTrue(sourceLine.boundRequests().isEmpty());
+		assertTrue(myManager.sourceLineBreakpointRequests().isEmpty());
+		assertTrue(myManager.breakpointRequests().isEmpty());
+		assertTrue(myManager.threadStartRequests().isEmpty());
+		assertFalse(mySimulator.hitBreakpoint(myThread, 6));
+	}
+
+	@Test
+	public void deleteRemovesBeforeClear()
+	{
+		BreakpointRequest breakpoint = myManager.createBreakpointRequest(new LocationImpl(myVirtualMachine, myMain, 0));
+		breakpoint.enable();
+
+		mySimulator.close();
+		try
+		{
+			breakpoint.delete();
+			fail("clear of a disconnected VM succeeded");
+		}
+		catch(RuntimeException e)
+		{
+			assertFalse(myManager.breakpointRequests().contains(breakpoint));
+		}
+	}
+}
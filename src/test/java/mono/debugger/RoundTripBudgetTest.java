@@ -0,0 +1,116 @@
+package mono.debugger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+
+/**
+ * Pins the round trips of calls which hide them, against the agent simulator. A test fails with a
+ * {@link RoundTripBudgetExceededException} listing the commands if one of them got more expensive.
+ *
+ * @since 2026-10-19
+ */
+public class RoundTripBudgetTest
+{
+	private AgentSimulator mySimulator;
+	private SimulatedProgram.Instance myInstance;
+	private VirtualMachine myVirtualMachine;
+	private ProtocolMetrics myMetrics;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		SimulatedProgram.Type type = program.addAssembly("Program", "/tmp/Program.exe").addType("Sample", "Program");
+		myInstance = program.newObject(type);
+
+		mySimulator = new AgentSimulator(program);
+		myVirtualMachine = Bootstrap.virtualMachineManager().createVirtualMachine(mySimulator.startInMemory());
+		myMetrics = myVirtualMachine.protocolMetrics();
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		mySimulator.close();
+	}
+
+	@Test
+	public void findType()
+	{
+		try (RoundTripScope scope = myMetrics.openScope("find type").budget(1))
+		{
+			assertEquals(1, myVirtualMachine.findTypesByQualifiedName("Sample.Program", false).length);
+			assertEquals(1, scope.roundTrips());
+		}
+	}
+
+	@Test
+	public void fullNameIsCached()
+	{
+		TypeMirror type = findType("Sample.Program");
+
+		try (RoundTripScope scope = myMetrics.openScope("first fullName()").budget(1))
+		{
+			assertEquals("Sample.Program", type.fullName());
+			assertEquals(1, scope.roundTrips());
+		}
+
+		try (RoundTripScope scope = myMetrics.openScope("cached fullName()").budget(0))
+		{
+			assertEquals("Sample.Program", type.fullName());
+			assertEquals(0, scope.roundTrips());
+		}
+	}
+
+	@Test
+	public void objectType()
+	{
+		TypeMirror type = findType("Sample.Program");
+
+		try (RoundTripScope scope = myMetrics.openScope("ObjectValueMirror.type()").budget(1))
+		{
+			assertEquals(type, new ObjectValueMirror(myVirtualMachine, myInstance.id()).type());
+			assertEquals(1, scope.roundTrips());
+		}
+	}
+
+	@Test
+	public void fields()
+	{
+		TypeMirror type = findType("Sample.Program");
+
+		try (RoundTripScope scope = myMetrics.openScope("fields()").budget(1))
+		{
+			type.fields();
+			assertEquals(1, scope.roundTrips());
+		}
+	}
+
+	@Test
+	public void budgetIsEnforced()
+	{
+		RoundTripScope overBudget = myMetrics.openScope("over budget").budget(0);
+		new ObjectValueMirror(myVirtualMachine, myInstance.id()).type();
+		try
+		{
+			overBudget.close();
+			fail("budget not enforced");
+		}
+		catch(RoundTripBudgetExceededException e)
+		{
+			assertEquals(0, e.budget());
+			assertEquals(1, e.roundTrips());
+		}
+	}
+
+	private TypeMirror findType(String name)
+	{
+		return myVirtualMachine.findTypesByQualifiedName(name, false)[0];
+	}
+}
@@ -0,0 +1,1881 @@
+package mono.debugger.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import consulo.internal.dotnet.asm.signature.SignatureConstants;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import mono.debugger.EventKind;
+import mono.debugger.SuspendPolicy;
+import mono.debugger.connect.spi.Connection;
+import mono.debugger.connect.spi.TransportService;
+
+/**
+ * Java stand-in for the Mono soft debugger agent, which serves a {@link SimulatedProgram} over the wire protocol.
+ * It lets the library be tested and benchmarked without a Mono runtime, deterministically.
+ * <p/>
+ * The simulator answers the commands the library sends - virtual machine, app domain, assembly, type, method,
+ * thread, stack frame, object, string and array commands, and event requests - and sends composite events when
+ * a script drives the program, see {@link #hitBreakpoint}, {@link #step}, {@link #enterMethod},
+ * {@link #throwException} and the other script methods. Like in the runtime, a script thread which fired a
+ * suspending event should wait with {@link #awaitResume} before it goes on.
+ * <p/>
+ * Commands are handled one at a time on the agent thread, like on the debugger thread of the runtime.
+ * {@link #setLatency} and {@link #setBandwidth} shape the link in both directions: a packet arrives after
+ * the one-way latency plus the time its bytes take at the given bandwidth, and packets queue behind each other
+ * on a busy link.
+ * <p/>
+ * The simulator works over any {@link Connection}: an {@link InMemoryConnection}, or a socket made by a
+ * {@link TransportService}, see {@link #listen} and {@link #attach}.
+ *
+ * @since 2026-10-19
+ */
+public class AgentSimulator implements Closeable
+{
+	public static final int MAJOR_VERSION = 2;
+	public static final int MINOR_VERSION = 56;
+
+	private static final int CS_VM = 1;
+	private static final int CS_OBJECT_REFERENCE = 9;
+	private static final int CS_STRING_REFERENCE = 10;
+	private static final int CS_THREAD = 11;
+	private static final int CS_ARRAY_REFERENCE = 13;
+	private static final int CS_EVENT_REQUEST = 15;
+	private static final int CS_STACK_FRAME = 16;
+	private static final int CS_APPDOMAIN = 20;
+	private static final int CS_ASSEMBLY = 21;
+	private static final int CS_METHOD = 22;
+	private static final int CS_TYPE = 23;
+	private static final int CS_EVENT = 64;
+	private static final int CMD_COMPOSITE = 100;
+
+	private static final int ERR_INVALID_OBJECT = 20;
+	private static final int ERR_INVALID_FIELDID = 25;
+	private static final int ERR_INVALID_FRAMEID = 30;
+	private static final int ERR_NOT_IMPLEMENTED = 100;
+	private static final int ERR_NOT_SUSPENDED = 101;
+	private static final int ERR_INVALID_ARGUMENT = 102;
+
+	private static final int MOD_COUNT = 1;
+	private static final int MOD_THREAD_ONLY = 3;
+	private static final int MOD_LOCATION_ONLY = 7;
+	private static final int MOD_EXCEPTION_ONLY = 8;
+	private static final int MOD_STEP = 10;
+	private static final int MOD_ASSEMBLY_ONLY = 11;
+	private static final int MOD_SOURCE_FILE_MATCH = 12;
+	private static final int MOD_TYPE_NAME_FILTER = 13;
+
+	private static final int THREAD_STATE_SUSPENDED = 0x40;
+
+	private static final int HEADER_SIZE = 11;
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final byte[] CLOSE = new byte[0];
+
+	/*
+	 * Error reply for the command being handled
+	 */
+	private static class CommandException extends RuntimeException
+	{
+		private static final long serialVersionUID = 4163016813442795713L;
+
+		final int errorCode;
+
+		CommandException(int errorCode)
+		{
+			super(null, null, false, false);
+			this.errorCode = errorCode;
+		}
+	}
+
+	/*
+	 * Event request set by the debugger
+	 */
+	private static class Request
+	{
+		final int id;
+		final EventKind kind;
+		final SuspendPolicy policy;
+		int count;
+		int threadId;
+		int methodId;
+		long codeIndex = -1;
+		int exceptionTypeId;
+		boolean caught = true;
+		boolean uncaught = true;
+		boolean subclasses = true;
+		int stepThreadId;
+		int[] assemblyIds;
+		String[] sourceFiles;
+		String[] typeNames;
+
+		Request(int id, EventKind kind, SuspendPolicy policy)
+		{
+			this.id = id;
+			this.kind = kind;
+			this.policy = policy;
+		}
+	}
+
+	/*
+	 * Packet on the link, due at the other end at a System.nanoTime()
+	 */
+	private static class Transit
+	{
+		final byte[] packet;
+		final long dueAt;
+
+		Transit(byte[] packet, long dueAt)
+		{
+			this.packet = packet;
+			this.dueAt = dueAt;
+		}
+	}
+
+	private final SimulatedProgram myProgram;
+
+	// guards the requests and the suspend state, commands are handled under it
+	private final ReentrantLock myLock = new ReentrantLock();
+	private final Condition myResumed = myLock.newCondition();
+	private final Map<Integer, Request> myRequests = new LinkedHashMap<Integer, Request>();
+	private int myNextRequestId;
+	private int mySuspendCount;
+
+	// guards the outbox and writes, so packets leave in order
+	private final Object myOutLock = new Object();
+	private final ArrayDeque<Transit> myOutbox = new ArrayDeque<Transit>();
+	private long myOutLinkFreeAt;
+
+	// packets read off the connection as soon as they come, stamped with the time they arrive over the link
+	private final BlockingQueue<Transit> myInbox = new LinkedBlockingQueue<Transit>();
+	private long myInLinkFreeAt;
+
+	private volatile long myLatencyNanos;
+	private volatile long myBytesPerSecond;
+	private volatile boolean mySuspendOnStart = true;
+
+	private final AtomicInteger myPacketIds = new AtomicInteger();
+	private final AtomicLong myCommandCount = new AtomicLong();
+	private final AtomicLong myBytesReceived = new AtomicLong();
+	private final AtomicLong myBytesSent = new AtomicLong();
+
+	private volatile Connection myConnection;
+	private volatile boolean myRunning;
+	private Thread myReceiverThread;
+	private Thread myAgentThread;
+	private Thread myLinkThread;
+
+	public AgentSimulator(@Nonnull SimulatedProgram program)
+	{
+		myProgram = program;
+	}
+
+	@Nonnull
+	public SimulatedProgram program()
+	{
+		return myProgram;
+	}
+
+	/**
+	 * Sets the one-way latency of the link, in both directions
+	 */
+	public void setLatency(long latency, @Nonnull TimeUnit unit)
+	{
+		myLatencyNanos = unit.toNanos(latency);
+	}
+
+	/**
+	 * Sets the bandwidth of the link in bytes per second in both directions, zero for unlimited
+	 */
+	public void setBandwidth(long bytesPerSecond)
+	{
+		if(bytesPerSecond < 0)
+		{
+			throw new IllegalArgumentException("bandwidth is negative");
+		}
+		myBytesPerSecond = bytesPerSecond;
+	}
+
+	/**
+	 * Whether the program is suspended when the debugger connects, like <code>suspend=y</code> of the agent. True by default.
+	 */
+	public void setSuspendOnStart(boolean suspendOnStart)
+	{
+		mySuspendOnStart = suspendOnStart;
+	}
+
+	/**
+	 * Starts serving the connection, and sends the VM start event
+	 */
+	public void start(@Nonnull Connection connection)
+	{
+		if(myConnection != null)
+		{
+			throw new IllegalStateException("Simulator is already started");
+		}
+		myConnection = connection;
+		myRunning = true;
+
+		myLinkThread = new Thread(this::runLink, "Simulator Link");
+		myLinkThread.setDaemon(true);
+		myLinkThread.start();
+
+		List<SimulatedProgram.Thread> threads = myProgram.threads();
+		SimulatedProgram.Thread mainThread = threads.isEmpty() ? null : threads.get(0);
+		myLock.lock();
+		try
+		{
+			SuspendPolicy policy = mySuspendOnStart ? SuspendPolicy.ALL : SuspendPolicy.NONE;
+			if(policy != SuspendPolicy.NONE)
+			{
+				mySuspendCount++;
+			}
+			sendEvent(policy, EventKind.VM_START, 0, mainThread, null);
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+
+		myAgentThread = new Thread(this::runAgent, "Simulator Agent");
+		myAgentThread.setDaemon(true);
+		myAgentThread.start();
+
+		myReceiverThread = new Thread(this::runReceiver, "Simulator Receiver");
+		myReceiverThread.setDaemon(true);
+		myReceiverThread.start();
+	}
+
+	/**
+	 * Starts a debugger side and an agent side connected in memory, and serves the agent side
+	 *
+	 * @return the debugger side, to pass to {@link mono.debugger.VirtualMachineManager#createVirtualMachine(Connection)}
+	 */
+	@Nonnull
+	public Connection startInMemory()
+	{
+		InMemoryConnection[] pair = InMemoryConnection.pair();
+		start(pair[1]);
+		return pair[0];
+	}
+
+	/**
+	 * Listens like the agent with <code>server=y</code>, the debugger attaches. The connection is accepted
+	 * on a background thread.
+	 *
+	 * @return the address listened on
+	 */
+	@Nonnull
+	public String listen(@Nonnull TransportService transportService, @Nullable String address) throws IOException
+	{
+		TransportService.ListenKey key = transportService.startListening(address);
+		Thread acceptThread = new Thread(() ->
+		{
+			try
+			{
+				Connection connection = transportService.accept(key, 0, 0);
+				transportService.stopListening(key);
+				start(connection);
+			}
+			catch(IOException e)
+			{
+				// nobody attached before the listener was closed
+			}
+		}, "Simulator Accept");
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+		return key.address();
+	}
+
+	/**
+	 * Connects to a listening debugger like the agent with <code>server=n</code>
+	 */
+	public void attach(@Nonnull TransportService transportService, @Nonnull String address, long timeoutMillis) throws IOException
+	{
+		start(transportService.attach(address, timeoutMillis, timeoutMillis));
+	}
+
+	@Override
+	public void close()
+	{
+		myRunning = false;
+		Connection connection = myConnection;
+		if(connection != null)
+		{
+			try
+			{
+				connection.close();
+			}
+			catch(IOException ignored)
+			{
+			}
+		}
+		synchronized(myOutLock)
+		{
+			myOutbox.clear();
+			myOutLock.notifyAll();
+		}
+		myInbox.add(new Transit(CLOSE, 0));
+		myLock.lock();
+		try
+		{
+			myResumed.signalAll();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	public boolean isRunning()
+	{
+		return myRunning;
+	}
+
+	public long commandCount()
+	{
+		return myCommandCount.get();
+	}
+
+	public long bytesReceived()
+	{
+		return myBytesReceived.get();
+	}
+
+	public long bytesSent()
+	{
+		return myBytesSent.get();
+	}
+
+	public int suspendCount()
+	{
+		myLock.lock();
+		try
+		{
+			return mySuspendCount;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * @return requests of the kind which the debugger set and did not clear yet
+	 */
+	public int requestCount(@Nonnull EventKind kind)
+	{
+		myLock.lock();
+		try
+		{
+			return (int) myRequests.values().stream().filter(request -> request.kind == kind).count();
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the debugger resumed the program, or the connection is gone
+	 *
+	 * @return false if it timed out
+	 */
+	public boolean awaitResume(long timeout, @Nonnull TimeUnit unit) throws InterruptedException
+	{
+		long nanos = unit.toNanos(timeout);
+		myLock.lock();
+		try
+		{
+			while(mySuspendCount > 0 && myRunning)
+			{
+				if(nanos <= 0)
+				{
+					return false;
+				}
+				nanos = myResumed.awaitNanos(nanos);
+			}
+			return true;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	// -- script methods
+
+	/**
+	 * Moves the top frame of the thread to <code>offset</code>, and reports it to the breakpoint requests there
+	 *
+	 * @return true if an event was sent
+	 */
+	public boolean hitBreakpoint(@Nonnull SimulatedProgram.Thread thread, int offset)
+	{
+		SimulatedProgram.Frame frame = topFrame(thread);
+		frame.setOffset(offset);
+		return fire(EventKind.BREAKPOINT, thread, request -> request.methodId == frame.method().id() && request.codeIndex == offset, w -> writeLocation(w, frame));
+	}
+
+	/**
+	 * Moves the top frame of the thread to <code>offset</code>, and reports it to the step requests of the thread
+	 */
+	public boolean step(@Nonnull SimulatedProgram.Thread thread, int offset)
+	{
+		SimulatedProgram.Frame frame = topFrame(thread);
+		frame.setOffset(offset);
+		return fire(EventKind.STEP, thread, request -> request.stepThreadId == thread.id(), w -> writeLocation(w, frame));
+	}
+
+	/**
+	 * Pushes a frame of the method, and reports the entry
+	 */
+	@Nonnull
+	public SimulatedProgram.Frame enterMethod(@Nonnull SimulatedProgram.Thread thread, @Nonnull SimulatedProgram.Method method)
+	{
+		SimulatedProgram.Frame frame = thread.pushFrame(method, 0);
+		fire(EventKind.METHOD_ENTRY, thread, request -> true, w -> w.writeInt(method.id()));
+		return frame;
+	}
+
+	/**
+	 * Reports the exit of the top frame, and pops it
+	 */
+	public void exitMethod(@Nonnull SimulatedProgram.Thread thread)
+	{
+		SimulatedProgram.Frame frame = topFrame(thread);
+		fire(EventKind.METHOD_EXIT, thread, request -> true, w -> w.writeInt(frame.method().id()));
+		thread.popFrame();
+	}
+
+	public boolean throwException(@Nonnull SimulatedProgram.Thread thread, @Nonnull SimulatedProgram.Instance exception, boolean caught)
+	{
+		return fire(EventKind.EXCEPTION, thread, request ->
+		{
+			if(caught ? !request.caught : !request.uncaught)
+			{
+				return false;
+			}
+			if(request.exceptionTypeId == 0)
+			{
+				return true;
+			}
+			SimulatedProgram.Type type = myProgram.element(request.exceptionTypeId, SimulatedProgram.Type.class);
+			return type != null && (request.subclasses ? type.isAssignableFrom(exception.type()) : type == exception.type());
+		}, w -> w.writeInt(exception.id()));
+	}
+
+	@Nonnull
+	public SimulatedProgram.Thread startThread(@Nonnull String name)
+	{
+		SimulatedProgram.Thread thread = myProgram.addThread(name);
+		fire(EventKind.THREAD_START, thread, request -> true, w -> {});
+		return thread;
+	}
+
+	public void endThread(@Nonnull SimulatedProgram.Thread thread)
+	{
+		fire(EventKind.THREAD_DEATH, thread, request -> true, w -> {});
+		myProgram.removeThread(thread);
+	}
+
+	@Nonnull
+	public SimulatedProgram.Assembly loadAssembly(@Nonnull SimulatedProgram.Thread thread, @Nonnull String name, @Nonnull String location)
+	{
+		SimulatedProgram.Assembly assembly = myProgram.addAssembly(name, location);
+		fire(EventKind.ASSEMBLY_LOAD, thread, request -> true, w -> w.writeInt(assembly.id()));
+		return assembly;
+	}
+
+	/**
+	 * Reports the load of a type which was added to its assembly by the script
+	 */
+	public boolean loadType(@Nonnull SimulatedProgram.Thread thread, @Nonnull SimulatedProgram.Type type)
+	{
+		return fire(EventKind.TYPE_LOAD, thread, request ->
+		{
+			if(request.assemblyIds != null && Arrays.stream(request.assemblyIds).noneMatch(id -> id == type.assembly().id()))
+			{
+				return false;
+			}
+			if(request.typeNames != null && !Arrays.asList(request.typeNames).contains(type.fullName()))
+			{
+				return false;
+			}
+			if(request.sourceFiles != null)
+			{
+				for(SimulatedProgram.Method method : type.methods())
+				{
+					for(String sourceFile : request.sourceFiles)
+					{
+						if(sameSourceFile(method.sourceFile(), sourceFile, true))
+						{
+							return true;
+						}
+					}
+				}
+				return false;
+			}
+			return true;
+		}, w -> w.writeInt(type.id()));
+	}
+
+	public boolean userBreak(@Nonnull SimulatedProgram.Thread thread)
+	{
+		return fire(EventKind.USER_BREAK, thread, request -> true, w -> {});
+	}
+
+	public boolean userLog(@Nonnull SimulatedProgram.Thread thread, int level, @Nonnull String category, @Nonnull String message)
+	{
+		return fire(EventKind.USER_LOG, thread, request -> true, w ->
+		{
+			w.writeInt(level);
+			w.writeString(category);
+			w.writeString(message);
+		});
+	}
+
+	/**
+	 * Ends the program: sends the VM death event and closes the connection
+	 */
+	public void exit(int exitCode)
+	{
+		List<SimulatedProgram.Thread> threads = myProgram.threads();
+		SimulatedProgram.Thread thread = threads.isEmpty() ? null : threads.get(0);
+		myLock.lock();
+		try
+		{
+			sendEvent(SuspendPolicy.NONE, EventKind.VM_DEATH, 0, thread, w -> w.writeInt(exitCode));
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+		closeAfterFlush();
+	}
+
+	private SimulatedProgram.Frame topFrame(SimulatedProgram.Thread thread)
+	{
+		SimulatedProgram.Frame frame = thread.topFrame();
+		if(frame == null)
+		{
+			throw new IllegalStateException("Thread " + thread + " has no frames");
+		}
+		return frame;
+	}
+
+	private static void writeLocation(Writer w, SimulatedProgram.Frame frame)
+	{
+		w.writeInt(frame.method().id());
+		w.writeInt(frame.offset());
+	}
+
+	/*
+	 * Sends one composite event with an event for every matching request, and suspends if any of them asks to
+	 */
+	private boolean fire(EventKind kind, SimulatedProgram.Thread thread, Predicate<Request> filter, Consumer<Writer> body)
+	{
+		myLock.lock();
+		try
+		{
+			List<Request> matched = new ArrayList<Request>();
+			Iterator<Request> iterator = myRequests.values().iterator();
+			while(iterator.hasNext())
+			{
+				Request request = iterator.next();
+				if(request.kind != kind || request.threadId != 0 && request.threadId != thread.id() || !filter.test(request))
+				{
+					continue;
+				}
+				if(request.count > 0)
+				{
+					if(--request.count > 0)
+					{
+						continue;
+					}
+					// an expired count filter never reports again
+					iterator.remove();
+				}
+				matched.add(request);
+			}
+			if(matched.isEmpty())
+			{
+				return false;
+			}
+
+			SuspendPolicy policy = SuspendPolicy.NONE;
+			for(Request request : matched)
+			{
+				if(request.policy.ordinal() > policy.ordinal())
+				{
+					policy = request.policy;
+				}
+			}
+			if(policy != SuspendPolicy.NONE)
+			{
+				// the runtime suspends everything for EVENT_THREAD too
+				mySuspendCount++;
+			}
+
+			Writer w = new Writer();
+			w.writeByte(policy.ordinal());
+			w.writeInt(matched.size());
+			for(Request request : matched)
+			{
+				w.writeByte(kind.ordinal());
+				w.writeInt(request.id);
+				w.writeInt(thread.id());
+				body.accept(w);
+			}
+			send(w.toCommand(myPacketIds.incrementAndGet(), CS_EVENT, CMD_COMPOSITE));
+			return true;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+	}
+
+	private void sendEvent(SuspendPolicy policy, EventKind kind, int requestId, @Nullable SimulatedProgram.Thread thread, @Nullable Consumer<Writer> body)
+	{
+		Writer w = new Writer();
+		w.writeByte(policy.ordinal());
+		w.writeInt(1);
+		w.writeByte(kind.ordinal());
+		w.writeInt(requestId);
+		w.writeInt(thread == null ? 0 : thread.id());
+		if(body != null)
+		{
+			body.accept(w);
+		}
+		send(w.toCommand(myPacketIds.incrementAndGet(), CS_EVENT, CMD_COMPOSITE));
+	}
+
+	// -- link
+
+	private void send(byte[] packet)
+	{
+		synchronized(myOutLock)
+		{
+			if(!myRunning)
+			{
+				return;
+			}
+			long latency = myLatencyNanos;
+			long bandwidth = myBytesPerSecond;
+			if(latency == 0 && bandwidth == 0 && myOutbox.isEmpty())
+			{
+				write(packet);
+				return;
+			}
+			long now = System.nanoTime();
+			myOutLinkFreeAt = Math.max(now, myOutLinkFreeAt) + transmitNanos(packet.length, bandwidth);
+			myOutbox.add(new Transit(packet, myOutLinkFreeAt + latency));
+			myOutLock.notifyAll();
+		}
+	}
+
+	private void closeAfterFlush()
+	{
+		synchronized(myOutLock)
+		{
+			if(myOutbox.isEmpty())
+			{
+				close();
+				return;
+			}
+			myOutbox.add(new Transit(CLOSE, System.nanoTime()));
+			myOutLock.notifyAll();
+		}
+	}
+
+	private static long transmitNanos(int bytes, long bandwidth)
+	{
+		return bandwidth == 0 ? 0 : bytes * 1_000_000_000L / bandwidth;
+	}
+
+	/*
+	 * Called under myOutLock
+	 */
+	private void write(byte[] packet)
+	{
+		try
+		{
+			myConnection.writePacket(packet);
+			myBytesSent.addAndGet(packet.length);
+		}
+		catch(IOException e)
+		{
+			myRunning = false;
+		}
+	}
+
+	private void runLink()
+	{
+		while(myRunning)
+		{
+			Transit transit;
+			synchronized(myOutLock)
+			{
+				transit = myOutbox.peek();
+				if(transit == null)
+				{
+					try
+					{
+						myOutLock.wait();
+					}
+					catch(InterruptedException e)
+					{
+						return;
+					}
+					continue;
+				}
+			}
+
+			parkUntil(transit.dueAt);
+
+			synchronized(myOutLock)
+			{
+				// polled and written under the lock, so a packet sent right now can not overtake it
+				if(myOutbox.poll() != transit)
+				{
+					continue;
+				}
+				if(transit.packet == CLOSE)
+				{
+					close();
+					return;
+				}
+				write(transit.packet);
+			}
+		}
+	}
+
+	/*
+	 * Parking oversleeps by tens of microseconds, which would add up over a train of pipelined packets,
+	 * so the last stretch is spun
+	 */
+	private static void parkUntil(long deadline)
+	{
+		long remaining;
+		while((remaining = deadline - System.nanoTime()) > 0)
+		{
+			if(remaining > SPIN_NANOS)
+			{
+				LockSupport.parkNanos(remaining - SPIN_NANOS);
+			}
+			else
+			{
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	private void runReceiver()
+	{
+		try
+		{
+			while(myRunning)
+			{
+				byte[] packet = myConnection.readPacket();
+				if(packet.length == 0)
+				{
+					break;
+				}
+				myBytesReceived.addAndGet(packet.length);
+
+				long latency = myLatencyNanos;
+				long bandwidth = myBytesPerSecond;
+				long dueAt = 0;
+				if(latency != 0 || bandwidth != 0)
+				{
+					myInLinkFreeAt = Math.max(System.nanoTime(), myInLinkFreeAt) + transmitNanos(packet.length, bandwidth);
+					dueAt = myInLinkFreeAt + latency;
+				}
+				myInbox.add(new Transit(packet, dueAt));
+			}
+		}
+		catch(IOException e)
+		{
+			// the debugger went away
+		}
+		finally
+		{
+			myInbox.add(new Transit(CLOSE, 0));
+		}
+	}
+
+	private void runAgent()
+	{
+		try
+		{
+			while(myRunning)
+			{
+				Transit transit = myInbox.take();
+				if(transit.packet == CLOSE)
+				{
+					break;
+				}
+				parkUntil(transit.dueAt);
+				handle(transit.packet);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			// closed
+		}
+		finally
+		{
+			close();
+		}
+	}
+
+	// -- commands
+
+	private void handle(byte[] packet)
+	{
+		Reader r = new Reader(packet);
+		int id = r.readInt();
+		int flags = r.readUByte();
+		int commandSet = r.readUByte();
+		int command = r.readUByte();
+		if((flags & 0x80) != 0)
+		{
+			// the agent sends no commands, so expects no replies
+			return;
+		}
+		myCommandCount.incrementAndGet();
+
+		Writer reply = new Writer();
+		int errorCode = 0;
+		boolean dispose = false;
+		myLock.lock();
+		try
+		{
+			switch(commandSet)
+			{
+				case CS_VM:
+					dispose = virtualMachine(command, r, reply);
+					break;
+				case CS_OBJECT_REFERENCE:
+					objectReference(command, r, reply);
+					break;
+				case CS_STRING_REFERENCE:
+					stringReference(command, r, reply);
+					break;
+				case CS_THREAD:
+					thread(command, r, reply);
+					break;
+				case CS_ARRAY_REFERENCE:
+					arrayReference(command, r, reply);
+					break;
+				case CS_EVENT_REQUEST:
+					eventRequest(command, r, reply);
+					break;
+				case CS_STACK_FRAME:
+					stackFrame(command, r, reply);
+					break;
+				case CS_APPDOMAIN:
+					appDomain(command, r, reply);
+					break;
+				case CS_ASSEMBLY:
+					assembly(command, r, reply);
+					break;
+				case CS_METHOD:
+					method(command, r, reply);
+					break;
+				case CS_TYPE:
+					type(command, r, reply);
+					break;
+				default:
+					throw new CommandException(ERR_NOT_IMPLEMENTED);
+			}
+		}
+		catch(CommandException e)
+		{
+			errorCode = e.errorCode;
+		}
+		catch(IndexOutOfBoundsException e)
+		{
+			// a command shorter than its arguments
+			errorCode = ERR_INVALID_ARGUMENT;
+		}
+		finally
+		{
+			myLock.unlock();
+		}
+
+		send(errorCode == 0 ? reply.toReply(id) : new Writer().toError(id, errorCode));
+		if(dispose)
+		{
+			closeAfterFlush();
+		}
+	}
+
+	private void resumeAll()
+	{
+		mySuspendCount = 0;
+		myResumed.signalAll();
+	}
+
+	private void checkSuspended()
+	{
+		if(mySuspendCount == 0)
+		{
+			throw new CommandException(ERR_NOT_SUSPENDED);
+		}
+	}
+
+	private boolean virtualMachine(int command, Reader r, Writer w)
+	{
+		switch(command)
+		{
+			case 1: // GetVersion
+				w.writeString("Mono " + MAJOR_VERSION + "." + MINOR_VERSION + " (simulated)");
+				w.writeInt(MAJOR_VERSION);
+				w.writeInt(MINOR_VERSION);
+				return false;
+			case 2: // AllThreads
+				List<SimulatedProgram.Thread> threads = myProgram.threads();
+				w.writeInt(threads.size());
+				for(SimulatedProgram.Thread thread : threads)
+				{
+					w.writeInt(thread.id());
+				}
+				return false;
+			case 3: // Suspend
+				mySuspendCount++;
+				return false;
+			case 4: // Resume
+				checkSuspended();
+				if(--mySuspendCount == 0)
+				{
+					myResumed.signalAll();
+				}
+				return false;
+			case 5: // Exit
+				r.readInt();
+				myRequests.clear();
+				resumeAll();
+				return true;
+			case 6: // Dispose
+				myRequests.clear();
+				resumeAll();
+				return true;
+			case 7: // InvokeMethod
+				invokeMethod(r, w);
+				return false;
+			case 8: // SetProtocolVersion
+				int major = r.readInt();
+				r.readInt();
+				if(major != MAJOR_VERSION)
+				{
+					throw new CommandException(ERR_INVALID_ARGUMENT);
+				}
+				return false;
+			case 11: // GetTypesForSourceFile
+			{
+				String sourceFile = r.readString();
+				boolean ignoreCase = r.readUByte() != 0;
+				List<SimulatedProgram.Type> types = new ArrayList<SimulatedProgram.Type>();
+				for(SimulatedProgram.Type type : myProgram.allTypes())
+				{
+					for(SimulatedProgram.Method method : type.methods())
+					{
+						if(sameSourceFile(method.sourceFile(), sourceFile, ignoreCase))
+						{
+							types.add(type);
+							break;
+						}
+					}
+				}
+				writeIds(w, types);
+				return false;
+			}
+			case 12: // GetTypes
+			{
+				String name = r.readString();
+				boolean ignoreCase = r.readUByte() != 0;
+				List<SimulatedProgram.Type> types = new ArrayList<SimulatedProgram.Type>();
+				for(SimulatedProgram.Type type : myProgram.allTypes())
+				{
+					if(ignoreCase ? type.fullName().equalsIgnoreCase(name) : type.fullName().equals(name))
+					{
+						types.add(type);
+					}
+				}
+				writeIds(w, types);
+				return false;
+			}
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void invokeMethod(Reader r, Writer w)
+	{
+		thread(r.readInt());
+		r.readInt(); // invoke flags
+		SimulatedProgram.Method method = element(r.readInt(), SimulatedProgram.Method.class);
+		checkSuspended();
+
+		List<SimulatedValue> arguments = new ArrayList<SimulatedValue>();
+		arguments.add(r.readValue());
+		int count = r.readInt();
+		if(count != method.parameters().size())
+		{
+			throw new CommandException(ERR_INVALID_ARGUMENT);
+		}
+		for(int i = 0; i < count; i++)
+		{
+			arguments.add(r.readValue());
+		}
+
+		Function<List<SimulatedValue>, SimulatedValue> handler = method.invokeHandler();
+		try
+		{
+			SimulatedValue result = handler == null ? SimulatedValue.VOID : handler.apply(arguments);
+			w.writeByte(1);
+			w.writeValue(result);
+		}
+		catch(RuntimeException e)
+		{
+			// the invoked method threw
+			SimulatedProgram.Instance exception = myProgram.newObject(myProgram.exceptionType());
+			w.writeByte(0);
+			w.writeValue(SimulatedValue.of(exception));
+		}
+	}
+
+	private void objectReference(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Instance instance = element(r.readInt(), SimulatedProgram.Instance.class);
+		switch(command)
+		{
+			case 1: // GetType
+				w.writeInt(instance.type().id());
+				break;
+			case 2: // GetValues
+			{
+				int count = r.readInt();
+				for(int i = 0; i < count; i++)
+				{
+					SimulatedProgram.Field field = instanceField(instance, r.readInt());
+					w.writeValue(field.isStatic() ? field.staticValue() : instance.fieldValue(field));
+				}
+				break;
+			}
+			case 4: // GetAddress
+				w.writeLong(0x7f0000000000L + instance.id() * 16L);
+				break;
+			case 6: // SetValues
+			{
+				int count = r.readInt();
+				SimulatedProgram.Field[] fields = new SimulatedProgram.Field[count];
+				for(int i = 0; i < count; i++)
+				{
+					fields[i] = instanceField(instance, r.readInt());
+				}
+				for(int i = 0; i < count; i++)
+				{
+					instance.setFieldValue(fields[i], r.readValue());
+				}
+				break;
+			}
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private static SimulatedProgram.Field instanceField(SimulatedProgram.Instance instance, int fieldId)
+	{
+		SimulatedProgram.Field field = instance.type().findField(fieldId);
+		if(field == null)
+		{
+			throw new CommandException(ERR_INVALID_FIELDID);
+		}
+		return field;
+	}
+
+	private void stringReference(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.StringInstance string = element(r.readInt(), SimulatedProgram.StringInstance.class);
+		if(command != 1)
+		{
+			throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+		// not UTF-16
+		w.writeByte(0);
+		w.writeString(string.value());
+	}
+
+	private void thread(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Thread thread = thread(r.readInt());
+		switch(command)
+		{
+			case 1: // GetFrameInfo
+			{
+				int start = r.readInt();
+				int length = r.readInt();
+				checkSuspended();
+				List<SimulatedProgram.Frame> frames = thread.frames();
+				int end = length < 0 ? frames.size() : Math.min(frames.size(), start + length);
+				int count = Math.max(0, end - start);
+				w.writeInt(count);
+				for(int i = start; i < end; i++)
+				{
+					SimulatedProgram.Frame frame = frames.get(i);
+					w.writeInt(frame.id());
+					writeLocation(w, frame);
+					w.writeByte(0);
+				}
+				break;
+			}
+			case 2: // GetName
+				w.writeString(thread.name());
+				break;
+			case 3: // GetState
+				w.writeInt(mySuspendCount > 0 ? THREAD_STATE_SUSPENDED : 0);
+				break;
+			case 5: // GetId
+				w.writeLong(thread.id());
+				break;
+			case 6: // GetTId
+				w.writeLong(thread.tid());
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void arrayReference(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.ArrayInstance array = element(r.readInt(), SimulatedProgram.ArrayInstance.class);
+		switch(command)
+		{
+			case 1: // GetLength
+				w.writeInt(1);
+				w.writeInt(array.length());
+				w.writeInt(0);
+				break;
+			case 2: // GetValues
+			{
+				int index = r.readInt();
+				int length = r.readInt();
+				checkRange(array, index, length);
+				for(int i = index; i < index + length; i++)
+				{
+					w.writeValue(array.element(i));
+				}
+				break;
+			}
+			case 3: // SetValues
+			{
+				int index = r.readInt();
+				int length = r.readInt();
+				checkRange(array, index, length);
+				for(int i = index; i < index + length; i++)
+				{
+					array.setElement(i, r.readValue());
+				}
+				break;
+			}
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private static void checkRange(SimulatedProgram.ArrayInstance array, int index, int length)
+	{
+		if(index < 0 || length < 0 || index + length > array.length())
+		{
+			throw new CommandException(ERR_INVALID_ARGUMENT);
+		}
+	}
+
+	private void eventRequest(int command, Reader r, Writer w)
+	{
+		switch(command)
+		{
+			case 1: // Set
+			{
+				int kind = r.readUByte();
+				int policy = r.readUByte();
+				if(kind >= EventKind.values().length || policy >= SuspendPolicy.values().length)
+				{
+					throw new CommandException(ERR_INVALID_ARGUMENT);
+				}
+				Request request = new Request(++myNextRequestId, EventKind.values()[kind], SuspendPolicy.values()[policy]);
+				int modifiers = r.readUByte();
+				for(int i = 0; i < modifiers; i++)
+				{
+					readModifier(r, request);
+				}
+				myRequests.put(request.id, request);
+				w.writeInt(request.id);
+				break;
+			}
+			case 2: // Clear
+			{
+				int kind = r.readUByte();
+				Request request = myRequests.get(r.readInt());
+				if(request != null && request.kind.ordinal() == kind)
+				{
+					myRequests.remove(request.id);
+				}
+				break;
+			}
+			case 3: // ClearAllBreakpoints
+				myRequests.values().removeIf(request -> request.kind == EventKind.BREAKPOINT);
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void readModifier(Reader r, Request request)
+	{
+		int kind = r.readUByte();
+		switch(kind)
+		{
+			case MOD_COUNT:
+				request.count = r.readInt();
+				break;
+			case MOD_THREAD_ONLY:
+				request.threadId = r.readInt();
+				break;
+			case MOD_LOCATION_ONLY:
+				request.methodId = r.readInt();
+				request.codeIndex = r.readLong();
+				break;
+			case MOD_EXCEPTION_ONLY:
+				request.exceptionTypeId = r.readInt();
+				request.caught = r.readUByte() != 0;
+				request.uncaught = r.readUByte() != 0;
+				request.subclasses = r.readUByte() != 0;
+				break;
+			case MOD_STEP:
+				request.stepThreadId = r.readInt();
+				r.readInt(); // size
+				r.readInt(); // depth
+				r.readInt(); // filter
+				break;
+			case MOD_ASSEMBLY_ONLY:
+			{
+				int count = r.readInt();
+				request.assemblyIds = new int[count];
+				for(int i = 0; i < count; i++)
+				{
+					request.assemblyIds[i] = r.readInt();
+				}
+				break;
+			}
+			case MOD_SOURCE_FILE_MATCH:
+				request.sourceFiles = r.readStrings();
+				break;
+			case MOD_TYPE_NAME_FILTER:
+				request.typeNames = r.readStrings();
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void stackFrame(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Thread thread = thread(r.readInt());
+		int frameId = r.readInt();
+		checkSuspended();
+		SimulatedProgram.Frame frame = myProgram.element(frameId, SimulatedProgram.Frame.class);
+		if(frame == null || !thread.frames().contains(frame))
+		{
+			throw new CommandException(ERR_INVALID_FRAMEID);
+		}
+		switch(command)
+		{
+			case 1: // GetValues
+			{
+				int count = r.readInt();
+				for(int i = 0; i < count; i++)
+				{
+					w.writeValue(frameValue(frame, r.readInt(), null));
+				}
+				break;
+			}
+			case 2: // GetThis
+				w.writeValue(frame.thisValue());
+				break;
+			case 3: // SetValues
+			{
+				int count = r.readInt();
+				int[] positions = new int[count];
+				for(int i = 0; i < count; i++)
+				{
+					positions[i] = r.readInt();
+				}
+				for(int i = 0; i < count; i++)
+				{
+					frameValue(frame, positions[i], r.readValue());
+				}
+				break;
+			}
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	/*
+	 * Reads, or writes if value is not null, a local (position >= 0) or an argument (position -1 is the first)
+	 */
+	private static SimulatedValue frameValue(SimulatedProgram.Frame frame, int position, @Nullable SimulatedValue value)
+	{
+		try
+		{
+			if(position >= 0)
+			{
+				if(value != null)
+				{
+					frame.setLocal(position, value);
+				}
+				return frame.local(position);
+			}
+			if(value != null)
+			{
+				frame.setArgument(-position - 1, value);
+			}
+			return frame.argument(-position - 1);
+		}
+		catch(ArrayIndexOutOfBoundsException e)
+		{
+			throw new CommandException(ERR_INVALID_ARGUMENT);
+		}
+	}
+
+	private void appDomain(int command, Reader r, Writer w)
+	{
+		if(command == 1) // GetRootDomain
+		{
+			w.writeInt(myProgram.rootDomain().id());
+			return;
+		}
+
+		SimulatedProgram.Domain domain = element(r.readInt(), SimulatedProgram.Domain.class);
+		switch(command)
+		{
+			case 2: // GetFriendlyName
+				w.writeString(domain.friendlyName());
+				break;
+			case 3: // GetAssemblies
+				writeIds(w, domain.assemblies());
+				break;
+			case 4: // GetEntryAssembly
+				SimulatedProgram.Assembly entryAssembly = myProgram.entryAssembly();
+				w.writeInt(entryAssembly == null ? 0 : entryAssembly.id());
+				break;
+			case 5: // CreateString
+				w.writeInt(myProgram.newString(r.readString()).id());
+				break;
+			case 6: // GetCorlib
+				w.writeInt(myProgram.corlib().id());
+				break;
+			case 7: // CreateBoxValue
+			{
+				SimulatedProgram.Type type = element(r.readInt(), SimulatedProgram.Type.class);
+				SimulatedValue value = r.readValue();
+				SimulatedProgram.Instance box = myProgram.newObject(type);
+				SimulatedProgram.Field field = type.fields().isEmpty() ? type.addField("m_value", type) : type.fields().get(0);
+				box.setFieldValue(field, value);
+				w.writeInt(box.id());
+				break;
+			}
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void assembly(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Assembly assembly = element(r.readInt(), SimulatedProgram.Assembly.class);
+		switch(command)
+		{
+			case 1: // GetLocation
+				w.writeString(assembly.location());
+				break;
+			case 5: // GetType
+			{
+				String name = r.readString();
+				boolean ignoreCase = r.readUByte() != 0;
+				int id = 0;
+				for(SimulatedProgram.Type type : assembly.types())
+				{
+					if(ignoreCase ? type.fullName().equalsIgnoreCase(name) : type.fullName().equals(name))
+					{
+						id = type.id();
+						break;
+					}
+				}
+				w.writeInt(id);
+				break;
+			}
+			case 6: // GetName
+				w.writeString(assembly.name());
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void method(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Method method = element(r.readInt(), SimulatedProgram.Method.class);
+		switch(command)
+		{
+			case 1: // GetName
+				w.writeString(method.name());
+				break;
+			case 2: // GetDeclarationType
+				w.writeInt(method.declaringType().id());
+				break;
+			case 3: // GetDebugInfo
+			{
+				List<SimulatedProgram.LineEntry> lines = method.lines();
+				int maxIndex = 0;
+				for(SimulatedProgram.LineEntry line : lines)
+				{
+					maxIndex = Math.max(maxIndex, line.offset());
+				}
+				w.writeInt(maxIndex);
+				String sourceFile = method.sourceFile();
+				if(sourceFile == null)
+				{
+					w.writeInt(0);
+				}
+				else
+				{
+					w.writeInt(1);
+					w.writeString(sourceFile);
+					// no checksum
+					w.writeBytes(new byte[16]);
+				}
+				w.writeInt(lines.size());
+				for(SimulatedProgram.LineEntry line : lines)
+				{
+					w.writeInt(line.offset());
+					w.writeInt(line.line());
+					w.writeInt(sourceFile == null ? -1 : 0);
+					// column, end line and end column
+					w.writeInt(1);
+					w.writeInt(line.line());
+					w.writeInt(1);
+				}
+				break;
+			}
+			case 4: // GetParamInfo
+			{
+				List<SimulatedProgram.Variable> parameters = method.parameters();
+				w.writeInt(0); // call convention
+				w.writeInt(parameters.size());
+				w.writeInt(0); // generic parameters
+				w.writeInt(method.returnType().id());
+				for(SimulatedProgram.Variable parameter : parameters)
+				{
+					w.writeInt(parameter.type().id());
+				}
+				for(SimulatedProgram.Variable parameter : parameters)
+				{
+					w.writeString(parameter.name());
+				}
+				break;
+			}
+			case 5: // GetLocalsInfo
+			{
+				List<SimulatedProgram.Variable> locals = method.locals();
+				int end = 0;
+				for(SimulatedProgram.LineEntry line : method.lines())
+				{
+					end = Math.max(end, line.offset());
+				}
+				w.writeInt(0); // scopes
+				w.writeInt(locals.size());
+				for(SimulatedProgram.Variable local : locals)
+				{
+					w.writeInt(local.type().id());
+				}
+				for(SimulatedProgram.Variable local : locals)
+				{
+					w.writeString(local.name());
+				}
+				for(int i = 0; i < locals.size(); i++)
+				{
+					w.writeInt(0);
+					w.writeInt(end + 1);
+				}
+				break;
+			}
+			case 6: // GetInfo
+				w.writeInt(method.attributes());
+				w.writeInt(0); // implementation attributes
+				w.writeInt(method.token());
+				break;
+			case 9: // GetCustomAttributes
+				r.readInt();
+				w.writeInt(0);
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private void type(int command, Reader r, Writer w)
+	{
+		SimulatedProgram.Type type = element(r.readInt(), SimulatedProgram.Type.class);
+		switch(command)
+		{
+			case 1: // GetInfo
+			{
+				SimulatedProgram.Type baseType = type.baseType();
+				w.writeString(type.namespace());
+				w.writeString(type.name());
+				w.writeString(type.fullName());
+				w.writeInt(type.assembly().id());
+				w.writeInt(type.assembly().id()); // module
+				w.writeInt(baseType == null ? 0 : baseType.id());
+				w.writeInt(0); // element type
+				w.writeInt(type.token());
+				w.writeByte(0); // rank
+				w.writeInt(type.attributes());
+				int runtimeAttributes = (type.isPrimitive() ? 4 : 0) | (type.isValueType() ? 8 : 0);
+				w.writeByte(runtimeAttributes);
+				w.writeInt(0); // nested types
+				w.writeInt(0); // generic type definition
+				break;
+			}
+			case 2: // GetMethods
+				writeIds(w, type.methods());
+				break;
+			case 3: // GetFields
+			{
+				List<SimulatedProgram.Field> fields = type.fields();
+				w.writeInt(fields.size());
+				for(SimulatedProgram.Field field : fields)
+				{
+					w.writeInt(field.id());
+					w.writeString(field.name());
+					w.writeInt(field.type().id());
+					w.writeInt(field.attributes());
+				}
+				break;
+			}
+			case 4: // GetValues
+			{
+				int count = r.readInt();
+				for(int i = 0; i < count; i++)
+				{
+					w.writeValue(staticField(type, r.readInt()).staticValue());
+				}
+				break;
+			}
+			case 7: // SetValues
+			{
+				int count = r.readInt();
+				for(int i = 0; i < count; i++)
+				{
+					SimulatedProgram.Field field = staticField(type, r.readInt());
+					field.setStaticValue(r.readValue());
+				}
+				break;
+			}
+			case 8: // IsAssignableFrom
+				w.writeByte(type.isAssignableFrom(element(r.readInt(), SimulatedProgram.Type.class)) ? 1 : 0);
+				break;
+			case 9: // GetProperties
+			case 16: // GetInterfaces
+				w.writeInt(0);
+				break;
+			case 10: // GetCustomAttributes
+				r.readInt();
+				w.writeInt(0);
+				break;
+			case 11: // GetFieldCustomAttributes
+			case 12: // GetPropertyCustomAttributes
+				r.readInt();
+				r.readInt();
+				w.writeInt(0);
+				break;
+			default:
+				throw new CommandException(ERR_NOT_IMPLEMENTED);
+		}
+	}
+
+	private static SimulatedProgram.Field staticField(SimulatedProgram.Type type, int fieldId)
+	{
+		SimulatedProgram.Field field = type.findField(fieldId);
+		if(field == null || !field.isStatic())
+		{
+			throw new CommandException(ERR_INVALID_FIELDID);
+		}
+		return field;
+	}
+
+	private SimulatedProgram.Thread thread(int id)
+	{
+		SimulatedProgram.Thread thread = element(id, SimulatedProgram.Thread.class);
+		if(!myProgram.threads().contains(thread))
+		{
+			throw new CommandException(ERR_INVALID_OBJECT);
+		}
+		return thread;
+	}
+
+	private <T extends SimulatedProgram.Element> T element(int id, Class<T> kind)
+	{
+		T element = myProgram.element(id, kind);
+		if(element == null)
+		{
+			throw new CommandException(ERR_INVALID_OBJECT);
+		}
+		return element;
+	}
+
+	private static void writeIds(Writer w, List<? extends SimulatedProgram.Element> elements)
+	{
+		w.writeInt(elements.size());
+		for(SimulatedProgram.Element element : elements)
+		{
+			w.writeInt(element.id());
+		}
+	}
+
+	static boolean sameSourceFile(@Nullable String path, String query, boolean ignoreCase)
+	{
+		if(path == null)
+		{
+			return false;
+		}
+		if(ignoreCase ? path.equalsIgnoreCase(query) : path.equals(query))
+		{
+			return true;
+		}
+		String name = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+		return ignoreCase ? name.equalsIgnoreCase(query) : name.equals(query);
+	}
+
+	// -- codec
+
+	private class Reader
+	{
+		private final byte[] myData;
+		private int myPosition;
+
+		Reader(byte[] data)
+		{
+			myData = data;
+			// skip the length
+			myPosition = 4;
+		}
+
+		int readUByte()
+		{
+			if(myPosition >= myData.length)
+			{
+				throw new IndexOutOfBoundsException();
+			}
+			return myData[myPosition++] & 0xff;
+		}
+
+		int readInt()
+		{
+			return (readUByte() << 24) | (readUByte() << 16) | (readUByte() << 8) | readUByte();
+		}
+
+		long readLong()
+		{
+			return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+		}
+
+		String readString()
+		{
+			int length = readInt();
+			if(length < 0 || myPosition + length > myData.length)
+			{
+				throw new IndexOutOfBoundsException();
+			}
+			String value = new String(myData, myPosition, length, StandardCharsets.UTF_8);
+			myPosition += length;
+			return value;
+		}
+
+		String[] readStrings()
+		{
+			String[] strings = new String[readInt()];
+			for(int i = 0; i < strings.length; i++)
+			{
+				strings[i] = readString();
+			}
+			return strings;
+		}
+
+		SimulatedValue readValue()
+		{
+			int tag = readUByte();
+			switch(tag)
+			{
+				case SimulatedValue.TAG_NULL:
+					return SimulatedValue.NULL;
+				case SignatureConstants.ELEMENT_TYPE_BOOLEAN:
+				case SignatureConstants.ELEMENT_TYPE_CHAR:
+				case SignatureConstants.ELEMENT_TYPE_I1:
+				case SignatureConstants.ELEMENT_TYPE_U1:
+				case SignatureConstants.ELEMENT_TYPE_I2:
+				case SignatureConstants.ELEMENT_TYPE_U2:
+				case SignatureConstants.ELEMENT_TYPE_I4:
+				case SignatureConstants.ELEMENT_TYPE_U4:
+				case SignatureConstants.ELEMENT_TYPE_R4:
+					return SimulatedValue.ofPrimitive(tag, readInt());
+				case SignatureConstants.ELEMENT_TYPE_I8:
+				case SignatureConstants.ELEMENT_TYPE_U8:
+				case SignatureConstants.ELEMENT_TYPE_R8:
+					return SimulatedValue.ofPrimitive(tag, readLong());
+				case SignatureConstants.ELEMENT_TYPE_STRING:
+				case SignatureConstants.ELEMENT_TYPE_CLASS:
+				case SignatureConstants.ELEMENT_TYPE_OBJECT:
+				case SignatureConstants.ELEMENT_TYPE_SZARRAY:
+				case SignatureConstants.ELEMENT_TYPE_ARRAY:
+				{
+					int id = readInt();
+					return id == 0 ? SimulatedValue.NULL : SimulatedValue.of(element(id, SimulatedProgram.Instance.class));
+				}
+				default:
+					// value types are not modelled
+					throw new CommandException(ERR_NOT_IMPLEMENTED);
+			}
+		}
+	}
+
+	private static class Writer
+	{
+		private byte[] myData = new byte[64];
+		private int mySize = HEADER_SIZE;
+
+		private void ensure(int count)
+		{
+			if(mySize + count > myData.length)
+			{
+				myData = Arrays.copyOf(myData, Math.max(myData.length * 2, mySize + count));
+			}
+		}
+
+		void writeByte(int value)
+		{
+			ensure(1);
+			myData[mySize++] = (byte) value;
+		}
+
+		void writeInt(int value)
+		{
+			ensure(4);
+			myData[mySize++] = (byte) (value >>> 24);
+			myData[mySize++] = (byte) (value >>> 16);
+			myData[mySize++] = (byte) (value >>> 8);
+			myData[mySize++] = (byte) value;
+		}
+
+		void writeLong(long value)
+		{
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		void writeBytes(byte[] bytes)
+		{
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, myData, mySize, bytes.length);
+			mySize += bytes.length;
+		}
+
+		void writeString(String value)
+		{
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			writeBytes(bytes);
+		}
+
+		void writeValue(SimulatedValue value)
+		{
+			int tag = value.tag();
+			writeByte(tag);
+			switch(tag)
+			{
+				case SimulatedValue.TAG_NULL:
+				case SignatureConstants.ELEMENT_TYPE_VOID:
+					break;
+				case SignatureConstants.ELEMENT_TYPE_I8:
+				case SignatureConstants.ELEMENT_TYPE_U8:
+				case SignatureConstants.ELEMENT_TYPE_R8:
+					writeLong(value.bits());
+					break;
+				case SignatureConstants.ELEMENT_TYPE_PTR:
+					// the type of the pointer
+					writeInt(0);
+					writeLong(value.bits());
+					break;
+				default:
+					// ints, ids and float bits
+					writeInt((int) value.bits());
+					break;
+			}
+		}
+
+		byte[] toCommand(int id, int commandSet, int command)
+		{
+			return finish(id, 0, commandSet, command);
+		}
+
+		byte[] toReply(int id)
+		{
+			return finish(id, 0x80, 0, 0);
+		}
+
+		byte[] toError(int id, int errorCode)
+		{
+			return finish(id, 0x80, errorCode >>> 8, errorCode);
+		}
+
+		private byte[] finish(int id, int flags, int b9, int b10)
+		{
+			byte[] packet = Arrays.copyOf(myData, mySize);
+			packet[0] = (byte) (mySize >>> 24);
+			packet[1] = (byte) (mySize >>> 16);
+			packet[2] = (byte) (mySize >>> 8);
+			packet[3] = (byte) mySize;
+			packet[4] = (byte) (id >>> 24);
+			packet[5] = (byte) (id >>> 16);
+			packet[6] = (byte) (id >>> 8);
+			packet[7] = (byte) id;
+			packet[8] = (byte) flags;
+			packet[9] = (byte) b9;
+			packet[10] = (byte) b10;
+			return packet;
+		}
+	}
+}
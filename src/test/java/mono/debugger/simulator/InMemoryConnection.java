@@ -0,0 +1,105 @@
+package mono.debugger.simulator;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import jakarta.annotation.Nonnull;
+import mono.debugger.connect.spi.ClosedConnectionException;
+import mono.debugger.connect.spi.Connection;
+
+/**
+ * One end of a connection which hands packets to the other end through a queue, without sockets and
+ * without a handshake. Packets written are copied, so the writer may reuse its array.
+ * <p/>
+ * Closing either end closes both, the other end reads end of stream.
+ *
+ * @since 2026-10-19
+ */
+public class InMemoryConnection extends Connection
+{
+	private static final byte[] EOF = new byte[0];
+
+	private final BlockingQueue<byte[]> myInbox = new LinkedBlockingQueue<byte[]>();
+	private InMemoryConnection myPeer;
+	private volatile boolean myClosed;
+
+	private InMemoryConnection()
+	{
+	}
+
+	/**
+	 * @return two connected ends, by convention the first one for the debugger and the second one for the agent
+	 */
+	@Nonnull
+	public static InMemoryConnection[] pair()
+	{
+		InMemoryConnection debugger = new InMemoryConnection();
+		InMemoryConnection agent = new InMemoryConnection();
+		debugger.myPeer = agent;
+		agent.myPeer = debugger;
+		return new InMemoryConnection[]{debugger, agent};
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException
+	{
+		if(myClosed && myInbox.isEmpty())
+		{
+			throw new ClosedConnectionException("connection is closed");
+		}
+		try
+		{
+			return myInbox.take();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted");
+		}
+	}
+
+	@Override
+	public void writePacket(byte[] b) throws IOException
+	{
+		if(myClosed)
+		{
+			throw new ClosedConnectionException("connection is closed");
+		}
+		if(b.length < 11)
+		{
+			throw new IllegalArgumentException("packet is insufficient size");
+		}
+		int length = ((b[0] & 0xff) << 24) | ((b[1] & 0xff) << 16) | ((b[2] & 0xff) << 8) | (b[3] & 0xff);
+		if(length < 11 || length > b.length)
+		{
+			throw new IllegalArgumentException("length mis-match");
+		}
+		byte[] copy = new byte[length];
+		System.arraycopy(b, 0, copy, 0, length);
+		myPeer.myInbox.add(copy);
+	}
+
+	@Override
+	public void close()
+	{
+		closeEnd();
+		myPeer.closeEnd();
+	}
+
+	private void closeEnd()
+	{
+		if(!myClosed)
+		{
+			myClosed = true;
+			// wakes up a reader, which sees end of stream
+			myInbox.add(EOF);
+		}
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return !myClosed;
+	}
+}
@@ -0,0 +1,949 @@
+package mono.debugger.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import consulo.internal.dotnet.asm.signature.FieldAttributes;
+import consulo.internal.dotnet.asm.signature.MethodAttributes;
+import consulo.internal.dotnet.asm.signature.TypeAttributes;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Synthetic program run by an {@link AgentSimulator}: a root domain with assemblies, types, methods,
+ * threads with their stacks, and heap objects.
+ * <p/>
+ * The program is built by a script before the debugger connects. While the debugger is connected it must only be
+ * changed through the script methods of {@link AgentSimulator}, or while the simulated VM is suspended, because
+ * commands read it on the simulator thread.
+ * <p/>
+ * All mirrors share one id space, so an id of the wrong kind is always rejected like in the runtime.
+ *
+ * @since 2026-10-19
+ */
+public class SimulatedProgram
+{
+	// public access of fields and methods, ECMA-335 II.23.1.5 and II.23.1.10
+	private static final int MEMBER_PUBLIC = 0x0006;
+
+	public abstract static class Element
+	{
+		private final int myId;
+
+		Element(SimulatedProgram program)
+		{
+			myId = program.myIds.incrementAndGet();
+			program.myElements.put(myId, this);
+		}
+
+		public int id()
+		{
+			return myId;
+		}
+	}
+
+	public static class Domain extends Element
+	{
+		private final String myFriendlyName;
+		private final List<Assembly> myAssemblies = new CopyOnWriteArrayList<Assembly>();
+
+		Domain(SimulatedProgram program, String friendlyName)
+		{
+			super(program);
+			myFriendlyName = friendlyName;
+		}
+
+		public String friendlyName()
+		{
+			return myFriendlyName;
+		}
+
+		public List<Assembly> assemblies()
+		{
+			return myAssemblies;
+		}
+	}
+
+	public static class Assembly extends Element
+	{
+		private final SimulatedProgram myProgram;
+		private final String myName;
+		private final String myLocation;
+		private final List<Type> myTypes = new CopyOnWriteArrayList<Type>();
+
+		Assembly(SimulatedProgram program, String name, String location)
+		{
+			super(program);
+			myProgram = program;
+			myName = name;
+			myLocation = location;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public String location()
+		{
+			return myLocation;
+		}
+
+		public List<Type> types()
+		{
+			return myTypes;
+		}
+
+		/**
+		 * Adds a public class deriving from System.Object
+		 */
+		@Nonnull
+		public Type addType(@Nonnull String namespace, @Nonnull String name)
+		{
+			return addType(namespace, name, myProgram.myObjectType);
+		}
+
+		@Nonnull
+		public Type addType(@Nonnull String namespace, @Nonnull String name, @Nullable Type baseType)
+		{
+			Type type = new Type(myProgram, this, namespace, name, baseType);
+			myTypes.add(type);
+			return type;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myName;
+		}
+	}
+
+	public static class Type extends Element
+	{
+		private final SimulatedProgram myProgram;
+		private final Assembly myAssembly;
+		private final String myNamespace;
+		private final String myName;
+		private final Type myBaseType;
+		private final int myToken;
+		private int myAttributes = TypeAttributes.Public;
+		private boolean myValueType;
+		private boolean myPrimitive;
+		private final List<Field> myFields = new CopyOnWriteArrayList<Field>();
+		private final List<Method> myMethods = new CopyOnWriteArrayList<Method>();
+
+		Type(SimulatedProgram program, Assembly assembly, String namespace, String name, Type baseType)
+		{
+			super(program);
+			myProgram = program;
+			myAssembly = assembly;
+			myNamespace = namespace;
+			myName = name;
+			myBaseType = baseType;
+			myToken = 0x02000000 | (assembly.myTypes.size() + 2);
+		}
+
+		public Assembly assembly()
+		{
+			return myAssembly;
+		}
+
+		public String namespace()
+		{
+			return myNamespace;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public String fullName()
+		{
+			return myNamespace.isEmpty() ? myName : myNamespace + "." + myName;
+		}
+
+		@Nullable
+		public Type baseType()
+		{
+			return myBaseType;
+		}
+
+		public int token()
+		{
+			return myToken;
+		}
+
+		public int attributes()
+		{
+			return myAttributes;
+		}
+
+		public Type setAttributes(int attributes)
+		{
+			myAttributes = attributes;
+			return this;
+		}
+
+		public boolean isValueType()
+		{
+			return myValueType;
+		}
+
+		public boolean isPrimitive()
+		{
+			return myPrimitive;
+		}
+
+		public List<Field> fields()
+		{
+			return myFields;
+		}
+
+		public List<Method> methods()
+		{
+			return myMethods;
+		}
+
+		@Nonnull
+		public Field addField(@Nonnull String name, @Nonnull Type type)
+		{
+			Field field = new Field(myProgram, this, name, type, MEMBER_PUBLIC);
+			myFields.add(field);
+			return field;
+		}
+
+		@Nonnull
+		public Field addStaticField(@Nonnull String name, @Nonnull Type type, @Nonnull SimulatedValue value)
+		{
+			Field field = new Field(myProgram, this, name, type, MEMBER_PUBLIC | FieldAttributes.Static);
+			field.myStaticValue = value;
+			myFields.add(field);
+			return field;
+		}
+
+		@Nonnull
+		public Method addMethod(@Nonnull String name, @Nonnull Type returnType)
+		{
+			Method method = new Method(myProgram, this, name, returnType, MEMBER_PUBLIC);
+			myMethods.add(method);
+			return method;
+		}
+
+		@Nonnull
+		public Method addStaticMethod(@Nonnull String name, @Nonnull Type returnType)
+		{
+			Method method = new Method(myProgram, this, name, returnType, MEMBER_PUBLIC | MethodAttributes.Static);
+			myMethods.add(method);
+			return method;
+		}
+
+		@Nullable
+		public Field findField(int id)
+		{
+			for(Type type = this; type != null; type = type.myBaseType)
+			{
+				for(Field field : type.myFields)
+				{
+					if(field.id() == id)
+					{
+						return field;
+					}
+				}
+			}
+			return null;
+		}
+
+		public boolean isAssignableFrom(@Nonnull Type other)
+		{
+			for(Type type = other; type != null; type = type.myBaseType)
+			{
+				if(type == this)
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String toString()
+		{
+			return fullName();
+		}
+	}
+
+	public static class Field extends Element
+	{
+		private final Type myDeclaringType;
+		private final String myName;
+		private final Type myType;
+		private final int myAttributes;
+		private volatile SimulatedValue myStaticValue = SimulatedValue.NULL;
+
+		Field(SimulatedProgram program, Type declaringType, String name, Type type, int attributes)
+		{
+			super(program);
+			myDeclaringType = declaringType;
+			myName = name;
+			myType = type;
+			myAttributes = attributes;
+		}
+
+		public Type declaringType()
+		{
+			return myDeclaringType;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public Type type()
+		{
+			return myType;
+		}
+
+		public int attributes()
+		{
+			return myAttributes;
+		}
+
+		public boolean isStatic()
+		{
+			return (myAttributes & FieldAttributes.Static) != 0;
+		}
+
+		public SimulatedValue staticValue()
+		{
+			return myStaticValue;
+		}
+
+		public void setStaticValue(@Nonnull SimulatedValue value)
+		{
+			myStaticValue = value;
+		}
+	}
+
+	public static final class Variable
+	{
+		private final String myName;
+		private final Type myType;
+
+		Variable(String name, Type type)
+		{
+			myName = name;
+			myType = type;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public Type type()
+		{
+			return myType;
+		}
+	}
+
+	/**
+	 * Sequence point of a method: IL offset and source line
+	 */
+	public static final class LineEntry
+	{
+		private final int myOffset;
+		private final int myLine;
+
+		LineEntry(int offset, int line)
+		{
+			myOffset = offset;
+			myLine = line;
+		}
+
+		public int offset()
+		{
+			return myOffset;
+		}
+
+		public int line()
+		{
+			return myLine;
+		}
+	}
+
+	public static class Method extends Element
+	{
+		private final Type myDeclaringType;
+		private final String myName;
+		private final Type myReturnType;
+		private final int myAttributes;
+		private final int myToken;
+		private final List<Variable> myParameters = new CopyOnWriteArrayList<Variable>();
+		private final List<Variable> myLocals = new CopyOnWriteArrayList<Variable>();
+		private final List<LineEntry> myLines = new CopyOnWriteArrayList<LineEntry>();
+		private volatile String mySourceFile;
+		private volatile Function<List<SimulatedValue>, SimulatedValue> myInvokeHandler;
+
+		Method(SimulatedProgram program, Type declaringType, String name, Type returnType, int attributes)
+		{
+			super(program);
+			myDeclaringType = declaringType;
+			myName = name;
+			myReturnType = returnType;
+			myAttributes = attributes;
+			myToken = 0x06000000 | program.myMethodTokens.incrementAndGet();
+		}
+
+		public Type declaringType()
+		{
+			return myDeclaringType;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public Type returnType()
+		{
+			return myReturnType;
+		}
+
+		public int attributes()
+		{
+			return myAttributes;
+		}
+
+		public boolean isStatic()
+		{
+			return (myAttributes & MethodAttributes.Static) != 0;
+		}
+
+		public int token()
+		{
+			return myToken;
+		}
+
+		public List<Variable> parameters()
+		{
+			return myParameters;
+		}
+
+		public List<Variable> locals()
+		{
+			return myLocals;
+		}
+
+		public List<LineEntry> lines()
+		{
+			return myLines;
+		}
+
+		@Nullable
+		public String sourceFile()
+		{
+			return mySourceFile;
+		}
+
+		public Method addParameter(@Nonnull String name, @Nonnull Type type)
+		{
+			myParameters.add(new Variable(name, type));
+			return this;
+		}
+
+		public Method addLocal(@Nonnull String name, @Nonnull Type type)
+		{
+			myLocals.add(new Variable(name, type));
+			return this;
+		}
+
+		/**
+		 * Sets the line table, as pairs of IL offset and line
+		 */
+		public Method setLines(@Nonnull String sourceFile, int... offsetsAndLines)
+		{
+			if(offsetsAndLines.length % 2 != 0)
+			{
+				throw new IllegalArgumentException("offsets and lines must come in pairs");
+			}
+			List<LineEntry> lines = new ArrayList<LineEntry>(offsetsAndLines.length / 2);
+			for(int i = 0; i < offsetsAndLines.length; i += 2)
+			{
+				lines.add(new LineEntry(offsetsAndLines[i], offsetsAndLines[i + 1]));
+			}
+			mySourceFile = sourceFile;
+			myLines.clear();
+			myLines.addAll(lines);
+			return this;
+		}
+
+		/**
+		 * @return offset of the first sequence point of the line, or -1
+		 */
+		public int offsetOfLine(int line)
+		{
+			for(LineEntry entry : myLines)
+			{
+				if(entry.myLine == line)
+				{
+					return entry.myOffset;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Sets what invoking the method from the debugger returns, it gets <code>this</code> and the arguments
+		 */
+		public Method setInvokeHandler(@Nullable Function<List<SimulatedValue>, SimulatedValue> invokeHandler)
+		{
+			myInvokeHandler = invokeHandler;
+			return this;
+		}
+
+		@Nullable
+		public Function<List<SimulatedValue>, SimulatedValue> invokeHandler()
+		{
+			return myInvokeHandler;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myDeclaringType.fullName() + "." + myName;
+		}
+	}
+
+	public static class Frame extends Element
+	{
+		private final Method myMethod;
+		private volatile int myOffset;
+		private final SimulatedValue[] myArguments;
+		private final SimulatedValue[] myLocals;
+		private volatile SimulatedValue myThis = SimulatedValue.NULL;
+
+		Frame(SimulatedProgram program, Method method, int offset)
+		{
+			super(program);
+			myMethod = method;
+			myOffset = offset;
+			myArguments = new SimulatedValue[method.myParameters.size()];
+			myLocals = new SimulatedValue[method.myLocals.size()];
+			Arrays.fill(myArguments, SimulatedValue.NULL);
+			Arrays.fill(myLocals, SimulatedValue.NULL);
+		}
+
+		public Method method()
+		{
+			return myMethod;
+		}
+
+		public int offset()
+		{
+			return myOffset;
+		}
+
+		public void setOffset(int offset)
+		{
+			myOffset = offset;
+		}
+
+		public SimulatedValue thisValue()
+		{
+			return myThis;
+		}
+
+		public Frame setThis(@Nonnull SimulatedValue value)
+		{
+			myThis = value;
+			return this;
+		}
+
+		public SimulatedValue argument(int index)
+		{
+			return myArguments[index];
+		}
+
+		public Frame setArgument(int index, @Nonnull SimulatedValue value)
+		{
+			myArguments[index] = value;
+			return this;
+		}
+
+		public SimulatedValue local(int index)
+		{
+			return myLocals[index];
+		}
+
+		public Frame setLocal(int index, @Nonnull SimulatedValue value)
+		{
+			myLocals[index] = value;
+			return this;
+		}
+	}
+
+	public static class Thread extends Element
+	{
+		private final SimulatedProgram myProgram;
+		private final String myName;
+		private final long myTid;
+		// top frame first
+		private final LinkedList<Frame> myFrames = new LinkedList<Frame>();
+
+		Thread(SimulatedProgram program, String name, long tid)
+		{
+			super(program);
+			myProgram = program;
+			myName = name;
+			myTid = tid;
+		}
+
+		public String name()
+		{
+			return myName;
+		}
+
+		public long tid()
+		{
+			return myTid;
+		}
+
+		/**
+		 * @return a copy of the stack, top frame first
+		 */
+		public List<Frame> frames()
+		{
+			synchronized(myFrames)
+			{
+				return new ArrayList<Frame>(myFrames);
+			}
+		}
+
+		@Nullable
+		public Frame topFrame()
+		{
+			synchronized(myFrames)
+			{
+				return myFrames.peekFirst();
+			}
+		}
+
+		@Nonnull
+		public Frame pushFrame(@Nonnull Method method, int offset)
+		{
+			Frame frame = new Frame(myProgram, method, offset);
+			synchronized(myFrames)
+			{
+				myFrames.addFirst(frame);
+			}
+			return frame;
+		}
+
+		@Nullable
+		public Frame popFrame()
+		{
+			Frame frame;
+			synchronized(myFrames)
+			{
+				frame = myFrames.pollFirst();
+			}
+			if(frame != null)
+			{
+				myProgram.myElements.remove(frame.id());
+			}
+			return frame;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myName;
+		}
+	}
+
+	public static class Instance extends Element
+	{
+		private final Type myType;
+		private final Map<Integer, SimulatedValue> myFieldValues = new ConcurrentHashMap<Integer, SimulatedValue>();
+
+		Instance(SimulatedProgram program, Type type)
+		{
+			super(program);
+			myType = type;
+		}
+
+		public Type type()
+		{
+			return myType;
+		}
+
+		@Nonnull
+		public SimulatedValue fieldValue(@Nonnull Field field)
+		{
+			return myFieldValues.getOrDefault(field.id(), SimulatedValue.NULL);
+		}
+
+		public Instance setFieldValue(@Nonnull Field field, @Nonnull SimulatedValue value)
+		{
+			myFieldValues.put(field.id(), value);
+			return this;
+		}
+
+		@Override
+		public String toString()
+		{
+			return myType.fullName() + "@" + id();
+		}
+	}
+
+	public static class StringInstance extends Instance
+	{
+		private final String myValue;
+
+		StringInstance(SimulatedProgram program, String value)
+		{
+			super(program, program.myStringType);
+			myValue = value;
+		}
+
+		public String value()
+		{
+			return myValue;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "\"" + myValue + "\"";
+		}
+	}
+
+	public static class ArrayInstance extends Instance
+	{
+		private final SimulatedValue[] myElements;
+
+		ArrayInstance(SimulatedProgram program, Type type, SimulatedValue[] elements)
+		{
+			super(program, type);
+			myElements = elements;
+		}
+
+		public int length()
+		{
+			return myElements.length;
+		}
+
+		public SimulatedValue element(int index)
+		{
+			return myElements[index];
+		}
+
+		public void setElement(int index, @Nonnull SimulatedValue value)
+		{
+			myElements[index] = value;
+		}
+	}
+
+	private final AtomicInteger myIds = new AtomicInteger();
+	private final AtomicInteger myMethodTokens = new AtomicInteger();
+	private final AtomicInteger myThreadTids = new AtomicInteger(0x1000);
+	private final Map<Integer, Element> myElements = new ConcurrentHashMap<Integer, Element>();
+
+	private final Domain myRootDomain;
+	private final Assembly myCorlib;
+	private final Type myObjectType;
+	private final Type myStringType;
+	private final Type myVoidType;
+	private final Type myBooleanType;
+	private final Type myInt32Type;
+	private final Type myInt64Type;
+	private final Type myDoubleType;
+	private final Type myExceptionType;
+	private final Type myArrayType;
+	private volatile Assembly myEntryAssembly;
+	private final List<Thread> myThreads = new CopyOnWriteArrayList<Thread>();
+
+	public SimulatedProgram()
+	{
+		myRootDomain = new Domain(this, "simulated.exe");
+		myCorlib = addAssembly("mscorlib, Version=4.0.0.0, Culture=neutral, PublicKeyToken=b77a5c561934e089", "/usr/lib/mono/4.5/mscorlib.dll");
+		myObjectType = myCorlib.addType("System", "Object", null);
+		Type valueType = myCorlib.addType("System", "ValueType");
+		myStringType = myCorlib.addType("System", "String");
+		myVoidType = primitive(valueType, "Void");
+		myBooleanType = primitive(valueType, "Boolean");
+		myInt32Type = primitive(valueType, "Int32");
+		myInt64Type = primitive(valueType, "Int64");
+		myDoubleType = primitive(valueType, "Double");
+		myExceptionType = myCorlib.addType("System", "Exception");
+		myArrayType = myCorlib.addType("System", "Array");
+	}
+
+	private Type primitive(Type valueType, String name)
+	{
+		Type type = myCorlib.addType("System", name, valueType);
+		type.myValueType = true;
+		type.myPrimitive = true;
+		return type;
+	}
+
+	public Domain rootDomain()
+	{
+		return myRootDomain;
+	}
+
+	public Assembly corlib()
+	{
+		return myCorlib;
+	}
+
+	public Type objectType()
+	{
+		return myObjectType;
+	}
+
+	public Type stringType()
+	{
+		return myStringType;
+	}
+
+	public Type voidType()
+	{
+		return myVoidType;
+	}
+
+	public Type booleanType()
+	{
+		return myBooleanType;
+	}
+
+	public Type int32Type()
+	{
+		return myInt32Type;
+	}
+
+	public Type int64Type()
+	{
+		return myInt64Type;
+	}
+
+	public Type doubleType()
+	{
+		return myDoubleType;
+	}
+
+	public Type exceptionType()
+	{
+		return myExceptionType;
+	}
+
+	public Type arrayType()
+	{
+		return myArrayType;
+	}
+
+	/**
+	 * @return the entry assembly, by default the first assembly added after the corlib
+	 */
+	@Nullable
+	public Assembly entryAssembly()
+	{
+		return myEntryAssembly;
+	}
+
+	public void setEntryAssembly(@Nonnull Assembly assembly)
+	{
+		myEntryAssembly = assembly;
+	}
+
+	@Nonnull
+	public Assembly addAssembly(@Nonnull String name, @Nonnull String location)
+	{
+		Assembly assembly = new Assembly(this, name, location);
+		myRootDomain.myAssemblies.add(assembly);
+		if(myCorlib != null && myEntryAssembly == null)
+		{
+			myEntryAssembly = assembly;
+		}
+		return assembly;
+	}
+
+	@Nonnull
+	public Thread addThread(@Nonnull String name)
+	{
+		Thread thread = new Thread(this, name, myThreadTids.incrementAndGet());
+		myThreads.add(thread);
+		return thread;
+	}
+
+	void removeThread(@Nonnull Thread thread)
+	{
+		myThreads.remove(thread);
+	}
+
+	public List<Thread> threads()
+	{
+		return myThreads;
+	}
+
+	@Nonnull
+	public Instance newObject(@Nonnull Type type)
+	{
+		return new Instance(this, type);
+	}
+
+	@Nonnull
+	public StringInstance newString(@Nonnull String value)
+	{
+		return new StringInstance(this, value);
+	}
+
+	@Nonnull
+	public ArrayInstance newArray(@Nonnull SimulatedValue... elements)
+	{
+		return new ArrayInstance(this, myArrayType, elements.clone());
+	}
+
+	@Nonnull
+	public SimulatedValue string(@Nonnull String value)
+	{
+		return SimulatedValue.of(newString(value));
+	}
+
+	/**
+	 * Forgets a heap object, later commands on it fail like on a collected object
+	 */
+	public void collect(@Nonnull Instance instance)
+	{
+		myElements.remove(instance.id());
+	}
+
+	@Nullable
+	<T extends Element> T element(int id, Class<T> kind)
+	{
+		Element element = myElements.get(id);
+		return kind.isInstance(element) ? kind.cast(element) : null;
+	}
+
+	/**
+	 * All types of all assemblies
+	 */
+	List<Type> allTypes()
+	{
+		List<Type> types = new ArrayList<Type>();
+		for(Assembly assembly : myRootDomain.myAssemblies)
+		{
+			types.addAll(assembly.myTypes);
+		}
+		return types;
+	}
+}
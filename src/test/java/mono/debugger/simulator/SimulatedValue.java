@@ -0,0 +1,134 @@
+package mono.debugger.simulator;
+
+import consulo.internal.dotnet.asm.signature.SignatureConstants;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * A value of the simulated program, as it goes over the wire
+ *
+ * @since 2026-10-19
+ */
+public final class SimulatedValue
+{
+	static final int TAG_NULL = 0xf0;
+
+	public static final SimulatedValue VOID = new SimulatedValue(SignatureConstants.ELEMENT_TYPE_VOID, 0, null);
+	public static final SimulatedValue NULL = new SimulatedValue(TAG_NULL, 0, null);
+
+	private final int myTag;
+	private final long myBits;
+	private final SimulatedProgram.Instance myInstance;
+
+	private SimulatedValue(int tag, long bits, SimulatedProgram.Instance instance)
+	{
+		myTag = tag;
+		myBits = bits;
+		myInstance = instance;
+	}
+
+	@Nonnull
+	public static SimulatedValue ofBoolean(boolean value)
+	{
+		return new SimulatedValue(SignatureConstants.ELEMENT_TYPE_BOOLEAN, value ? 1 : 0, null);
+	}
+
+	@Nonnull
+	public static SimulatedValue ofChar(char value)
+	{
+		return new SimulatedValue(SignatureConstants.ELEMENT_TYPE_CHAR, value, null);
+	}
+
+	@Nonnull
+	public static SimulatedValue ofInt(int value)
+	{
+		return new SimulatedValue(SignatureConstants.ELEMENT_TYPE_I4, value, null);
+	}
+
+	@Nonnull
+	public static SimulatedValue ofLong(long value)
+	{
+		return new SimulatedValue(SignatureConstants.ELEMENT_TYPE_I8, value, null);
+	}
+
+	@Nonnull
+	public static SimulatedValue ofDouble(double value)
+	{
+		return new SimulatedValue(SignatureConstants.ELEMENT_TYPE_R8, Double.doubleToRawLongBits(value), null);
+	}
+
+	/**
+	 * Number with any primitive tag, <code>bits</code> holds the value as written by the protocol
+	 */
+	@Nonnull
+	public static SimulatedValue ofPrimitive(int tag, long bits)
+	{
+		return new SimulatedValue(tag, bits, null);
+	}
+
+	/**
+	 * Reference to an object, string or array, or {@link #NULL}
+	 */
+	@Nonnull
+	public static SimulatedValue of(@Nullable SimulatedProgram.Instance instance)
+	{
+		if(instance == null)
+		{
+			return NULL;
+		}
+		int tag;
+		if(instance instanceof SimulatedProgram.StringInstance)
+		{
+			tag = SignatureConstants.ELEMENT_TYPE_STRING;
+		}
+		else if(instance instanceof SimulatedProgram.ArrayInstance)
+		{
+			tag = SignatureConstants.ELEMENT_TYPE_SZARRAY;
+		}
+		else
+		{
+			tag = SignatureConstants.ELEMENT_TYPE_CLASS;
+		}
+		return new SimulatedValue(tag, instance.id(), instance);
+	}
+
+	public int tag()
+	{
+		return myTag;
+	}
+
+	public long bits()
+	{
+		return myBits;
+	}
+
+	@Nullable
+	public SimulatedProgram.Instance instance()
+	{
+		return myInstance;
+	}
+
+	@Override
+	public String toString()
+	{
+		if(myInstance != null)
+		{
+			return myInstance.toString();
+		}
+		switch(myTag)
+		{
+			case TAG_NULL:
+				return "null";
+			case SignatureConstants.ELEMENT_TYPE_VOID:
+				return "void";
+			case SignatureConstants.ELEMENT_TYPE_BOOLEAN:
+				return String.valueOf(myBits != 0);
+			case SignatureConstants.ELEMENT_TYPE_R4:
+				return String.valueOf(Float.intBitsToFloat((int) myBits));
+			case SignatureConstants.ELEMENT_TYPE_R8:
+				return String.valueOf(Double.longBitsToDouble(myBits));
+			default:
+				return String.valueOf(myBits);
+		}
+	}
+}
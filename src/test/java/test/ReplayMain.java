@@ -0,0 +1,86 @@
+package test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import mono.debugger.Bootstrap;
+import mono.debugger.LocalVariableMirror;
+import mono.debugger.MethodMirror;
+import mono.debugger.RecordingConnection;
+import mono.debugger.ReplayConnection;
+import mono.debugger.StackFrameMirror;
+import mono.debugger.ThreadMirror;
+import mono.debugger.TypeMirror;
+import mono.debugger.VirtualMachine;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+import mono.debugger.simulator.SimulatedValue;
+
+/**
+ * Records a session with the agent simulator, then replays it without the simulator, as fast as possible and at
+ * the original speed
+ *
+ * @since 2026-10-19
+ */
+public class ReplayMain
+{
+	public static void main(String[] args) throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		SimulatedProgram.Type type = program.addAssembly("Program", "/tmp/Program.exe").addType("", "Program");
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).addLocal("count", program.int32Type()).setLines("/tmp/Program.cs", 0, 10, 6, 11);
+		for(int i = 0; i < 20; i++)
+		{
+			program.addThread("Worker " + i).pushFrame(main, 6).setLocal(0, SimulatedValue.ofInt(i));
+		}
+
+		Path journal = Files.createTempFile("session", ".journal");
+		try
+		{
+			AgentSimulator simulator = new AgentSimulator(program);
+			simulator.setLatency(500, TimeUnit.MICROSECONDS);
+			long start = System.nanoTime();
+			VirtualMachine vm = Bootstrap.virtualMachineManager().createVirtualMachine(new RecordingConnection(simulator.startInMemory(), journal));
+			String recorded = steps(vm);
+			vm.dispose();
+			simulator.close();
+			System.out.printf("recorded: %.1f ms, %d bytes of journal%n", (System.nanoTime() - start) / 1e6, Files.size(journal));
+
+			for(boolean originalSpeed : new boolean[]{false, true})
+			{
+				start = System.nanoTime();
+				ReplayConnection connection = new ReplayConnection(journal, originalSpeed);
+				vm = Bootstrap.virtualMachineManager().createVirtualMachine(connection);
+				String replayed = steps(vm);
+				vm.dispose();
+				System.out.printf("replayed %s: %.1f ms, %d commands matched, same result: %b%n", originalSpeed ? "at original speed" : "as fast as possible",
+						(System.nanoTime() - start) / 1e6, connection.matchedCommandCount(), recorded.equals(replayed));
+			}
+		}
+		finally
+		{
+			Files.delete(journal);
+		}
+	}
+
+	private static String steps(VirtualMachine vm)
+	{
+		StringBuilder result = new StringBuilder(vm.version().toString());
+		TypeMirror type = vm.findTypesByQualifiedName("Program", false)[0];
+		for(ThreadMirror thread : vm.allThreads())
+		{
+			result.append('\n').append(thread.name());
+			for(StackFrameMirror frame : thread.frames())
+			{
+				MethodMirror method = frame.location().method();
+				result.append(' ').append(type.name()).append('.').append(method.name()).append(':').append(frame.location().lineNumber());
+				for(LocalVariableMirror local : method.locals())
+				{
+					result.append(' ').append(local.name()).append('=').append(frame.localOrParameterValue(local).value());
+				}
+			}
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,132 @@
+package test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import mono.debugger.Bootstrap;
+import mono.debugger.LocalVariableMirror;
+import mono.debugger.LocationImpl;
+import mono.debugger.MethodMirror;
+import mono.debugger.ProtocolMetrics;
+import mono.debugger.SocketTransportService;
+import mono.debugger.StackFrameMirror;
+import mono.debugger.TypeMirror;
+import mono.debugger.Value;
+import mono.debugger.VirtualMachine;
+import mono.debugger.connect.spi.Connection;
+import mono.debugger.event.BreakpointEvent;
+import mono.debugger.event.Event;
+import mono.debugger.event.EventSet;
+import mono.debugger.protocol.Method_GetDebugInfo;
+import mono.debugger.request.BreakpointRequest;
+import mono.debugger.simulator.AgentSimulator;
+import mono.debugger.simulator.SimulatedProgram;
+import mono.debugger.simulator.SimulatedValue;
+
+/**
+ * Same steps as {@link Main}, against the agent simulator: in memory, then over a socket with some latency
+ *
+ * @since 2026-10-19
+ */
+public class SimulatorMain
+{
+	public static void main(String[] args) throws Exception
+	{
+		run(false);
+		run(true);
+	}
+
+	private static void run(boolean socket) throws Exception
+	{
+		SimulatedProgram program = new SimulatedProgram();
+		SimulatedProgram.Assembly assembly = program.addAssembly("Program", "/tmp/Program.exe");
+		SimulatedProgram.Type type = assembly.addType("", "Program");
+		SimulatedProgram.Method main = type.addStaticMethod("Main", program.voidType()).addParameter("args", program.arrayType()).addLocal("count", program.int32Type()).setLines("/tmp/Program.cs", 0, 52, 6, 53, 12, 54, 20, 55);
+		type.addMethod("ToString", program.stringType()).setInvokeHandler(arguments -> program.string("Program instance"));
+
+		SimulatedProgram.Thread mainThread = program.addThread("Main Thread");
+		SimulatedProgram.Frame frame = mainThread.pushFrame(main, 0);
+		frame.setLocal(0, SimulatedValue.ofInt(42)).setThis(SimulatedValue.of(program.newObject(type)));
+
+		AgentSimulator simulator = new AgentSimulator(program);
+		Connection connection;
+		if(socket)
+		{
+			simulator.setLatency(200, TimeUnit.MICROSECONDS);
+			SocketTransportService transportService = new SocketTransportService();
+			String address = simulator.listen(transportService, "127.0.0.1:0");
+			connection = transportService.attach(address, 10_000, 10_000);
+		}
+		else
+		{
+			connection = simulator.startInMemory();
+		}
+
+		long start = System.nanoTime();
+		VirtualMachine vm = Bootstrap.virtualMachineManager().createVirtualMachine(connection);
+		ProtocolMetrics metrics = vm.protocolMetrics();
+		ObjectName objectName = metrics.registerMBean();
+		System.out.println((socket ? "socket" : "in memory") + ": " + vm.version());
+
+		TypeMirror typeMirror = vm.findTypesByQualifiedName("Program", false)[0];
+		MethodMirror m = null;
+		int index = -1;
+		for(MethodMirror methodMirror : typeMirror.methods())
+		{
+			if("Main".equals(methodMirror.name()))
+			{
+				m = methodMirror;
+				for(Method_GetDebugInfo.Entry entry : methodMirror.debugInfo())
+				{
+					if(entry.line == 54)
+					{
+						index = entry.offset;
+					}
+				}
+			}
+		}
+
+		BreakpointRequest breakpointRequest = vm.eventRequestManager().createBreakpointRequest(new LocationImpl(vm, m, index));
+		breakpointRequest.enable();
+		vm.resume();
+
+		simulator.awaitResume(10, TimeUnit.SECONDS);
+		simulator.hitBreakpoint(mainThread, index);
+
+		EventSet eventSet;
+		// skips the VM start
+		while(!((eventSet = vm.eventQueue().remove()).iterator().next() instanceof BreakpointEvent))
+		{
+		}
+		for(Event event : eventSet)
+		{
+			if(event instanceof BreakpointEvent)
+			{
+				for(StackFrameMirror frameMirror : eventSet.eventThread().frames())
+				{
+					System.out.println("frame: " + frameMirror.location().method() + " line " + frameMirror.location().lineNumber());
+					for(LocalVariableMirror local : frameMirror.location().method().locals())
+					{
+						System.out.println("  " + local.name() + " = " + frameMirror.localOrParameterValue(local).value());
+					}
+					Value<?> invoke = typeMirror.findMethodByName("ToString", false).invokeNew(frameMirror.thread(), frameMirror.thisObject()).getValue();
+					System.out.println("  this.ToString() = " + invoke.value());
+				}
+			}
+		}
+		vm.resume();
+
+		simulator.awaitResume(10, TimeUnit.SECONDS);
+		System.out.println("MBean " + objectName + ": " + ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "CommandCount") + " commands");
+		for(ProtocolMetrics.CommandStatistics statistics : metrics.commandStatistics().subList(0, 3))
+		{
+			System.out.println("  " + statistics);
+		}
+		System.out.println("  events " + metrics.eventCounts());
+		simulator.exit(0);
+		System.out.println("death: " + vm.eventQueue().remove().iterator().next().getClass().getSimpleName());
+		System.out.printf("%d commands, %d bytes in, %d bytes out, %.1f ms%n", simulator.commandCount(), simulator.bytesReceived(), simulator.bytesSent(), (System.nanoTime() - start) / 1e6);
+	}
+}
@@ -0,0 +1,125 @@
+package test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import mono.debugger.SocketTransportService;
+import mono.debugger.UnixDomainSocketTransportService;
+import mono.debugger.connect.spi.Connection;
+import mono.debugger.connect.spi.TransportService;
+
+/**
+ * Round trip latency of the Unix domain socket transport against the TCP loopback transport. A thread plays
+ * the debuggee and answers every command packet with a reply of the same size.
+ * <p/>
+ * Arguments: [round trips] [packet size]
+ *
+ * @since 2026-10-19
+ */
+public class TransportLatencyBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		int roundTrips = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int packetSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+		for(int i = 0; i < 2; i++)
+		{
+			// the first pass warms up
+			boolean print = i == 1;
+			run("tcp loopback", new SocketTransportService(), "127.0.0.1:0", roundTrips, packetSize, print);
+			run("unix domain", new UnixDomainSocketTransportService(), "", roundTrips, packetSize, print);
+		}
+	}
+
+	private static void run(String name, TransportService service, String address, int roundTrips, int packetSize, boolean print) throws Exception
+	{
+		TransportService.ListenKey key = service.startListening(address);
+		SocketAddress peerAddress = service instanceof UnixDomainSocketTransportService ? UnixDomainSocketAddress.of(key.address()) : new InetSocketAddress("127.0.0.1", Integer.parseInt(key.address().substring(key.address().lastIndexOf(':') + 1)));
+
+		Thread debuggee = new Thread(() -> echo(peerAddress), "Benchmark Debuggee");
+		debuggee.start();
+
+		Connection connection = service.accept(key, 10_000, 10_000);
+		service.stopListening(key);
+
+		byte[] packet = new byte[packetSize];
+		ByteBuffer.wrap(packet).putInt(packetSize);
+
+		long[] nanos = new long[roundTrips];
+		for(int i = 0; i < roundTrips; i++)
+		{
+			ByteBuffer.wrap(packet).putInt(4, i);
+			long start = System.nanoTime();
+			connection.writePacket(packet);
+			connection.readPacket();
+			nanos[i] = System.nanoTime() - start;
+		}
+		connection.close();
+		debuggee.join();
+
+		if(print)
+		{
+			Arrays.sort(nanos);
+			System.out.printf("%-14s p50 %6.1f us  p99 %6.1f us  p99.9 %6.1f us%n", name, nanos[roundTrips / 2] / 1000.0, nanos[(int) (roundTrips * 0.99)] / 1000.0, nanos[(int) (roundTrips * 0.999)] / 1000.0);
+		}
+	}
+
+	private static void echo(SocketAddress address)
+	{
+		try (SocketChannel channel = SocketChannel.open(address))
+		{
+			if(channel.getLocalAddress() instanceof InetSocketAddress)
+			{
+				channel.socket().setTcpNoDelay(true);
+			}
+
+			ByteBuffer handshake = ByteBuffer.allocate("DWP-Handshake".length());
+			readFully(channel, handshake);
+			handshake.flip();
+			channel.write(handshake);
+
+			ByteBuffer header = ByteBuffer.allocate(4);
+			while(true)
+			{
+				header.clear();
+				if(!readFully(channel, header))
+				{
+					return;
+				}
+				ByteBuffer body = ByteBuffer.allocate(header.getInt(0));
+				body.put(header.array());
+				readFully(channel, body);
+				// mark it as a reply with no error
+				body.put(8, (byte) 0x80);
+				body.putShort(9, (short) 0);
+				body.flip();
+				while(body.hasRemaining())
+				{
+					channel.write(body);
+				}
+			}
+		}
+		catch(IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	private static boolean readFully(SocketChannel channel, ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			if(channel.read(buffer) < 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}